@@ -19,25 +19,28 @@
 package fr.cnes.regards.modules.backendforfrontend.rest;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import feign.Response;
 import fr.cnes.regards.framework.security.annotation.ResourceAccess;
 import fr.cnes.regards.framework.security.role.DefaultRole;
-import fr.cnes.regards.framework.urn.EntityType;
-import fr.cnes.regards.framework.urn.UniformResourceName;
 import fr.cnes.regards.framework.utils.RsRuntimeException;
 import fr.cnes.regards.modules.access.services.client.cache.CacheableServiceAggregatorClient;
 import fr.cnes.regards.modules.access.services.domain.aggregator.PluginServiceDto;
-import fr.cnes.regards.modules.search.client.ILegacySearchEngineJsonClient;
+import fr.cnes.regards.modules.search.client.ILegacySearchEngineRawJsonClient;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -45,15 +48,21 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 
-import java.util.Arrays;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 /**
  * Controller proxying rs-catalog's CatalogController in order to inject services.
+ * <p>
+ * Search results are copied as a stream from rs-catalog response to the client response, the applicable services are
+ * injected on the fly by {@link ApplicableServicesInjector}.
  *
  * @author Xavier-Alexandre Brochard
  */
@@ -77,21 +86,14 @@ public class AccessSearchController {
 
     public static final String SEARCH = "/search";
 
-    /**
-     * Function converting a {@link JsonArray} into a {@link Stream}
-     */
-    private static final Function<JsonArray, Stream<JsonElement>> JSON_ARRAY_TO_STREAM = pJsonArray -> StreamSupport.stream(
-        pJsonArray.spliterator(),
-        false);
-
     private CacheableServiceAggregatorClient serviceAggregatorClient;
 
-    private ILegacySearchEngineJsonClient searchClient;
+    private ILegacySearchEngineRawJsonClient searchClient;
 
     private Gson gson;
 
     public AccessSearchController(CacheableServiceAggregatorClient serviceAggregatorClient,
-                                  ILegacySearchEngineJsonClient searchClient,
+                                  ILegacySearchEngineRawJsonClient searchClient,
                                   Gson gson) {
         this.serviceAggregatorClient = serviceAggregatorClient;
         this.searchClient = searchClient;
@@ -105,7 +107,7 @@ public class AccessSearchController {
      * Also injects the applicable Ui Services and Catalog Services.
      *
      * @param allParams all query parameters
-     * @return the search result with services injected
+     * @param response  the response in which the search result is written with services injected
      */
     @RequestMapping(path = SEARCH, method = RequestMethod.GET)
     @ResourceAccess(description =
@@ -117,12 +119,10 @@ public class AccessSearchController {
                              + "objects can be any mix of collection, dataset, dataobject and document. Injects applicable "
                              + "UI Services and Catalog Services.")
     @ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Data in JSON format") })
-    public ResponseEntity<JsonObject> searchAll(@RequestParam(required = false) MultiValueMap<String, String> allParams)
-        throws HttpClientErrorException, HttpServerErrorException {
-        JsonObject entities = searchClient.searchAll(allParams).getBody();
-        injectApplicableServices(entities);
-        return new ResponseEntity<>(entities, HttpStatus.OK);
-
+    public void searchAll(@RequestParam(required = false) MultiValueMap<String, String> allParams,
+                          HttpServletResponse response)
+        throws HttpClientErrorException, HttpServerErrorException, IOException {
+        injectApplicableServices(searchClient.searchAll(allParams), response);
     }
 
     /**
@@ -131,7 +131,7 @@ public class AccessSearchController {
      * Also injects the applicable Ui Services and Catalog Services.
      *
      * @param allParams all query parameters
-     * @return the search result with services injected
+     * @param response  the response in which the search result is written with services injected
      */
     @RequestMapping(path = COLLECTIONS_SEARCH, method = RequestMethod.GET)
     @ResourceAccess(description =
@@ -141,11 +141,10 @@ public class AccessSearchController {
                description = "Perform an OpenSearch request on collections. Injects applicable UI Services and Catalog "
                              + "Services.")
     @ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Data in JSON format") })
-    public ResponseEntity<JsonObject> searchCollections(@RequestParam MultiValueMap<String, String> allParams)
-        throws HttpClientErrorException, HttpServerErrorException {
-        JsonObject entities = searchClient.searchCollections(allParams).getBody();
-        injectApplicableServices(entities);
-        return new ResponseEntity<>(entities, HttpStatus.OK);
+    public void searchCollections(@RequestParam MultiValueMap<String, String> allParams,
+                                  HttpServletResponse response)
+        throws HttpClientErrorException, HttpServerErrorException, IOException {
+        injectApplicableServices(searchClient.searchCollections(allParams), response);
     }
 
     /**
@@ -154,7 +153,7 @@ public class AccessSearchController {
      * Also injects the applicable Ui Services and Catalog Services.
      *
      * @param allParams all query parameters
-     * @return the search result with services injected
+     * @param response  the response in which the search result is written with services injected
      */
     @RequestMapping(path = DATASETS_SEARCH, method = RequestMethod.GET)
     @ResourceAccess(description =
@@ -164,11 +163,10 @@ public class AccessSearchController {
                description = "Perform an OpenSearch request on datasets. Injects applicable UI Services and Catalog "
                              + "Services.")
     @ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Data in JSON format") })
-    public ResponseEntity<JsonObject> searchDatasets(@RequestParam MultiValueMap<String, String> allParams)
-        throws HttpClientErrorException, HttpServerErrorException {
-        JsonObject entities = searchClient.searchDatasets(allParams).getBody();
-        injectApplicableServices(entities);
-        return new ResponseEntity<>(entities, HttpStatus.OK);
+    public void searchDatasets(@RequestParam MultiValueMap<String, String> allParams,
+                               HttpServletResponse response)
+        throws HttpClientErrorException, HttpServerErrorException, IOException {
+        injectApplicableServices(searchClient.searchDatasets(allParams), response);
     }
 
     /**
@@ -177,7 +175,7 @@ public class AccessSearchController {
      * Also injects the applicable Ui Services and Catalog Services.
      *
      * @param allParams a MultiValueMap containing all request params (multi-valued because of multi "sort" params)
-     * @return the search result with services injected
+     * @param response  the response in which the search result is written with services injected
      */
     @RequestMapping(path = DATAOBJECTS_SEARCH, method = RequestMethod.GET)
     @ResourceAccess(description = "Endpoint to perform an OpenSearch request on dataobjects. Only return required "
@@ -187,11 +185,10 @@ public class AccessSearchController {
                description = "Perform an OpenSearch request on dataobjects. Only return required facets. Injects "
                              + "applicable UI Services and Catalog Services.")
     @ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Data in JSON format") })
-    public ResponseEntity<JsonObject> searchDataobjects(@RequestParam MultiValueMap<String, String> allParams)
-        throws HttpClientErrorException, HttpServerErrorException {
-        JsonObject entities = searchClient.searchDataObjects(allParams).getBody();
-        injectApplicableServices(entities);
-        return new ResponseEntity<>(entities, HttpStatus.OK);
+    public void searchDataobjects(@RequestParam MultiValueMap<String, String> allParams,
+                                  HttpServletResponse response)
+        throws HttpClientErrorException, HttpServerErrorException, IOException {
+        injectApplicableServices(searchClient.searchDataObjects(allParams), response);
     }
 
     /**
@@ -201,7 +198,7 @@ public class AccessSearchController {
      * Also injects the applicable Ui Services and Catalog Services.
      *
      * @param allParams all query parameters
-     * @return the search result with services injected
+     * @param response  the response in which the search result is written with services injected
      */
     @RequestMapping(path = DATAOBJECTS_DATASETS_SEARCH, method = RequestMethod.GET)
     @ResourceAccess(description = "Endpoint to perform an joined OpenSearch request. The search will be performed on "
@@ -211,58 +208,76 @@ public class AccessSearchController {
                description = "Perform an joined OpenSearch request. The search will be performed on dataobjects "
                              + "attributes, but will return the associated datasets. Injects applicable UI Services and Catalog Services.")
     @ApiResponses(value = { @ApiResponse(responseCode = "200", description = "Data in JSON format") })
-    public ResponseEntity<JsonObject> searchDataobjectsReturnDatasets(
-        @RequestParam MultiValueMap<String, String> allParams)
-        throws HttpClientErrorException, HttpServerErrorException {
-        JsonObject entities = searchClient.searchDataobjectsReturnDatasets(allParams).getBody();
-        injectApplicableServices(entities);
-        return new ResponseEntity<>(entities, HttpStatus.OK);
+    public void searchDataobjectsReturnDatasets(
+        @RequestParam MultiValueMap<String, String> allParams,
+        HttpServletResponse response)
+        throws HttpClientErrorException, HttpServerErrorException, IOException {
+        injectApplicableServices(searchClient.searchDataobjectsReturnDatasets(allParams), response);
     }
 
     /**
-     * Inject applicable Ui Services and Catalog Services into given entities
+     * Copy the given search result into the given response, injecting applicable Ui Services and Catalog Services into
+     * its entities
      *
-     * @param entities The list of entities, represented as a {@link JsonObject} wrapped in a {@link ResponseEntity}
+     * @param searchResponse the raw search result of rs-catalog
+     * @param response       the response to write
      */
-    private void injectApplicableServices(JsonObject entities) {
-        if (entities != null) {
-            try (Stream<JsonElement> elements = JSON_ARRAY_TO_STREAM.apply(entities.get("content").getAsJsonArray())) {
-                elements.map(JsonElement::getAsJsonObject)
-                        .map(element -> element.get("content"))
-                        .map(JsonElement::getAsJsonObject)
-                        .forEach(element -> element.add("services", entityToApplicableServices(element)));
+    private void injectApplicableServices(Response searchResponse, HttpServletResponse response) throws IOException {
+        try (searchResponse) {
+            if (searchResponse.status() >= HttpStatus.BAD_REQUEST.value()) {
+                throw toHttpException(searchResponse);
+            }
+            if (searchResponse.body() == null) {
+                throw new RsRuntimeException("An error occurred while injecting application services: search result "
+                                             + "is empty");
+            }
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            Writer output = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(),
+                                                                      StandardCharsets.UTF_8));
+            try (JsonReader reader = new JsonReader(new InputStreamReader(searchResponse.body().asInputStream(),
+                                                                          StandardCharsets.UTF_8));
+                JsonWriter writer = new JsonWriter(output)) {
+                new ApplicableServicesInjector(gson, this::retrieveDatasetServices).inject(reader, writer);
             }
-        } else {
-            throw new RsRuntimeException("An error occurred while injecting application services: pEntities is null");
         }
     }
 
     /**
-     * Returns the applicable services of the given entity
+     * Returns the applicable services of the given dataset
      *
-     * @param pEntity The entity, represented as a {@link JsonObject}
-     * @return The list of applicable services, represented as a {@link JsonObject}
+     * @param datasetIpId the URN of the dataset
+     * @return the list of applicable services
      */
-    private JsonElement entityToApplicableServices(JsonObject pEntity) {
-        List<EntityModel<PluginServiceDto>> applicableServices = JSON_ARRAY_TO_STREAM.apply(pEntity.get("tags")
-                                                                                                   .getAsJsonArray()) // Retrieve tags list and convert it to stream
-                                                                                     .filter(jsonElement -> !jsonElement.isJsonNull())
-                                                                                     .map(JsonElement::getAsString) // Convert elements of the stream to strings
-                                                                                     .filter(UniformResourceName::isValidUrn) // Only keep URNs
-                                                                                     .map(UniformResourceName::fromString) // Convert elements of the stream to URNs
-                                                                                     .filter(urn -> EntityType.DATASET.equals(
-                                                                                         urn.getEntityType())) // Only keep URNs of datasets
-                                                                                     .map(UniformResourceName::toString) // Go back to strings
-                                                                                     .distinct() // Remove doubles
-                                                                                     .map(datasetIpId -> serviceAggregatorClient.retrieveServices(
-                                                                                         Arrays.asList(datasetIpId),
-                                                                                         null))
-                                                                                     .map(ResponseEntity::getBody)
-                                                                                     .flatMap(List::stream) // Now each element of the stream is a List of services, so we flatten the structure in a stream of services
-                                                                                     .distinct() // Remove doubles
-                                                                                     .collect(Collectors.toList());
+    private List<EntityModel<PluginServiceDto>> retrieveDatasetServices(String datasetIpId) {
+        ResponseEntity<List<EntityModel<PluginServiceDto>>> services = serviceAggregatorClient.retrieveServices(List.of(
+            datasetIpId), null);
+        return services.getBody() == null ? Collections.emptyList() : services.getBody();
+    }
 
-        return gson.toJsonTree(applicableServices);
+    /**
+     * Build the exception handled by {@link BackendForFrontendControllerAdvice} from an error response of rs-catalog
+     */
+    private static RuntimeException toHttpException(Response searchResponse) throws IOException {
+        HttpStatusCode status = HttpStatusCode.valueOf(searchResponse.status());
+        HttpHeaders headers = new HttpHeaders();
+        searchResponse.headers().forEach((name, values) -> headers.put(name, new ArrayList<>(values)));
+        byte[] body = searchResponse.body() == null ?
+            new byte[0] :
+            StreamUtils.copyToByteArray(searchResponse.body().asInputStream());
+        if (status.is4xxClientError()) {
+            return HttpClientErrorException.create(status,
+                                                   searchResponse.reason(),
+                                                   headers,
+                                                   body,
+                                                   StandardCharsets.UTF_8);
+        }
+        return HttpServerErrorException.create(status,
+                                               searchResponse.reason(),
+                                               headers,
+                                               body,
+                                               StandardCharsets.UTF_8);
     }
 
 }
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.backendforfrontend.rest;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import fr.cnes.regards.framework.urn.EntityType;
+import fr.cnes.regards.framework.urn.UniformResourceName;
+import fr.cnes.regards.modules.access.services.domain.aggregator.PluginServiceDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.hateoas.EntityModel;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Copy a catalog search result page token by token, injecting the applicable services of each entity.<br/>
+ * The "services" member is appended to each <code>content[].content</code> entity from the dataset URNs found in its
+ * tags. The services of each distinct dataset are only looked up once for the whole page.
+ * <p>
+ * The page is written while services are looked up, so a failing lookup cannot turn the response into an error
+ * anymore : entities of a dataset whose services cannot be retrieved are written without services.
+ * <p>
+ * An instance handles one page and is not thread safe.
+ */
+class ApplicableServicesInjector {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ApplicableServicesInjector.class);
+
+    static final String CONTENT = "content";
+
+    static final String TAGS = "tags";
+
+    static final String SERVICES = "services";
+
+    private static final Type SERVICES_TYPE = new TypeToken<List<EntityModel<PluginServiceDto>>>() {
+
+    }.getType();
+
+    /**
+     * Position in the page of the JSON value being copied
+     */
+    private enum Level {
+        PAGE, PAGE_CONTENT, ENTITY, ENTITY_CONTENT, OTHER
+    }
+
+    private final Gson gson;
+
+    private final Function<String, List<EntityModel<PluginServiceDto>>> servicesLookup;
+
+    /**
+     * Services of the datasets already met in the page
+     */
+    private final Map<String, List<EntityModel<PluginServiceDto>>> servicesByDataset = new HashMap<>();
+
+    /**
+     * @param gson           used to write the services
+     * @param servicesLookup returns the services applicable to the given dataset URN
+     */
+    ApplicableServicesInjector(Gson gson, Function<String, List<EntityModel<PluginServiceDto>>> servicesLookup) {
+        this.gson = gson;
+        this.servicesLookup = servicesLookup;
+    }
+
+    /**
+     * Copy the search result page from the given reader to the given writer, injecting the applicable services.
+     */
+    void inject(JsonReader in, JsonWriter out) throws IOException {
+        // Keep null members of the search result
+        out.setSerializeNulls(true);
+        copyValue(in, out, Level.PAGE);
+        if (in.peek() != JsonToken.END_DOCUMENT) {
+            throw new JsonParseException("Unexpected content after search result at " + in.getPath());
+        }
+        out.flush();
+    }
+
+    private void copyValue(JsonReader in, JsonWriter out, Level level) throws IOException {
+        switch (in.peek()) {
+            case BEGIN_OBJECT -> copyObject(in, out, level);
+            case BEGIN_ARRAY -> copyArray(in, out, level == Level.PAGE_CONTENT ? Level.ENTITY : Level.OTHER);
+            case STRING -> out.value(in.nextString());
+            // Keep the number as written by the catalog
+            case NUMBER -> out.jsonValue(in.nextString());
+            case BOOLEAN -> out.value(in.nextBoolean());
+            case NULL -> {
+                in.nextNull();
+                out.nullValue();
+            }
+            default -> throw new JsonParseException("Unexpected token " + in.peek() + " at " + in.getPath());
+        }
+    }
+
+    private void copyArray(JsonReader in, JsonWriter out, Level elementLevel) throws IOException {
+        in.beginArray();
+        out.beginArray();
+        while (in.hasNext()) {
+            copyValue(in, out, elementLevel);
+        }
+        in.endArray();
+        out.endArray();
+    }
+
+    private void copyObject(JsonReader in, JsonWriter out, Level level) throws IOException {
+        boolean entity = level == Level.ENTITY_CONTENT;
+        Set<String> datasets = entity ? new LinkedHashSet<>() : Collections.emptySet();
+        in.beginObject();
+        out.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (entity && SERVICES.equals(name)) {
+                // Replaced by the injected services
+                in.skipValue();
+            } else {
+                out.name(name);
+                if (entity && TAGS.equals(name) && (in.peek() == JsonToken.BEGIN_ARRAY)) {
+                    copyTags(in, out, datasets);
+                } else {
+                    copyValue(in, out, memberLevel(level, name));
+                }
+            }
+        }
+        if (entity) {
+            out.name(SERVICES);
+            gson.toJson(getServices(datasets), SERVICES_TYPE, out);
+        }
+        in.endObject();
+        out.endObject();
+    }
+
+    private static Level memberLevel(Level level, String name) {
+        if (CONTENT.equals(name)) {
+            if (level == Level.PAGE) {
+                return Level.PAGE_CONTENT;
+            } else if (level == Level.ENTITY) {
+                return Level.ENTITY_CONTENT;
+            }
+        }
+        return Level.OTHER;
+    }
+
+    /**
+     * Copy the tags of an entity, collecting the URNs of the datasets
+     */
+    private void copyTags(JsonReader in, JsonWriter out, Set<String> datasets) throws IOException {
+        in.beginArray();
+        out.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() == JsonToken.STRING) {
+                String tag = in.nextString();
+                out.value(tag);
+                if (UniformResourceName.isValidUrn(tag)) {
+                    UniformResourceName urn = UniformResourceName.fromString(tag);
+                    if (EntityType.DATASET.equals(urn.getEntityType())) {
+                        datasets.add(urn.toString());
+                    }
+                }
+            } else {
+                copyValue(in, out, Level.OTHER);
+            }
+        }
+        in.endArray();
+        out.endArray();
+    }
+
+    private List<EntityModel<PluginServiceDto>> getServices(Set<String> datasets) {
+        if (datasets.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (datasets.size() == 1) {
+            return getDatasetServices(datasets.iterator().next());
+        }
+        return datasets.stream().map(this::getDatasetServices).flatMap(List::stream).distinct().toList();
+    }
+
+    private List<EntityModel<PluginServiceDto>> getDatasetServices(String dataset) {
+        return servicesByDataset.computeIfAbsent(dataset, datasetIpId -> {
+            List<EntityModel<PluginServiceDto>> services;
+            try {
+                services = servicesLookup.apply(datasetIpId);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Unable to retrieve applicable services of dataset {}, its entities are returned without "
+                            + "services", datasetIpId, e);
+                return Collections.emptyList();
+            }
+            return services == null ? Collections.emptyList() : services.stream().distinct().toList();
+        });
+    }
+}
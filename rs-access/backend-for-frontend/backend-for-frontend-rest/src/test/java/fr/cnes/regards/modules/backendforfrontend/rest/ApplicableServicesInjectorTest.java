@@ -0,0 +1,212 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.backendforfrontend.rest;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import fr.cnes.regards.framework.gson.GsonCustomizer;
+import fr.cnes.regards.modules.access.services.domain.aggregator.PluginServiceDto;
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.hateoas.EntityModel;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Test for {@link ApplicableServicesInjector}.
+ * TEST PLAN :
+ * <ul>
+ *  <li>Nominal cases :
+ *    <ul>
+ *      <li>{@link #givenSearchResult_whenInjected_thenServicesOfDatasetTagsAdded()}</li>
+ *      <li>{@link #givenEntitiesOfSameDatasets_whenInjected_thenServicesLookedUpOncePerDataset()}</li>
+ *      <li>{@link #givenOtherMembers_whenInjected_thenCopiedAsIs()}</li>
+ *    </ul></li>
+ *  <li>Error cases :
+ *    <ul>
+ *      <li>{@link #givenFailingLookup_whenInjected_thenEntitiesWrittenWithoutServices()}</li>
+ *    </ul></li>
+ * </ul>
+ */
+public class ApplicableServicesInjectorTest {
+
+    private static final String DATASET_0 = BackendForFrontendTestUtils.DATASET_0.getIpId().toString();
+
+    private static final String DATASET_1 = BackendForFrontendTestUtils.DATASET_1.getIpId().toString();
+
+    private final Gson gson = GsonCustomizer.gsonBuilder(Optional.empty(), Optional.empty()).create();
+
+    private final List<String> lookups = new ArrayList<>();
+
+    @Before
+    public void init() {
+        lookups.clear();
+    }
+
+    @Test
+    public void givenSearchResult_whenInjected_thenServicesOfDatasetTagsAdded() throws IOException {
+        // --- GIVEN ---
+        JsonObject searchResult = BackendForFrontendTestUtils.SEARCH_ALL_RESULT.getBody();
+
+        // --- WHEN ---
+        JsonObject result = inject(searchResult.toString()).getAsJsonObject();
+
+        // --- THEN ---
+        JsonObject dataObject = entity(result, 0);
+        JsonObject collection = entity(result, 1);
+        Assertions.assertThat(dataObject.get(ApplicableServicesInjector.SERVICES))
+                  .isEqualTo(gson.toJsonTree(BackendForFrontendTestUtils.SERVICES_FOR_DATASET_0.getBody()));
+        Assertions.assertThat(collection.get(ApplicableServicesInjector.SERVICES))
+                  .isEqualTo(gson.toJsonTree(BackendForFrontendTestUtils.SERVICES_FOR_DATASET_1.getBody()));
+        // Apart from services, the search result is unchanged
+        dataObject.remove(ApplicableServicesInjector.SERVICES);
+        collection.remove(ApplicableServicesInjector.SERVICES);
+        Assertions.assertThat(result).isEqualTo(searchResult);
+    }
+
+    @Test
+    public void givenEntitiesOfSameDatasets_whenInjected_thenServicesLookedUpOncePerDataset() throws IOException {
+        // --- GIVEN ---
+        String searchResult = String.format("{\"content\": [%s, %s, %s, %s]}",
+                                            entityJson(DATASET_0),
+                                            entityJson(DATASET_0, "string_tag"),
+                                            entityJson(DATASET_0, DATASET_1, DATASET_0),
+                                            entityJson("string_tag"));
+
+        // --- WHEN ---
+        JsonObject result = inject(searchResult).getAsJsonObject();
+
+        // --- THEN ---
+        Assertions.assertThat(lookups).containsExactly(DATASET_0, DATASET_1);
+        JsonElement servicesOfDataset0 = gson.toJsonTree(BackendForFrontendTestUtils.SERVICES_FOR_DATASET_0.getBody());
+        Assertions.assertThat(entity(result, 0).get(ApplicableServicesInjector.SERVICES)).isEqualTo(servicesOfDataset0);
+        Assertions.assertThat(entity(result, 1).get(ApplicableServicesInjector.SERVICES)).isEqualTo(servicesOfDataset0);
+        Assertions.assertThat(entity(result, 2).getAsJsonArray(ApplicableServicesInjector.SERVICES)).hasSize(3);
+        Assertions.assertThat(entity(result, 3).getAsJsonArray(ApplicableServicesInjector.SERVICES)).isEmpty();
+    }
+
+    @Test
+    public void givenOtherMembers_whenInjected_thenCopiedAsIs() throws IOException {
+        // --- GIVEN ---
+        String searchResult = "{\"metadata\": {\"size\": 1, \"totalElements\": 12345678901234567890, "
+                              + "\"content\": [\"not\", \"entities\"]}, \"content\": [{\"content\": {\"label\": null, "
+                              + "\"value\": 1.50, \"tags\": [null, 12, \""
+                              + DATASET_1
+                              + "\"], \"services\": [\"upstream\"], \"properties\": {\"content\": {\"tags\": [\""
+                              + DATASET_0
+                              + "\"]}}}, \"links\": []}], \"links\": [{\"content\": {}}]}";
+
+        // --- WHEN ---
+        String result = injectToString(searchResult);
+
+        // --- THEN ---
+        Assertions.assertThat(lookups).containsExactly(DATASET_1);
+        JsonObject expected = JsonParser.parseString(searchResult).getAsJsonObject();
+        entity(expected, 0).add(ApplicableServicesInjector.SERVICES,
+                                gson.toJsonTree(BackendForFrontendTestUtils.SERVICES_FOR_DATASET_1.getBody()));
+        Assertions.assertThat(JsonParser.parseString(result)).isEqualTo(expected);
+        Assertions.assertThat(result)
+                  .contains("\"totalElements\":12345678901234567890")
+                  .contains("\"label\":null")
+                  .contains("\"value\":1.50");
+    }
+
+    @Test
+    public void givenFailingLookup_whenInjected_thenEntitiesWrittenWithoutServices() throws IOException {
+        // --- GIVEN ---
+        String searchResult = String.format("{\"content\": [%s, %s, %s], \"links\": []}",
+                                            entityJson(DATASET_0),
+                                            entityJson(DATASET_1),
+                                            entityJson(DATASET_0));
+        StringWriter out = new StringWriter();
+
+        // --- WHEN ---
+        try (JsonReader reader = new JsonReader(new StringReader(searchResult));
+            JsonWriter writer = new JsonWriter(out)) {
+            new ApplicableServicesInjector(gson, datasetIpId -> {
+                if (DATASET_0.equals(datasetIpId)) {
+                    lookups.add(datasetIpId);
+                    throw new IllegalStateException("Service aggregator unavailable");
+                }
+                return lookup(datasetIpId);
+            }).inject(reader, writer);
+        }
+
+        // --- THEN ---
+        // The whole page is written, the failing dataset is only looked up once
+        JsonObject result = JsonParser.parseString(out.toString()).getAsJsonObject();
+        Assertions.assertThat(lookups).containsExactly(DATASET_0, DATASET_1);
+        Assertions.assertThat(result.getAsJsonArray(ApplicableServicesInjector.CONTENT)).hasSize(3);
+        Assertions.assertThat(result.has("links")).isTrue();
+        Assertions.assertThat(entity(result, 0).getAsJsonArray(ApplicableServicesInjector.SERVICES)).isEmpty();
+        Assertions.assertThat(entity(result, 1).get(ApplicableServicesInjector.SERVICES))
+                  .isEqualTo(gson.toJsonTree(BackendForFrontendTestUtils.SERVICES_FOR_DATASET_1.getBody()));
+        Assertions.assertThat(entity(result, 2).getAsJsonArray(ApplicableServicesInjector.SERVICES)).isEmpty();
+    }
+
+    private static String entityJson(String... tags) {
+        StringBuilder json = new StringBuilder("{\"content\": {\"tags\": [");
+        for (int i = 0; i < tags.length; i++) {
+            json.append(i == 0 ? "\"" : ", \"").append(tags[i]).append('"');
+        }
+        return json.append("]}}").toString();
+    }
+
+    private static JsonObject entity(JsonObject searchResult, int index) {
+        return searchResult.getAsJsonArray(ApplicableServicesInjector.CONTENT)
+                           .get(index)
+                           .getAsJsonObject()
+                           .getAsJsonObject(ApplicableServicesInjector.CONTENT);
+    }
+
+    private JsonElement inject(String searchResult) throws IOException {
+        return JsonParser.parseString(injectToString(searchResult));
+    }
+
+    private String injectToString(String searchResult) throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonReader reader = new JsonReader(new StringReader(searchResult));
+            JsonWriter writer = new JsonWriter(out)) {
+            new ApplicableServicesInjector(gson, this::lookup).inject(reader, writer);
+        }
+        return out.toString();
+    }
+
+    private List<EntityModel<PluginServiceDto>> lookup(String datasetIpId) {
+        lookups.add(datasetIpId);
+        if (DATASET_0.equals(datasetIpId)) {
+            return BackendForFrontendTestUtils.SERVICES_FOR_DATASET_0.getBody();
+        }
+        if (DATASET_1.equals(datasetIpId)) {
+            return BackendForFrontendTestUtils.SERVICES_FOR_DATASET_1.getBody();
+        }
+        return Collections.emptyList();
+    }
+}
@@ -18,17 +18,24 @@
  */
 package fr.cnes.regards.modules.backendforfrontend.rest;
 
+import com.google.gson.JsonObject;
+import feign.Request;
+import feign.Response;
 import fr.cnes.regards.modules.access.services.client.IServiceAggregatorClient;
 import fr.cnes.regards.modules.access.services.client.cache.CacheableServiceAggregatorClient;
 import fr.cnes.regards.modules.notifier.client.IRecipientClient;
-import fr.cnes.regards.modules.search.client.ILegacySearchEngineJsonClient;
+import fr.cnes.regards.modules.search.client.ILegacySearchEngineRawJsonClient;
 import fr.cnes.regards.modules.toponyms.client.IToponymsClient;
 import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.http.ResponseEntity;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 
 /**
  * Module-wide configuration for integration tests.
@@ -55,20 +62,36 @@ public class BackendForFrontendTestConfiguration {
     }
 
     @Bean
-    public ILegacySearchEngineJsonClient searchClient() {
-        ILegacySearchEngineJsonClient mock = Mockito.mock(ILegacySearchEngineJsonClient.class);
-        Mockito.when(mock.searchAll(Mockito.any())).thenReturn(BackendForFrontendTestUtils.SEARCH_ALL_RESULT);
-        Mockito.when(mock.searchAll(Mockito.any())).thenReturn(BackendForFrontendTestUtils.SEARCH_ALL_RESULT);
+    public ILegacySearchEngineRawJsonClient searchClient() {
+        ILegacySearchEngineRawJsonClient mock = Mockito.mock(ILegacySearchEngineRawJsonClient.class);
+        Mockito.when(mock.searchAll(Mockito.any())).then(toResponse(BackendForFrontendTestUtils.SEARCH_ALL_RESULT));
         Mockito.when(mock.searchCollections(Mockito.any()))
-               .thenReturn(BackendForFrontendTestUtils.SEARCH_COLLECTIONS_RESULT);
-        Mockito.when(mock.searchDatasets(Mockito.any())).thenReturn(BackendForFrontendTestUtils.SEARCH_DATASETS_RESULT);
+               .then(toResponse(BackendForFrontendTestUtils.SEARCH_COLLECTIONS_RESULT));
+        Mockito.when(mock.searchDatasets(Mockito.any()))
+               .then(toResponse(BackendForFrontendTestUtils.SEARCH_DATASETS_RESULT));
         Mockito.when(mock.searchDataObjects(Mockito.any()))
-               .thenReturn(BackendForFrontendTestUtils.SEARCH_DATAOBJECTS_RESULT);
+               .then(toResponse(BackendForFrontendTestUtils.SEARCH_DATAOBJECTS_RESULT));
         Mockito.when(mock.searchDataobjectsReturnDatasets(Mockito.any()))
-               .thenReturn(BackendForFrontendTestUtils.SEARCH_DATASETS_RESULT);
+               .then(toResponse(BackendForFrontendTestUtils.SEARCH_DATASETS_RESULT));
         return mock;
     }
 
+    /**
+     * Each call returns a new raw response, as its body can only be read once
+     */
+    private static Answer<Response> toResponse(ResponseEntity<JsonObject> result) {
+        return invocation -> Response.builder()
+                                     .status(result.getStatusCode().value())
+                                     .request(Request.create(Request.HttpMethod.GET,
+                                                             "/search",
+                                                             Collections.emptyMap(),
+                                                             null,
+                                                             StandardCharsets.UTF_8,
+                                                             null))
+                                     .body(result.getBody().toString(), StandardCharsets.UTF_8)
+                                     .build();
+    }
+
     @Bean
     public IToponymsClient toponymsClient() {
         return Mockito.mock(IToponymsClient.class);
@@ -25,6 +25,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.OffsetDateTime;
 import java.util.List;
@@ -36,8 +37,14 @@ import java.util.Optional;
 @InstanceEntity
 public interface ToponymsRepository extends JpaRepository<Toponym, String>, JpaSpecificationExecutor<Toponym> {
 
+    /**
+     * Case insensitive search by partial label, backed by the trigram index on upper(label_fr)
+     */
     Page<Toponym> findByLabelFrContainingIgnoreCaseAndVisible(String partialLabel, boolean visible, Pageable page);
 
+    /**
+     * Case insensitive search by partial label, backed by the trigram index on upper(label)
+     */
     Page<Toponym> findByLabelContainingIgnoreCaseAndVisible(String partialLabel, boolean visible, Pageable page);
 
     @Query(value =
@@ -46,6 +53,24 @@ public interface ToponymsRepository extends JpaRepository<Toponym, String>, JpaS
                + "?1", nativeQuery = true)
     Optional<Toponym> findOneSimplified(String businessId, double tolerance);
 
+    /**
+     * Retrieve toponyms with simplified geometries by pages ordered by business identifier
+     *
+     * @param lastBusinessId business identifier of the last toponym of the previous page, empty for the first page
+     * @param size           maximum number of toponyms to retrieve
+     */
+    @Query(value =
+               "select bid, label, label_fr, public.ST_Simplify(geom, ?2,true) as geom, copyright, description, visible,"
+               + "creation_date, expiration_date, author, project, bounding_box from {h-schema}t_toponyms where "
+               + "visible = ?1 and bid > ?3 order by bid limit ?4", nativeQuery = true)
+    List<Toponym> findSimplifiedByVisibleAfter(boolean visible, double tolerance, String lastBusinessId, int size);
+
+    /**
+     * Retrieve a page of toponym business identifiers without loading their geometries
+     */
+    @Query(value = "select t.businessId from Toponym t where t.visible = :visible")
+    Page<String> findBusinessIdByVisible(@Param("visible") boolean visible, Pageable page);
+
     Page<Toponym> findByVisible(boolean visible, Pageable page);
 
     Page<Toponym> findByVisibleAndToponymMetadataExpirationDateBefore(boolean visible,
@@ -0,0 +1,4 @@
+-- Trigram indexes used by the case insensitive search of toponyms by partial label (upper(label) like '%TERM%')
+create extension if not exists pg_trgm schema public;
+create index if not exists idx_toponyms_label_trgm on ${flyway:defaultSchema}.t_toponyms using gin (upper(label) public.gin_trgm_ops);
+create index if not exists idx_toponyms_label_fr_trgm on ${flyway:defaultSchema}.t_toponyms using gin (upper(label_fr) public.gin_trgm_ops);
@@ -40,9 +40,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
 import org.springframework.data.domain.*;
 import org.springframework.data.domain.Sort.Direction;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
 import java.time.LocalDate;
@@ -50,19 +54,26 @@ import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
  * Service to search {@link ToponymDTO}s from a postgis database
+ * <p>
+ * Visible toponyms are reference data only updated by database migrations, so their {@link ToponymDTO}s are kept in
+ * memory with their simplified and listing geometries. Full geometries are not kept as they may be very large.
+ * Simplified geometries of all visible toponyms are computed once at startup.
  *
  * @author Sébastien Binda
  */
 @Service
 @RegardsTransactional
-public class ToponymsService {
+public class ToponymsService implements ApplicationListener<ApplicationReadyEvent> {
 
     /**
      * Toponyms repository
@@ -104,11 +115,70 @@ public class ToponymsService {
      */
     private static final int POINT_SAMPLING_FINDALL = 50;
 
+    /**
+     * Number of visible toponyms simplified at once at startup
+     */
+    private static final int SIMPLIFIED_TOPONYMS_PAGE_SIZE = 100;
+
     /**
      * LOGGER
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(ToponymsService.class);
 
+    /**
+     * Geometry variants of the {@link ToponymDTO}s kept in memory
+     */
+    private enum GeometryVariant {
+        /**
+         * Geometry sampled with {@link #POINT_SAMPLING_FINDALL} points, used to list toponyms
+         */
+        FIND_ALL,
+        /**
+         * Geometry simplified with the configured tolerance and sampling
+         */
+        SIMPLIFIED
+    }
+
+    private record VisibleToponymKey(String businessId, GeometryVariant variant) {
+
+    }
+
+    /**
+     * {@link ToponymDTO}s of visible toponyms. Visible toponyms are a fixed set of reference data, so both variants of
+     * all of them may be kept without eviction.
+     */
+    private final Map<VisibleToponymKey, ToponymDTO> visibleToponyms = new ConcurrentHashMap<>();
+
+    /**
+     * Compute the simplified geometries of the visible toponyms, so that the first requests of the map do not have to.
+     * Toponyms are read by pages, each one in its own transaction, so that only their DTOs are kept in memory.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        try {
+            int nbToponyms = 0;
+            String lastBusinessId = "";
+            List<Toponym> toponyms;
+            do {
+                toponyms = repository.findSimplifiedByVisibleAfter(true,
+                                                                   tolerance,
+                                                                   lastBusinessId,
+                                                                   SIMPLIFIED_TOPONYMS_PAGE_SIZE);
+                for (Toponym t : toponyms) {
+                    visibleToponyms.put(new VisibleToponymKey(t.getBusinessId(), GeometryVariant.SIMPLIFIED),
+                                        getToponymDTO(t, sampling));
+                    lastBusinessId = t.getBusinessId();
+                }
+                nbToponyms += toponyms.size();
+            } while (toponyms.size() == SIMPLIFIED_TOPONYMS_PAGE_SIZE);
+            LOGGER.info("Simplified geometries of {} visible toponyms computed", nbToponyms);
+        } catch (RuntimeException e) {
+            // Simplified geometries will be computed on demand
+            LOGGER.warn("Simplified geometries of visible toponyms could not be computed at startup", e);
+        }
+    }
+
     /**
      * Retrieve {@link Page} of {@link ToponymDTO}s
      *
@@ -122,13 +192,31 @@ public class ToponymsService {
         } else {
             page = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(Direction.ASC, "label"));
         }
-        Page<Toponym> toponymsPage = repository.findByVisible(visible, page);
-        return new PageImpl<ToponymDTO>(toponymsPage.getContent()
-                                                    .stream()
-                                                    .map(t -> getToponymDTO(t, POINT_SAMPLING_FINDALL))
-                                                    .collect(Collectors.toList()),
-                                        toponymsPage.getPageable(),
-                                        toponymsPage.getTotalElements());
+        if (!visible) {
+            Page<Toponym> toponymsPage = repository.findByVisible(visible, page);
+            return new PageImpl<ToponymDTO>(toponymsPage.getContent()
+                                                        .stream()
+                                                        .map(t -> getToponymDTO(t, POINT_SAMPLING_FINDALL))
+                                                        .collect(Collectors.toList()),
+                                            toponymsPage.getPageable(),
+                                            toponymsPage.getTotalElements());
+        }
+        // Only load the geometries of the visible toponyms not in cache
+        Page<VisibleToponymKey> keys = repository.findBusinessIdByVisible(visible, page)
+                                                 .map(bid -> new VisibleToponymKey(bid, GeometryVariant.FIND_ALL));
+        List<VisibleToponymKey> missingKeys = keys.stream().filter(key -> !visibleToponyms.containsKey(key)).toList();
+        if (!missingKeys.isEmpty()) {
+            visibleToponyms.putAll(loadFindAllToponyms(missingKeys));
+        }
+        return keys.map(visibleToponyms::get);
+    }
+
+    private Map<VisibleToponymKey, ToponymDTO> loadFindAllToponyms(Collection<VisibleToponymKey> keys) {
+        return repository.findAllById(keys.stream().map(VisibleToponymKey::businessId).toList())
+                         .stream()
+                         .collect(Collectors.toMap(t -> new VisibleToponymKey(t.getBusinessId(),
+                                                                              GeometryVariant.FIND_ALL),
+                                                   t -> getToponymDTO(t, POINT_SAMPLING_FINDALL)));
     }
 
     /**
@@ -140,6 +228,13 @@ public class ToponymsService {
      * @return {@link ToponymDTO}
      */
     public Optional<ToponymDTO> findOne(String businessId, boolean simplified) {
+        VisibleToponymKey key = new VisibleToponymKey(businessId, GeometryVariant.SIMPLIFIED);
+        if (simplified) {
+            ToponymDTO cachedToponym = visibleToponyms.get(key);
+            if (cachedToponym != null) {
+                return Optional.of(cachedToponym);
+            }
+        }
         Optional<Toponym> toponym;
         // check if geometry should be returned simplified
         if (!simplified) {
@@ -154,8 +249,13 @@ public class ToponymsService {
             if (!t.isVisible()) {
                 t.getToponymMetadata().setExpirationDate(OffsetDateTime.now().plusDays(this.defaultExpiration));
                 t = this.repository.save(t);
+                return Optional.of(getToponymDTO(t, sampling));
+            }
+            ToponymDTO toponymDTO = getToponymDTO(t, sampling);
+            if (simplified) {
+                visibleToponyms.put(key, toponymDTO);
             }
-            return Optional.of(getToponymDTO(t, sampling));
+            return Optional.of(toponymDTO);
         } else {
             return Optional.empty();
         }
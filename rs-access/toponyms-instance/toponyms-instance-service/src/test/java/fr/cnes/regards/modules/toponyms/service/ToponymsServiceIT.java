@@ -137,6 +137,22 @@ public class ToponymsServiceIT extends AbstractRegardsIT {
 
     }
 
+    @Test
+    @Purpose("Check that visible toponyms are cached for each geometry variant")
+    public void findVisibleToponymFromCache() {
+        ToponymDTO simplified = service.findOne("France", true).get();
+        ToponymDTO full = service.findOne("France", false).get();
+        Assert.assertSame(simplified, service.findOne("France", true).get());
+        Assert.assertSame(full, service.findOne("France", false).get());
+        Assert.assertNotSame(simplified, full);
+
+        Page<ToponymDTO> page = service.findAllByVisibility(LOCALE, TOPONYM_VISIBILITY, PageRequest.of(0, 10));
+        Assert.assertEquals(page.getContent(),
+                            service.findAllByVisibility(LOCALE, TOPONYM_VISIBILITY, PageRequest.of(0, 10))
+                                   .getContent());
+        Assert.assertTrue(page.getContent().stream().allMatch(t -> t.getGeometry() != null));
+    }
+
     // -----------------------------
     // --- CREATE VALID TOPONYMS ---
     // -----------------------------
@@ -19,12 +19,18 @@
 package fr.cnes.regards.modules.emails.dao;
 
 import fr.cnes.regards.framework.jpa.annotation.InstanceEntity;
+import fr.cnes.regards.modules.emails.dao.result.EmailRequestToSend;
 import fr.cnes.regards.modules.emails.domain.EmailRequest;
 import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -37,6 +43,32 @@ import java.util.List;
 @InstanceEntity
 public interface EmailRequestRepository extends JpaRepository<EmailRequest, Long> {
 
-    List<EmailRequest> findByNextTryDateBefore(OffsetDateTime currentDateTime);
+    /**
+     * Find a page of email requests to send, ordered by id. Attachments are not loaded, see
+     * {@link #findAttachmentById(Long)}.
+     *
+     * @param currentDateTime requests with a next try date before this date are returned
+     * @param lastId          only requests with an id greater than this one are returned (keyset pagination)
+     */
+    @Query("select new fr.cnes.regards.modules.emails.dao.result.EmailRequestToSend(e.id, e.to, e.from, e.cc, e.bcc, "
+           + "e.replyTo, e.subject, e.text, e.attachmentName, e.nbUnsuccessfullTry, e.nextTryDate) "
+           + "from EmailRequest e where e.nextTryDate < :currentDateTime and e.id > :lastId order by e.id")
+    List<EmailRequestToSend> findEmailRequestsToSend(@Param("currentDateTime") OffsetDateTime currentDateTime,
+                                                     @Param("lastId") Long lastId,
+                                                     Pageable pageable);
+
+    @Query("select e.attachment from EmailRequest e where e.id = :id")
+    byte[] findAttachmentById(@Param("id") Long id);
+
+    /**
+     * Postpone the next try of the given email requests by the given delay, from their current next try date.
+     */
+    @Modifying
+    @Query(value = "UPDATE {h-schema}t_email_requests SET nb_unsuccessfull_try = :nbUnsuccessfullTry, "
+                   + "next_try_date = next_try_date + make_interval(secs => :delay) WHERE id IN (:ids)",
+           nativeQuery = true)
+    void updateNextTry(@Param("ids") Collection<Long> ids,
+                       @Param("nbUnsuccessfullTry") int nbUnsuccessfullTry,
+                       @Param("delay") int delay);
 
 }
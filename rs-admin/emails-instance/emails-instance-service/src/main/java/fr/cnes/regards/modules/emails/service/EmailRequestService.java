@@ -23,9 +23,18 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -34,23 +43,31 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.annotation.Scope;
+import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.InputStreamSource;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.util.MimeType;
 
 import com.google.common.base.Throwables;
+import com.google.common.collect.Lists;
 import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import fr.cnes.regards.framework.jpa.utils.RegardsTransactional;
 import fr.cnes.regards.framework.notification.NotificationDTO;
 import fr.cnes.regards.framework.notification.NotificationLevel;
 import fr.cnes.regards.framework.security.role.DefaultRole;
 import fr.cnes.regards.framework.utils.RsRuntimeException;
 import fr.cnes.regards.modules.emails.dao.EmailRequestRepository;
+import fr.cnes.regards.modules.emails.dao.result.EmailRequestToSend;
 import fr.cnes.regards.modules.emails.domain.EmailRequest;
 import fr.cnes.regards.modules.emails.exception.RsEmailException;
 import fr.cnes.regards.modules.notification.service.IInstanceNotificationService;
@@ -66,6 +83,7 @@ import jakarta.mail.internet.MimeMessage;
 @Profile("!nomail")
 @Service
 @RegardsTransactional
+@Scope(proxyMode = ScopedProxyMode.TARGET_CLASS)
 public class EmailRequestService {
 
     /**
@@ -88,6 +106,11 @@ public class EmailRequestService {
      */
     private final IInstanceNotificationService instanceNotificationService;
 
+    /**
+     * Proxied instance of this service, used to handle each page of email requests in its own transaction
+     */
+    private final EmailRequestService self;
+
     @Value("${regards.mails.noreply.address:regards@noreply.fr}")
     private String defaultSender;
 
@@ -109,18 +132,33 @@ public class EmailRequestService {
     @Value("${regards.send.email.delay.third.range:86400}")
     private int thirdRangeDelayTrySend;
 
+    /**
+     * Number of email requests loaded and sent at a time by the scheduler
+     */
+    @Value("${regards.send.email.page.size:100}")
+    private int pageSize;
+
+    /**
+     * Number of SMTP connections used at the same time by the scheduler, each one sending a batch of emails
+     */
+    @Value("${regards.send.email.parallelism:4}")
+    private int parallelism;
+
     /**
      * Creates an {@link EmailRequestService} wired to the given {@link EmailRequestRepository} and the given {@link JavaMailSender}.
      *
      * @param emailRequestRepository Autowired by Spring. Must not be {@literal null}.
      * @param mailSender             Autowired by Spring. Must not be {@literal null}.
+     * @param emailRequestService    Proxied instance of this service, autowired by Spring.
      */
     public EmailRequestService(final EmailRequestRepository emailRequestRepository,
                                final JavaMailSender mailSender,
-                               final IInstanceNotificationService instanceNotificationService) {
+                               final IInstanceNotificationService instanceNotificationService,
+                               final EmailRequestService emailRequestService) {
         this.emailRequestRepository = emailRequestRepository;
         this.mailSender = mailSender;
         this.instanceNotificationService = instanceNotificationService;
+        this.self = emailRequestService;
     }
 
     /**
@@ -182,53 +220,64 @@ public class EmailRequestService {
                                     @Nullable String sender) throws RsEmailException {
 
         try {
-            MimeMessage mimeMsg = mailSender.createMimeMessage();
-            boolean withAttachment = (attachmentName != null) && (attachmentSource != null);
-            MimeMessageHelper mimeMsgHelper = new MimeMessageHelper(mimeMsg, withAttachment);
-
-            mimeMsgHelper.setText(mailMessage.getText(), true);
-            mimeMsgHelper.setTo(mailMessage.getTo());
-            String[] bcc = mailMessage.getBcc();
-            if (bcc != null) {
-                mimeMsgHelper.setBcc(bcc);
-            }
-            String[] cc = mailMessage.getCc();
-            if (cc != null) {
-                mimeMsgHelper.setCc(cc);
-            }
-            String from = mailMessage.getFrom();
-            if (StringUtils.isBlank(from)) {
-                mimeMsgHelper.setFrom(sender);
-            } else {
-                mimeMsgHelper.setFrom(from);
-            }
-            String replyTo = mailMessage.getReplyTo();
-            if (!StringUtils.isBlank(replyTo)) {
-                mimeMsgHelper.setReplyTo(replyTo);
-            }
-            Date sentDate = mailMessage.getSentDate();
-            if (sentDate != null) {
-                mimeMsgHelper.setSentDate(sentDate);
-            }
-            String subject = mailMessage.getSubject();
-            if (!StringUtils.isBlank(subject)) {
-                mimeMsgHelper.setSubject(subject);
-            }
-            if (withAttachment) {
-                mimeMsgHelper.addAttachment(attachmentName, attachmentSource);
-            }
             // Send email
-            mailSender.send(mimeMsg);
+            mailSender.send(createMimeMessage(mailMessage, attachmentName, attachmentSource, sender));
             LOGGER.info("Send a email : {}", mailMessage);
         } catch (MessagingException | MailException e) {
-            LOGGER.warn("Error while trying to send an email. Recipient: [{}] - Subject: [{}] - Root Cause: [{}]",
-                        mailMessage.getTo(),
-                        mailMessage.getSubject(),
-                        Throwables.getRootCause(e).toString());
+            logSendError(mailMessage, e);
             throw new RsEmailException(e);
         }
     }
 
+    private MimeMessage createMimeMessage(SimpleMailMessage mailMessage,
+                                          @Nullable String attachmentName,
+                                          @Nullable InputStreamSource attachmentSource,
+                                          @Nullable String sender) throws MessagingException {
+        MimeMessage mimeMsg = mailSender.createMimeMessage();
+        boolean withAttachment = (attachmentName != null) && (attachmentSource != null);
+        MimeMessageHelper mimeMsgHelper = new MimeMessageHelper(mimeMsg, withAttachment);
+
+        mimeMsgHelper.setText(mailMessage.getText(), true);
+        mimeMsgHelper.setTo(mailMessage.getTo());
+        String[] bcc = mailMessage.getBcc();
+        if (bcc != null) {
+            mimeMsgHelper.setBcc(bcc);
+        }
+        String[] cc = mailMessage.getCc();
+        if (cc != null) {
+            mimeMsgHelper.setCc(cc);
+        }
+        String from = mailMessage.getFrom();
+        if (StringUtils.isBlank(from)) {
+            mimeMsgHelper.setFrom(sender);
+        } else {
+            mimeMsgHelper.setFrom(from);
+        }
+        String replyTo = mailMessage.getReplyTo();
+        if (!StringUtils.isBlank(replyTo)) {
+            mimeMsgHelper.setReplyTo(replyTo);
+        }
+        Date sentDate = mailMessage.getSentDate();
+        if (sentDate != null) {
+            mimeMsgHelper.setSentDate(sentDate);
+        }
+        String subject = mailMessage.getSubject();
+        if (!StringUtils.isBlank(subject)) {
+            mimeMsgHelper.setSubject(subject);
+        }
+        if (withAttachment) {
+            mimeMsgHelper.addAttachment(attachmentName, attachmentSource);
+        }
+        return mimeMsg;
+    }
+
+    private void logSendError(SimpleMailMessage mailMessage, Exception e) {
+        LOGGER.warn("Error while trying to send an email. Recipient: [{}] - Subject: [{}] - Root Cause: [{}]",
+                    mailMessage.getTo(),
+                    mailMessage.getSubject(),
+                    Throwables.getRootCause(e).toString());
+    }
+
     /**
      * Create a domain {@link EmailRequest} with same content as the passed {@link SimpleMailMessage} in order to save it in
      * database.
@@ -285,15 +334,15 @@ public class EmailRequestService {
         return emailRequest;
     }
 
-    private SimpleMailMessage createMailMessageFromEmailRequest(EmailRequest emailRequest) {
+    private SimpleMailMessage createMailMessageFromEmailRequest(EmailRequestToSend emailRequest) {
         final SimpleMailMessage mailMessage = new SimpleMailMessage();
-        mailMessage.setTo(emailRequest.getTo());
-        mailMessage.setFrom(emailRequest.getFrom());
-        mailMessage.setBcc(emailRequest.getBcc());
-        mailMessage.setCc(emailRequest.getCc());
-        mailMessage.setSubject(emailRequest.getSubject());
-        mailMessage.setText(emailRequest.getText());
-        mailMessage.setReplyTo(emailRequest.getReplyTo());
+        mailMessage.setTo(emailRequest.to());
+        mailMessage.setFrom(emailRequest.from());
+        mailMessage.setBcc(emailRequest.bcc());
+        mailMessage.setCc(emailRequest.cc());
+        mailMessage.setSubject(emailRequest.subject());
+        mailMessage.setText(emailRequest.text());
+        mailMessage.setReplyTo(emailRequest.replyTo());
         mailMessage.setSentDate(new Date());
 
         return mailMessage;
@@ -301,48 +350,169 @@ public class EmailRequestService {
 
     /**
      * Send a mail with an asynchronous process; method useful in scheduler : {@link EmailRequestSchedulerService}.
+     * <p>
+     * Email requests are handled by pages of {@link #pageSize} requests, attachments being loaded only for the
+     * current page. Each page is split in {@link #parallelism} batches sent at the same time, each batch reusing a
+     * single SMTP connection. Sent requests are deleted and failed ones are postponed in bulk for each page, in the
+     * transaction of the page, so that already sent emails are not sent again if a next page fails.
      */
+    @RegardsTransactional(propagation = Propagation.NOT_SUPPORTED)
     public void sendEmail() {
-        List<EmailRequest> emailRequests = emailRequestRepository.findByNextTryDateBefore(OffsetDateTime.now());
-
+        OffsetDateTime now = OffsetDateTime.now();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism),
+                                                                new ThreadFactoryBuilder().setNameFormat(
+                                                                    "email-sender-%d").setDaemon(true).build());
+        int nbEmailRequest = 0;
         int nbErrorSentEmail = 0;
+        try {
+            // Requests are browsed by id so that a request postponed to a date still before now is not sent twice
+            long lastId = 0;
+            EmailRequestPageResult pageResult;
+            do {
+                pageResult = self.sendEmailPage(now, lastId, executor);
+                nbEmailRequest += pageResult.nbEmailRequest();
+                nbErrorSentEmail += pageResult.nbErrorSentEmail();
+                lastId = pageResult.lastId();
+            } while (pageResult.nbEmailRequest() == pageSize);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (nbErrorSentEmail > 0) {
+            instanceNotificationService.createNotification(createNotificationDto(nbErrorSentEmail, nbEmailRequest));
+        }
+    }
 
-        for (EmailRequest emailRequest : emailRequests) {
+    /**
+     * Send the next page of email requests to send before given date, with an id greater than the given one, and
+     * update them in a new transaction.
+     *
+     * @param now      date before which email requests must be sent
+     * @param lastId   id of the last email request handled by the previous page
+     * @param executor executor sending batches of emails
+     * @return the result of the page handling
+     */
+    @RegardsTransactional(propagation = Propagation.REQUIRES_NEW)
+    public EmailRequestPageResult sendEmailPage(OffsetDateTime now, long lastId, ExecutorService executor) {
+        List<EmailRequestToSend> emailRequests = emailRequestRepository.findEmailRequestsToSend(now,
+                                                                                                lastId,
+                                                                                                PageRequest.of(0,
+                                                                                                               pageSize));
+        if (emailRequests.isEmpty()) {
+            return new EmailRequestPageResult(0, 0, lastId);
+        }
+        int nbErrorSentEmail = sendEmails(emailRequests, executor);
+        return new EmailRequestPageResult(emailRequests.size(),
+                                          nbErrorSentEmail,
+                                          emailRequests.get(emailRequests.size() - 1).id());
+    }
+
+    /**
+     * Send given email requests and update them according to the sending result.
+     *
+     * @return the number of email requests which could not be sent
+     */
+    private int sendEmails(List<EmailRequestToSend> emailRequests, ExecutorService executor) {
+        Map<MimeMessage, EmailRequestToSend> emailRequestByMessage = new LinkedHashMap<>();
+        Map<EmailRequestToSend, Exception> errors = new HashMap<>();
+        for (EmailRequestToSend emailRequest : emailRequests) {
+            SimpleMailMessage mailMessage = createMailMessageFromEmailRequest(emailRequest);
             try {
                 ByteArrayResource byteArrayResource = null;
-                byte[] attachment = emailRequest.getAttachment();
-                if (attachment != null) {
-                    byteArrayResource = new ByteArrayResource(attachment);
-                }
-                // Send email
-                sendEmail(createMailMessageFromEmailRequest(emailRequest),
-                          emailRequest.getAttachmentName(),
-                          byteArrayResource);
-                // Delete email request in database after the sending of email without error
-                emailRequestRepository.delete(emailRequest);
-            } catch (RsEmailException e) {
-                nbErrorSentEmail += 1;
-                int nbUnsuccessfullTry = emailRequest.getNbUnsuccessfullTry();
-                if (nbUnsuccessfullTry >= EmailRequest.MAX_UNSUCCESSFULL_TRY) {
-                    LOGGER.error("Unable to send mail. Recipient: [{}] - Subject: [{}] - Root Cause: [{}]",
-                                 emailRequest.getTo(),
-                                 emailRequest.getSubject(),
-                                 Throwables.getRootCause(e).toString());
-                    emailRequestRepository.delete(emailRequest);
-                } else {
-                    nbUnsuccessfullTry += 1;
-                    emailRequest.setNextTryDate(emailRequest.getNextTryDate()
-                                                            .plusSeconds(getDelayTrySend(nbUnsuccessfullTry)));
-                    emailRequest.setNbUnsuccessfullTry(nbUnsuccessfullTry);
-                    // Update the email request in order to try a next sending of email
-                    emailRequestRepository.save(emailRequest);
+                if (emailRequest.attachmentName() != null) {
+                    byte[] attachment = emailRequestRepository.findAttachmentById(emailRequest.id());
+                    if (attachment != null) {
+                        byteArrayResource = new ByteArrayResource(attachment);
+                    }
                 }
+                emailRequestByMessage.put(createMimeMessage(mailMessage,
+                                                            emailRequest.attachmentName(),
+                                                            byteArrayResource,
+                                                            defaultSender), emailRequest);
+            } catch (MessagingException | MailException e) {
+                logSendError(mailMessage, e);
+                errors.put(emailRequest, e);
             }
         }
-        if (nbErrorSentEmail > 0) {
-            instanceNotificationService.createNotification(createNotificationDto(nbErrorSentEmail,
-                                                                                 emailRequests.size()));
+
+        // Send batches at the same time, each one through its own SMTP connection
+        List<MimeMessage> messages = new ArrayList<>(emailRequestByMessage.keySet());
+        int batchSize = Math.max(1, (messages.size() + parallelism - 1) / Math.max(1, parallelism));
+        List<Future<Map<MimeMessage, Exception>>> batches = new ArrayList<>();
+        for (List<MimeMessage> batch : Lists.partition(messages, batchSize)) {
+            batches.add(executor.submit(() -> sendBatch(batch)));
+        }
+        for (Future<Map<MimeMessage, Exception>> batch : batches) {
+            try {
+                batch.get().forEach((message, e) -> errors.put(emailRequestByMessage.get(message), e));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RsRuntimeException(e);
+            } catch (ExecutionException e) {
+                throw new RsRuntimeException(e.getCause());
+            }
+        }
+
+        // Bulk update of requests : delete sent or abandoned ones, postpone the other ones
+        List<Long> idsToDelete = new ArrayList<>();
+        Map<Integer, List<Long>> idsToRetryByNbTry = new HashMap<>();
+        for (EmailRequestToSend emailRequest : emailRequests) {
+            Exception error = errors.get(emailRequest);
+            if (error == null) {
+                idsToDelete.add(emailRequest.id());
+            } else if (emailRequest.nbUnsuccessfullTry() >= EmailRequest.MAX_UNSUCCESSFULL_TRY) {
+                LOGGER.error("Unable to send mail. Recipient: [{}] - Subject: [{}] - Root Cause: [{}]",
+                             emailRequest.to(),
+                             emailRequest.subject(),
+                             Throwables.getRootCause(error).toString());
+                idsToDelete.add(emailRequest.id());
+            } else {
+                idsToRetryByNbTry.computeIfAbsent(emailRequest.nbUnsuccessfullTry() + 1, k -> new ArrayList<>())
+                                 .add(emailRequest.id());
+            }
         }
+        if (!idsToDelete.isEmpty()) {
+            emailRequestRepository.deleteAllByIdInBatch(idsToDelete);
+        }
+        // Update the email requests in order to try a next sending of email
+        idsToRetryByNbTry.forEach((nbUnsuccessfullTry, ids) -> {
+            emailRequestRepository.updateNextTry(ids, nbUnsuccessfullTry, getDelayTrySend(nbUnsuccessfullTry));
+        });
+        LOGGER.info("{} email(s) sent, {} email(s) in error", emailRequests.size() - errors.size(), errors.size());
+        return errors.size();
+    }
+
+    /**
+     * Send given messages through a single SMTP connection.
+     *
+     * @return the messages which could not be sent with their error
+     */
+    private Map<MimeMessage, Exception> sendBatch(List<MimeMessage> messages) {
+        Map<MimeMessage, Exception> errors = new HashMap<>();
+        try {
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            if (failedMessages == null || failedMessages.isEmpty()) {
+                messages.forEach(message -> errors.put(message, e));
+            } else {
+                failedMessages.forEach((message, error) -> errors.put((MimeMessage) message, error));
+            }
+        } catch (MailException e) {
+            // Connection or authentication error, no message sent
+            messages.forEach(message -> errors.put(message, e));
+        }
+        errors.forEach((message, e) -> {
+            try {
+                LOGGER.warn("Error while trying to send an email. Recipient: [{}] - Subject: [{}] - Root Cause: [{}]",
+                            Arrays.toString(message.getAllRecipients()),
+                            message.getSubject(),
+                            Throwables.getRootCause(e).toString());
+            } catch (MessagingException me) {
+                LOGGER.warn("Error while trying to send an email. Root Cause: [{}]",
+                            Throwables.getRootCause(e).toString());
+            }
+        });
+        return errors;
     }
 
     /**
@@ -382,4 +552,15 @@ public class EmailRequestService {
         return notificationDto;
     }
 
+    /**
+     * Result of the handling of a page of email requests
+     *
+     * @param nbEmailRequest   number of email requests of the page
+     * @param nbErrorSentEmail number of email requests which could not be sent
+     * @param lastId           id of the last email request of the page
+     */
+    public record EmailRequestPageResult(int nbEmailRequest, int nbErrorSentEmail, long lastId) {
+
+    }
+
 }
@@ -50,6 +50,7 @@ import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.File;
 import java.io.IOException;
@@ -118,7 +119,11 @@ public class EmailRequestServiceIT extends AbstractRegardsIT {
         final Session smtpSession = greenMail.getSmtp().createSession();
         mailSender.setSession(smtpSession);
 
-        emailRequestService = new EmailRequestService(emailRequestRepository, mailSender, instanceNotificationService);
+        emailRequestService = new EmailRequestService(emailRequestRepository,
+                                                      mailSender,
+                                                      instanceNotificationService,
+                                                      null);
+        ReflectionTestUtils.setField(emailRequestService, "self", emailRequestService);
     }
 
     @Test
@@ -234,7 +239,8 @@ public class EmailRequestServiceIT extends AbstractRegardsIT {
         // Create a new service for EmailRequest
         emailRequestService = new EmailRequestService(emailRequestRepository,
                                                       mockMailSender,
-                                                      instanceNotificationService);
+                                                      instanceNotificationService,
+                                                      null);
 
         LogCaptor logCaptor = LogCaptor.forClass(EmailRequestService.class);
 
@@ -250,6 +256,34 @@ public class EmailRequestServiceIT extends AbstractRegardsIT {
         }
     }
 
+    @Test
+    public void sendEmail_saved_requests_by_pages_and_batches() throws MessagingException {
+        // Given : more requests than a page, sent by several SMTP connections
+        ReflectionTestUtils.setField(emailRequestService, "defaultSender", FROM);
+        ReflectionTestUtils.setField(emailRequestService, "pageSize", 2);
+        ReflectionTestUtils.setField(emailRequestService, "parallelism", 2);
+        int nbEmails = 5;
+        for (int i = 0; i < nbEmails - 1; i++) {
+            emailRequestService.saveEmailRequest(createDummyMailMessage(), null, null);
+        }
+        String attachmentName = "fichier.txt";
+        emailRequestService.saveEmailRequest(createDummyMailMessage(),
+                                             attachmentName,
+                                             () -> this.getClass()
+                                                       .getResourceAsStream(File.separator + attachmentName));
+
+        // When : the emails are sent to the Green Mail SMTP server started by the @Rule GreenMailRule
+        emailRequestService.sendEmail();
+
+        // Then
+        MimeMessage[] emails = greenMail.getReceivedMessages();
+        assertEquals(nbEmails, emails.length);
+        for (MimeMessage email : emails) {
+            assertEquals(SUBJECT, email.getSubject());
+        }
+        assertEquals(0, emailRequestRepository.count());
+    }
+
     /**
      * Creates a {@link SimpleMailMessage}.
      *
@@ -19,13 +19,14 @@
 package fr.cnes.regards.modules.emails.service;
 
 import fr.cnes.regards.modules.emails.dao.EmailRequestRepository;
+import fr.cnes.regards.modules.emails.dao.result.EmailRequestToSend;
 import fr.cnes.regards.modules.emails.domain.EmailRequest;
 import fr.cnes.regards.modules.notification.service.IInstanceNotificationService;
+import jakarta.mail.MessagingException;
 import jakarta.mail.Session;
 import jakarta.mail.internet.MimeMessage;
 import nl.altindag.log.LogCaptor;
 import org.assertj.core.api.Assertions;
-import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -38,9 +39,11 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 /**
@@ -57,6 +60,8 @@ public class EmailRequestServiceTest {
 
     private final static int THIRD_RANGE_DELAY_TRY_SEND = 259200;
 
+    private final static int PAGE_SIZE = 10;
+
     @InjectMocks
     private EmailRequestService emailRequestService;
 
@@ -71,159 +76,168 @@ public class EmailRequestServiceTest {
 
     @Before
     public void setup() {
+        ReflectionTestUtils.setField(emailRequestService, "self", emailRequestService);
         ReflectionTestUtils.setField(emailRequestService, "firstRangeDelayTrySend", FIRST_RANGE_DELAY_TRY_SEND);
         ReflectionTestUtils.setField(emailRequestService, "secondRangeDelayTrySend", SECOND_RANGE_DELAY_TRY_SEND);
         ReflectionTestUtils.setField(emailRequestService, "thirdRangeDelayTrySend", THIRD_RANGE_DELAY_TRY_SEND);
 
         ReflectionTestUtils.setField(emailRequestService, "defaultSender", "regardsTest@noreply.fr");
+        ReflectionTestUtils.setField(emailRequestService, "pageSize", PAGE_SIZE);
+        ReflectionTestUtils.setField(emailRequestService, "parallelism", 2);
+
+        lenient().when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
     }
 
     @Test
     public void sendEmail_throw_MailSendException_first_attempt() {
-        // Given
-        EmailRequest initialEmailRequest = createEmailRequest(0);
-        int initialNbUnsuccessfullTry = initialEmailRequest.getNbUnsuccessfullTry();
-        OffsetDateTime initialNextTryDate = initialEmailRequest.getNextTryDate();
-        when(emailRequestRepository.findByNextTryDateBefore(any())).thenReturn(List.of(initialEmailRequest));
+        sendEmail_throw_MailSendException(0, FIRST_RANGE_DELAY_TRY_SEND);
+    }
+
+    @Test
+    public void sendEmail_throw_MailSendException_third_attempt() {
+        sendEmail_throw_MailSendException(3, SECOND_RANGE_DELAY_TRY_SEND);
+    }
 
-        when(mailSender.createMimeMessage()).thenReturn(new MimeMessage((Session) null));
+    @Test
+    public void sendEmail_throw_MailSendException_sixth_attempt() {
+        sendEmail_throw_MailSendException(6, THIRD_RANGE_DELAY_TRY_SEND);
+    }
 
-        doThrow(MailSendException.class).when(mailSender).send((MimeMessage) any());
+    private void sendEmail_throw_MailSendException(int initialNbUnsuccessfullTry, int expectedDelay) {
+        // Given
+        EmailRequestToSend initialEmailRequest = createEmailRequest(1L, initialNbUnsuccessfullTry);
+        mockEmailRequestsToSend(List.of(initialEmailRequest));
 
-        ArgumentCaptor<EmailRequest> emailRequestCaptor = ArgumentCaptor.forClass(EmailRequest.class);
+        doThrow(MailSendException.class).when(mailSender).send(any(MimeMessage[].class));
 
         // When
         emailRequestService.sendEmail();
 
         // Then
-        verify(emailRequestRepository, never()).delete(any());
-        verify(emailRequestRepository, times(1)).save(emailRequestCaptor.capture());
+        verify(emailRequestRepository, never()).deleteAllByIdInBatch(any());
+        verify(emailRequestRepository, times(1)).updateNextTry(List.of(initialEmailRequest.id()),
+                                                               initialNbUnsuccessfullTry + 1,
+                                                               expectedDelay);
         verify(instanceNotificationService, times(1)).createNotification(any());
-
-        EmailRequest finalEmailRequest = emailRequestCaptor.getValue();
-
-        Assert.assertEquals(initialNbUnsuccessfullTry + 1, finalEmailRequest.getNbUnsuccessfullTry());
-        Assert.assertEquals(initialNextTryDate.plusSeconds(FIRST_RANGE_DELAY_TRY_SEND),
-                            finalEmailRequest.getNextTryDate());
     }
 
     @Test
-    public void sendEmail_throw_MailSendException_third_attempt() {
+    public void sendEmail() {
         // Given
-        EmailRequest initialEmailRequest = createEmailRequest(3);
-        int initialNbUnsuccessfullTry = initialEmailRequest.getNbUnsuccessfullTry();
-        OffsetDateTime initialNextTryDate = initialEmailRequest.getNextTryDate();
-        when(emailRequestRepository.findByNextTryDateBefore(any())).thenReturn(List.of(initialEmailRequest));
-
-        when(mailSender.createMimeMessage()).thenReturn(new MimeMessage((Session) null));
-
-        doThrow(MailSendException.class).when(mailSender).send((MimeMessage) any());
-
-        ArgumentCaptor<EmailRequest> emailRequestCaptor = ArgumentCaptor.forClass(EmailRequest.class);
+        EmailRequestToSend initialEmailRequest = createEmailRequest(1L, 0);
+        mockEmailRequestsToSend(List.of(initialEmailRequest));
 
         // When
         emailRequestService.sendEmail();
 
         // Then
-        verify(emailRequestRepository, never()).delete(any());
-        verify(emailRequestRepository, times(1)).save(emailRequestCaptor.capture());
-        verify(instanceNotificationService, times(1)).createNotification(any());
-
-        EmailRequest finalEmailRequest = emailRequestCaptor.getValue();
-
-        Assert.assertEquals(initialNbUnsuccessfullTry + 1, finalEmailRequest.getNbUnsuccessfullTry());
-        Assert.assertEquals(initialNextTryDate.plusSeconds(SECOND_RANGE_DELAY_TRY_SEND),
-                            finalEmailRequest.getNextTryDate());
+        verify(mailSender, times(1)).send(any(MimeMessage[].class));
+        verify(emailRequestRepository, times(1)).deleteAllByIdInBatch(List.of(initialEmailRequest.id()));
+        verify(emailRequestRepository, never()).updateNextTry(any(), anyInt(), anyInt());
+        verify(emailRequestRepository, never()).findAttachmentById(any());
+        verify(instanceNotificationService, never()).createNotification(any());
     }
 
     @Test
-    public void sendEmail_throw_MailSendException_sixth_attempt() {
+    public void sendEmail_with_max_nbUnsuccessfullTry() {
         // Given
-        EmailRequest initialEmailRequest = createEmailRequest(6);
-        int initialNbUnsuccessfullTry = initialEmailRequest.getNbUnsuccessfullTry();
-        OffsetDateTime initialNextTryDate = initialEmailRequest.getNextTryDate();
-        when(emailRequestRepository.findByNextTryDateBefore(any())).thenReturn(List.of(initialEmailRequest));
-
-        when(mailSender.createMimeMessage()).thenReturn(new MimeMessage((Session) null));
+        EmailRequestToSend initialEmailRequest = createEmailRequest(1L, EmailRequest.MAX_UNSUCCESSFULL_TRY);
+        mockEmailRequestsToSend(List.of(initialEmailRequest));
 
-        doThrow(MailSendException.class).when(mailSender).send((MimeMessage) any());
+        doThrow(MailSendException.class).when(mailSender).send(any(MimeMessage[].class));
 
-        ArgumentCaptor<EmailRequest> emailRequestCaptor = ArgumentCaptor.forClass(EmailRequest.class);
+        LogCaptor logCaptor = LogCaptor.forClass(EmailRequestService.class);
 
         // When
         emailRequestService.sendEmail();
 
         // Then
-        verify(emailRequestRepository, never()).delete(any());
-        verify(emailRequestRepository, times(1)).save(emailRequestCaptor.capture());
+        verify(emailRequestRepository, times(1)).deleteAllByIdInBatch(List.of(initialEmailRequest.id()));
         verify(instanceNotificationService, times(1)).createNotification(any());
+        verify(emailRequestRepository, never()).updateNextTry(any(), anyInt(), anyInt());
 
-        EmailRequest finalEmailRequest = emailRequestCaptor.getValue();
-
-        Assert.assertEquals(initialNbUnsuccessfullTry + 1, finalEmailRequest.getNbUnsuccessfullTry());
-        Assert.assertEquals(initialNextTryDate.plusSeconds(THIRD_RANGE_DELAY_TRY_SEND),
-                            finalEmailRequest.getNextTryDate());
+        Assertions.assertThat(logCaptor.getWarnLogs()).hasSize(1);
+        Assertions.assertThat(logCaptor.getErrorLogs()).hasSize(1);
     }
 
     @Test
-    public void sendEmail() {
-        // Given
-        EmailRequest initialEmailRequest = createEmailRequest(0);
-        when(emailRequestRepository.findByNextTryDateBefore(any())).thenReturn(List.of(initialEmailRequest));
-
-        when(mailSender.createMimeMessage()).thenReturn(new MimeMessage((Session) null));
-
-        ArgumentCaptor<EmailRequest> emailRequestCaptor = ArgumentCaptor.forClass(EmailRequest.class);
+    public void sendEmail_by_pages_and_batches() {
+        // Given : more requests than a page, the second page is requested after the last id of the first one
+        List<EmailRequestToSend> firstPage = new ArrayList<>();
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            firstPage.add(createEmailRequest(id, 0));
+        }
+        List<EmailRequestToSend> secondPage = List.of(createEmailRequest(PAGE_SIZE + 1L, 0));
+        when(emailRequestRepository.findEmailRequestsToSend(any(), eq(0L), any())).thenReturn(firstPage);
+        when(emailRequestRepository.findEmailRequestsToSend(any(), eq((long) PAGE_SIZE), any())).thenReturn(
+            secondPage);
 
         // When
         emailRequestService.sendEmail();
 
-        // Then
-        verify(mailSender, times(1)).send((MimeMessage) any());
-        verify(emailRequestRepository, times(1)).delete(emailRequestCaptor.capture());
-        verify(emailRequestRepository, never()).save(any());
+        // Then : each page is split in one batch by SMTP connection
+        ArgumentCaptor<MimeMessage[]> batchCaptor = ArgumentCaptor.forClass(MimeMessage[].class);
+        verify(mailSender, times(3)).send(batchCaptor.capture());
+        Assertions.assertThat(batchCaptor.getAllValues())
+                  .extracting(batch -> batch.length)
+                  .containsExactlyInAnyOrder(PAGE_SIZE / 2, PAGE_SIZE / 2, 1);
+        verify(emailRequestRepository, times(2)).findEmailRequestsToSend(any(), any(), any());
+        verify(emailRequestRepository, times(2)).deleteAllByIdInBatch(any());
         verify(instanceNotificationService, never()).createNotification(any());
-
-        Assert.assertEquals(initialEmailRequest, emailRequestCaptor.getValue());
     }
 
     @Test
-    public void sendEmail_with_max_nbUnsuccessfullTry() {
-        // Given
-        EmailRequest initialEmailRequest = createEmailRequest(EmailRequest.MAX_UNSUCCESSFULL_TRY);
-        when(emailRequestRepository.findByNextTryDateBefore(any())).thenReturn(List.of(initialEmailRequest));
-
-        when(mailSender.createMimeMessage()).thenReturn(new MimeMessage((Session) null));
-
-        doThrow(MailSendException.class).when(mailSender).send((MimeMessage) any());
-
-        LogCaptor logCaptor = LogCaptor.forClass(EmailRequestService.class);
-
-        ArgumentCaptor<EmailRequest> emailRequestCaptor = ArgumentCaptor.forClass(EmailRequest.class);
+    public void sendEmail_with_partial_batch_failure() {
+        // Given : only the second message of the batch can not be sent
+        ReflectionTestUtils.setField(emailRequestService, "parallelism", 1);
+        EmailRequestToSend sent = createEmailRequest(1L, 0);
+        EmailRequestToSend failed = createEmailRequest(2L, 0);
+        EmailRequestToSend withAttachment = new EmailRequestToSend(3L,
+                                                                   new String[] { "test@regards.fr" },
+                                                                   "regardsTest@cs.fr",
+                                                                   null,
+                                                                   null,
+                                                                   null,
+                                                                   "subject",
+                                                                   "messageTest",
+                                                                   "attachment.zip",
+                                                                   0,
+                                                                   OffsetDateTime.now());
+        mockEmailRequestsToSend(List.of(sent, failed, withAttachment));
+        when(emailRequestRepository.findAttachmentById(withAttachment.id())).thenReturn(new byte[] { 1, 2, 3 });
+
+        doAnswer(invocation -> {
+            MimeMessage failedMessage = invocation.getArgument(1);
+            throw new MailSendException(Map.of(failedMessage, new MessagingException("Expected")));
+        }).when(mailSender).send(any(MimeMessage[].class));
 
         // When
         emailRequestService.sendEmail();
 
         // Then
-        verify(emailRequestRepository, times(1)).delete(emailRequestCaptor.capture());
+        verify(mailSender, times(1)).send(any(MimeMessage[].class));
+        verify(emailRequestRepository, times(1)).findAttachmentById(withAttachment.id());
+        verify(emailRequestRepository, times(1)).deleteAllByIdInBatch(List.of(sent.id(), withAttachment.id()));
+        verify(emailRequestRepository, times(1)).updateNextTry(List.of(failed.id()), 1, FIRST_RANGE_DELAY_TRY_SEND);
         verify(instanceNotificationService, times(1)).createNotification(any());
-        verify(emailRequestRepository, never()).save(any());
-
-        Assertions.assertThat(logCaptor.getWarnLogs()).hasSize(1);
-        Assertions.assertThat(logCaptor.getErrorLogs()).hasSize(1);
-
-        Assert.assertEquals(initialEmailRequest, emailRequestCaptor.getValue());
     }
 
-    private EmailRequest createEmailRequest(int nbUnsuccessfullTry) {
-        EmailRequest emailRequest = new EmailRequest();
-        emailRequest.setTo(new String[0]);
-        emailRequest.setFrom("regardsTest@cs.fr");
-        emailRequest.setNbUnsuccessfullTry(nbUnsuccessfullTry);
-        emailRequest.setNextTryDate(OffsetDateTime.now());
-        emailRequest.setText("messageTest");
+    private void mockEmailRequestsToSend(List<EmailRequestToSend> emailRequests) {
+        when(emailRequestRepository.findEmailRequestsToSend(any(), any(), any())).thenReturn(emailRequests);
+    }
 
-        return emailRequest;
+    private EmailRequestToSend createEmailRequest(Long id, int nbUnsuccessfullTry) {
+        return new EmailRequestToSend(id,
+                                      new String[0],
+                                      "regardsTest@cs.fr",
+                                      null,
+                                      null,
+                                      null,
+                                      null,
+                                      "messageTest",
+                                      null,
+                                      nbUnsuccessfullTry,
+                                      OffsetDateTime.now());
     }
 
 }
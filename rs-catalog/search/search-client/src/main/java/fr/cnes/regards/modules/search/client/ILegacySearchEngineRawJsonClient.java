@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.search.client;
+
+import feign.Response;
+import fr.cnes.regards.framework.feign.annotation.RestClient;
+import org.springframework.cloud.openfeign.SpringQueryMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import static fr.cnes.regards.modules.search.domain.plugin.SearchEngineMappings.*;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Feign client to call SearchController methods but with the raw JSON response as result types, so that the body can
+ * be read as a stream without being decoded.
+ * This client is mostly called by rs-access AccessSearchController to copy the search result while injecting
+ * applicable services. The returned {@link Response} must be closed by the caller.
+ */
+@RestClient(name = "rs-catalog", contextId = "rs-catalog.legacy-search-engine-raw-json.client")
+public interface ILegacySearchEngineRawJsonClient {
+
+    String ROOT_PATH = TYPE_MAPPING_FOR_LEGACY;
+
+    @GetMapping(path = ROOT_PATH + SEARCH_ALL_MAPPING, produces = APPLICATION_JSON_VALUE)
+    Response searchAll(@SpringQueryMap MultiValueMap<String, String> allParams);
+
+    @GetMapping(path = ROOT_PATH + SEARCH_DATAOBJECTS_MAPPING, produces = APPLICATION_JSON_VALUE)
+    Response searchDataObjects(@SpringQueryMap MultiValueMap<String, String> allParams);
+
+    @GetMapping(path = ROOT_PATH + SEARCH_COLLECTIONS_MAPPING, produces = APPLICATION_JSON_VALUE)
+    Response searchCollections(@SpringQueryMap MultiValueMap<String, String> allParams);
+
+    @GetMapping(path = ROOT_PATH + SEARCH_DATAOBJECTS_DATASETS_MAPPING, produces = APPLICATION_JSON_VALUE)
+    Response searchDataobjectsReturnDatasets(@SpringQueryMap MultiValueMap<String, String> allParams);
+
+    @GetMapping(path = ROOT_PATH + SEARCH_DATASETS_MAPPING, produces = APPLICATION_JSON_VALUE)
+    Response searchDatasets(@SpringQueryMap MultiValueMap<String, String> allParams);
+
+}
@@ -48,6 +48,13 @@ public class ComplexSearchRequest {
 
     private int size = 20;
 
+    /**
+     * Optional identifier (URN) of the last entity of the previous page. When set, only entities after this one are
+     * returned, in identifier order, and page number should be 0. Unlike page numbers, the cost of fetching a page
+     * does not depend on its depth.
+     */
+    private String searchAfter;
+
     public ComplexSearchRequest(List<DataType> dataTypes) {
         super();
         this.dataTypes = dataTypes;
@@ -94,4 +101,12 @@ public class ComplexSearchRequest {
         this.size = size;
     }
 
+    public String getSearchAfter() {
+        return searchAfter;
+    }
+
+    public void setSearchAfter(String searchAfter) {
+        this.searchAfter = searchAfter;
+    }
+
 }
@@ -73,6 +73,11 @@ public class ComplexSearchController implements IResourceController<EntityFeatur
 
     public static final String SEARCH_DATAOBJECTS_ATTRIBUTES = "/dataobjects/attributes";
 
+    /**
+     * Keyword field of entity identifiers. Unsorted searches are sorted on it, so it is used as the search after key.
+     */
+    private static final String IP_ID_KEYWORD = "ipId.keyword";
+
     /**
      * To build resource links
      */
@@ -126,6 +131,8 @@ public class ComplexSearchController implements IResourceController<EntityFeatur
     /**
      * Compute a complex search
      * {@link DataType})
+     * If {@link ComplexSearchRequest#getSearchAfter()} is set, only entities with an identifier greater than the given
+     * one are returned, so deep pages can be fetched without paging through all previous results.
      */
     @RequestMapping(method = RequestMethod.POST)
     @ResourceAccess(description = "Get features from a complex search", role = DefaultRole.PUBLIC)
@@ -136,7 +143,12 @@ public class ComplexSearchController implements IResourceController<EntityFeatur
         for (SearchRequest request : complexSearchRequest.getRequests()) {
             searchCriterions.add(dispatcher.computeComplexCriterion(request));
         }
-        FacetPage<EntityFeature> facetPage = searchService.search(ICriterion.or(searchCriterions),
+        ICriterion criterion = ICriterion.or(searchCriterions);
+        if (complexSearchRequest.getSearchAfter() != null) {
+            criterion = ICriterion.and(criterion,
+                                       ICriterion.gt(IP_ID_KEYWORD, complexSearchRequest.getSearchAfter()));
+        }
+        FacetPage<EntityFeature> facetPage = searchService.search(criterion,
                                                                   SearchType.DATAOBJECTS,
                                                                   null,
                                                                   PageRequest.of(complexSearchRequest.getPage(),
@@ -37,8 +37,11 @@ import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 import static fr.cnes.regards.cloud.gateway.filters.FilterConstants.AUTHORIZATION;
@@ -76,6 +79,12 @@ public class ExternalTokenVerificationFilter implements GlobalFilter {
                                                         .maximumSize(10000)
                                                         .build();
 
+    /**
+     * Verifications in progress, shared by all the requests carrying the same token for the same tenant, so a new
+     * token is only verified once for a tenant whatever the number of concurrent requests.
+     */
+    private final ConcurrentMap<Verification, CompletableFuture<String>> inProgress = new ConcurrentHashMap<>();
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
@@ -104,50 +113,75 @@ public class ExternalTokenVerificationFilter implements GlobalFilter {
     }
 
     private Mono<String> tryAuthentication(ServerHttpRequest request, String jwtKey) {
-        if (valid.asMap().containsKey(jwtKey)) {
+        String cachedToken = valid.getIfPresent(jwtKey);
+        if (cachedToken != null) {
             LOGGER.debug("Token found in already valid tokens cache");
-            return Mono.just(Objects.requireNonNull(valid.getIfPresent(jwtKey)));
-        } else {
-            JWTAuthentication authentication = new JWTAuthentication(jwtKey);
-
-            // Try to retrieve target tenant from request
-            String tenant = request.getHeaders().getFirst(HttpConstants.SCOPE);
-            if (Strings.isNullOrEmpty(tenant) && request.getQueryParams().containsKey(HttpConstants.SCOPE)) {
-                tenant = request.getQueryParams().getFirst(HttpConstants.SCOPE);
-            }
-            if (!Strings.isNullOrEmpty(tenant)) {
-                authentication.setTenant(tenant);
+            return Mono.just(cachedToken);
+        }
+        // If resolved, it's supposed to be a valid REGARDS token in any case:
+        // 1) either because it was already a valid Regards token
+        // 2) or because it was a valid external token which was traded against a valid Regards token by the external "resolver".
+        // So it is cached and passed along. Verifications are removed from the ones in progress once done, so a failed
+        // one is tried again by the next request.
+        // Cancellation is not propagated to the verification as it is shared by the requests carrying the same token.
+        return Mono.defer(() -> {
+            Verification key = new Verification(jwtKey, getTenant(request));
+            CompletableFuture<String> newVerification = new CompletableFuture<>();
+            CompletableFuture<String> verification = inProgress.putIfAbsent(key, newVerification);
+            if (verification == null) {
+                verification = newVerification;
+                newVerification.whenComplete((regardsToken, e) -> {
+                    if (regardsToken != null) {
+                        valid.put(jwtKey, regardsToken);
+                    }
+                    inProgress.remove(key, newVerification);
+                });
+                authenticate(jwtKey, key.tenant()).subscribe(newVerification::complete,
+                                                             newVerification::completeExceptionally,
+                                                             () -> newVerification.complete(null));
             }
-            LOGGER.debug("New token tenant = {}", tenant);
-
-            return Mono.fromCallable(() -> jwtService.parseToken(authentication))
-                       .map(JWTAuthentication::getJwt)
-                       .onErrorResume(InvalidJwtException.class, e -> {
-                           if (authentication.getTenant() == null) {
-                               LOGGER.error("Cannot external authenticate without scope param (header or queryParam)");
-                               return Mono.error(e.getCause());
-                           }
-                           return externalAuthenticationVerifier.verifyAndAuthenticate(jwtKey,
-                                                                                       authentication.getTenant())
-                                                                .map(Authentication::getAccessToken)
-                                                                .onErrorResume(t -> {
-                                                                    LOGGER.info("Token verification failed (token={}).",
-                                                                                jwtKey,
-                                                                                t);
-                                                                    // If not resolved, mark token as invalid.
-                                                                    invalid.put(jwtKey, jwtKey);
-                                                                    return Mono.error(t.getCause());
-                                                                });
-                       })
-                       // If resolved, it's supposed to be a valid REGARDS token in any case:
-                       // 1) either because it was already a valid Regards token
-                       // 2) or because it was a valid external token which was traded against a valid Regards token by the external "resolver".
-                       // So we can cache it and pass along.
-                       .map(regardsToken -> {
-                           valid.put(jwtKey, regardsToken);
-                           return regardsToken;
-                       });
+            return Mono.fromFuture(verification, true);
+        });
+    }
+
+    /**
+     * Try to retrieve target tenant from request, null if none
+     */
+    private String getTenant(ServerHttpRequest request) {
+        String tenant = request.getHeaders().getFirst(HttpConstants.SCOPE);
+        if (Strings.isNullOrEmpty(tenant) && request.getQueryParams().containsKey(HttpConstants.SCOPE)) {
+            tenant = request.getQueryParams().getFirst(HttpConstants.SCOPE);
         }
+        return Strings.isNullOrEmpty(tenant) ? null : tenant;
+    }
+
+    private Mono<String> authenticate(String jwtKey, String tenant) {
+        JWTAuthentication authentication = new JWTAuthentication(jwtKey);
+        if (tenant != null) {
+            authentication.setTenant(tenant);
+        }
+        LOGGER.debug("New token tenant = {}", tenant);
+
+        // Token parsing is CPU bound, keep it off the event loop
+        return Mono.fromCallable(() -> jwtService.parseToken(authentication))
+                   .subscribeOn(Schedulers.boundedElastic())
+                   .map(JWTAuthentication::getJwt)
+                   .onErrorResume(InvalidJwtException.class, e -> {
+                       if (authentication.getTenant() == null) {
+                           LOGGER.error("Cannot external authenticate without scope param (header or queryParam)");
+                           return Mono.error(e.getCause());
+                       }
+                       return externalAuthenticationVerifier.verifyAndAuthenticate(jwtKey, authentication.getTenant())
+                                                            .map(Authentication::getAccessToken)
+                                                            .onErrorResume(t -> {
+                                                                LOGGER.info("Token verification failed (token={}).",
+                                                                            jwtKey,
+                                                                            t);
+                                                                // If not resolved, mark token as invalid.
+                                                                invalid.put(jwtKey, jwtKey);
+                                                                return Mono.error(t.getCause());
+                                                            });
+                   });
     }
 
     @VisibleForTesting
@@ -159,4 +193,11 @@ public class ExternalTokenVerificationFilter implements GlobalFilter {
     protected Cache<String, String> getValidCache() {
         return valid;
     }
+
+    /**
+     * Verification of a token for the tenant of a request
+     */
+    private record Verification(String token, String tenant) {
+
+    }
 }
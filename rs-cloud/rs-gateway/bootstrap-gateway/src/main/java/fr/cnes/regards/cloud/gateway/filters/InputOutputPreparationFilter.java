@@ -35,6 +35,8 @@ import reactor.core.publisher.Mono;
 import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -105,7 +107,8 @@ public class InputOutputPreparationFilter implements GlobalFilter {
 
         InetSocketAddress remoteInfo = Objects.requireNonNull(request.getRemoteAddress());
         String remoteAddress = remoteInfo.getAddress().getHostAddress();
-        String remoteHost = remoteInfo.getHostName();
+        // Never resolve the remote host name (reverse DNS lookup) on the event loop
+        String remoteHost = remoteInfo.getHostString();
 
         String xForwardedFor = headers.getFirst(X_FORWARDED_FOR);
         URI requestURI = request.getURI();
@@ -117,6 +120,11 @@ public class InputOutputPreparationFilter implements GlobalFilter {
                     requestMethod,
                     remoteAddress);
 
+        // Request context is only needed by debug logs
+        if (!LOGGER.isDebugEnabled()) {
+            return;
+        }
+
         String url = null;
         try {
             url = requestURI.toURL().toString();
@@ -124,25 +132,51 @@ public class InputOutputPreparationFilter implements GlobalFilter {
             LOGGER.error("Unable to get URL from request uri \"{}\"", requestURI);
         }
 
-        MDC.put(ClassicConstants.REQUEST_REMOTE_HOST_MDC_KEY, remoteHost);
-        MDC.put(ClassicConstants.REQUEST_REQUEST_URI, requestURI.toString());
-        MDC.put(ClassicConstants.REQUEST_REQUEST_URL, url);
-        MDC.put(ClassicConstants.REQUEST_METHOD, requestMethod);
-        MDC.put(ClassicConstants.REQUEST_QUERY_STRING, request.getQueryParams().toString());
-        MDC.put(ClassicConstants.REQUEST_USER_AGENT_MDC_KEY, headers.getFirst(HttpHeaders.USER_AGENT));
-        MDC.put(ClassicConstants.REQUEST_X_FORWARDED_FOR, xForwardedFor);
-
-        LOGGER.debug(LOG_PREFIX
-                     + "Scheme: {}, Remote host: {}, Remote addr: {}, Remote port: {}, Remote user: {}, Header names: {}",
-                     correlationId,
-                     requestURI.getScheme(),
-                     remoteHost,
-                     remoteAddress,
-                     remoteInfo.getPort(),
-                     request.getQueryParams(),
-                     headers.keySet());
-
-        LOGGER.debug(LOG_PREFIX + "Forwarded headers => {}", correlationId, headers);
+        Map<String, String> requestContext = new HashMap<>();
+        requestContext.put(ClassicConstants.REQUEST_REMOTE_HOST_MDC_KEY, remoteHost);
+        requestContext.put(ClassicConstants.REQUEST_REQUEST_URI, requestURI.toString());
+        requestContext.put(ClassicConstants.REQUEST_REQUEST_URL, url);
+        requestContext.put(ClassicConstants.REQUEST_METHOD, requestMethod);
+        requestContext.put(ClassicConstants.REQUEST_QUERY_STRING, request.getQueryParams().toString());
+        requestContext.put(ClassicConstants.REQUEST_USER_AGENT_MDC_KEY, headers.getFirst(HttpHeaders.USER_AGENT));
+        requestContext.put(ClassicConstants.REQUEST_X_FORWARDED_FOR, xForwardedFor);
+
+        // MDC is bound to the event loop thread which is shared by all requests : only fill it around the logs
+        withMdc(requestContext, () -> {
+            LOGGER.debug(LOG_PREFIX
+                         + "Scheme: {}, Remote host: {}, Remote addr: {}, Remote port: {}, Remote user: {}, "
+                         + "Header names: {}",
+                         correlationId,
+                         requestURI.getScheme(),
+                         remoteHost,
+                         remoteAddress,
+                         remoteInfo.getPort(),
+                         request.getQueryParams(),
+                         headers.keySet());
+
+            LOGGER.debug(LOG_PREFIX + "Forwarded headers => {}", correlationId, headers);
+        });
+    }
+
+    /**
+     * Run given logs with given MDC context, previous MDC context of the current thread is restored afterward.
+     */
+    private static void withMdc(Map<String, String> context, Runnable logs) {
+        Map<String, String> previousContext = MDC.getCopyOfContextMap();
+        try {
+            context.forEach((key, value) -> {
+                if (value != null) {
+                    MDC.put(key, value);
+                }
+            });
+            logs.run();
+        } finally {
+            if (previousContext != null) {
+                MDC.setContextMap(previousContext);
+            } else {
+                MDC.clear();
+            }
+        }
     }
 
     /**
@@ -0,0 +1,125 @@
+package fr.cnes.regards.cloud.gateway.filters;
+
+import fr.cnes.regards.cloud.gateway.authentication.ExternalAuthenticationVerifier;
+import fr.cnes.regards.framework.security.utils.HttpConstants;
+import fr.cnes.regards.framework.security.utils.jwt.JWTService;
+import fr.cnes.regards.framework.security.utils.jwt.exception.InvalidJwtException;
+import fr.cnes.regards.modules.authentication.domain.data.Authentication;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static fr.cnes.regards.cloud.gateway.filters.FilterConstants.BEARER;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Load test of {@link ExternalTokenVerificationFilter} with concurrent requests carrying the same new external tokens,
+ * against a local stub verifier able to handle a limited number of verifications at the same time.
+ */
+@Disabled("Performances tests")
+class ExternalTokenVerificationFilterPerformanceTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExternalTokenVerificationFilterPerformanceTest.class);
+
+    private static final String TENANT = "PERF";
+
+    private static final int NB_TOKENS = 50;
+
+    private static final int NB_REQUESTS_BY_TOKEN = 40;
+
+    /**
+     * Number of verifications the stub verifier handles at the same time
+     */
+    private static final int VERIFIER_CAPACITY = 8;
+
+    private static final long VERIFICATION_DURATION_MS = 20;
+
+    private final AtomicInteger nbVerifications = new AtomicInteger();
+
+    private Scheduler verifierScheduler;
+
+    private ExternalTokenVerificationFilter tokenFilter;
+
+    @BeforeEach
+    void init() throws Exception {
+        verifierScheduler = Schedulers.newParallel("stub-verifier", VERIFIER_CAPACITY);
+        JWTService jwtService = mock(JWTService.class);
+        when(jwtService.parseToken(any())).thenThrow(new InvalidJwtException("External token"));
+        ExternalAuthenticationVerifier stubVerifier = new ExternalAuthenticationVerifier(null, jwtService, "gateway") {
+
+            @Override
+            public Mono<Authentication> verifyAndAuthenticate(String externalToken, String tenant) {
+                nbVerifications.incrementAndGet();
+                return Mono.fromCallable(() -> {
+                    Thread.sleep(VERIFICATION_DURATION_MS);
+                    return new Authentication(tenant,
+                                              "perf@regards.fr",
+                                              null,
+                                              "rs-authentication",
+                                              "regards-" + externalToken,
+                                              OffsetDateTime.now());
+                }).subscribeOn(verifierScheduler);
+            }
+        };
+        tokenFilter = new ExternalTokenVerificationFilter(jwtService, stubVerifier);
+    }
+
+    @AfterEach
+    void dispose() {
+        verifierScheduler.dispose();
+    }
+
+    @Test
+    void concurrent_requests_with_same_new_tokens_are_verified_once() {
+        // First runs warm up the JVM
+        for (int run = 0; run < 5; run++) {
+            // Given
+            nbVerifications.set(0);
+            String[] tokens = new String[NB_TOKENS];
+            for (int i = 0; i < NB_TOKENS; i++) {
+                tokens[i] = UUID.randomUUID().toString();
+            }
+            GatewayFilterChain chain = exchange -> Mono.empty();
+            int nbRequests = NB_TOKENS * NB_REQUESTS_BY_TOKEN;
+
+            // When
+            long start = System.currentTimeMillis();
+            Flux.range(0, nbRequests)
+                .flatMap(i -> tokenFilter.filter(buildExchange(tokens[i / NB_REQUESTS_BY_TOKEN]), chain), nbRequests)
+                .blockLast();
+            long duration = System.currentTimeMillis() - start;
+
+            // Then
+            LOGGER.info(">>>>>>>>>>>>>>>>> {} requests with {} new tokens filtered in {} ms ({} requests/s), {} "
+                        + "verifications", nbRequests, NB_TOKENS, duration, nbRequests * 1000L / Math.max(duration, 1),
+                        nbVerifications.get());
+            // Concurrent requests carrying the same new token share the same verification
+            Assertions.assertEquals(NB_TOKENS, nbVerifications.get());
+        }
+    }
+
+    private static MockServerWebExchange buildExchange(String token) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("http://perf")
+                                                               .header(HttpConstants.AUTHORIZATION,
+                                                                       BEARER + " " + token)
+                                                               .header(HttpConstants.SCOPE, TENANT)
+                                                               .build());
+    }
+}
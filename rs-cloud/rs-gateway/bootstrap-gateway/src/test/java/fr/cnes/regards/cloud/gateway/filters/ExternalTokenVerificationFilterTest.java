@@ -21,10 +21,13 @@ import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
 import java.time.OffsetDateTime;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static fr.cnes.regards.cloud.gateway.filters.FilterConstants.BEARER;
 import static org.junit.jupiter.api.Assertions.*;
@@ -232,6 +235,110 @@ class ExternalTokenVerificationFilterTest {
         verify(externalAuthenticationVerifier, times(0)).verifyAndAuthenticate(anyString(), anyString());
     }
 
+    @Test
+    void concurrent_requests_with_same_token_are_verified_once() throws Exception {
+        // -- GIVEN --
+        String token = UUID.randomUUID().toString();
+        String newToken = UUID.randomUUID().toString();
+        when(jwtService.parseToken(any())).thenThrow(new InvalidJwtException("Expected"));
+        Sinks.One<Authentication> verification = Sinks.one();
+        when(externalAuthenticationVerifier.verifyAndAuthenticate(anyString(),
+                                                                  anyString())).thenReturn(verification.asMono());
+        filterChain = mock(GatewayFilterChain.class);
+        when(filterChain.filter(captor.capture())).thenReturn(Mono.empty());
+
+        // -- WHEN --
+        CompletableFuture<Void> first = tokenFilter.filter(createExchange(token, TENANT), filterChain).toFuture();
+        CompletableFuture<Void> second = tokenFilter.filter(createExchange(token, TENANT), filterChain).toFuture();
+        verify(externalAuthenticationVerifier, timeout(5000)).verifyAndAuthenticate(token, TENANT);
+        verification.tryEmitValue(new Authentication(TENANT,
+                                                     "example@test.com",
+                                                     null,
+                                                     "rs-authentication",
+                                                     newToken,
+                                                     OffsetDateTime.now()));
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+
+        // -- THEN --
+        verify(externalAuthenticationVerifier, times(1)).verifyAndAuthenticate(anyString(), anyString());
+        assertEquals(2, captor.getAllValues().size());
+        for (ServerWebExchange modifiedExchange : captor.getAllValues()) {
+            assertEquals(BEARER + " " + newToken,
+                         modifiedExchange.getRequest().getHeaders().getFirst(HttpConstants.AUTHORIZATION));
+        }
+        assertEquals(newToken, tokenFilter.getValidCache().getIfPresent(token));
+    }
+
+    @Test
+    void concurrent_requests_with_same_token_are_verified_for_each_tenant() throws Exception {
+        // -- GIVEN --
+        String token = UUID.randomUUID().toString();
+        String otherTenant = "OTHER";
+        when(jwtService.parseToken(any())).thenThrow(new InvalidJwtException("Expected"));
+        Sinks.One<Authentication> verification = Sinks.one();
+        Sinks.One<Authentication> otherVerification = Sinks.one();
+        when(externalAuthenticationVerifier.verifyAndAuthenticate(token, TENANT)).thenReturn(verification.asMono());
+        when(externalAuthenticationVerifier.verifyAndAuthenticate(token,
+                                                                  otherTenant)).thenReturn(otherVerification.asMono());
+        filterChain = mock(GatewayFilterChain.class);
+        when(filterChain.filter(captor.capture())).thenReturn(Mono.empty());
+
+        // -- WHEN --
+        CompletableFuture<Void> first = tokenFilter.filter(createExchange(token, TENANT), filterChain).toFuture();
+        CompletableFuture<Void> second = tokenFilter.filter(createExchange(token, otherTenant), filterChain)
+                                                    .toFuture();
+        verify(externalAuthenticationVerifier, timeout(5000)).verifyAndAuthenticate(token, TENANT);
+        verify(externalAuthenticationVerifier, timeout(5000)).verifyAndAuthenticate(token, otherTenant);
+        verification.tryEmitValue(new Authentication(TENANT,
+                                                     "example@test.com",
+                                                     null,
+                                                     "rs-authentication",
+                                                     UUID.randomUUID().toString(),
+                                                     OffsetDateTime.now()));
+        otherVerification.tryEmitValue(new Authentication(otherTenant,
+                                                          "example@test.com",
+                                                          null,
+                                                          "rs-authentication",
+                                                          UUID.randomUUID().toString(),
+                                                          OffsetDateTime.now()));
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+
+        // -- THEN --
+        verify(externalAuthenticationVerifier, times(2)).verifyAndAuthenticate(anyString(), anyString());
+    }
+
+    @Test
+    void failed_verification_is_evicted_and_tried_again() throws JwtException {
+        // -- GIVEN --
+        String token = UUID.randomUUID().toString();
+        JWTAuthentication authentication = mock(JWTAuthentication.class);
+        when(authentication.getJwt()).thenReturn(token);
+        when(jwtService.parseToken(any())).thenThrow(new IllegalStateException("Expected test exception"))
+                                          .thenReturn(authentication);
+        filterChain = mock(GatewayFilterChain.class);
+        when(filterChain.filter(captor.capture())).thenReturn(Mono.empty());
+
+        // -- WHEN --
+        StepVerifier.create(tokenFilter.filter(createExchange(token, TENANT), filterChain))
+                    .verifyError(IllegalStateException.class);
+        StepVerifier.create(tokenFilter.filter(createExchange(token, TENANT), filterChain)).verifyComplete();
+
+        // -- THEN --
+        verify(jwtService, times(2)).parseToken(any());
+        assertEquals(token, tokenFilter.getValidCache().getIfPresent(token));
+        assertEquals(BEARER + " " + token,
+                     captor.getValue().getRequest().getHeaders().getFirst(HttpConstants.AUTHORIZATION));
+    }
+
+    private ServerWebExchange createExchange(String token, String tenant) {
+        HttpHeaders requestHeaders = new HttpHeaders();
+        requestHeaders.add(HttpConstants.AUTHORIZATION, BEARER + " " + token);
+        requestHeaders.add(HttpConstants.SCOPE, tenant);
+        return MockServerWebExchange.from(MockServerHttpRequest.get(DUMMY_URL).headers(requestHeaders).build());
+    }
+
     @Test
     void verify_fail_when_client_fails() {
         HttpClientErrorException:
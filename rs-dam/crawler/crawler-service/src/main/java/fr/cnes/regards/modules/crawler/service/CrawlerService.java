@@ -18,6 +18,7 @@
  */
 package fr.cnes.regards.modules.crawler.service;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import fr.cnes.regards.framework.module.rest.exception.InactiveDatasourceException;
 import fr.cnes.regards.framework.module.rest.exception.ModuleException;
 import fr.cnes.regards.framework.modules.plugins.domain.PluginConfiguration;
@@ -65,6 +66,10 @@ import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 record CrawlingParameters(OffsetDateTime lastUpdateDate,
                           String tenant,
@@ -74,6 +79,43 @@ record CrawlingParameters(OffsetDateTime lastUpdateDate,
 
 }
 
+/**
+ * Page read from datasource whose indexing is in progress
+ *
+ * @param pageIndex index of the page during current crawling
+ * @param cursor    cursor of the page after it has been read
+ * @param result    indexing result
+ */
+record IndexingPage(int pageIndex,
+                    CrawlingCursor cursor,
+                    Future<BulkSaveResult> result) {
+
+}
+
+/**
+ * Error while reading or indexing a page of a datasource
+ */
+class PageCrawlingException extends Exception {
+
+    private final int pageIndex;
+
+    private final transient CrawlingCursor cursor;
+
+    PageCrawlingException(int pageIndex, CrawlingCursor cursor, Throwable cause) {
+        super(cause);
+        this.pageIndex = pageIndex;
+        this.cursor = cursor;
+    }
+
+    int getPageIndex() {
+        return pageIndex;
+    }
+
+    CrawlingCursor getCursor() {
+        return cursor;
+    }
+}
+
 /**
  * Crawler service for other entity than Dataset. <b>This service need @EnableSchedule at Configuration</b>
  * This service is the primary to autowire (by IngesterService) in order to ingest datasources
@@ -235,6 +277,13 @@ public class CrawlerService extends AbstractCrawlerService<NotDatasetEntityEvent
         return Optional.empty();
     }
 
+    /**
+     * Read all pages of the datasource and index them. Datasource is read by the current thread while previous pages
+     * are indexed by a thread pool : page N+1 is read while page N is indexed. At most one page by indexing worker is
+     * being indexed while the next page is read.<br/>
+     * If a page cannot be read or indexed, crawling stops and the cursor of the first page in error is kept to restart
+     * from it.
+     */
     private BulkSaveLightResult readDatasource(CrawlingParameters crawlingParameters,
                                                DatasourceIngestion dsi,
                                                boolean mergeNeeded) throws FirstFindException, NotFinishedException {
@@ -243,7 +292,6 @@ public class CrawlerService extends AbstractCrawlerService<NotDatasetEntityEvent
                     dsiId);
         int availableRecordsCount = 0;
         BulkSaveLightResult saveResult = new BulkSaveLightResult();
-        // Use a thread pool of size 1 to merge data while datasource pull other data
         sendMessage(String.format("  Finding at most %d records from datasource...", crawlerConf.getMaxBulkSize()),
                     dsiId);
         CrawlingCursor cursor = dsi.getCursor();
@@ -255,31 +303,60 @@ public class CrawlerService extends AbstractCrawlerService<NotDatasetEntityEvent
             // Try Applying overlap
             cursor.tryApplyOverlap(crawlingParameters.dsPlugin().getOverlap());
         }
-        boolean isFirstFind = true;
+        cursor = dsi.getCursor();
+        int indexingWorkers = Math.max(1, crawlerConf.getIndexingWorkers());
+        ExecutorService executor = Executors.newFixedThreadPool(indexingWorkers,
+                                                                new ThreadFactoryBuilder().setNameFormat(
+                                                                    "crawler-indexing-"
+                                                                    + crawlingParameters.datasourceId()
+                                                                    + "-%d").build());
+        Deque<IndexingPage> indexingPages = new ArrayDeque<>(indexingWorkers);
+        int pageIndex = 0;
         try {
-            availableRecordsCount = doReadAndIndex(crawlingParameters,
-                                                   dsi,
-                                                   mergeNeeded,
-                                                   availableRecordsCount,
-                                                   saveResult);
-            cursor = dsi.getCursor();
-            while (cursor.hasNext()) {
-                cursor.next(crawlingParameters.dsPlugin().getCrawlingCursorMode());
-                isFirstFind = false;
-                sendMessage(String.format("  Searching page of %d records from datasource...", cursor.getSize()),
-                            dsiId);
-                availableRecordsCount = doReadAndIndex(crawlingParameters,
-                                                       dsi,
-                                                       mergeNeeded,
-                                                       availableRecordsCount,
-                                                       saveResult);
+            while (pageIndex == 0 || cursor.hasNext()) {
+                if (pageIndex > 0) {
+                    cursor.next(crawlingParameters.dsPlugin().getCrawlingCursorMode());
+                    sendMessage(String.format("  Searching page of %d records from datasource...",
+                                              cursor.getSize()), dsiId);
+                }
+                List<DataObject> dataObjects;
+                try {
+                    dataObjects = findAllFromDatasource(crawlingParameters, cursor);
+                } catch (DataSourceException | ModuleException e) { // Find from datasource has failed
+                    // Previous pages are indexed before stopping
+                    waitIndexingPages(indexingPages, 0, saveResult);
+                    throw new PageCrawlingException(pageIndex, cursor, e);
+                }
+                availableRecordsCount += dataObjects.size();
+                sendMessage(String.format("  ...Found %d records from datasource. Total currently found=%d",
+                                          dataObjects.size(),
+                                          availableRecordsCount), dsiId);
+                // Wait for a free indexing worker
+                waitIndexingPages(indexingPages, indexingWorkers - 1, saveResult);
+                // Keep cursor of the page as it is now to restart from this page if it cannot be indexed
+                indexingPages.add(new IndexingPage(pageIndex,
+                                                   cursor.copy(),
+                                                   executor.submit(() -> indexPage(crawlingParameters,
+                                                                                   dsiId,
+                                                                                   dataObjects,
+                                                                                   mergeNeeded))));
+                pageIndex++;
+            }
+            waitIndexingPages(indexingPages, 0, saveResult);
+        } catch (PageCrawlingException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
             }
-        } catch (DataSourceException | ModuleException e) { // Find from datasource has failed
             // Failed at first find from datasource => "classical" ERROR
-            if (isFirstFind) {
-                throw new FirstFindException(e);
+            if (e.getPageIndex() == 0) {
+                throw new FirstFindException(e.getCause());
             }
-            throw new NotFinishedException(e, saveResult, cursor);
+            throw new NotFinishedException(e.getCause(), saveResult, e.getCursor());
+        } finally {
+            executor.shutdownNow();
         }
 
         sendMessage(String.format("  ...Finally indexed %d%s objects for %d available records.",
@@ -290,19 +367,45 @@ public class CrawlerService extends AbstractCrawlerService<NotDatasetEntityEvent
         return saveResult;
     }
 
-    private int doReadAndIndex(CrawlingParameters crawlingParameters,
-                               DatasourceIngestion dsi,
-                               boolean mergeNeeded,
-                               int availableRecordsCount,
-                               BulkSaveLightResult saveResult) throws DataSourceException, ModuleException {
-        String dsiId = dsi.getId();
-        List<DataObject> dataObjects = findAllFromDatasource(crawlingParameters, dsi.getCursor());
-        availableRecordsCount += dataObjects.size();
-        sendMessage(String.format("  ...Found %d records from datasource. Total currently found=%d",
-                                  dataObjects.size(),
-                                  availableRecordsCount), dsiId);
-        saveResult.append(createOrMergeDataObjects(crawlingParameters, dsiId, dataObjects, mergeNeeded));
-        return availableRecordsCount;
+    private BulkSaveResult indexPage(CrawlingParameters crawlingParameters,
+                                     String dsiId,
+                                     List<DataObject> dataObjects,
+                                     boolean mergeNeeded) throws ModuleException {
+        runtimeTenantResolver.forceTenant(crawlingParameters.tenant());
+        try {
+            return createOrMergeDataObjects(crawlingParameters, dsiId, dataObjects, mergeNeeded);
+        } finally {
+            runtimeTenantResolver.clearTenant();
+        }
+    }
+
+    /**
+     * Wait for the indexing of the oldest pages until at most maxIndexingPages pages are still being indexed. If the
+     * indexing of a page has failed, wait for the indexing of all the pages then throw the error of the oldest page
+     * in error.
+     */
+    private static void waitIndexingPages(Deque<IndexingPage> indexingPages,
+                                          int maxIndexingPages,
+                                          BulkSaveLightResult saveResult) throws PageCrawlingException {
+        PageCrawlingException pageError = null;
+        while (!indexingPages.isEmpty() && (indexingPages.size() > maxIndexingPages || pageError != null)) {
+            IndexingPage indexingPage = indexingPages.poll();
+            try {
+                saveResult.append(indexingPage.result().get());
+            } catch (ExecutionException e) {
+                if (pageError == null) {
+                    pageError = new PageCrawlingException(indexingPage.pageIndex(), indexingPage.cursor(), e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (pageError == null) {
+                    pageError = new PageCrawlingException(indexingPage.pageIndex(), indexingPage.cursor(), e);
+                }
+            }
+        }
+        if (pageError != null) {
+            throw pageError;
+        }
     }
 
     private BulkSaveResult createOrMergeDataObjects(CrawlingParameters crawlingParameters,
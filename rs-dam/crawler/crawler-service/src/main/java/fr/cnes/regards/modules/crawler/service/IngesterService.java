@@ -110,10 +110,11 @@ public class IngesterService implements IHandler<PluginConfEvent> {
     }
 
     /**
-     * Receiving a message from crawler
+     * Receiving a message from crawler. Messages are sent by the thread reading the datasource and by the threads
+     * indexing its pages, so they are appended one at a time to the datasource ingestion stack trace.
      */
     @EventListener
-    public void handleMessageEvent(DataSourceMessageEvent event) {
+    public synchronized void handleMessageEvent(DataSourceMessageEvent event) {
         runtimeTenantResolver.forceTenant(event.getTenant());
         dsIngestionService.addMessageToStackTrace(event.getDataSourceId(), event.getMessage());
     }
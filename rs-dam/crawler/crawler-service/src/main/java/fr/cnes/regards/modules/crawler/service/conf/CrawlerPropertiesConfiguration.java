@@ -30,8 +30,19 @@ public class CrawlerPropertiesConfiguration {
     @Value("${regards.crawler.max.bulk.size:10000}")
     private Integer maxBulkSize;
 
+    /**
+     * Number of datasource pages indexed in parallel while next page is read from datasource. With more than one
+     * worker, pages may be indexed in a different order than they are read.
+     */
+    @Value("${regards.crawler.indexing.workers:1}")
+    private Integer indexingWorkers;
+
     public Integer getMaxBulkSize() {
         return maxBulkSize;
     }
 
+    public Integer getIndexingWorkers() {
+        return indexingWorkers;
+    }
+
 }
@@ -113,6 +113,18 @@ public class CrawlingCursor {
         this(0, 1, null, null, lastId);
     }
 
+    /**
+     * @return a copy of this cursor, to keep its state while it is iterated on next pages
+     */
+    public CrawlingCursor copy() {
+        CrawlingCursor copy = new CrawlingCursor(position, size, currentLastEntityDate, lastEntityDate, lastId);
+        copy.previousLastEntityDate = previousLastEntityDate;
+        copy.previousLastId = previousLastId;
+        copy.currentLastId = currentLastId;
+        copy.hasNext = hasNext;
+        return copy;
+    }
+
     public void next() {
         next(CrawlingCursorMode.CRAWL_SINCE_LAST_UPDATE);
     }
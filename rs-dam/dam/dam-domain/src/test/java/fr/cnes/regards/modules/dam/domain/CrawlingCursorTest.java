@@ -286,6 +286,26 @@ class CrawlingCursorTest {
         Assertions.assertNotNull(cursor.getLastId());
     }
 
+    @Test
+    @Purpose("Test that a copy of the cursor keeps the state of the page while the cursor is iterated")
+    void copy_keeps_page_state() {
+        OffsetDateTime referenceDate = OffsetDateTime.of(2020, 1, 1, 1, 1, 1, 0, ZoneOffset.UTC);
+        CrawlingCursor cursor = new CrawlingCursor(referenceDate);
+        cursor.tryApplyOverlap(10);
+        cursor.setCurrentLastEntityDate(referenceDate.plusDays(1));
+        cursor.setHasNext(true);
+
+        CrawlingCursor pageCursor = cursor.copy();
+        Assertions.assertEquals(cursor, pageCursor);
+
+        cursor.next(CrawlingCursorMode.CRAWL_SINCE_LAST_UPDATE);
+        Assertions.assertNotEquals(cursor, pageCursor);
+        Assertions.assertEquals(0, pageCursor.getPosition());
+        Assertions.assertEquals(referenceDate.minusSeconds(10), pageCursor.getLastEntityDate());
+        Assertions.assertEquals(referenceDate, pageCursor.getPreviousLastEntityDate());
+        Assertions.assertEquals(referenceDate.plusDays(1), pageCursor.getCurrentLastEntityDate());
+    }
+
     private CrawlingCursor simulateDatabaseNextCursor(CrawlingCursor previousCrawlingCursor, boolean noData) {
         CrawlingCursor nextCursor = new CrawlingCursor(0, 10);
         if (previousCrawlingCursor == null) {
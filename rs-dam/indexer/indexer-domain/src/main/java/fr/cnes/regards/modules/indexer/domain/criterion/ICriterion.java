@@ -118,6 +118,15 @@ public interface ICriterion {
         return crit;
     }
 
+    /**
+     * Criterion on a keyword attribute strictly greater than given value (lexicographic order)
+     */
+    static ICriterion gt(String attName, String value) {
+        RangeCriterion<String> crit = new RangeCriterion<>(attName);
+        crit.addValueComparison(new ValueComparison<>(ComparisonOperator.GREATER, value));
+        return crit;
+    }
+
     static ICriterion eq(String attName, int value) {
         return new IntMatchCriterion(attName, value);
     }
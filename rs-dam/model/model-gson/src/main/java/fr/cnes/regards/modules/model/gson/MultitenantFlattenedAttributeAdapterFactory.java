@@ -18,10 +18,13 @@
  */
 package fr.cnes.regards.modules.model.gson;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
+import com.google.gson.*;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.internal.Streams;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import fr.cnes.regards.framework.gson.adapters.MultitenantPolymorphicTypeAdapterFactory;
 import fr.cnes.regards.framework.gson.annotation.GsonTypeAdapterFactoryBean;
 import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
@@ -31,10 +34,14 @@ import fr.cnes.regards.modules.model.dto.properties.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.io.Serializable;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Manage dynamic attribute (de)serialization
@@ -65,11 +72,6 @@ public class MultitenantFlattenedAttributeAdapterFactory extends MultitenantPoly
      */
     private static final String NS_SEPARATOR = ".";
 
-    /**
-     * Regexp escape character
-     */
-    private static final String REGEXP_ESCAPE = "\\";
-
     public MultitenantFlattenedAttributeAdapterFactory(final IRuntimeTenantResolver pRuntimeTenantResolver) {
         super(pRuntimeTenantResolver, IProperty.class, DISCRIMINATOR_FIELD_NAME);
         runtimeTenantResolver = pRuntimeTenantResolver;
@@ -285,6 +287,30 @@ public class MultitenantFlattenedAttributeAdapterFactory extends MultitenantPoly
         return flatten(pJsonElement, pSubType);
     }
 
+    /**
+     * Properties are read and written in their flattened form directly from the JSON stream. Only properties relying
+     * on a custom type adapter (i.e. intervals) or whose discriminator is unknown go through the JSON tree adapter
+     * (see {@link #createTreeAdapter(Gson, TypeToken)}).
+     */
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        TypeAdapter<T> treeAdapter = createTreeAdapter(gson, type);
+        if (treeAdapter == null) {
+            return null;
+        }
+        return new FlattenedPropertyAdapter<T>(gson, treeAdapter).nullSafe();
+    }
+
+    /**
+     * Create the JSON tree based adapter : flattened properties are parsed to a {@link JsonElement} and restored with
+     * {@link #beforeRead(JsonElement, String, Class)} before being read by their delegate adapter.
+     *
+     * @return JSON tree based adapter or null if type is not a property
+     */
+    protected <T> TypeAdapter<T> createTreeAdapter(Gson gson, TypeToken<T> type) {
+        return super.create(gson, type);
+    }
+
     /**
      * Flatten a {@link JsonElement} carrying key and value in separated fields into a single field whose key is the
      * value of the key field and value the value of the value field
@@ -294,7 +320,7 @@ public class MultitenantFlattenedAttributeAdapterFactory extends MultitenantPoly
      * @return flattened {@link JsonElement}
      */
     protected JsonElement flatten(final JsonElement pJsonElement, final Class<?> pSubType) {
-        LOGGER.debug(String.format("Flattening %s", pJsonElement));
+        LOGGER.debug("Flattening {}", pJsonElement);
 
         if (!pJsonElement.isJsonObject()) {
             final String format = "JSON element must be an object containing 2 members whose names are \"%s\" and \"%s\"";
@@ -327,7 +353,7 @@ public class MultitenantFlattenedAttributeAdapterFactory extends MultitenantPoly
             flattened.add(key.getAsString(), val);
         }
 
-        LOGGER.debug(String.format("Flattened object : \"%s\" -> \"%s\"", pJsonElement, flattened));
+        LOGGER.debug("Flattened object : \"{}\" -> \"{}\"", pJsonElement, flattened);
 
         return flattened;
     }
@@ -340,7 +366,7 @@ public class MultitenantFlattenedAttributeAdapterFactory extends MultitenantPoly
      * @return restored {@link JsonElement}
      */
     protected JsonElement restore(final JsonElement pJsonElement, final Class<?> pSubType) {
-        LOGGER.debug(String.format("Restoring %s", pJsonElement));
+        LOGGER.debug("Restoring {}", pJsonElement);
 
         if (!pJsonElement.isJsonObject()) {
             final String errorMessage = "JSON element must be an object.";
@@ -370,7 +396,7 @@ public class MultitenantFlattenedAttributeAdapterFactory extends MultitenantPoly
             }
         }
 
-        LOGGER.debug(String.format("Restored object : \"%s\" -> \"%s\"", pJsonElement, restored));
+        LOGGER.debug("Restored object : \"{}\" -> \"{}\"", pJsonElement, restored);
 
         return restored;
     }
@@ -414,7 +440,7 @@ public class MultitenantFlattenedAttributeAdapterFactory extends MultitenantPoly
         if (pJsonElement.isJsonObject()) {
 
             // Backup for logging
-            final String logOriginal = pJsonElement.toString();
+            final String logOriginal = LOGGER.isDebugEnabled() ? pJsonElement.toString() : null;
             final JsonObject o = pJsonElement.getAsJsonObject();
 
             for (final Map.Entry<String, JsonElement> entry : o.entrySet()) {
@@ -424,7 +450,7 @@ public class MultitenantFlattenedAttributeAdapterFactory extends MultitenantPoly
                 o.remove(entry.getKey());
             }
 
-            LOGGER.debug(String.format("Namespace added : \"%s\" -> \"%s\"", logOriginal, pJsonElement.toString()));
+            LOGGER.debug("Namespace added : \"{}\" -> \"{}\"", logOriginal, pJsonElement);
         } else {
             throw objectRequiredException(pJsonElement);
         }
@@ -439,7 +465,7 @@ public class MultitenantFlattenedAttributeAdapterFactory extends MultitenantPoly
         if (jsonElement.isJsonObject()) {
 
             // Backup for logging
-            final String logOriginal = jsonElement.toString();
+            final String logOriginal = LOGGER.isDebugEnabled() ? jsonElement.toString() : null;
 
             final JsonObject o = jsonElement.getAsJsonObject();
             final JsonElement nsElement = o.get(DISCRIMINATOR_FIELD_NAME);
@@ -449,23 +475,27 @@ public class MultitenantFlattenedAttributeAdapterFactory extends MultitenantPoly
 
             // Compute and inject name without its namespace
             final String nsName = nsElement.getAsString();
-            final String[] splitNsName = nsName.split(REGEXP_ESCAPE + NS_SEPARATOR);
-            o.add(DISCRIMINATOR_FIELD_NAME, new JsonPrimitive(splitNsName[splitNsName.length - 1]));
+            final String name = removeNamespace(nsName);
+            o.add(DISCRIMINATOR_FIELD_NAME, new JsonPrimitive(name));
 
-            if (splitNsName.length > 1) {
-                LOGGER.debug(String.format("Namespace removed : \"%s\" -> \"%s\"",
-                                           logOriginal,
-                                           jsonElement.toString()));
+            if (name.length() < nsName.length()) {
+                LOGGER.debug("Namespace removed : \"{}\" -> \"{}\"", logOriginal, jsonElement);
             } else {
-                LOGGER.debug(String.format("No namespace to remove : \"%s\" -> \"%s\"",
-                                           logOriginal,
-                                           jsonElement.toString()));
+                LOGGER.debug("No namespace to remove : \"{}\" -> \"{}\"", logOriginal, jsonElement);
             }
         } else {
             throw objectRequiredException(jsonElement);
         }
     }
 
+    /**
+     * @param nsName property name with its optional namespace
+     * @return property name without its namespace
+     */
+    private static String removeNamespace(String nsName) {
+        return nsName.substring(nsName.lastIndexOf(NS_SEPARATOR) + 1);
+    }
+
     private IllegalArgumentException objectRequiredException(final JsonElement pJsonElement) {
         final String errorMessage = String.format("Unexpected JSON element %s. Object required.",
                                                   pJsonElement.toString());
@@ -480,4 +510,218 @@ public class MultitenantFlattenedAttributeAdapterFactory extends MultitenantPoly
         LOGGER.error(errorMessage);
         return new IllegalArgumentException(errorMessage);
     }
+
+    /**
+     * Streaming adapter reading and writing the flattened form of properties, i.e. <code>{"name": value}</code> or
+     * <code>{"fragment": {"name": value, ...}}</code>, without building intermediate {@link JsonElement}.
+     */
+    @SuppressWarnings("unchecked")
+    private final class FlattenedPropertyAdapter<T> extends TypeAdapter<T> {
+
+        private final Gson gson;
+
+        private final TypeAdapter<T> treeAdapter;
+
+        /**
+         * Codec by property type, computed once for the {@link Gson} instance of this adapter
+         */
+        private final ConcurrentMap<Class<?>, PropertyCodec> codecs = new ConcurrentHashMap<>();
+
+        private FlattenedPropertyAdapter(Gson gson, TypeAdapter<T> treeAdapter) {
+            this.gson = gson;
+            this.treeAdapter = treeAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            PropertyCodec codec = getCodec(value.getClass());
+            if (!codec.isStreamable()) {
+                treeAdapter.write(out, value);
+                return;
+            }
+            boolean serializeNulls = out.getSerializeNulls();
+            out.setSerializeNulls(true);
+            try {
+                out.beginObject();
+                writeMember(out, (IProperty<?>) value, codec);
+                out.endObject();
+            } finally {
+                out.setSerializeNulls(serializeNulls);
+            }
+        }
+
+        private void writeMember(JsonWriter out, IProperty<?> property, PropertyCodec codec) throws IOException {
+            out.name(property.getName());
+            if (!codec.isObject()) {
+                codec.getValueAdapter().write(out, property.getValue());
+            } else if (property.getValue() == null) {
+                out.nullValue();
+            } else {
+                out.beginObject();
+                for (IProperty<?> child : ((ObjectProperty) property).getValue()) {
+                    if (child != null) {
+                        writeChild(out, child);
+                    }
+                }
+                out.endObject();
+            }
+        }
+
+        private void writeChild(JsonWriter out, IProperty<?> child) throws IOException {
+            PropertyCodec codec = getCodec(child.getClass());
+            if (codec.isStreamable()) {
+                writeMember(out, child, codec);
+            } else {
+                JsonObject flattened = ((TypeAdapter<Object>) treeAdapter).toJsonTree(child).getAsJsonObject();
+                for (Map.Entry<String, JsonElement> member : flattened.entrySet()) {
+                    out.name(member.getKey());
+                    Streams.write(member.getValue(), out);
+                }
+            }
+        }
+
+        @Override
+        public T read(JsonReader in) throws IOException {
+            String tenant = runtimeTenantResolver.getTenant();
+            Map<String, Class<?>> tenantDiscriminatorToSubtype = tenant == null ?
+                Collections.emptyMap() :
+                getTenantDiscriminatorToSubtype(tenant);
+
+            in.beginObject();
+            if (!in.hasNext()) {
+                throw singleKeyExpectedException("{}");
+            }
+            String discriminator = in.nextName();
+            IProperty<?> property = readMember(in, discriminator, tenantDiscriminatorToSubtype);
+            if (in.hasNext()) {
+                throw singleKeyExpectedException(String.format("{\"%s\": ..., \"%s\": ...}",
+                                                               discriminator,
+                                                               in.nextName()));
+            }
+            in.endObject();
+            return (T) property;
+        }
+
+        private IProperty<?> readMember(JsonReader in,
+                                        String discriminator,
+                                        Map<String, Class<?>> tenantDiscriminatorToSubtype) throws IOException {
+            Class<?> subtype = tenantDiscriminatorToSubtype.get(discriminator);
+            PropertyCodec codec = subtype == null ? null : getCodec(subtype);
+            if ((codec == null) || !codec.isStreamable()) {
+                // Let tree adapter manage custom and unknown properties
+                JsonObject flattened = new JsonObject();
+                flattened.add(discriminator, Streams.parse(in));
+                return (IProperty<?>) treeAdapter.fromJsonTree(flattened);
+            }
+
+            AbstractProperty<Object> property = codec.newProperty();
+            property.setName(removeNamespace(discriminator));
+            if (!codec.isObject()) {
+                property.setValue(codec.getValueAdapter().read(in));
+            } else if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+            } else {
+                Set<IProperty<?>> children = new LinkedHashSet<>();
+                in.beginObject();
+                while (in.hasNext()) {
+                    String childDiscriminator = discriminator.concat(NS_SEPARATOR).concat(in.nextName());
+                    children.add(readMember(in, childDiscriminator, tenantDiscriminatorToSubtype));
+                }
+                in.endObject();
+                property.setValue(children);
+            }
+            return property;
+        }
+
+        private PropertyCodec getCodec(Class<?> type) {
+            PropertyCodec codec = codecs.get(type);
+            if (codec == null) {
+                codec = PropertyCodec.build(gson, type);
+                PropertyCodec existing = codecs.putIfAbsent(type, codec);
+                if (existing != null) {
+                    codec = existing;
+                }
+            }
+            return codec;
+        }
+
+        private IllegalArgumentException singleKeyExpectedException(String json) {
+            String errorMessage = String.format("Only single key/value pair is expected in \"%s\"", json);
+            LOGGER.error(errorMessage);
+            return new IllegalArgumentException(errorMessage);
+        }
+    }
+
+    /**
+     * Precomputed (de)serialization metadata of a property type
+     */
+    @SuppressWarnings("unchecked")
+    private static final class PropertyCodec {
+
+        /**
+         * Codec of the properties that cannot be streamed
+         */
+        private static final PropertyCodec TREE = new PropertyCodec(null, null, false);
+
+        private final Constructor<?> constructor;
+
+        private final TypeAdapter<Object> valueAdapter;
+
+        private final boolean object;
+
+        private PropertyCodec(Constructor<?> constructor, TypeAdapter<Object> valueAdapter, boolean object) {
+            this.constructor = constructor;
+            this.valueAdapter = valueAdapter;
+            this.object = object;
+        }
+
+        private static PropertyCodec build(Gson gson, Class<?> type) {
+            // Properties with a custom adapter keep their own JSON structure
+            if (!AbstractProperty.class.isAssignableFrom(type)
+                || Modifier.isAbstract(type.getModifiers())
+                || type.isAnnotationPresent(JsonAdapter.class)) {
+                return TREE;
+            }
+            Constructor<?> constructor;
+            try {
+                constructor = type.getDeclaredConstructor();
+                constructor.setAccessible(true);
+            } catch (NoSuchMethodException | SecurityException e) {
+                LOGGER.debug("No default constructor for property type {}", type.getName(), e);
+                return TREE;
+            }
+            if (ObjectProperty.class.isAssignableFrom(type)) {
+                return new PropertyCodec(constructor, null, true);
+            }
+            Type valueType = com.google.common.reflect.TypeToken.of(type)
+                                                               .resolveType(AbstractProperty.class.getTypeParameters()[0])
+                                                               .getType();
+            return new PropertyCodec(constructor,
+                                     (TypeAdapter<Object>) gson.getAdapter(TypeToken.get(valueType)),
+                                     false);
+        }
+
+        private boolean isStreamable() {
+            return constructor != null;
+        }
+
+        private boolean isObject() {
+            return object;
+        }
+
+        private TypeAdapter<Object> getValueAdapter() {
+            return valueAdapter;
+        }
+
+        private AbstractProperty<Object> newProperty() {
+            try {
+                return (AbstractProperty<Object>) constructor.newInstance();
+            } catch (ReflectiveOperationException e) {
+                String errorMessage = String.format("Cannot instantiate property of type %s",
+                                                    constructor.getDeclaringClass().getName());
+                LOGGER.error(errorMessage, e);
+                throw new JsonParseException(errorMessage, e);
+            }
+        }
+    }
 }
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.model.gson;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import fr.cnes.regards.framework.gson.adapters.OffsetDateTimeAdapter;
+import fr.cnes.regards.framework.multitenant.test.SingleRuntimeTenantResolver;
+import fr.cnes.regards.modules.model.dto.properties.*;
+import fr.cnes.regards.modules.model.dto.properties.adapter.MarkdownURLAdapter;
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Test for {@link MultitenantFlattenedAttributeAdapterFactory}.
+ * <p>The purpose of this test is to check that the streaming adapter reads and writes the same flattened JSON as the
+ * JSON tree adapter.</p>
+ * TEST PLAN :
+ * <ul>
+ *  <li>Nominal cases :
+ *    <ul>
+ *      <li>{@link #givenProperties_whenWritten_thenSameJsonAsTreeAdapter()}</li>
+ *      <li>{@link #givenFlattenedJson_whenRead_thenSamePropertiesAsTreeAdapter()}</li>
+ *      <li>{@link #givenFragment_whenRead_thenChildrenNamesWithoutNamespace()}</li>
+ *    </ul></li>
+ *  <li>Error cases :
+ *    <ul>
+ *      <li>{@link #givenSeveralKeys_whenRead_thenException()}</li>
+ *      <li>{@link #givenUnknownProperty_whenRead_thenException()}</li>
+ *    </ul></li>
+ * </ul>
+ */
+public class MultitenantFlattenedAttributeAdapterFactoryTest {
+
+    private static final String TENANT = "PROJECT";
+
+    private static final String FRAGMENT = "fragment";
+
+    private static final Type PROPERTIES_TYPE = new TypeToken<List<IProperty<?>>>() {
+
+    }.getType();
+
+    private Gson gson; // streaming adapter under test
+
+    private Gson treeGson;
+
+    @Before
+    public void init() {
+        gson = buildGson(new MultitenantFlattenedAttributeAdapterFactory(new SingleRuntimeTenantResolver(TENANT)));
+        treeGson = buildGson(new MultitenantFlattenedAttributeAdapterFactory(new SingleRuntimeTenantResolver(TENANT)) {
+
+            @Override
+            public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+                return createTreeAdapter(gson, type);
+            }
+        });
+    }
+
+    @Test
+    public void givenProperties_whenWritten_thenSameJsonAsTreeAdapter() {
+        // --- GIVEN ---
+        List<IProperty<?>> properties = buildProperties();
+
+        // --- WHEN ---
+        String json = gson.toJson(properties, PROPERTIES_TYPE);
+
+        // --- THEN ---
+        Assertions.assertThat(JsonParser.parseString(json))
+                  .isEqualTo(JsonParser.parseString(treeGson.toJson(properties, PROPERTIES_TYPE)));
+        Assertions.assertThat(JsonParser.parseString(json).getAsJsonArray().get(1).getAsJsonObject().has("nullString"))
+                  .isTrue();
+    }
+
+    @Test
+    public void givenFlattenedJson_whenRead_thenSamePropertiesAsTreeAdapter() {
+        // --- GIVEN ---
+        String json = treeGson.toJson(buildProperties(), PROPERTIES_TYPE);
+
+        // --- WHEN ---
+        List<IProperty<?>> properties = gson.fromJson(json, PROPERTIES_TYPE);
+
+        // --- THEN ---
+        List<IProperty<?>> treeProperties = treeGson.fromJson(json, PROPERTIES_TYPE);
+        Assertions.assertThat(properties).hasSameSizeAs(treeProperties);
+        for (int i = 0; i < properties.size(); i++) {
+            Assertions.assertThat(properties.get(i)).isExactlyInstanceOf(treeProperties.get(i).getClass());
+            Assertions.assertThat(properties.get(i).getName()).isEqualTo(treeProperties.get(i).getName());
+        }
+        Assertions.assertThat(JsonParser.parseString(treeGson.toJson(properties, PROPERTIES_TYPE)))
+                  .isEqualTo(JsonParser.parseString(json));
+    }
+
+    @Test
+    public void givenFragment_whenRead_thenChildrenNamesWithoutNamespace() {
+        // --- GIVEN ---
+        String json = "{\"fragment\": {\"label\": \"a label\", \"count\": 12, \"period\": "
+                      + "{\"lowerBound\": 1, \"upperBound\": 5}}}";
+
+        // --- WHEN ---
+        IProperty<?> property = gson.fromJson(json, IProperty.class);
+
+        // --- THEN ---
+        Assertions.assertThat(property).isInstanceOf(ObjectProperty.class);
+        Assertions.assertThat(property.getName()).isEqualTo(FRAGMENT);
+        Assertions.assertThat(((ObjectProperty) property).getValue())
+                  .extracting(IProperty::getName, IProperty::getValue)
+                  .containsExactly(Assertions.tuple("label", "a label"),
+                                   Assertions.tuple("count", 12),
+                                   Assertions.tuple("period", IProperty.buildIntegerInterval("period", 1, 5).getValue()));
+    }
+
+    @Test
+    public void givenSeveralKeys_whenRead_thenException() {
+        // --- GIVEN ---
+        String json = "{\"string\": \"value\", \"integer\": 1}";
+
+        // --- WHEN / THEN ---
+        Assertions.assertThatThrownBy(() -> gson.fromJson(json, IProperty.class))
+                  .isInstanceOf(IllegalArgumentException.class)
+                  .hasMessageContaining("Only single key/value pair is expected");
+    }
+
+    @Test
+    public void givenUnknownProperty_whenRead_thenException() {
+        // --- GIVEN ---
+        String json = "{\"unknown\": \"value\"}";
+
+        // --- WHEN / THEN ---
+        Assertions.assertThatThrownBy(() -> gson.fromJson(json, IProperty.class))
+                  .isInstanceOf(JsonParseException.class)
+                  .hasMessageContaining("unknown");
+    }
+
+    private static Gson buildGson(MultitenantFlattenedAttributeAdapterFactory factory) {
+        for (PropertyType type : PropertyType.values()) {
+            if (type != PropertyType.OBJECT) {
+                factory.registerSubtype(TENANT, factory.getClassByType(type), type.name().toLowerCase());
+            }
+        }
+        factory.registerSubtype(TENANT, StringProperty.class, "nullString");
+        factory.registerSubtype(TENANT, ObjectProperty.class, FRAGMENT);
+        factory.registerSubtype(TENANT, StringProperty.class, "label", FRAGMENT);
+        factory.registerSubtype(TENANT, IntegerProperty.class, "count", FRAGMENT);
+        factory.registerSubtype(TENANT, IntegerIntervalProperty.class, "period", FRAGMENT);
+        return new GsonBuilder().registerTypeAdapter(OffsetDateTime.class, new OffsetDateTimeAdapter())
+                                .registerTypeAdapter(MarkdownURL.class, new MarkdownURLAdapter())
+                                .registerTypeAdapterFactory(factory)
+                                .create();
+    }
+
+    private static List<IProperty<?>> buildProperties() {
+        OffsetDateTime date = OffsetDateTime.of(2024, 1, 2, 3, 4, 5, 0, ZoneOffset.UTC);
+        return List.of(IProperty.buildString("string", "value"),
+                       IProperty.buildString("nullString", null),
+                       IProperty.buildBoolean("boolean", true),
+                       IProperty.buildInteger("integer", 1),
+                       IProperty.buildLong("long", 2L),
+                       IProperty.buildDouble("double", 3.5),
+                       IProperty.buildDate("date_iso8601", date),
+                       IProperty.buildUrl("url", "http://regards.fr"),
+                       IProperty.buildStringArray("string_array", "a", "b"),
+                       IProperty.buildIntegerArray("integer_array", 1, 2),
+                       IProperty.buildLongArray("long_array", 1L, 2L),
+                       IProperty.buildDoubleArray("double_array", 1.5, 2.5),
+                       IProperty.buildDateArray("date_array", date, date.plusDays(1)),
+                       IProperty.buildIntegerRange("integer_range", 1, 5),
+                       IProperty.buildLongRange("long_range", 1L, 5L),
+                       IProperty.buildDoubleRange("double_range", 1.5, 5.5),
+                       IProperty.buildDateRange("date_range", date, date.plusDays(1)),
+                       IProperty.buildIntegerInterval("integer_interval", 1, 5),
+                       IProperty.buildLongInterval("long_interval", 1L, 5L),
+                       IProperty.buildDoubleInterval("double_interval", 1.5, 5.5),
+                       IProperty.buildDateInterval("date_interval", date, date.plusDays(1)),
+                       IProperty.buildJson("json", JsonParser.parseString("{\"key\": [1, 2, {\"sub\": null}]}")),
+                       IProperty.buildObject(FRAGMENT,
+                                             IProperty.buildString("label", "a label"),
+                                             IProperty.buildInteger("count", 12),
+                                             IProperty.buildIntegerInterval("period", 1, 5)));
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.model.gson.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import fr.cnes.regards.framework.gson.adapters.OffsetDateTimeAdapter;
+import fr.cnes.regards.framework.multitenant.test.SingleRuntimeTenantResolver;
+import fr.cnes.regards.modules.model.dto.properties.*;
+import fr.cnes.regards.modules.model.dto.properties.adapter.MarkdownURLAdapter;
+import fr.cnes.regards.modules.model.gson.MultitenantFlattenedAttributeAdapterFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Type;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the (de)serialization of the properties of a large catalog entity by the streaming adapter and by
+ * the JSON tree adapter of {@link MultitenantFlattenedAttributeAdapterFactory}.<br/>
+ * Not run by the test phase, launch {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlattenedAttributeAdapterBenchmark {
+
+    private static final String TENANT = "PROJECT";
+
+    private static final Type PROPERTIES_TYPE = new TypeToken<List<IProperty<?>>>() {
+
+    }.getType();
+
+    /**
+     * Number of properties of each type in the default fragment
+     */
+    @Param({ "50" })
+    private int nbPropertiesByType;
+
+    /**
+     * Number of fragments, each fragment contains one property of each type
+     */
+    @Param({ "20" })
+    private int nbFragments;
+
+    private Gson gson;
+
+    private Gson treeGson;
+
+    private List<IProperty<?>> properties;
+
+    private String json;
+
+    @Setup
+    public void setUp() {
+        gson = buildGson(new MultitenantFlattenedAttributeAdapterFactory(new SingleRuntimeTenantResolver(TENANT)));
+        treeGson = buildGson(new MultitenantFlattenedAttributeAdapterFactory(new SingleRuntimeTenantResolver(TENANT)) {
+
+            @Override
+            public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+                return createTreeAdapter(gson, type);
+            }
+        });
+
+        properties = new ArrayList<>();
+        for (int i = 0; i < nbPropertiesByType; i++) {
+            properties.addAll(buildProperties(i));
+        }
+        for (int f = 0; f < nbFragments; f++) {
+            properties.add(IProperty.buildObject("fragment" + f, buildProperties(0).toArray(new IProperty<?>[0])));
+        }
+        json = treeGson.toJson(properties, PROPERTIES_TYPE);
+    }
+
+    private Gson buildGson(MultitenantFlattenedAttributeAdapterFactory factory) {
+        for (int i = 0; i < nbPropertiesByType; i++) {
+            for (IProperty<?> property : buildProperties(i)) {
+                factory.registerSubtype(TENANT, property.getClass(), property.getName());
+            }
+        }
+        for (int f = 0; f < nbFragments; f++) {
+            factory.registerSubtype(TENANT, ObjectProperty.class, "fragment" + f);
+            for (IProperty<?> property : buildProperties(0)) {
+                factory.registerSubtype(TENANT, property.getClass(), property.getName(), "fragment" + f);
+            }
+        }
+        return new GsonBuilder().registerTypeAdapter(OffsetDateTime.class, new OffsetDateTimeAdapter())
+                                .registerTypeAdapter(MarkdownURL.class, new MarkdownURLAdapter())
+                                .registerTypeAdapterFactory(factory)
+                                .create();
+    }
+
+    private static List<IProperty<?>> buildProperties(int index) {
+        OffsetDateTime date = OffsetDateTime.parse("2024-01-02T03:04:05.123Z");
+        return List.of(IProperty.buildString("string" + index, "value of property " + index),
+                       IProperty.buildBoolean("boolean" + index, true),
+                       IProperty.buildInteger("integer" + index, index),
+                       IProperty.buildLong("long" + index, 1_000_000_000_000L + index),
+                       IProperty.buildDouble("double" + index, index + 0.5),
+                       IProperty.buildDate("date" + index, date.plusDays(index)),
+                       IProperty.buildUrl("url" + index, "https://regards.fr/" + index),
+                       IProperty.buildStringArray("stringArray" + index, "a", "b", "c"),
+                       IProperty.buildDoubleArray("doubleArray" + index, 1.5, 2.5, 3.5),
+                       IProperty.buildDateRange("dateRange" + index, date, date.plusDays(1)),
+                       IProperty.buildIntegerInterval("integerInterval" + index, 1, index + 1));
+    }
+
+    @Benchmark
+    public String write() {
+        return gson.toJson(properties, PROPERTIES_TYPE);
+    }
+
+    @Benchmark
+    public String writeTree() {
+        return treeGson.toJson(properties, PROPERTIES_TYPE);
+    }
+
+    @Benchmark
+    public List<IProperty<?>> read() {
+        return gson.fromJson(json, PROPERTIES_TYPE);
+    }
+
+    @Benchmark
+    public List<IProperty<?>> readTree() {
+        return treeGson.fromJson(json, PROPERTIES_TYPE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(FlattenedAttributeAdapterBenchmark.class.getSimpleName())
+                                       .build()).run();
+    }
+}
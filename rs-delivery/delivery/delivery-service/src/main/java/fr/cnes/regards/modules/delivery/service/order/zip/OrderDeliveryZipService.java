@@ -24,12 +24,14 @@ import fr.cnes.regards.modules.delivery.domain.input.DeliveryRequest;
 import fr.cnes.regards.modules.delivery.domain.order.zip.ZipDeliveryInfo;
 import fr.cnes.regards.modules.delivery.service.order.zip.steps.DeliveryDownloadService;
 import fr.cnes.regards.modules.delivery.service.order.zip.steps.DeliveryZipCreateService;
+import fr.cnes.regards.modules.delivery.service.order.zip.steps.DeliveryZipStreamService;
 import fr.cnes.regards.modules.delivery.service.order.zip.steps.DeliveryZipUploadService;
 import fr.cnes.regards.modules.delivery.service.order.zip.workspace.DeliveryDownloadWorkspaceManager;
 import jakarta.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -55,17 +57,32 @@ public class OrderDeliveryZipService {
 
     private final DeliveryZipUploadService zipUploadService;
 
+    private final DeliveryZipStreamService zipStreamService;
+
+    /**
+     * If true, files are streamed into a zip written directly to the S3 remote location. Otherwise files and zip are
+     * staged in the delivery workspace.
+     */
+    private final boolean zipStreamingEnabled;
+
     public OrderDeliveryZipService(IWorkspaceService workspaceService,
                                    DeliveryDownloadService downloadService,
-                                   DeliveryZipUploadService zipUploadService) {
+                                   DeliveryZipUploadService zipUploadService,
+                                   DeliveryZipStreamService zipStreamService,
+                                   @Value("${regards.delivery.zip.streaming.enabled:true}")
+                                   boolean zipStreamingEnabled) {
         this.workspaceService = workspaceService;
         this.downloadService = downloadService;
         this.zipCreateService = new DeliveryZipCreateService();
         this.zipUploadService = zipUploadService;
+        this.zipStreamService = zipStreamService;
+        this.zipStreamingEnabled = zipStreamingEnabled;
     }
 
     /**
-     * Make a delivery in a four-steps process:
+     * Make a delivery. By default, files requested in the {@link DeliveryRequest} are streamed into a zip uploaded
+     * to a S3 remote location while it is written (see {@link DeliveryZipStreamService}).<br/>
+     * If streaming is disabled, the delivery is made in a four-steps process:
      * <ul>
      *     <li>Prepare specific delivery workspace where to download the files.</li>
      *     <li>Download files requested in the {@link DeliveryRequest} locally.</li>
@@ -80,6 +97,14 @@ public class OrderDeliveryZipService {
         String correlationId = deliveryRequest.getCorrelationId();
         MDC.put(DELIVERY_ID_LOG_KEY, String.valueOf(correlationId));
         LOGGER.debug("Starting processing delivery with correlation id '{}'.", correlationId);
+        if (zipStreamingEnabled) {
+            try {
+                return zipStreamService.streamDeliveryZip(deliveryRequest);
+            } finally {
+                LOGGER.debug("End of delivery processing with correlation id '{}'.", correlationId);
+                MDC.remove(DELIVERY_ID_LOG_KEY);
+            }
+        }
 
         DeliveryDownloadWorkspaceManager downloadWorkspaceManager = initDeliveryWorkspaceManager(correlationId);
         try {
@@ -148,11 +148,11 @@ public class DeliveryDownloadService {
      * @throws DeliveryOrderException if files could not be retrieved.
      */
     @NotNull
-    private PagedModel<EntityModel<OrderDataFileDTO>> retrieveAvailableFilePage(Long orderId,
-                                                                                String correlationId,
-                                                                                Pageable pageable,
-                                                                                String tenant,
-                                                                                String user)
+    PagedModel<EntityModel<OrderDataFileDTO>> retrieveAvailableFilePage(Long orderId,
+                                                                        String correlationId,
+                                                                        Pageable pageable,
+                                                                        String tenant,
+                                                                        String user)
         throws DeliveryOrderException {
         try {
             runtimeTenantResolver.forceTenant(tenant);
@@ -248,7 +248,7 @@ public class DeliveryDownloadService {
      * @param tenant        current tenant to identify the project
      * @param user          email address of the user who initiated the request
      */
-    private InputStream getFileInputStream(OrderDataFileDTO availableFile, String tenant, String user)
+    InputStream getFileInputStream(OrderDataFileDTO availableFile, String tenant, String user)
         throws DeliveryOrderException, IOException {
         try {
             runtimeTenantResolver.forceTenant(tenant);
@@ -280,9 +280,7 @@ public class DeliveryDownloadService {
                                       DeliveryDownloadWorkspaceManager deliveryWorkspace,
                                       InputStream fileInputStream) throws DeliveryOrderException, IOException {
         Path fileDownloadPath = deliveryWorkspace.getDownloadSubfolder()
-                                                 .resolve(String.format(PRODUCT_FOLDER_PATTERN,
-                                                                        availableFile.getProductId(),
-                                                                        availableFile.getVersion()))
+                                                 .resolve(getProductFolderName(availableFile))
                                                  .resolve(availableFile.getFilename());
         Files.createDirectories(fileDownloadPath.getParent());
         Files.createFile(fileDownloadPath);
@@ -303,19 +301,41 @@ public class DeliveryDownloadService {
     private void checkFileIntegrity(OrderDataFileDTO availableFile, Path fileDownloadPath)
         throws DeliveryOrderException {
         try {
-            String computedMd5Checksum = ChecksumUtils.computeHexChecksum(fileDownloadPath, "MD5");
-            if (!availableFile.getChecksum().equals(computedMd5Checksum)) {
-                throw new DeliveryOrderException(String.format("Downloaded file MD5 checksum '%s' does not match "
-                                                               + "the expected one '%s' (file with name '%s' located "
-                                                               + "at '%s'). File transfer is considered incomplete.",
-                                                               computedMd5Checksum,
-                                                               availableFile.getChecksum(),
-                                                               availableFile.getFilename(),
-                                                               fileDownloadPath));
-            }
+            checkFileChecksum(availableFile,
+                              ChecksumUtils.computeHexChecksum(fileDownloadPath, "MD5"),
+                              fileDownloadPath.toString());
         } catch (IOException | NoSuchAlgorithmException e) {
             throw new DeliveryOrderException(String.format("Could not compute MD5 checksum from file located at '%s'.",
                                                            fileDownloadPath), e);
         }
     }
+
+    /**
+     * Compare the md5 checksum computed from the bytes received with the one expected (provided by the file
+     * reference).
+     *
+     * @param availableFile       metadata about the file downloaded
+     * @param computedMd5Checksum checksum of the bytes received
+     * @param location            where the bytes received were written
+     * @throws DeliveryOrderException if checksums do not match
+     */
+    static void checkFileChecksum(OrderDataFileDTO availableFile, String computedMd5Checksum, String location)
+        throws DeliveryOrderException {
+        if (!availableFile.getChecksum().equals(computedMd5Checksum)) {
+            throw new DeliveryOrderException(String.format("Downloaded file MD5 checksum '%s' does not match "
+                                                           + "the expected one '%s' (file with name '%s' located "
+                                                           + "at '%s'). File transfer is considered incomplete.",
+                                                           computedMd5Checksum,
+                                                           availableFile.getChecksum(),
+                                                           availableFile.getFilename(),
+                                                           location));
+        }
+    }
+
+    /**
+     * Get the name of the folder containing the files of the product of the given file in the delivery.
+     */
+    static String getProductFolderName(OrderDataFileDTO availableFile) {
+        return String.format(PRODUCT_FOLDER_PATTERN, availableFile.getProductId(), availableFile.getVersion());
+    }
 }
@@ -30,6 +30,8 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collection;
 
 import static org.apache.commons.io.FilenameUtils.getName;
 import static org.apache.commons.io.FilenameUtils.removeExtension;
@@ -83,11 +85,18 @@ public class DeliveryZipCreateService {
      * Get the zip name according to the number of files present in the download folder.
      */
     private String getZipName(String correlationId, Path downloadPath) {
-        String zipName;
         File[] downloadFolder = downloadPath.toFile().listFiles();
         assert downloadFolder != null;
-        if (downloadFolder.length == 1) {
-            zipName = removeExtension(getName(downloadFolder[0].getName())) + ".zip";
+        return getZipName(correlationId, Arrays.stream(downloadFolder).map(File::getName).toList());
+    }
+
+    /**
+     * Get the zip name according to the names of the files or folders at the root of the zip.
+     */
+    static String getZipName(String correlationId, Collection<String> rootNames) {
+        String zipName;
+        if (rootNames.size() == 1) {
+            zipName = removeExtension(getName(rootNames.iterator().next())) + ".zip";
         } else {
             zipName = String.format(MULTIPLE_FILES_ZIP_NAME_PATTERN, correlationId);
         }
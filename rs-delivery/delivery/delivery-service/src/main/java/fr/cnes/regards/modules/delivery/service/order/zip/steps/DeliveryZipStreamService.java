@@ -0,0 +1,413 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.delivery.service.order.zip.steps;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
+import fr.cnes.regards.framework.utils.file.ChecksumUtils;
+import fr.cnes.regards.modules.delivery.domain.exception.DeliveryOrderException;
+import fr.cnes.regards.modules.delivery.domain.input.DeliveryRequest;
+import fr.cnes.regards.modules.delivery.domain.order.zip.ZipDeliveryInfo;
+import fr.cnes.regards.modules.delivery.service.order.s3.DeliveryS3ManagerService;
+import fr.cnes.regards.modules.order.dto.dto.OrderDataFileDTO;
+import jakarta.annotation.PreDestroy;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.stereotype.Service;
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Stream the files requested in a {@link DeliveryRequest} into a zip uploaded to a S3 remote location while it is
+ * being written, without staging the files nor the zip in the delivery workspace.
+ * <ul>
+ *     <li>Files are fetched from rs-order concurrently, ahead of the zip writer. Small files are downloaded in
+ *     memory, large ones are streamed directly into the zip.</li>
+ *     <li>The md5 checksum of each file is verified while its bytes are received.</li>
+ *     <li>The zip is written into the S3 multipart upload, its md5 checksum is computed on the fly.</li>
+ * </ul>
+ * If any file cannot be fetched or is corrupted, the upload is aborted and no zip is delivered.
+ */
+@Service
+public class DeliveryZipStreamService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeliveryZipStreamService.class);
+
+    /**
+     * Maximum number of zip chunks waiting to be uploaded
+     */
+    private static final int MAX_CHUNKS_WAITING_UPLOAD = 2;
+
+    private static final String CHECKSUM_ALGORITHM = "MD5";
+
+    private final DeliveryDownloadService downloadService;
+
+    private final DeliveryZipUploadService zipUploadService;
+
+    private final IRuntimeTenantResolver runtimeTenantResolver;
+
+    private final int availablePageSize;
+
+    /**
+     * Files up to this size are downloaded in memory ahead of the zip writer
+     */
+    private final long inMemoryFileMaxSize;
+
+    /**
+     * Number of files fetched ahead of the file written in the zip
+     */
+    private final int prefetchWindow;
+
+    private final ExecutorService downloadExecutor;
+
+    private final ExecutorService zipWriterExecutor;
+
+    public DeliveryZipStreamService(DeliveryDownloadService downloadService,
+                                    DeliveryZipUploadService zipUploadService,
+                                    IRuntimeTenantResolver runtimeTenantResolver,
+                                    @Value("${regards.delivery.available.files.bulk.size:100}") int availablePageSize,
+                                    @Value("${regards.delivery.download.concurrency:4}") int downloadConcurrency,
+                                    @Value("${regards.delivery.download.in.memory.file.max.size:8388608}")
+                                    long inMemoryFileMaxSize) {
+        this.downloadService = downloadService;
+        this.zipUploadService = zipUploadService;
+        this.runtimeTenantResolver = runtimeTenantResolver;
+        this.availablePageSize = availablePageSize;
+        this.inMemoryFileMaxSize = inMemoryFileMaxSize;
+        this.prefetchWindow = 2 * downloadConcurrency;
+        this.downloadExecutor = Executors.newFixedThreadPool(downloadConcurrency,
+                                                             new ThreadFactoryBuilder().setNameFormat(
+                                                                 "delivery-download-%d").setDaemon(true).build());
+        this.zipWriterExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat(
+            "delivery-zip-writer-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        downloadExecutor.shutdownNow();
+        zipWriterExecutor.shutdownNow();
+    }
+
+    /**
+     * Write the files requested in the {@link DeliveryRequest} in a zip streamed to the S3 delivery location.
+     *
+     * @param deliveryRequest client request to process
+     * @return metadata about the zip uploaded to the S3 remote location
+     * @throws DeliveryOrderException if files could not be retrieved or the zip could not be uploaded.
+     */
+    public ZipDeliveryInfo streamDeliveryZip(DeliveryRequest deliveryRequest) throws DeliveryOrderException {
+        String correlationId = deliveryRequest.getCorrelationId();
+        long start = System.currentTimeMillis();
+        String tenant = runtimeTenantResolver.getTenant();
+        String user = deliveryRequest.getUserName();
+
+        // 1. Get all the available files to deliver
+        List<OrderDataFileDTO> availableFiles = retrieveAvailableFiles(deliveryRequest, tenant, user);
+        Set<String> productFolders = availableFiles.stream()
+                                                   .map(DeliveryDownloadService::getProductFolderName)
+                                                   .collect(Collectors.toCollection(LinkedHashSet::new));
+        String zipName = DeliveryZipCreateService.getZipName(correlationId, productFolders);
+        LOGGER.debug("Starting streaming {} files to zip '{}' for delivery with correlation id '{}'.",
+                     availableFiles.size(),
+                     zipName,
+                     correlationId);
+
+        // 2. Write the zip in the background while the upload consumes it
+        ZipUploadStream uploadStream = new ZipUploadStream(DeliveryS3ManagerService.MULTIPART_THRESHOLD_BYTES,
+                                                           MAX_CHUNKS_WAITING_UPLOAD);
+        Future<String> zipWriting = zipWriterExecutor.submit(() -> writeZip(availableFiles,
+                                                                            uploadStream,
+                                                                            tenant,
+                                                                            user));
+        ZipDeliveryInfo uploadedZipInfo;
+        try {
+            uploadedZipInfo = zipUploadService.uploadZipStreamToS3DeliveryServer(deliveryRequest,
+                                                                                 zipName,
+                                                                                 uploadStream.toFlux());
+        } catch (DeliveryOrderException | RuntimeException e) {
+            boolean zipWritingFailed = uploadStream.isFailed();
+            uploadStream.cancel();
+            try {
+                waitForZip(zipWriting);
+            } catch (DeliveryOrderException zipWritingError) {
+                // The upload was aborted because of the zip writer, its error is the meaningful one
+                if (zipWritingFailed) {
+                    throw zipWritingError;
+                }
+            }
+            throw e;
+        }
+
+        // 3. Check that the zip uploaded is the zip written
+        String zipChecksum = waitForZip(zipWriting);
+        if (!zipChecksum.equals(uploadedZipInfo.md5Checksum())) {
+            throw new DeliveryOrderException(String.format("Uploaded zip MD5 checksum '%s' does not match the one "
+                                                           + "computed while writing it '%s' (zip located at '%s').",
+                                                           uploadedZipInfo.md5Checksum(),
+                                                           zipChecksum,
+                                                           uploadedZipInfo.uri()));
+        }
+        LOGGER.debug("""
+                         Successfully streamed files requested in delivery with correlationId '{}' to zip '{}'.
+                         Total number of files delivered: {}.
+                         Total duration: {} ms.""",
+                     correlationId,
+                     uploadedZipInfo.uri(),
+                     availableFiles.size(),
+                     System.currentTimeMillis() - start);
+        return uploadedZipInfo;
+    }
+
+    /**
+     * Retrieve references of all files requested from rs-order, page by page.
+     */
+    private List<OrderDataFileDTO> retrieveAvailableFiles(DeliveryRequest deliveryRequest, String tenant, String user)
+        throws DeliveryOrderException {
+        String correlationId = deliveryRequest.getCorrelationId();
+        Long orderId = deliveryRequest.getOrderId();
+        Assert.notNull(orderId,
+                       String.format("An unexpected error occurred orderId should not be null for "
+                                     + "delivery request with correlation id '%s'!", correlationId));
+        List<OrderDataFileDTO> availableFiles = new ArrayList<>();
+        Pageable pageable = PageRequest.of(0, availablePageSize, Sort.by("id"));
+        boolean hasNextPage = true;
+        while (hasNextPage) {
+            PagedModel<EntityModel<OrderDataFileDTO>> pageAvailableFiles = downloadService.retrieveAvailableFilePage(
+                orderId,
+                correlationId,
+                pageable,
+                tenant,
+                user);
+            for (EntityModel<OrderDataFileDTO> availableFileModel : pageAvailableFiles.getContent()) {
+                OrderDataFileDTO availableFile = availableFileModel.getContent();
+                if (availableFile == null) {
+                    throw new DeliveryOrderException(String.format(
+                        "Could not extract available file from delivery with correlation id '%s'",
+                        correlationId));
+                }
+                availableFiles.add(availableFile);
+            }
+            hasNextPage = pageAvailableFiles.getNextLink().isPresent();
+            if (hasNextPage) {
+                pageable = pageable.next();
+            }
+        }
+        return availableFiles;
+    }
+
+    /**
+     * Write the zip of all the files in the upload stream. Run by the zip writer thread.
+     *
+     * @return md5 checksum of the zip written
+     * @throws DeliveryOrderException if the zip could not be written entirely. The upload stream is failed so that the
+     *                                upload is aborted.
+     */
+    private String writeZip(List<OrderDataFileDTO> availableFiles,
+                            ZipUploadStream uploadStream,
+                            String tenant,
+                            String user) throws DeliveryOrderException {
+        runtimeTenantResolver.forceTenant(tenant);
+        ZipArchiveOutputStream zipOutputStream = null;
+        try {
+            MessageDigest zipDigest = MessageDigest.getInstance(CHECKSUM_ALGORITHM);
+            zipOutputStream = new ZipArchiveOutputStream(new DigestOutputStream(uploadStream, zipDigest));
+            writeZipEntries(availableFiles, zipOutputStream, tenant, user);
+            zipOutputStream.close();
+            return ChecksumUtils.getHexChecksum(zipDigest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            DeliveryOrderException error = new DeliveryOrderException("Could not write delivery zip.", e);
+            abortZip(uploadStream, zipOutputStream, error);
+            throw error;
+        } catch (DeliveryOrderException | RuntimeException e) {
+            abortZip(uploadStream, zipOutputStream, e);
+            throw e;
+        } finally {
+            runtimeTenantResolver.clearTenant();
+        }
+    }
+
+    /**
+     * Fail the upload stream before releasing the zip, so that an incomplete zip is never uploaded.
+     */
+    private void abortZip(ZipUploadStream uploadStream, ZipArchiveOutputStream zipOutputStream, Exception cause) {
+        uploadStream.fail(cause);
+        IOUtils.closeQuietly(zipOutputStream);
+    }
+
+    /**
+     * Write the files in the zip, in order. The next small files are downloaded concurrently while the current file
+     * is written.
+     */
+    private void writeZipEntries(List<OrderDataFileDTO> availableFiles,
+                                 ZipArchiveOutputStream zipOutputStream,
+                                 String tenant,
+                                 String user) throws DeliveryOrderException, IOException {
+        Map<Integer, Future<byte[]>> prefetchedFiles = new HashMap<>();
+        int nextFileToPrefetch = 0;
+        try {
+            for (int i = 0; i < availableFiles.size(); i++) {
+                for (; nextFileToPrefetch < availableFiles.size() && nextFileToPrefetch <= i + prefetchWindow;
+                     nextFileToPrefetch++) {
+                    OrderDataFileDTO fileToPrefetch = availableFiles.get(nextFileToPrefetch);
+                    if (isDownloadedInMemory(fileToPrefetch)) {
+                        prefetchedFiles.put(nextFileToPrefetch,
+                                            downloadExecutor.submit(() -> downloadInMemory(fileToPrefetch,
+                                                                                           tenant,
+                                                                                           user)));
+                    }
+                }
+                OrderDataFileDTO availableFile = availableFiles.get(i);
+                ZipArchiveEntry archiveEntry = new ZipArchiveEntry(getZipEntryName(availableFile));
+                if (availableFile.getFilesize() != null) {
+                    archiveEntry.setSize(availableFile.getFilesize());
+                }
+                zipOutputStream.putArchiveEntry(archiveEntry);
+                Future<byte[]> prefetchedFile = prefetchedFiles.remove(i);
+                if (prefetchedFile != null) {
+                    zipOutputStream.write(waitForDownload(availableFile, prefetchedFile));
+                } else {
+                    streamFile(availableFile, zipOutputStream, tenant, user);
+                }
+                zipOutputStream.closeArchiveEntry();
+            }
+        } finally {
+            prefetchedFiles.values().forEach(prefetchedFile -> prefetchedFile.cancel(true));
+        }
+    }
+
+    private boolean isDownloadedInMemory(OrderDataFileDTO availableFile) {
+        return availableFile.getFilesize() != null && availableFile.getFilesize() <= inMemoryFileMaxSize;
+    }
+
+    /**
+     * Download a file in memory and check its integrity. Run by the download threads.
+     */
+    private byte[] downloadInMemory(OrderDataFileDTO availableFile, String tenant, String user)
+        throws DeliveryOrderException, IOException, NoSuchAlgorithmException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(CHECKSUM_ALGORITHM);
+            byte[] content;
+            try (InputStream fileStream = new DigestInputStream(downloadService.getFileInputStream(availableFile,
+                                                                                                   tenant,
+                                                                                                   user), digest)) {
+                content = fileStream.readAllBytes();
+            }
+            DeliveryDownloadService.checkFileChecksum(availableFile,
+                                                      ChecksumUtils.getHexChecksum(digest.digest()),
+                                                      getZipEntryName(availableFile));
+            return content;
+        } finally {
+            runtimeTenantResolver.clearTenant();
+        }
+    }
+
+    /**
+     * Copy a file directly from rs-order into the zip and check its integrity once copied.
+     */
+    private void streamFile(OrderDataFileDTO availableFile,
+                            ZipArchiveOutputStream zipOutputStream,
+                            String tenant,
+                            String user) throws DeliveryOrderException, IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(CHECKSUM_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new DeliveryOrderException("Could not compute MD5 checksum of delivered files.", e);
+        }
+        try (InputStream fileStream = new DigestInputStream(downloadService.getFileInputStream(availableFile,
+                                                                                               tenant,
+                                                                                               user), digest)) {
+            fileStream.transferTo(zipOutputStream);
+        }
+        DeliveryDownloadService.checkFileChecksum(availableFile,
+                                                  ChecksumUtils.getHexChecksum(digest.digest()),
+                                                  getZipEntryName(availableFile));
+    }
+
+    private byte[] waitForDownload(OrderDataFileDTO availableFile, Future<byte[]> prefetchedFile)
+        throws DeliveryOrderException {
+        try {
+            return prefetchedFile.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeliveryOrderException(String.format("Interrupted while downloading file with name '%s'",
+                                                           availableFile.getFilename()), e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DeliveryOrderException deliveryOrderException) {
+                throw deliveryOrderException;
+            }
+            throw new DeliveryOrderException(String.format("Could not download file with name '%s'",
+                                                           availableFile.getFilename()), e.getCause());
+        }
+    }
+
+    /**
+     * Wait for the end of the zip writing.
+     *
+     * @return md5 checksum of the zip written
+     * @throws DeliveryOrderException the error of the zip writer if any.
+     */
+    private String waitForZip(Future<String> zipWriting) throws DeliveryOrderException {
+        try {
+            return zipWriting.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            zipWriting.cancel(true);
+            throw new DeliveryOrderException("Interrupted while writing delivery zip.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DeliveryOrderException deliveryOrderException) {
+                throw deliveryOrderException;
+            }
+            throw new DeliveryOrderException("Could not write delivery zip.", e.getCause());
+        }
+    }
+
+    /**
+     * Get the path of the file in the zip, files are grouped by product as in the staged delivery.
+     */
+    private static String getZipEntryName(OrderDataFileDTO availableFile) {
+        return "/" + DeliveryDownloadService.getProductFolderName(availableFile) + "/" + availableFile.getFilename();
+    }
+}
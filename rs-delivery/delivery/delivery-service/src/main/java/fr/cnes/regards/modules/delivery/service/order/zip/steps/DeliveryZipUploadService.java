@@ -29,6 +29,7 @@ import fr.cnes.regards.modules.delivery.domain.order.zip.ZipDeliveryInfo;
 import fr.cnes.regards.modules.delivery.service.order.s3.DeliveryS3ManagerService;
 import io.vavr.Tuple;
 import io.vavr.control.Option;
+import jakarta.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.buffer.DataBuffer;
@@ -79,33 +80,66 @@ public class DeliveryZipUploadService {
                      localZipInfo);
 
         StorageConfigDto storageConfig = s3ManagerService.buildDeliveryStorageConfig(correlationId);
-        ZipDeliveryInfo zipUploadedInfo = uploadZip(correlationId, storageConfig, localZipInfo);
+        ZipDeliveryInfo zipUploadedInfo = uploadZip(correlationId,
+                                                    buildZipStorageEntry(storageConfig, localZipInfo),
+                                                    localZipInfo.name(),
+                                                    localZipInfo.md5Checksum());
         LOGGER.debug("Successfully uploaded zip on S3 delivery server (uploaded zip info '{}').", zipUploadedInfo);
         return zipUploadedInfo;
     }
 
+    /**
+     * Upload a zip to a S3 remote location while it is being written. The zip size and checksum are not known
+     * beforehand, they are computed on the fly by the S3 client during the multipart upload.
+     *
+     * @param deliveryRequest client request
+     * @param zipName         name of the zip to upload
+     * @param zipStream       bytes of the zip, an error must be emitted if the zip could not be written entirely
+     * @return metadata about the zip uploaded
+     * @throws DeliveryOrderException if the zip was not uploaded successfully.
+     */
+    public ZipDeliveryInfo uploadZipStreamToS3DeliveryServer(DeliveryRequest deliveryRequest,
+                                                             String zipName,
+                                                             Flux<ByteBuffer> zipStream)
+        throws DeliveryOrderException {
+        String correlationId = deliveryRequest.getCorrelationId();
+        LOGGER.debug("Starting streaming delivery zip '{}' to remote S3 location.", zipName);
+
+        StorageConfigDto storageConfig = s3ManagerService.buildDeliveryStorageConfig(correlationId);
+        StorageEntry storageEntry = StorageEntry.builder()
+                                                .config(storageConfig)
+                                                .fullPath(StorageConfigUtils.entryKey(storageConfig, zipName))
+                                                .checksum(Option.none())
+                                                .size(Option.none())
+                                                .data(zipStream)
+                                                .build();
+        ZipDeliveryInfo zipUploadedInfo = uploadZip(correlationId, storageEntry, zipName, null);
+        LOGGER.debug("Successfully streamed zip on S3 delivery server (uploaded zip info '{}').", zipUploadedInfo);
+        return zipUploadedInfo;
+    }
+
     /**
      * Upload zip by using the {@link DeliveryS3ManagerService}. Throw exception according to the type of
      * {@link StorageCommandResult} returned.
      *
      * @param correlationId unique identifier to monitor the request
-     * @param storageConfig S3 configuration built from the provided delivery settings
-     * @param localZipInfo  zip to upload
+     * @param storageEntry  zip to upload
+     * @param zipName       name of the zip to upload
+     * @param md5Checksum   expected checksum of the zip, null if unknown
      * @return metadata about the uploaded zip
      * @throws DeliveryOrderException if the zip was not uploaded successfully.
      */
     private ZipDeliveryInfo uploadZip(String correlationId,
-                                      StorageConfigDto storageConfig,
-                                      ZipDeliveryInfo localZipInfo) throws DeliveryOrderException {
-
-        StorageEntry storageEntry = buildZipStorageEntry(storageConfig, localZipInfo);
+                                      StorageEntry storageEntry,
+                                      String zipName,
+                                      @Nullable String md5Checksum) throws DeliveryOrderException {
         StorageCommandResult uploadedResult = s3ManagerService.uploadFileToDeliveryS3(correlationId,
-                                                                                      storageConfig,
+                                                                                      storageEntry.getConfig(),
                                                                                       storageEntry,
-                                                                                      localZipInfo.md5Checksum());
+                                                                                      md5Checksum);
         if (uploadedResult instanceof StorageCommandResult.WriteSuccess resultSuccess) {
             return new ZipDeliveryInfo(correlationId,
-                                       localZipInfo.name(),
+                                       zipName,
                                        resultSuccess.getSize(),
                                        resultSuccess.getChecksum(),
                                        buildS3UploadedZipUri(storageEntry));
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.delivery.service.order.zip.steps;
+
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Output stream handing the bytes written to a {@link Flux} of chunks consumed by a S3 upload.<br/>
+ * Bytes are gathered in chunks of a fixed size, the number of chunks waiting to be uploaded is bounded so the writer
+ * is slowed down to the upload rate and the memory used stays bounded.<br/>
+ * The writer must call {@link #close()} when all bytes are written or {@link #fail(Throwable)} when the content
+ * could not be written entirely, so that the upload is completed or aborted.
+ */
+public class ZipUploadStream extends OutputStream {
+
+    /**
+     * Marker put in the queue once all the chunks are sent
+     */
+    private static final ByteBuffer END_OF_STREAM = ByteBuffer.allocate(0);
+
+    /**
+     * Marker put in the queue when the writer failed
+     */
+    private static final ByteBuffer WRITE_FAILURE = ByteBuffer.allocate(0);
+
+    private static final long OFFER_TIMEOUT_MS = 500;
+
+    private final BlockingQueue<ByteBuffer> chunks;
+
+    private final int chunkSize;
+
+    private byte[] currentChunk;
+
+    private int currentChunkLength;
+
+    private volatile Throwable failure;
+
+    private volatile boolean cancelled;
+
+    private boolean closed;
+
+    /**
+     * @param chunkSize     size of the chunks sent to the upload
+     * @param maxChunksSent maximum number of chunks waiting to be uploaded
+     */
+    public ZipUploadStream(int chunkSize, int maxChunksSent) {
+        this.chunkSize = chunkSize;
+        // room is kept for the markers
+        this.chunks = new ArrayBlockingQueue<>(maxChunksSent + 1);
+        this.currentChunk = new byte[chunkSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        checkOpen();
+        currentChunk[currentChunkLength++] = (byte) b;
+        if (currentChunkLength == chunkSize) {
+            sendCurrentChunk();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        checkOpen();
+        int remaining = len;
+        int offset = off;
+        while (remaining > 0) {
+            int length = Math.min(remaining, chunkSize - currentChunkLength);
+            System.arraycopy(b, offset, currentChunk, currentChunkLength, length);
+            currentChunkLength += length;
+            offset += length;
+            remaining -= length;
+            if (currentChunkLength == chunkSize) {
+                sendCurrentChunk();
+            }
+        }
+    }
+
+    /**
+     * Send the last chunk and notify the upload that all the bytes are written. Nothing is sent if the stream failed
+     * or was cancelled.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed || failure != null || cancelled) {
+            return;
+        }
+        if (currentChunkLength > 0) {
+            sendCurrentChunk();
+        }
+        put(END_OF_STREAM);
+        closed = true;
+    }
+
+    /**
+     * Notify the upload that the content could not be written entirely, so the upload is aborted.
+     */
+    public void fail(Throwable cause) {
+        if (failure == null) {
+            failure = cause;
+            chunks.clear();
+            chunks.offer(WRITE_FAILURE);
+        }
+    }
+
+    /**
+     * Stop waiting for the upload, for instance when the upload failed. Following writes are rejected.
+     */
+    public void cancel() {
+        cancelled = true;
+        chunks.clear();
+    }
+
+    /**
+     * @return true if the writer notified that the content could not be written entirely
+     */
+    public boolean isFailed() {
+        return failure != null;
+    }
+
+    /**
+     * @return the chunks written, in order. The flux completes once the stream is closed and fails if the stream
+     * failed. It must be subscribed once. Chunks are awaited on a bounded elastic thread as the writer may be slower
+     * than the upload.
+     */
+    public Flux<ByteBuffer> toFlux() {
+        return Flux.<ByteBuffer>generate(sink -> {
+            try {
+                ByteBuffer chunk = chunks.take();
+                if (chunk == END_OF_STREAM) {
+                    sink.complete();
+                } else if (chunk == WRITE_FAILURE) {
+                    sink.error(failure);
+                } else {
+                    sink.next(chunk);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                sink.error(e);
+            }
+        }).subscribeOn(Schedulers.boundedElastic()).doFinally(signal -> cancelled = true);
+    }
+
+    private void sendCurrentChunk() throws IOException {
+        put(ByteBuffer.wrap(currentChunk, 0, currentChunkLength));
+        currentChunk = new byte[chunkSize];
+        currentChunkLength = 0;
+    }
+
+    private void put(ByteBuffer chunk) throws IOException {
+        try {
+            while (!chunks.offer(chunk, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                checkOpen();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the upload of the zip");
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (failure != null) {
+            throw new IOException("Zip upload stream failed", failure);
+        }
+        if (cancelled) {
+            throw new IOException("Zip upload was stopped before the end of the zip");
+        }
+        if (closed) {
+            throw new IOException("Zip upload stream is closed");
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.delivery.service.order.zip.steps;
+
+import feign.Request;
+import feign.RequestTemplate;
+import feign.Response;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
+import fr.cnes.regards.framework.utils.file.ChecksumUtils;
+import fr.cnes.regards.modules.delivery.domain.exception.DeliveryOrderException;
+import fr.cnes.regards.modules.delivery.domain.order.zip.ZipDeliveryInfo;
+import fr.cnes.regards.modules.delivery.service.order.zip.env.utils.DeliveryStepUtils;
+import fr.cnes.regards.modules.order.client.feign.IOrderDataFileAvailableClient;
+import fr.cnes.regards.modules.order.client.feign.IOrderDataFileClient;
+import fr.cnes.regards.modules.order.dto.dto.OrderDataFileDTO;
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+
+/**
+ * Test for {@link DeliveryZipStreamService}.
+ * <p>The purpose of this test is to check if files requested are properly streamed into the zip uploaded.</p>
+ * TEST PLAN :
+ * <ul>
+ *  <li>Nominal cases :
+ *    <ul>
+ *      <li>{@link #givenDelivery_whenStreamed_thenZipUploaded()}</li>
+ *    </ul></li>
+ *  <li>Error cases :
+ *    <ul>
+ *      <li>{@link #givenDelivery_whenChecksumError_thenUploadAborted()}</li>
+ *    </ul></li>
+ * </ul>
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class DeliveryZipStreamServiceTest {
+
+    @Mock
+    private IOrderDataFileAvailableClient orderClient;
+
+    @Mock
+    private IOrderDataFileClient dataFileClient;
+
+    @Mock
+    private IRuntimeTenantResolver runtimeTenantResolver;
+
+    @Mock
+    private DeliveryZipUploadService zipUploadService;
+
+    private DeliveryDownloadService downloadService;
+
+    private DeliveryZipStreamService zipStreamService; // class under test
+
+    private byte[] uploadedZip;
+
+    @Before
+    public void init() throws DeliveryOrderException {
+        downloadService = new DeliveryDownloadService(orderClient, dataFileClient, runtimeTenantResolver, 2);
+        // simulate order requested
+        List<OrderDataFileDTO> simulatedOrderDataFiles = DeliveryStepUtils.buildOrderDataFileDtos();
+        Mockito.when(orderClient.getAvailableFilesInOrder(anyLong(), any())).thenAnswer(ans -> {
+            Pageable page = ans.getArgument(1);
+            return ResponseEntity.ok(DeliveryStepUtils.handleOrderDataFilesDtosByPage(page.getPageNumber(),
+                                                                                      page.getPageSize(),
+                                                                                      simulatedOrderDataFiles));
+        });
+        // simulate upload of the zip stream
+        Mockito.when(zipUploadService.uploadZipStreamToS3DeliveryServer(any(), any(), any())).thenAnswer(ans -> {
+            String zipName = ans.getArgument(1);
+            Flux<ByteBuffer> zipStream = ans.getArgument(2);
+            ByteArrayOutputStream zipContent = new ByteArrayOutputStream();
+            zipStream.doOnNext(chunk -> zipContent.write(chunk.array(), chunk.position(), chunk.remaining()))
+                     .blockLast();
+            uploadedZip = zipContent.toByteArray();
+            return new ZipDeliveryInfo(DeliveryStepUtils.DELIVERY_CORRELATION_ID,
+                                       zipName,
+                                       uploadedZip.length,
+                                       ChecksumUtils.getHexChecksum(MessageDigest.getInstance("MD5")
+                                                                                 .digest(uploadedZip)),
+                                       "s3://bucket/" + zipName);
+        });
+    }
+
+    @After
+    public void reset() {
+        if (zipStreamService != null) {
+            zipStreamService.shutdown();
+        }
+    }
+
+    @Test
+    public void givenDelivery_whenStreamed_thenZipUploaded() throws DeliveryOrderException, IOException {
+        // --- GIVEN ---
+        // simulate download of files
+        Mockito.when(dataFileClient.downloadFile(anyLong())).thenAnswer(ans -> {
+            long dataFileId = ans.getArgument(0);
+            Path filePath = DeliveryStepUtils.TEST_FILES_ORDER_RESOURCES.resolve("data-" + dataFileId)
+                                                                        .resolve("file-" + dataFileId + ".txt");
+            return buildDownloadResponse(new FileInputStream(filePath.toFile()));
+        });
+
+        // --- WHEN / THEN ---
+        // small files are downloaded in memory, large files are streamed
+        for (long inMemoryFileMaxSize : new long[] { 1024L, 0L }) {
+            zipStreamService = new DeliveryZipStreamService(downloadService,
+                                                            zipUploadService,
+                                                            runtimeTenantResolver,
+                                                            2,
+                                                            2,
+                                                            inMemoryFileMaxSize);
+            ZipDeliveryInfo zipInfo = zipStreamService.streamDeliveryZip(DeliveryStepUtils.buildDeliveryRequest());
+            zipStreamService.shutdown();
+
+            Assertions.assertThat(zipInfo.name())
+                      .isEqualTo(String.format(DeliveryStepUtils.MULTIPLE_FILES_ZIP_NAME_PATTERN,
+                                               DeliveryStepUtils.DELIVERY_CORRELATION_ID));
+            Map<String, byte[]> zipEntries = readZip(uploadedZip);
+            Assertions.assertThat(zipEntries).hasSize(3);
+            for (OrderDataFileDTO dataFile : DeliveryStepUtils.buildOrderDataFileDtos()) {
+                String expectedEntryName = "/"
+                                           + String.format(DeliveryStepUtils.PRODUCT_FOLDER_PATTERN,
+                                                           dataFile.getProductId(),
+                                                           dataFile.getVersion())
+                                           + "/"
+                                           + dataFile.getFilename();
+                Assertions.assertThat(zipEntries).containsKey(expectedEntryName);
+                Assertions.assertThat(zipEntries.get(expectedEntryName))
+                          .isEqualTo(Files.readAllBytes(Path.of(URI.create(dataFile.getDownloadUrl()))));
+            }
+        }
+    }
+
+    @Test
+    public void givenDelivery_whenChecksumError_thenUploadAborted() {
+        // --- GIVEN ---
+        zipStreamService = new DeliveryZipStreamService(downloadService,
+                                                        zipUploadService,
+                                                        runtimeTenantResolver,
+                                                        2,
+                                                        2,
+                                                        1024L);
+        // simulate download of file and make checksum verification fail
+        Mockito.when(dataFileClient.downloadFile(anyLong()))
+               .thenAnswer(ans -> buildDownloadResponse(new ByteArrayInputStream(("error-download").getBytes())));
+
+        // --- WHEN / THEN ---
+        Assertions.assertThatThrownBy(() -> zipStreamService.streamDeliveryZip(DeliveryStepUtils.buildDeliveryRequest()))
+                  .isInstanceOf(DeliveryOrderException.class)
+                  .hasMessageContaining("checksum");
+    }
+
+    private static Response buildDownloadResponse(InputStream body) {
+        return Response.builder()
+                       .status(HttpStatus.OK.value())
+                       .request(Request.create(Request.HttpMethod.GET,
+                                               "url",
+                                               new HashMap<>(),
+                                               Request.Body.empty(),
+                                               new RequestTemplate()))
+                       .body(body, 100)
+                       .build();
+    }
+
+    private static Map<String, byte[]> readZip(byte[] zip) throws IOException {
+        Map<String, byte[]> entries = new HashMap<>();
+        try (ZipInputStream zipInputStream = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = zipInputStream.getNextEntry()) != null) {
+                entries.put(entry.getName(), zipInputStream.readAllBytes());
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.delivery.service.order.zip.steps;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test for {@link ZipUploadStream}.
+ * <p>The purpose of this test is to check that bytes written are handed to the upload in chunks and that a writer
+ * failure aborts the upload.</p>
+ * TEST PLAN :
+ * <ul>
+ *  <li>Nominal cases :
+ *    <ul>
+ *      <li>{@link #givenBytesWritten_whenClosed_thenChunksUploaded()}</li>
+ *    </ul></li>
+ *  <li>Error cases :
+ *    <ul>
+ *      <li>{@link #givenBytesWritten_whenWriterFails_thenUploadFails()}</li>
+ *      <li>{@link #givenUploadStopped_whenWrite_thenException()}</li>
+ *    </ul></li>
+ * </ul>
+ */
+public class ZipUploadStreamTest {
+
+    private static final int CHUNK_SIZE = 1024;
+
+    @Test
+    public void givenBytesWritten_whenClosed_thenChunksUploaded() {
+        // --- GIVEN ---
+        byte[] content = new byte[10 * CHUNK_SIZE + 100];
+        new Random(0).nextBytes(content);
+        ZipUploadStream uploadStream = new ZipUploadStream(CHUNK_SIZE, 2);
+
+        // --- WHEN ---
+        CompletableFuture.runAsync(() -> {
+            try (uploadStream) {
+                uploadStream.write(content, 0, 10);
+                uploadStream.write(content[10]);
+                uploadStream.write(content, 11, content.length - 11);
+            } catch (IOException e) {
+                uploadStream.fail(e);
+            }
+        });
+        List<ByteBuffer> chunks = uploadStream.toFlux().collectList().block();
+
+        // --- THEN ---
+        Assertions.assertThat(chunks).hasSize(11);
+        Assertions.assertThat(chunks.subList(0, 10)).allMatch(chunk -> chunk.remaining() == CHUNK_SIZE);
+        ByteArrayOutputStream uploadedContent = new ByteArrayOutputStream();
+        chunks.forEach(chunk -> uploadedContent.write(chunk.array(), chunk.position(), chunk.remaining()));
+        Assertions.assertThat(uploadedContent.toByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    public void givenBytesWritten_whenWriterFails_thenUploadFails() {
+        // --- GIVEN ---
+        ZipUploadStream uploadStream = new ZipUploadStream(CHUNK_SIZE, 2);
+        IOException writerError = new IOException("file corrupted");
+
+        // --- WHEN ---
+        CompletableFuture.runAsync(() -> {
+            try {
+                uploadStream.write(new byte[3 * CHUNK_SIZE]);
+                uploadStream.fail(writerError);
+                // an incomplete content must never be completed
+                uploadStream.close();
+            } catch (IOException e) {
+                uploadStream.fail(e);
+            }
+        });
+
+        // --- THEN ---
+        Assertions.assertThatThrownBy(() -> uploadStream.toFlux().blockLast())
+                  .hasMessageContaining("file corrupted");
+        Assertions.assertThat(uploadStream.isFailed()).isTrue();
+    }
+
+    @Test
+    public void givenUploadStopped_whenWrite_thenException() throws Exception {
+        // --- GIVEN ---
+        ZipUploadStream uploadStream = new ZipUploadStream(CHUNK_SIZE, 1);
+        // upload only consumes the first chunk
+        uploadStream.toFlux().take(1).subscribe();
+
+        // --- WHEN ---
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> {
+            try {
+                uploadStream.write(new byte[100 * CHUNK_SIZE]);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // --- THEN ---
+        // writer is not blocked forever waiting for the upload
+        Assertions.assertThatThrownBy(() -> writer.get(10, TimeUnit.SECONDS))
+                  .hasRootCauseMessage("Zip upload was stopped before the end of the zip");
+    }
+}
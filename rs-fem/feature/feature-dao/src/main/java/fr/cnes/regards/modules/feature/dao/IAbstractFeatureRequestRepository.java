@@ -28,9 +28,6 @@ public interface IAbstractFeatureRequestRepository<T extends AbstractFeatureRequ
 
     Page<T> findByStepAndGroupIdIn(FeatureRequestStep step, Collection<String> groupIds, Pageable page);
 
-    @Query("select distinct afr.requestId from AbstractFeatureRequest afr")
-    Set<String> findRequestId();
-
     @Query("select requestId from AbstractFeatureRequest where requestId in (:requestIds)")
     Set<String> findRequestIdByRequestIdIn(@Param("requestIds") List<String> requestIds);
 
@@ -37,7 +37,6 @@ import fr.cnes.regards.modules.feature.dao.IFeatureCreationRequestRepository;
 import fr.cnes.regards.modules.feature.domain.FeatureEntity;
 import fr.cnes.regards.modules.feature.domain.IFeatureRequestToSchedule;
 import fr.cnes.regards.modules.feature.domain.ILightFeatureEntity;
-import fr.cnes.regards.modules.feature.domain.IUrnVersionByProvider;
 import fr.cnes.regards.modules.feature.domain.request.AbstractFeatureRequest;
 import fr.cnes.regards.modules.feature.domain.request.FeatureCreationMetadataEntity;
 import fr.cnes.regards.modules.feature.domain.request.FeatureCreationRequest;
@@ -149,10 +148,8 @@ public class FeatureCreationService extends AbstractFeatureService<FeatureCreati
         RequestInfo<String> requestInfo = new RequestInfo<>();
 
         // Only retrieve from database requestIds matching the events to check if requests already exists.
-        Set<String> existingRequestIds = featureCreationRequestRepo.findRequestIdByRequestIdIn(events.stream()
-                                                                                                     .map(
-                                                                                                         FeatureCreationRequestEvent::getRequestId)
-                                                                                                     .collect(Collectors.toList()));
+        Set<String> existingRequestIds = new HashSet<>(featureCreationRequestRepo.findRequestIdByRequestIdIn(
+            events.stream().map(FeatureCreationRequestEvent::getRequestId).toList()));
 
         Set<FeatureUniformResourceName> eventsUrn = events.stream()
                                                           .map(event -> event.getFeature().getUrn())
@@ -163,12 +160,16 @@ public class FeatureCreationService extends AbstractFeatureService<FeatureCreati
                                                                                     .map(ILightFeatureEntity::getUrn)
                                                                                     .collect(Collectors.toSet());
 
+        RegistrationContext context = new RegistrationContext(existingRequestIds,
+                                                              existingRequestUrns,
+                                                              existingEntityUrns,
+                                                              getLastVersionByProviderId(events),
+                                                              new HashSet<>(),
+                                                              new HashSet<>());
         events.forEach(item -> prepareFeatureCreationRequest(item,
                                                              grantedRequests,
                                                              requestInfo,
-                                                             existingRequestIds,
-                                                             existingRequestUrns,
-                                                             existingEntityUrns,
+                                                             context,
                                                              newUpdateRequests));
         LOGGER.trace("------------->>> {} creation requests prepared in {} ms",
                      grantedRequests.size(),
@@ -202,24 +203,42 @@ public class FeatureCreationService extends AbstractFeatureService<FeatureCreati
         return registerRequests(toTreat);
     }
 
+    /**
+     * Get the latest version of the features with the same provider id as the events providing an URN, in a single
+     * request.
+     */
+    private Map<String, Integer> getLastVersionByProviderId(List<FeatureCreationRequestEvent> events) {
+        List<String> providerIds = events.stream()
+                                         .map(FeatureCreationRequestEvent::getFeature)
+                                         .filter(feature -> feature.getUrn() != null && feature.getId() != null)
+                                         .map(Feature::getId)
+                                         .distinct()
+                                         .toList();
+        Map<String, Integer> lastVersionByProviderId = new HashMap<>();
+        if (!providerIds.isEmpty()) {
+            // Since we fetch by version DESC, the first one is the latest version
+            featureEntityRepository.findByProviderIdInOrderByVersionDesc(providerIds)
+                                   .forEach(versionByProvider -> lastVersionByProviderId.putIfAbsent(
+                                       versionByProvider.getProviderId(),
+                                       versionByProvider.getVersion()));
+        }
+        return lastVersionByProviderId;
+    }
+
     /**
      * Validate a list of {@link FeatureCreationRequestEvent}
      * and if validated create a list of {@link FeatureCreationRequest}
      *
-     * @param item                request to manage
-     * @param grantedRequests     collection of granted requests to populate
-     * @param requestInfo         store request registration state
-     * @param existingRequestIds  list of existing request ids in database (its a unique constraint)
-     * @param existingEntityUrns  list of URNs from existing feature entities
-     * @param existingRequestUrns list of URNs from existing feature creation requests
-     * @param newUpdateRequests   list of update requests already prepared
+     * @param item              request to manage
+     * @param grantedRequests   collection of granted requests to populate
+     * @param requestInfo       store request registration state
+     * @param context           existing and already granted request ids and URNs of the batch
+     * @param newUpdateRequests list of update requests already prepared
      */
     private void prepareFeatureCreationRequest(FeatureCreationRequestEvent item,
                                                List<FeatureCreationRequest> grantedRequests,
                                                RequestInfo<String> requestInfo,
-                                               Set<String> existingRequestIds,
-                                               Set<FeatureUniformResourceName> existingRequestUrns,
-                                               Set<FeatureUniformResourceName> existingEntityUrns,
+                                               RegistrationContext context,
                                                List<FeatureUpdateRequestEvent> newUpdateRequests) {
 
         // Validate event
@@ -236,9 +255,7 @@ public class FeatureCreationService extends AbstractFeatureService<FeatureCreati
         String sessionOwner = sessionMetadata.getSessionOwner();
         String session = sessionMetadata.getSession();
 
-        if (existingRequestIds.contains(requestId) || grantedRequests.stream()
-                                                                     .anyMatch(request -> request.getRequestId()
-                                                                                                 .equals(requestId))) {
+        if (context.existingRequestIds().contains(requestId)) {
             errors.rejectValue("requestId", "request.requestId.exists.error.message", "Request id already exists");
         }
 
@@ -250,30 +267,29 @@ public class FeatureCreationService extends AbstractFeatureService<FeatureCreati
             String rejectField = "urn";
             String errorCode = "feature.request.urn.already.exists.error.message";
             String defaultMessageTemplate = "Creation request with this URN already exists in %s";
-            if (existingRequestUrns.contains(urn)) {
+            if (context.existingRequestUrns().contains(urn)) {
                 errors.rejectValue(rejectField, errorCode, String.format(defaultMessageTemplate, "existing requests"));
-            } else if (grantedRequests.stream()
-                                      .anyMatch(request -> request.getUrn() != null && request.getUrn().equals(urn))) {
+            } else if (context.grantedRequestUrns().contains(urn)) {
                 errors.rejectValue(rejectField, errorCode, String.format(defaultMessageTemplate, "granted requests"));
-            } else if (newUpdateRequests.stream().anyMatch(request -> request.getFeature().getUrn().equals(urn))) {
+            } else if (context.newUpdateRequestUrns().contains(urn)) {
                 errors.rejectValue(rejectField,
                                    errorCode,
                                    String.format(defaultMessageTemplate, "new update requests"));
             } else {
                 // Check if provided URN match an existing feature
-                if (existingEntityUrns.contains(urn)) {
+                if (context.existingEntityUrns().contains(urn)) {
                     if (sessionMetadata.isUpdateIfExists()) {
                         // if updateIfExists option is enabled, register an update request instead of a creation one.
                         newUpdateRequests.add(buildUpdateEventFromCreationEvent(item));
+                        context.newUpdateRequestUrns().add(urn);
                         return;
                     } else {
                         errors.rejectValue("urn", "feature.urn.already.exists.error.message", "URN already exists");
                     }
                 } else {
                     // New version should be greater than previous one
-                    List<IUrnVersionByProvider> previousVersions = featureEntityRepository.findByProviderIdInOrderByVersionDesc(
-                        Collections.singletonList(feature.getId()));
-                    if (!previousVersions.isEmpty() && previousVersions.get(0).getVersion() >= urn.getVersion()) {
+                    Integer previousVersion = context.lastVersionByProviderId().get(featureId);
+                    if (previousVersion != null && previousVersion >= urn.getVersion()) {
                         errors.rejectValue("urn", "feature.urn.version.invalid.error.message", "Version is invalid");
                     }
                 }
@@ -335,6 +351,11 @@ public class FeatureCreationService extends AbstractFeatureService<FeatureCreati
             metrics.count(request.getProviderId(), FeatureCreationState.CREATION_REQUEST_GRANTED);
             grantedRequests.add(request);
             requestInfo.addGrantedRequest(request.getProviderId(), request.getRequestId());
+            // Add new request id and urn to existing ones
+            context.existingRequestIds().add(requestId);
+            if (urn != null) {
+                context.grantedRequestUrns().add(urn);
+            }
             // Update session properties
             featureSessionNotifier.incrementCount(sessionOwner, session, FeatureSessionProperty.REFERENCING_REQUESTS);
         }
@@ -753,4 +774,23 @@ public class FeatureCreationService extends AbstractFeatureService<FeatureCreati
         });
     }
 
+    /**
+     * Request ids and URNs of a batch of creation requests, indexed to check each request of the batch in constant
+     * time.
+     *
+     * @param existingRequestIds      request ids existing in database or already granted in the batch
+     * @param existingRequestUrns     URNs from existing feature creation requests
+     * @param existingEntityUrns      URNs from existing feature entities
+     * @param lastVersionByProviderId latest version of existing features by provider id
+     * @param grantedRequestUrns      URNs of the requests already granted in the batch
+     * @param newUpdateRequestUrns    URNs of the update requests already prepared in the batch
+     */
+    private record RegistrationContext(Set<String> existingRequestIds,
+                                       Set<FeatureUniformResourceName> existingRequestUrns,
+                                       Set<FeatureUniformResourceName> existingEntityUrns,
+                                       Map<String, Integer> lastVersionByProviderId,
+                                       Set<FeatureUniformResourceName> grantedRequestUrns,
+                                       Set<FeatureUniformResourceName> newUpdateRequestUrns) {
+
+    }
 }
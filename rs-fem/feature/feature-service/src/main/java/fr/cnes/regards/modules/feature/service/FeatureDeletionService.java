@@ -118,7 +118,9 @@ public class FeatureDeletionService extends AbstractFeatureService<FeatureDeleti
         long registrationStart = System.currentTimeMillis();
         List<FeatureDeletionRequest> grantedRequests = new ArrayList<>();
         RequestInfo<FeatureUniformResourceName> requestInfo = new RequestInfo<>();
-        Set<String> existingRequestIds = this.featureDeletionRequestRepository.findRequestId();
+        // Only retrieve from database requestIds matching the events to check if requests already exists.
+        Set<String> existingRequestIds = new HashSet<>(featureDeletionRequestRepository.findRequestIdByRequestIdIn(
+            events.stream().map(FeatureDeletionRequestEvent::getRequestId).toList()));
 
         Map<FeatureUniformResourceName, ILightFeatureEntity> sessionInfoByUrn = getSessionInfoByUrn(events.stream()
                                                                                                           .map(
@@ -153,9 +155,7 @@ public class FeatureDeletionService extends AbstractFeatureService<FeatureDeleti
         validator.validate(item, errors);
         validateRequest(item, errors);
 
-        if (existingRequestIds.contains(item.getRequestId()) || grantedRequests.stream()
-                                                                               .anyMatch(request -> request.getRequestId()
-                                                                                                           .equals(item.getRequestId()))) {
+        if (existingRequestIds.contains(item.getRequestId())) {
             errors.rejectValue("requestId", "request.requestId.exists.error.message", "Request id already exists");
         }
 
@@ -201,6 +201,8 @@ public class FeatureDeletionService extends AbstractFeatureService<FeatureDeleti
             // Add to granted request collection
             grantedRequests.add(request);
             requestInfo.addGrantedRequest(item.getUrn(), request.getRequestId());
+            // Add new request id to existing ones
+            existingRequestIds.add(request.getRequestId());
             // Update session properties
             featureSessionNotifier.incrementCount(sessionInfo, FeatureSessionProperty.DELETE_REQUESTS);
         }
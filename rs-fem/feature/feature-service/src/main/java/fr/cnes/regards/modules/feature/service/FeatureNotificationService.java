@@ -113,7 +113,9 @@ public class FeatureNotificationService extends AbstractFeatureService<FeatureNo
 
         List<FeatureNotificationRequest> notificationsRequest = new ArrayList<>();
 
-        Set<String> existingRequestIds = this.featureNotificationRequestRepository.findRequestId();
+        // Only retrieve from database requestIds matching the events to check if requests already exists.
+        Set<String> existingRequestIds = new HashSet<>(featureNotificationRequestRepository.findRequestIdByRequestIdIn(
+            events.stream().map(FeatureNotificationRequestEvent::getRequestId).toList()));
 
         Set<FeatureUniformResourceName> featureUrns = events.stream()
                                                             .map(FeatureNotificationRequestEvent::getUrn)
@@ -145,7 +147,7 @@ public class FeatureNotificationService extends AbstractFeatureService<FeatureNo
      * @param item                 {@link FeatureNotificationRequestEvent} source
      * @param featureToNotify      {@link FeatureEntity} feature to notify
      * @param notificationsRequest list of {@link FeatureNotificationRequest} granted
-     * @param existingRequestIds   list of existing request in database
+     * @param existingRequestIds   request ids existing in database or already granted in the batch
      */
     private void prepareNotificationRequest(FeatureNotificationRequestEvent item,
                                             FeatureEntity featureToNotify,
@@ -156,10 +158,7 @@ public class FeatureNotificationService extends AbstractFeatureService<FeatureNo
         validator.validate(item, errors);
         validateRequest(item, errors);
 
-        if (existingRequestIds.contains(item.getRequestId()) || notificationsRequest.stream()
-                                                                                    .anyMatch(request -> request.getRequestId()
-                                                                                                                .equals(
-                                                                                                                    item.getRequestId()))) {
+        if (existingRequestIds.contains(item.getRequestId())) {
             errors.rejectValue("requestId", "request.requestId.exists.error.message", "Request id already exists");
         }
 
@@ -136,7 +136,9 @@ public class FeatureUpdateService extends AbstractFeatureService<FeatureUpdateRe
         List<FeatureUpdateRequest> grantedRequests = new ArrayList<>();
         RequestInfo<FeatureUniformResourceName> requestInfo = new RequestInfo<>();
 
-        Set<String> existingRequestIds = featureUpdateRequestRepository.findRequestId();
+        // Only retrieve from database requestIds matching the events to check if requests already exists.
+        Set<String> existingRequestIds = new HashSet<>(featureUpdateRequestRepository.findRequestIdByRequestIdIn(
+            featureUpdateRequestEvts.stream().map(FeatureUpdateRequestEvent::getRequestId).toList()));
 
         Map<FeatureUniformResourceName, ILightFeatureEntity> sessionInfoByUrn = getSessionInfoByUrn(
             featureUpdateRequestEvts.stream().map(event -> event.getFeature().getUrn()).collect(Collectors.toSet()));
@@ -191,10 +193,7 @@ public class FeatureUpdateService extends AbstractFeatureService<FeatureUpdateRe
         validator.validate(featureUpdateRequestEvt, errors);
         validateRequest(featureUpdateRequestEvt, errors);
 
-        if (existingRequestIds.contains(featureUpdateRequestEvt.getRequestId()) || grantedRequests.stream()
-                                                                                                  .anyMatch(request -> request.getRequestId()
-                                                                                                                              .equals(
-                                                                                                                                  featureUpdateRequestEvt.getRequestId()))) {
+        if (existingRequestIds.contains(featureUpdateRequestEvt.getRequestId())) {
             errors.rejectValue("requestId", "request.requestId.exists.error.message", "Request id already exists");
         }
 
@@ -227,6 +226,8 @@ public class FeatureUpdateService extends AbstractFeatureService<FeatureUpdateRe
             metrics.count(request.getProviderId(), FeatureUpdateState.UPDATE_REQUEST_GRANTED);
             grantedRequests.add(request);
             requestInfo.addGrantedRequest(request.getUrn(), request.getRequestId());
+            // Add new request id to existing ones
+            existingRequestIds.add(request.getRequestId());
             // Update session properties
             featureSessionNotifier.incrementCount(sessionInfo, FeatureSessionProperty.UPDATE_REQUESTS);
         }
@@ -21,6 +21,7 @@ package fr.cnes.regards.modules.feature.service.dump;
 
 import fr.cnes.regards.framework.jpa.multitenant.transactional.MultitenantTransactional;
 import fr.cnes.regards.framework.modules.dump.service.DumpService;
+import fr.cnes.regards.framework.modules.dump.service.JsonZipWriter;
 import fr.cnes.regards.framework.modules.dump.service.ObjectDump;
 import fr.cnes.regards.framework.notification.NotificationLevel;
 import fr.cnes.regards.framework.notification.client.INotificationClient;
@@ -115,10 +116,11 @@ public class FeatureMetadataService implements IFeatureMetadataService {
     public void writeZips(FeatureSaveMetadataRequest metadataRequest, Path tmpZipLocation)
         throws NothingToDoException, IOException {
         Pageable pageToRequest = PageRequest.of(0, zipLimit, Sort.by(Sort.Order.asc("creationDate")));
-        try {
+        // zips are written in parallel while next pages are retrieved
+        try (JsonZipWriter zipWriter = dumpService.openJsonZipWriter(tmpZipLocation)) {
             do {
                 // zip json files generated from features
-                pageToRequest = self.dumpOnePage(metadataRequest, pageToRequest, tmpZipLocation);
+                pageToRequest = self.dumpOnePage(metadataRequest, pageToRequest, zipWriter);
             } while (pageToRequest != null);
         } catch (DuplicateUniqueNameException e) {
             self.handleError(metadataRequest, e.getMessage());
@@ -127,7 +129,9 @@ public class FeatureMetadataService implements IFeatureMetadataService {
     }
 
     @Override
-    public Pageable dumpOnePage(FeatureSaveMetadataRequest metadataRequest, Pageable pageToRequest, Path tmpZipLocation)
+    public Pageable dumpOnePage(FeatureSaveMetadataRequest metadataRequest,
+                                Pageable pageToRequest,
+                                JsonZipWriter zipWriter)
         throws IOException, DuplicateUniqueNameException, NothingToDoException {
         // Find features to zip
         Page<FeatureEntity> featureToDump;
@@ -168,7 +172,7 @@ public class FeatureMetadataService implements IFeatureMetadataService {
 
         // If no error was detected, create zip that contains json files generated from features
         try {
-            dumpService.generateJsonZip(objectDumps, tmpZipLocation);
+            zipWriter.write(objectDumps);
         } catch (IOException e) {
             LOGGER.error("Error while dumping one page of feature", e);
             throw e;
@@ -19,6 +19,7 @@
 
 package fr.cnes.regards.modules.feature.service.dump;
 
+import fr.cnes.regards.framework.modules.dump.service.JsonZipWriter;
 import fr.cnes.regards.framework.utils.RsRuntimeException;
 import fr.cnes.regards.modules.feature.domain.exception.DuplicateUniqueNameException;
 import fr.cnes.regards.modules.feature.domain.exception.NothingToDoException;
@@ -51,12 +52,12 @@ public interface IFeatureMetadataService {
         throws NothingToDoException, IOException;
 
     /**
-     * Util to write zips
+     * Util to write zips. The zip of the page is written asynchronously by the given writer.
      *
      * @return next pageable if exist null otherwise
      * @throws RsRuntimeException when there is an issue while trying to dump this page(for example, duplicate names or IOException)
      */
-    Pageable dumpOnePage(FeatureSaveMetadataRequest metadataRequest, Pageable pageToRequest, Path tmpZipLocation)
+    Pageable dumpOnePage(FeatureSaveMetadataRequest metadataRequest, Pageable pageToRequest, JsonZipWriter zipWriter)
         throws IOException, DuplicateUniqueNameException, NothingToDoException;
 
     /**
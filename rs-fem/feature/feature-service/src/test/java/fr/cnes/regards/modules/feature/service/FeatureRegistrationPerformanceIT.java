@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.feature.service;
+
+import fr.cnes.regards.framework.urn.EntityType;
+import fr.cnes.regards.modules.feature.domain.request.FeatureDeletionRequest;
+import fr.cnes.regards.modules.feature.dto.FeatureRequestStep;
+import fr.cnes.regards.modules.feature.dto.PriorityLevel;
+import fr.cnes.regards.modules.feature.dto.event.in.FeatureDeletionRequestEvent;
+import fr.cnes.regards.modules.feature.dto.event.out.RequestState;
+import fr.cnes.regards.modules.feature.dto.urn.FeatureIdentifier;
+import fr.cnes.regards.modules.feature.dto.urn.FeatureUniformResourceName;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Performances tests of the registration of a batch of requests while the request table grows. Registration duration
+ * must only depend on the batch size.
+ */
+@TestPropertySource(properties = { "spring.jpa.properties.hibernate.default_schema=feature_registration_perf",
+                                   "regards.amqp.enabled=true" },
+                    locations = { "classpath:regards_perf.properties",
+                                  "classpath:batch.properties",
+                                  "classpath:metrics.properties" })
+@ActiveProfiles(value = { "testAmqp", "noscheduler", "noFemHandler" })
+@Ignore("Performances tests")
+public class FeatureRegistrationPerformanceIT extends AbstractFeatureMultitenantServiceIT {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FeatureRegistrationPerformanceIT.class);
+
+    private static final int BATCH_SIZE = 1_000;
+
+    private static final int NB_BACKLOG_STEPS = 5;
+
+    private static final int NB_REQUESTS_BY_BACKLOG_STEP = 200_000;
+
+    private static final int SAVE_BULK_SIZE = 10_000;
+
+    @Test
+    public void register_deletion_requests_with_growing_backlog() {
+        long firstBatchDuration = 0;
+        long lastBatchDuration = 0;
+        for (int step = 0; step <= NB_BACKLOG_STEPS; step++) {
+            // Given
+            if (step > 0) {
+                saveBacklog(NB_REQUESTS_BY_BACKLOG_STEP);
+            }
+            List<FeatureDeletionRequestEvent> events = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                events.add(FeatureDeletionRequestEvent.build(owner, randomUrn(), PriorityLevel.NORMAL));
+            }
+
+            // When
+            long start = System.currentTimeMillis();
+            featureDeletionService.registerRequests(events);
+            long duration = System.currentTimeMillis() - start;
+
+            // Then
+            LOGGER.info(">>>>>>>>>>>>>>>>> {} deletion requests registered in {} ms with {} requests in database",
+                        BATCH_SIZE,
+                        duration,
+                        featureDeletionRequestRepo.count() - BATCH_SIZE);
+            if (step == 0) {
+                firstBatchDuration = duration;
+            }
+            lastBatchDuration = duration;
+        }
+        Assert.assertTrue(String.format("Registration duration should not depend on the requests in database (%d/%d)",
+                                        lastBatchDuration,
+                                        firstBatchDuration),
+                          lastBatchDuration < 3 * Math.max(firstBatchDuration, 100));
+    }
+
+    private void saveBacklog(int nbRequests) {
+        List<FeatureDeletionRequest> requests = new ArrayList<>(SAVE_BULK_SIZE);
+        for (int i = 0; i < nbRequests; i++) {
+            requests.add(FeatureDeletionRequest.build(UUID.randomUUID().toString(),
+                                                      owner,
+                                                      OffsetDateTime.now(),
+                                                      RequestState.GRANTED,
+                                                      null,
+                                                      FeatureRequestStep.LOCAL_DELAYED,
+                                                      PriorityLevel.NORMAL,
+                                                      randomUrn()));
+            if (requests.size() == SAVE_BULK_SIZE) {
+                featureDeletionRequestRepo.saveAll(requests);
+                requests.clear();
+            }
+        }
+        featureDeletionRequestRepo.saveAll(requests);
+    }
+
+    private FeatureUniformResourceName randomUrn() {
+        return FeatureUniformResourceName.build(FeatureIdentifier.FEATURE,
+                                                EntityType.DATA,
+                                                runtimeTenantResolver.getTenant(),
+                                                UUID.randomUUID(),
+                                                1);
+    }
+}
@@ -43,6 +43,8 @@ import org.springframework.test.context.TestPropertySource;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.OffsetDateTime;
@@ -168,6 +170,33 @@ public class FeatureMetadataServiceIT extends AbstractFeatureMultitenantServiceI
                             readZipEntryNames(dumpFolder[0]).size());
     }
 
+    @Test
+    @Purpose("Test features properties are serialized in zips written in parallel")
+    public void writeZipsWithPropertiesTest() throws NothingToDoException, IOException {
+        // Create features with properties, serialized with the tenant model
+        int nbFeatures = 14;
+        initData(nbFeatures);
+        updateFeatureLastUpdateDate(nbFeatures);
+
+        metadataService.writeZips(createSaveMetadataRequest(), this.tmpZipLocation);
+
+        // CHECK RESULTS
+        File[] zipFolder = this.tmpZipLocation.toFile().listFiles();
+        Assert.assertEquals("Unexpected number of created zips",
+                            (int) Math.ceil((double) nbFeatures / zipLimit),
+                            zipFolder.length);
+        int nbJsonFiles = 0;
+        for (File zipFile : zipFolder) {
+            for (String json : readZipEntryContents(zipFile)) {
+                Assert.assertTrue("Feature properties should be dumped",
+                                  json.contains("\"data_type\"") && json.contains("\"TYPE01\""));
+                Assert.assertTrue("Feature fragments should be dumped", json.contains("\"file_characterization\""));
+                nbJsonFiles++;
+            }
+        }
+        Assert.assertEquals("The number of files created from features is not expected", nbFeatures, nbJsonFiles);
+    }
+
     /**
      * Create a request to save feature metadata
      *
@@ -226,6 +255,25 @@ public class FeatureMetadataServiceIT extends AbstractFeatureMultitenantServiceI
         return listNames;
     }
 
+    /**
+     * Read all files contained in a zip
+     *
+     * @param zip zip to read
+     * @return list of file contents
+     */
+    private List<String> readZipEntryContents(File zip) throws IOException {
+        List<String> contents = new LinkedList<>();
+        try (ZipFile zipFile = new ZipFile(zip.getPath())) {
+            Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+            while (zipEntries.hasMoreElements()) {
+                try (InputStream entryStream = zipFile.getInputStream(zipEntries.nextElement())) {
+                    contents.add(new String(entryStream.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return contents;
+    }
+
     @Override
     protected void doAfter() throws IOException {
         abstractFeatureRequestRepo.deleteAll();
@@ -22,7 +22,7 @@ import fr.cnes.regards.modules.fileaccess.plugin.dto.FileCacheRequestDto;
 import fr.cnes.regards.modules.fileaccess.dto.request.FileStorageRequestAggregationDto;
 
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 /**
@@ -33,9 +33,9 @@ import java.util.Set;
 public class FileRestorationWorkingSubset {
 
     /**
-     * Raw {@link FileStorageRequestAggregationDto}s associate
+     * Raw {@link FileStorageRequestAggregationDto}s associate, in the order they should be restored
      */
-    private final Set<FileCacheRequestDto> fileRestorationRequests = new HashSet<>();
+    private final Set<FileCacheRequestDto> fileRestorationRequests = new LinkedHashSet<>();
 
     public FileRestorationWorkingSubset(Collection<FileCacheRequestDto> requests) {
         super();
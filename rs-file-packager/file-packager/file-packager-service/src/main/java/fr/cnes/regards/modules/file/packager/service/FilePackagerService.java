@@ -20,8 +20,6 @@ package fr.cnes.regards.modules.file.packager.service;
 
 import fr.cnes.regards.framework.amqp.IPublisher;
 import fr.cnes.regards.framework.jpa.multitenant.transactional.MultitenantTransactional;
-import fr.cnes.regards.framework.utils.file.ChecksumUtils;
-import fr.cnes.regards.framework.utils.file.ZipUtils;
 import fr.cnes.regards.modules.file.packager.dao.FileInBuildingPackageRepository;
 import fr.cnes.regards.modules.file.packager.dao.PackageReferenceRepository;
 import fr.cnes.regards.modules.file.packager.domain.FileInBuildingPackage;
@@ -29,28 +27,29 @@ import fr.cnes.regards.modules.file.packager.domain.FileInBuildingPackageStatus;
 import fr.cnes.regards.modules.file.packager.domain.PackageReference;
 import fr.cnes.regards.modules.file.packager.domain.PackageReferenceStatus;
 import fr.cnes.regards.modules.file.packager.service.utils.FileStorageRequestReadyToProcessEventFactory;
+import fr.cnes.regards.modules.file.packager.service.utils.PackageArchiveWriter;
 import fr.cnes.regards.modules.fileaccess.amqp.input.FileStorageRequestReadyToProcessEvent;
 import fr.cnes.regards.modules.filecatalog.amqp.input.FileArchiveResponseEvent;
 import fr.cnes.regards.modules.filecatalog.amqp.output.FileArchiveRequestEvent;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Scope;
+import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.security.NoSuchAlgorithmException;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.zip.ZipOutputStream;
+import java.util.concurrent.Semaphore;
 
 /**
  * Service for file packaging.
@@ -80,6 +79,7 @@ import java.util.zip.ZipOutputStream;
  * @author Thibaud Michaudel
  **/
 @Service
+@Scope(proxyMode = ScopedProxyMode.TARGET_CLASS)
 public class FilePackagerService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FilePackagerService.class);
@@ -90,6 +90,8 @@ public class FilePackagerService {
 
     private final IPublisher publisher;
 
+    private final FilePackagerService self;
+
     @Value("${regards.file.packager.archive.max.size.in.ko:1024}")
     private int maxArchiveSizeInKo;
 
@@ -105,16 +107,31 @@ public class FilePackagerService {
     @Value("${regards.file.packager.archive.directory:/archive}")
     private String archiveDirectory;
 
+    /**
+     * Maximum number of archives built at the same time, to bound the disk I/O of package jobs.
+     */
+    @Value("${regards.file.packager.archive.max.concurrent.builds:2}")
+    private int maxConcurrentArchiveBuilds;
+
+    private Semaphore archiveBuildPermits;
+
     private final DateTimeFormatter archiveNameFormatter = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS");
 
     private static final String FILE_IN_ARCHIVE = ".zip?fileName=";
 
     public FilePackagerService(FileInBuildingPackageRepository fileInBuildingPackageRepository,
                                PackageReferenceRepository packageReferenceRepository,
-                               IPublisher publisher) {
+                               IPublisher publisher,
+                               FilePackagerService filePackagerService) {
         this.fileInBuildingPackageRepository = fileInBuildingPackageRepository;
         this.packageReferenceRepository = packageReferenceRepository;
         this.publisher = publisher;
+        this.self = filePackagerService;
+    }
+
+    @PostConstruct
+    public void init() {
+        archiveBuildPermits = new Semaphore(maxConcurrentArchiveBuilds, true);
     }
 
     /**
@@ -155,7 +172,11 @@ public class FilePackagerService {
         filePackageMap.forEach((key, value) -> associateFilesToPackage(key.storage(), key.path(), value));
     }
 
-    @MultitenantTransactional
+    /**
+     * Build the archive of a closed package and send its storage request to file-access.
+     * The archive is built outside any transaction, so that builds waiting for a permit or writing to disk do not hold
+     * a database connection. Files of the package are read by pages, each one in its own transaction.
+     */
     public void storeCompletePackage(Long packageId, String storageSubdirectory, String creationDate, String storage) {
         Path archivePath = Path.of(archiveDirectory, storageSubdirectory, creationDate + ".zip");
 
@@ -166,25 +187,45 @@ public class FilePackagerService {
             throw new RuntimeException("Error while deleting the existing archive", e);
         }
 
+        // Create the archive and add the files, the checksum is computed while the archive is written
+        String checksum;
         try {
             Files.createDirectories(archivePath.getParent());
-            // Create the archive and add the files
-            try (FileOutputStream fileOutputStream = new FileOutputStream(archivePath.toFile());
-                ZipOutputStream zipOutputStream = new ZipOutputStream(fileOutputStream)) {
-                addFilesToArchive(packageId, zipOutputStream);
+            archiveBuildPermits.acquire();
+            try {
+                long start = System.currentTimeMillis();
+                PackageArchiveWriter archiveWriter = new PackageArchiveWriter(archivePath);
+                try (archiveWriter) {
+                    addFilesToArchive(packageId, archiveWriter);
+                }
+                checksum = archiveWriter.getChecksum();
+                LOGGER.debug("Archive {} built in {}ms ({} stored entries, {} deflated entries)",
+                             archivePath,
+                             System.currentTimeMillis() - start,
+                             archiveWriter.getStoredEntries(),
+                             archiveWriter.getDeflatedEntries());
+            } finally {
+                archiveBuildPermits.release();
             }
         } catch (IOException e) {
             throw new RuntimeException("Error while adding files to the archive", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting to build the archive", e);
         }
 
-        // Compute archive checksum
-        String checksum;
-        try {
-            checksum = ChecksumUtils.computeHexChecksum(archivePath, "MD5");
-        } catch (NoSuchAlgorithmException | IOException e) {
-            throw new RuntimeException("Error while computing archive checksum", e);
-        }
+        self.completePackageStorage(packageId, storageSubdirectory, storage, checksum, archivePath);
+    }
 
+    /**
+     * Send the storage request of a built archive to file-access and save its checksum.
+     */
+    @MultitenantTransactional
+    public void completePackageStorage(Long packageId,
+                                       String storageSubdirectory,
+                                       String storage,
+                                       String checksum,
+                                       Path archivePath) {
         // Send the storage request to file-access
         FileStorageRequestReadyToProcessEvent archiveStorageRequest = FileStorageRequestReadyToProcessEventFactory.createPackageRequestEvent(
             packageId,
@@ -198,19 +239,14 @@ public class FilePackagerService {
         packageReferenceRepository.updatePackageChecksum(packageId, checksum);
     }
 
-    private void addFilesToArchive(Long packageId, ZipOutputStream zipOutputStream) {
+    private void addFilesToArchive(Long packageId, PackageArchiveWriter archiveWriter) throws IOException {
         Pageable page = PageRequest.of(0, pageSize);
         do {
             Page<FileInBuildingPackage> filesInPackage = fileInBuildingPackageRepository.findByPackageReferenceId(
                 packageId,
                 page);
-            boolean filesAdded = ZipUtils.addFilesToArchive(zipOutputStream,
-                                                            filesInPackage.getContent()
-                                                                          .stream()
-                                                                          .map(fileInPackage -> new File(fileInPackage.getFileCachePath()))
-                                                                          .toList());
-            if (!filesAdded) {
-                throw new RuntimeException("Error while adding files to the archive, files were not added");
+            for (FileInBuildingPackage fileInPackage : filesInPackage.getContent()) {
+                archiveWriter.addFile(Path.of(fileInPackage.getFileCachePath()));
             }
             page = filesInPackage.nextPageable();
         } while (page.isPaged());
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.file.packager.service.utils;
+
+import fr.cnes.regards.framework.utils.file.ChecksumUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Write a package zip archive in a single pass.
+ * <ul>
+ *     <li>The MD5 checksum of the archive is computed while the archive is written, so it does not have to be read
+ *     again once closed.</li>
+ *     <li>Each file is either compressed or stored depending on its content : files with a known compressed format
+ *     or whose first bytes barely compress are not compressed again. Small files are read in memory and written as
+ *     stored entries, larger ones are streamed without compression.</li>
+ * </ul>
+ */
+public class PackageArchiveWriter implements Closeable {
+
+    public static final String CHECKSUM_ALGORITHM = "MD5";
+
+    /**
+     * Files up to this size are read in memory, which allows to write them as stored entries.
+     */
+    private static final int SMALL_FILE_MAX_SIZE = 1024 * 1024;
+
+    /**
+     * Number of bytes of a file compressed to decide if the file is worth compressing
+     */
+    private static final int PROBE_SIZE = 64 * 1024;
+
+    /**
+     * A file is compressed only if its probe compresses to less than this ratio of its size
+     */
+    private static final double MIN_COMPRESSION_RATIO = 0.9;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final Set<String> COMPRESSED_EXTENSIONS = Set.of("zip",
+                                                                    "gz",
+                                                                    "tgz",
+                                                                    "bz2",
+                                                                    "xz",
+                                                                    "zst",
+                                                                    "7z",
+                                                                    "rar",
+                                                                    "jar",
+                                                                    "jpg",
+                                                                    "jpeg",
+                                                                    "png",
+                                                                    "gif",
+                                                                    "webp",
+                                                                    "jp2",
+                                                                    "mp3",
+                                                                    "mp4",
+                                                                    "mkv",
+                                                                    "avi",
+                                                                    "pdf");
+
+    private final MessageDigest digest;
+
+    private final ZipOutputStream zipOutputStream;
+
+    private int storedEntries = 0;
+
+    private int deflatedEntries = 0;
+
+    private String checksum;
+
+    public PackageArchiveWriter(Path archivePath) throws IOException {
+        try {
+            this.digest = MessageDigest.getInstance(CHECKSUM_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Archive checksum algorithm is not available", e);
+        }
+        this.zipOutputStream = new ZipOutputStream(new BufferedOutputStream(new DigestOutputStream(Files.newOutputStream(
+            archivePath), digest), BUFFER_SIZE));
+    }
+
+    /**
+     * Add the given file at the root of the archive
+     */
+    public void addFile(Path file) throws IOException {
+        long size = Files.size(file);
+        boolean compressedFormat = isCompressedFormat(file);
+        if (size <= SMALL_FILE_MAX_SIZE) {
+            byte[] content = Files.readAllBytes(file);
+            if (compressedFormat || !isCompressible(content, Math.min(content.length, PROBE_SIZE))) {
+                addStoredEntry(file.getFileName().toString(), content);
+            } else {
+                addDeflatedEntry(file.getFileName().toString(), content);
+            }
+        } else {
+            try (InputStream inputStream = Files.newInputStream(file)) {
+                byte[] probe = compressedFormat ? new byte[0] : inputStream.readNBytes(PROBE_SIZE);
+                boolean compress = !compressedFormat && isCompressible(probe, probe.length);
+                // Stored entries need their crc before being written, large files are written as deflated entries
+                // without compression to be streamed in one pass.
+                zipOutputStream.setLevel(compress ? Deflater.DEFAULT_COMPRESSION : Deflater.NO_COMPRESSION);
+                ZipEntry zipEntry = new ZipEntry(file.getFileName().toString());
+                zipOutputStream.putNextEntry(zipEntry);
+                zipOutputStream.write(probe);
+                inputStream.transferTo(zipOutputStream);
+                zipOutputStream.closeEntry();
+                zipOutputStream.setLevel(Deflater.DEFAULT_COMPRESSION);
+                countEntry(zipEntry);
+            }
+        }
+    }
+
+    private void addStoredEntry(String name, byte[] content) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        ZipEntry zipEntry = new ZipEntry(name);
+        zipEntry.setMethod(ZipEntry.STORED);
+        zipEntry.setSize(content.length);
+        zipEntry.setCompressedSize(content.length);
+        zipEntry.setCrc(crc.getValue());
+        zipOutputStream.putNextEntry(zipEntry);
+        zipOutputStream.write(content);
+        zipOutputStream.closeEntry();
+        countEntry(zipEntry);
+    }
+
+    private void addDeflatedEntry(String name, byte[] content) throws IOException {
+        ZipEntry zipEntry = new ZipEntry(name);
+        zipOutputStream.putNextEntry(zipEntry);
+        zipOutputStream.write(content);
+        zipOutputStream.closeEntry();
+        countEntry(zipEntry);
+    }
+
+    /**
+     * Count a written entry by its actual compression method, the default one being set when the entry is written
+     */
+    private void countEntry(ZipEntry zipEntry) {
+        if (zipEntry.getMethod() == ZipEntry.STORED) {
+            storedEntries++;
+        } else {
+            deflatedEntries++;
+        }
+    }
+
+    private static boolean isCompressedFormat(Path file) {
+        String fileName = file.getFileName().toString();
+        int extensionIndex = fileName.lastIndexOf('.');
+        return extensionIndex >= 0 && COMPRESSED_EXTENSIONS.contains(fileName.substring(extensionIndex + 1)
+                                                                             .toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Quickly compress the first bytes of a content to check if compressing the whole content is worth it
+     */
+    private static boolean isCompressible(byte[] content, int length) {
+        if (length == 0) {
+            return true;
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(content, 0, length);
+            deflater.finish();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            long compressedLength = 0;
+            while (!deflater.finished()) {
+                compressedLength += deflater.deflate(buffer);
+            }
+            return compressedLength < length * MIN_COMPRESSION_RATIO;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @return hexadecimal MD5 checksum of the archive. Only available once the archive is closed.
+     */
+    public String getChecksum() {
+        if (checksum == null) {
+            throw new IllegalStateException("Archive checksum is only available once the archive is closed");
+        }
+        return checksum;
+    }
+
+    /**
+     * @return number of entries written with the {@link ZipEntry#STORED} method
+     */
+    public int getStoredEntries() {
+        return storedEntries;
+    }
+
+    /**
+     * @return number of entries written with the {@link ZipEntry#DEFLATED} method, including large files written
+     * without compression
+     */
+    public int getDeflatedEntries() {
+        return deflatedEntries;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (checksum == null) {
+            zipOutputStream.close();
+            checksum = ChecksumUtils.getHexChecksum(digest.digest());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.file.packager.service.utils;
+
+import fr.cnes.regards.framework.utils.file.ChecksumUtils;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Test for {@link PackageArchiveWriter}
+ */
+public class PackageArchiveWriterTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PackageArchiveWriterTest.class);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final Random random = new Random(42);
+
+    @Test
+    public void test_archive_checksum_and_entries() throws Exception {
+        // Given
+        Path text = writeText("text.txt", 10_000);
+        Path randomContent = writeRandom("random.dat", 10_000);
+        Path image = writeText("image.png", 10_000);
+        Path largeText = writeText("large.txt", 3 * 1024 * 1024);
+        Path largeRandom = writeRandom("large.dat", 3 * 1024 * 1024);
+        Path archive = temporaryFolder.getRoot().toPath().resolve("archive.zip");
+
+        // When
+        PackageArchiveWriter archiveWriter = new PackageArchiveWriter(archive);
+        try (archiveWriter) {
+            for (Path file : List.of(text, randomContent, image, largeText, largeRandom)) {
+                archiveWriter.addFile(file);
+            }
+        }
+
+        // Then
+        Assert.assertEquals("Checksum computed while writing should be the one of the archive",
+                            ChecksumUtils.computeHexChecksum(archive, PackageArchiveWriter.CHECKSUM_ALGORITHM),
+                            archiveWriter.getChecksum());
+        try (ZipFile zipFile = new ZipFile(archive.toFile())) {
+            Assert.assertEquals(ZipEntry.DEFLATED, zipFile.getEntry("text.txt").getMethod());
+            Assert.assertEquals(ZipEntry.STORED, zipFile.getEntry("random.dat").getMethod());
+            Assert.assertEquals(ZipEntry.STORED, zipFile.getEntry("image.png").getMethod());
+            ZipEntry largeTextEntry = zipFile.getEntry("large.txt");
+            Assert.assertEquals(ZipEntry.DEFLATED, largeTextEntry.getMethod());
+            Assert.assertTrue("Large text file should be compressed",
+                              largeTextEntry.getCompressedSize() < largeTextEntry.getSize() / 2);
+            ZipEntry largeRandomEntry = zipFile.getEntry("large.dat");
+            Assert.assertEquals(ZipEntry.DEFLATED, largeRandomEntry.getMethod());
+            Assert.assertTrue("Large random file should not be compressed",
+                              largeRandomEntry.getCompressedSize() >= largeRandomEntry.getSize());
+            for (Path file : List.of(text, randomContent, image, largeText, largeRandom)) {
+                Assert.assertArrayEquals(Files.readAllBytes(file),
+                                         zipFile.getInputStream(zipFile.getEntry(file.getFileName().toString()))
+                                                .readAllBytes());
+            }
+        }
+        Assert.assertEquals(2, archiveWriter.getStoredEntries());
+        Assert.assertEquals(3, archiveWriter.getDeflatedEntries());
+    }
+
+    @Test
+    @Ignore("Performances tests")
+    public void test_archive_throughput() throws IOException {
+        List<Path> smallFiles = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            smallFiles.add(i % 2 == 0 ?
+                               writeText("small_" + i + ".txt", 4096) :
+                               writeRandom("small_" + i + ".dat", 4096));
+        }
+        logThroughput("small files", smallFiles);
+
+        List<Path> largeFiles = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            largeFiles.add(i % 2 == 0 ?
+                               writeText("large_" + i + ".txt", 50 * 1024 * 1024) :
+                               writeRandom("large_" + i + ".dat", 50 * 1024 * 1024));
+        }
+        logThroughput("large files", largeFiles);
+    }
+
+    private void logThroughput(String workload, List<Path> files) throws IOException {
+        long totalSize = 0;
+        for (Path file : files) {
+            totalSize += Files.size(file);
+        }
+        Path archive = temporaryFolder.getRoot().toPath().resolve(workload.replace(' ', '_') + ".zip");
+        long start = System.currentTimeMillis();
+        try (PackageArchiveWriter archiveWriter = new PackageArchiveWriter(archive)) {
+            for (Path file : files) {
+                archiveWriter.addFile(file);
+            }
+        }
+        long duration = Math.max(1, System.currentTimeMillis() - start);
+        LOGGER.info("Archive of {} {} ({} bytes) built in {}ms : {} MB/s",
+                    files.size(),
+                    workload,
+                    totalSize,
+                    duration,
+                    totalSize / 1000 / duration);
+    }
+
+    private Path writeText(String name, int size) throws IOException {
+        StringBuilder content = new StringBuilder(size);
+        while (content.length() < size) {
+            content.append("line ").append(content.length()).append(" of a text file to package\n");
+        }
+        Path file = temporaryFolder.getRoot().toPath().resolve(name);
+        Files.writeString(file, content.substring(0, size), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private Path writeRandom(String name, int size) throws IOException {
+        byte[] content = new byte[size];
+        random.nextBytes(content);
+        Path file = temporaryFolder.getRoot().toPath().resolve(name);
+        Files.write(file, content);
+        return file;
+    }
+}
@@ -408,23 +408,32 @@ public class AIPStorageService implements IAIPStorageService {
     public void updateAIPsContentInfosAndLocations(List<AIPEntity> aips,
                                                    Collection<RequestResultInfoDto> storeRequestInfos) {
 
+        // Index request results by owner AIP and by checksum once, so each data object is matched with a single lookup
+        Map<String, Map<String, Set<RequestResultInfoDto>>> resultsByAipIdAndChecksum = new HashMap<>();
+        for (RequestResultInfoDto storeRequestInfo : storeRequestInfos) {
+            for (String owner : storeRequestInfo.getRequestOwners()) {
+                resultsByAipIdAndChecksum.computeIfAbsent(owner, o -> new HashMap<>())
+                                         .computeIfAbsent(storeRequestInfo.getRequestChecksum(),
+                                                          c -> new LinkedHashSet<>())
+                                         .add(storeRequestInfo);
+            }
+        }
         // Iterate over AIPs
         for (AIPEntity aipEntity : aips) {
-            // Filter ResultInfos for the current aip to handle
-            Set<RequestResultInfoDto> aipRequests = storeRequestInfos.stream()
-                                                                     .filter(r -> r.getRequestOwners()
-                                                                                   .contains(aipEntity.getAipId()))
-                                                                     .collect(Collectors.toSet());
+            // Retrieve ResultInfos for the current aip to handle
+            Map<String, Set<RequestResultInfoDto>> aipRequests = resultsByAipIdAndChecksum.get(aipEntity.getAipId());
+            if (aipRequests == null) {
+                continue;
+            }
             // Iterate over AIP data objects
             List<ContentInformationDto> contentInfos = aipEntity.getAip().getProperties().getContentInformations();
             for (ContentInformationDto ci : contentInfos) {
                 OAISDataObjectDto dataObject = ci.getDataObject();
 
-                // Filter the request result list to only keep whose referring to the current data object
-                Set<RequestResultInfoDto> storeRequestInfosForCurrentAIP = aipRequests.stream()
-                                                                                      .filter(r -> r.getRequestChecksum()
-                                                                                                    .equals(dataObject.getChecksum()))
-                                                                                      .collect(Collectors.toSet());
+                // Only keep request results referring to the current data object
+                Set<RequestResultInfoDto> storeRequestInfosForCurrentAIP = aipRequests.getOrDefault(
+                    dataObject.getChecksum(),
+                    Collections.emptySet());
                 // Iterate over request results
                 for (RequestResultInfoDto storeRequestInfo : storeRequestInfosForCurrentAIP) {
                     FileReferenceDto resultFile = storeRequestInfo.getResultFile();
@@ -470,17 +479,15 @@ public class AIPStorageService implements IAIPStorageService {
     public AIPUpdateResult addAIPLocations(AIPEntity aip, Collection<RequestResultInfoDto> storeRequestInfos) {
         boolean aipEdited = false;
         boolean edited = false;
+        List<ContentInformationDto> contentInfos = aip.getAip().getProperties().getContentInformations();
+        Map<String, ContentInformationDto> contentInfosByChecksum = getContentInfosByChecksum(contentInfos);
         // Iterate over events (we already know they concerns the provided aip)
         for (RequestResultInfoDto eventInfo : storeRequestInfos) {
             String storageLocation = eventInfo.getRequestStorage();
-            List<ContentInformationDto> contentInfos = aip.getAip().getProperties().getContentInformations();
 
             // Extract from aip the ContentInfo referenced by the event, otherwise it does not concern AIP files
-            Optional<ContentInformationDto> ciOp = contentInfos.stream()
-                                                               .filter(ci -> ci.getDataObject()
-                                                                               .getChecksum()
-                                                                               .equals(eventInfo.getRequestChecksum()))
-                                                               .findFirst();
+            Optional<ContentInformationDto> ciOp = Optional.ofNullable(contentInfosByChecksum.get(
+                eventInfo.getRequestChecksum()));
             if (ciOp.isPresent()) {
 
                 ContentInformationDto ci = ciOp.get();
@@ -529,17 +536,17 @@ public class AIPStorageService implements IAIPStorageService {
     public AIPUpdateResult removeAIPLocations(AIPEntity aip, Collection<RequestResultInfoDto> storeRequestInfos) {
         boolean aipEdited = false;
         boolean edited = false;
+        List<ContentInformationDto> contentInfos = aip.getAip().getProperties().getContentInformations();
+        Map<String, ContentInformationDto> contentInfosByChecksum = getContentInfosByChecksum(contentInfos);
+        // Storages of the removed locations, to be removed from the storage list if no file is stored there anymore
+        Set<String> removedStorages = new HashSet<>();
         // Iterate over events (we already know they concerns the provided aip)
         for (RequestResultInfoDto eventInfo : storeRequestInfos) {
             String storageLocation = eventInfo.getRequestStorage();
-            List<ContentInformationDto> contentInfos = aip.getAip().getProperties().getContentInformations();
 
             // Extract from aip the ContentInfo referenced by the event, otherwise it does not concern AIP files
-            Optional<ContentInformationDto> ciOp = contentInfos.stream()
-                                                               .filter(ci -> ci.getDataObject()
-                                                                               .getChecksum()
-                                                                               .equals(eventInfo.getRequestChecksum()))
-                                                               .findFirst();
+            Optional<ContentInformationDto> ciOp = Optional.ofNullable(contentInfosByChecksum.get(
+                eventInfo.getRequestChecksum()));
             if (ciOp.isPresent()) {
                 ContentInformationDto ci = ciOp.get();
 
@@ -568,29 +575,41 @@ public class AIPStorageService implements IAIPStorageService {
                                                 storageLocation));
                 }
 
-                // Check if the event storage location still appears in some file referenced by this AIP
-                boolean shouldKeepStorage = contentInfos.stream()
-                                                        .anyMatch(contentInfo -> contentInfo.getDataObject()
-                                                                                            .getLocations()
-                                                                                            .stream()
-                                                                                            .anyMatch(loc -> loc.getStorage()
-                                                                                                                .equals(
-                                                                                                                    storageLocation)));
-
-                // Remove the location from the storage list
-                if (!shouldKeepStorage) {
-                    edited = true;
-                    Set<String> updatedStorages = aip.getStorages()
-                                                     .stream()
-                                                     .filter(s -> !s.equals(storageLocation))
-                                                     .collect(Collectors.toSet());
-                    aip.setStorages(updatedStorages);
-                }
+                removedStorages.add(storageLocation);
+            }
+        }
+        // Remove from the storage list the locations that do not appear anymore in any file referenced by this AIP
+        if (!removedStorages.isEmpty()) {
+            Set<String> remainingStorages = new HashSet<>();
+            for (ContentInformationDto ci : contentInfos) {
+                ci.getDataObject().getLocations().forEach(l -> remainingStorages.add(l.getStorage()));
+            }
+            removedStorages.removeAll(remainingStorages);
+            if (!removedStorages.isEmpty()) {
+                edited = true;
+                Set<String> updatedStorages = aip.getStorages()
+                                                 .stream()
+                                                 .filter(s -> !removedStorages.contains(s))
+                                                 .collect(Collectors.toSet());
+                aip.setStorages(updatedStorages);
             }
         }
         return AIPUpdateResult.build(edited, aipEdited);
     }
 
+    /**
+     * Index content informations by data object checksum. The first content information is kept for a duplicated
+     * checksum.
+     */
+    private static Map<String, ContentInformationDto> getContentInfosByChecksum(
+        List<ContentInformationDto> contentInfos) {
+        Map<String, ContentInformationDto> contentInfosByChecksum = new HashMap<>();
+        for (ContentInformationDto ci : contentInfos) {
+            contentInfosByChecksum.putIfAbsent(ci.getDataObject().getChecksum(), ci);
+        }
+        return contentInfosByChecksum;
+    }
+
     @Override
     public Collection<FileDeletionDto> removeStorages(AIPEntity aip, List<String> removedStorages) {
 
@@ -20,6 +20,7 @@ package fr.cnes.regards.modules.ingest.service.dump;
 
 import fr.cnes.regards.framework.jpa.multitenant.transactional.MultitenantTransactional;
 import fr.cnes.regards.framework.modules.dump.service.DumpService;
+import fr.cnes.regards.framework.modules.dump.service.JsonZipWriter;
 import fr.cnes.regards.framework.modules.dump.service.ObjectDump;
 import fr.cnes.regards.framework.notification.NotificationLevel;
 import fr.cnes.regards.framework.notification.client.INotificationClient;
@@ -104,10 +105,11 @@ public class AIPMetadataService implements IAIPMetadataService {
     public void writeZips(AIPSaveMetadataRequest metadataRequest, Path tmpZipLocation)
         throws NothingToDoException, IOException {
         Pageable pageToRequest = PageRequest.of(0, zipLimit, Sort.by(Sort.Order.asc("creationDate")));
-        try {
+        // zips are written in parallel while next pages are retrieved
+        try (JsonZipWriter zipWriter = dumpService.openJsonZipWriter(tmpZipLocation)) {
             do {
                 // zip json files generated from aips
-                pageToRequest = self.dumpOnePage(metadataRequest, pageToRequest, tmpZipLocation);
+                pageToRequest = self.dumpOnePage(metadataRequest, pageToRequest, zipWriter);
             } while (pageToRequest != null);
         } catch (DuplicateUniqueNameException e) {
             self.handleError(metadataRequest, e.getMessage());
@@ -116,7 +118,7 @@ public class AIPMetadataService implements IAIPMetadataService {
     }
 
     @Override
-    public Pageable dumpOnePage(AIPSaveMetadataRequest metadataRequest, Pageable pageToRequest, Path tmpZipLocation)
+    public Pageable dumpOnePage(AIPSaveMetadataRequest metadataRequest, Pageable pageToRequest, JsonZipWriter zipWriter)
         throws IOException, DuplicateUniqueNameException, NothingToDoException {
         // Find aips to zip
         Page<AIPEntity> aipToDump;
@@ -157,7 +159,7 @@ public class AIPMetadataService implements IAIPMetadataService {
 
         // If no error was detected, create zip that contains json files generated from aips
         try {
-            dumpService.generateJsonZip(objectDumps, tmpZipLocation);
+            zipWriter.write(objectDumps);
         } catch (IOException e) {
             LOGGER.error("Error while dumping one page of aip", e);
             throw e;
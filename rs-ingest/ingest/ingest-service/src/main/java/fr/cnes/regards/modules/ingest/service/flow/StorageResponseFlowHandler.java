@@ -84,10 +84,12 @@ public class StorageResponseFlowHandler implements IStorageRequestListener {
         Collection<AIPEntity> aips = aipService.findByAipIds(updateTasksByAIPId.keySet());
         // Then dispatch each update task by AIPentity
         Multimap<AIPEntity, AbstractAIPUpdateTask> updateTasksByAIP = ArrayListMultimap.create();
+        Map<String, AIPEntity> aipsByAipId = new HashMap<>();
+        aips.forEach(aip -> aipsByAipId.putIfAbsent(aip.getAipId(), aip));
         updateTasksByAIPId.asMap().forEach((aipId, tasks) -> {
-            Optional<AIPEntity> aip = aips.stream().filter(a -> a.getAipId().equals(aipId)).findFirst();
-            if (aip.isPresent()) {
-                updateTasksByAIP.putAll(aip.get(), tasks);
+            AIPEntity aip = aipsByAipId.get(aipId);
+            if (aip != null) {
+                updateTasksByAIP.putAll(aip, tasks);
             }
         });
         // Finally, creates the AIPUpdateLocationRequests
@@ -147,34 +149,31 @@ public class StorageResponseFlowHandler implements IStorageRequestListener {
         // Detect INGEST requests to handle
         Map<RequestInfo, Set<IngestRequest>> toHandle = new HashMap<>();
 
-        List<AbstractRequest> requests = requestService.getRequests(requestInfos);
+        Multimap<String, AbstractRequest> requestsByGroupId = getRequestsByGroupId(requestInfos);
         for (RequestInfo ri : requestInfos) {
             LOGGER.trace(HANDLER_NAME + "handling success storage request {} with {} success / {} errors",
                          ri.getGroupId(),
                          ri.getSuccessRequests().size(),
                          ri.getErrorRequests().size());
-            boolean found = false;
+            Collection<AbstractRequest> groupRequests = requestsByGroupId.get(ri.getGroupId());
             Set<IngestRequest> toHandleRemote = Sets.newHashSet();
 
-            for (AbstractRequest request : requests) {
-                if (request.getRemoteStepGroupIds().contains(ri.getGroupId())) {
-                    found = true;
-                    if (request instanceof IngestRequest) {
-                        LOGGER.trace(HANDLER_NAME + "Ingest request {} found associated to group request {}",
-                                     request.getId(),
-                                     ri.getGroupId());
-                        toHandleRemote.add((IngestRequest) request);
-                    } else {
-                        LOGGER.trace(HANDLER_NAME + "Request type undefined {} for group {}",
-                                     request.getId(),
-                                     ri.getGroupId());
-                        requestService.handleRemoteStoreSuccess(request);
-                    }
+            for (AbstractRequest request : groupRequests) {
+                if (request instanceof IngestRequest) {
+                    LOGGER.trace(HANDLER_NAME + "Ingest request {} found associated to group request {}",
+                                 request.getId(),
+                                 ri.getGroupId());
+                    toHandleRemote.add((IngestRequest) request);
+                } else {
+                    LOGGER.trace(HANDLER_NAME + "Request type undefined {} for group {}",
+                                 request.getId(),
+                                 ri.getGroupId());
+                    requestService.handleRemoteStoreSuccess(request);
                 }
             }
 
             toHandle.put(ri, toHandleRemote);
-            if (!found) {
+            if (groupRequests.isEmpty()) {
                 LOGGER.warn(HANDLER_NAME + "No request found associated to group request {}", ri.getGroupId());
             }
         }
@@ -194,20 +193,33 @@ public class StorageResponseFlowHandler implements IStorageRequestListener {
     @Override
     public void onStoreError(Set<RequestInfo> requestInfos) {
         LOGGER.debug(HANDLER_NAME + "Handling {} storage error group requests", requestInfos.size());
-        List<AbstractRequest> requests = requestService.getRequests(requestInfos);
+        Multimap<String, AbstractRequest> requestsByGroupId = getRequestsByGroupId(requestInfos);
         for (RequestInfo requestInfo : requestInfos) {
-            for (AbstractRequest request : requests) {
-                if (request.getRemoteStepGroupIds().contains(requestInfo.getGroupId())) {
-                    if (request instanceof IngestRequest ingestRequest) {
-                        ingestRequestService.handleRemoteStoreError(ingestRequest, requestInfo);
-                    } else {
-                        requestService.handleRemoteStoreError(request);
-                    }
+            for (AbstractRequest request : requestsByGroupId.get(requestInfo.getGroupId())) {
+                if (request instanceof IngestRequest ingestRequest) {
+                    ingestRequestService.handleRemoteStoreError(ingestRequest, requestInfo);
+                } else {
+                    requestService.handleRemoteStoreError(request);
                 }
             }
         }
     }
 
+    /**
+     * Retrieve the requests associated to the given group requests, dispatched by remote step group id, so each
+     * group request is matched with a single lookup.
+     */
+    private Multimap<String, AbstractRequest> getRequestsByGroupId(Set<RequestInfo> requestInfos) {
+        Multimap<String, AbstractRequest> requestsByGroupId = ArrayListMultimap.create();
+        for (AbstractRequest request : requestService.getRequests(requestInfos)) {
+            // A request is associated only once to a group
+            for (String groupId : new LinkedHashSet<>(request.getRemoteStepGroupIds())) {
+                requestsByGroupId.put(groupId, request);
+            }
+        }
+        return requestsByGroupId;
+    }
+
     @Override
     public void onRequestGranted(Set<RequestInfo> requests) {
         requestService.handleRemoteRequestGranted(requests);
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.ingest.service.aip;
+
+import com.google.common.collect.Sets;
+import fr.cnes.regards.framework.oais.dto.OAISDataObjectLocationDto;
+import fr.cnes.regards.framework.oais.dto.aip.AIPDto;
+import fr.cnes.regards.framework.oais.dto.sip.SIPDto;
+import fr.cnes.regards.framework.oais.dto.urn.OAISIdentifier;
+import fr.cnes.regards.framework.oais.dto.urn.OaisUniformResourceName;
+import fr.cnes.regards.framework.urn.DataType;
+import fr.cnes.regards.framework.urn.EntityType;
+import fr.cnes.regards.modules.fileaccess.dto.FileLocationDto;
+import fr.cnes.regards.modules.fileaccess.dto.FileReferenceDto;
+import fr.cnes.regards.modules.fileaccess.dto.FileReferenceMetaInfoDto;
+import fr.cnes.regards.modules.fileaccess.dto.request.RequestResultInfoDto;
+import fr.cnes.regards.modules.ingest.domain.aip.AIPEntity;
+import fr.cnes.regards.modules.ingest.dto.AIPState;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.MimeTypeUtils;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Performances tests of the update of AIPs with the results of the storage of their files. Update duration must grow
+ * linearly with the number of AIPs.
+ */
+@Ignore("Performances tests")
+public class AIPStorageServicePerformanceTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AIPStorageServicePerformanceTest.class);
+
+    private static final String TENANT = "PERF";
+
+    private static final String STORAGE = "DISK";
+
+    private static final int NB_FILES_BY_AIP = 5;
+
+    private final AIPStorageService storageService = new AIPStorageService();
+
+    @Test
+    public void update_aips_with_storage_results() {
+        long previousDuration = 0;
+        for (int nbAips = 1_000; nbAips <= 16_000; nbAips *= 2) {
+            // Given
+            List<AIPEntity> aips = new ArrayList<>(nbAips);
+            List<RequestResultInfoDto> results = new ArrayList<>(nbAips * NB_FILES_BY_AIP);
+            for (int i = 0; i < nbAips; i++) {
+                aips.add(buildAip(i, results));
+            }
+
+            // When
+            long start = System.currentTimeMillis();
+            storageService.updateAIPsContentInfosAndLocations(aips, results);
+            long duration = System.currentTimeMillis() - start;
+
+            // Then
+            LOGGER.info(">>>>>>>>>>>>>>>>> {} AIPs updated with {} storage results in {} ms",
+                        nbAips,
+                        results.size(),
+                        duration);
+            aips.forEach(aip -> Assert.assertTrue(aip.getAip()
+                                                     .getProperties()
+                                                     .getContentInformations()
+                                                     .stream()
+                                                     .allMatch(ci -> ci.getDataObject()
+                                                                       .getLocations()
+                                                                       .stream()
+                                                                       .anyMatch(l -> STORAGE.equals(l.getStorage())))));
+            if (previousDuration > 0) {
+                Assert.assertTrue(String.format("Update duration should grow linearly with the number of AIPs (%d/%d)",
+                                                duration,
+                                                previousDuration),
+                                  duration < 4 * Math.max(previousDuration, 50));
+            }
+            previousDuration = duration;
+        }
+    }
+
+    private static AIPEntity buildAip(int index, List<RequestResultInfoDto> results) {
+        String providerId = String.format("provider_%07d", index);
+        SIPDto sip = SIPDto.build(EntityType.DATA, providerId);
+        for (int f = 0; f < NB_FILES_BY_AIP; f++) {
+            String fileName = String.format("file_%07d_%d.dat", index, f);
+            sip.withDataObject(DataType.RAWDATA,
+                               fileName,
+                               "MD5",
+                               checksum(index, f),
+                               0L,
+                               OAISDataObjectLocationDto.build("file:///input/" + fileName))
+               .withSyntax(MimeTypeUtils.APPLICATION_OCTET_STREAM)
+               .registerContentInformation();
+        }
+        AIPDto aip = AIPDto.build(sip,
+                                  OaisUniformResourceName.pseudoRandomUrn(OAISIdentifier.AIP,
+                                                                          EntityType.DATA,
+                                                                          TENANT,
+                                                                          1),
+                                  Optional.empty(),
+                                  providerId,
+                                  1);
+        AIPEntity aipEntity = AIPEntity.build(AIPState.GENERATED, aip);
+        aipEntity.setStorages(Sets.newHashSet());
+        for (int f = 0; f < NB_FILES_BY_AIP; f++) {
+            String fileName = String.format("file_%07d_%d.dat", index, f);
+            results.add(RequestResultInfoDto.build("group_" + index,
+                                                   checksum(index, f),
+                                                   STORAGE,
+                                                   "/dir",
+                                                   Sets.newHashSet(aipEntity.getAipId()),
+                                                   new FileReferenceDto(OffsetDateTime.now(),
+                                                                        new FileReferenceMetaInfoDto(checksum(index,
+                                                                                                              f),
+                                                                                                     "MD5",
+                                                                                                     fileName,
+                                                                                                     10L,
+                                                                                                     null,
+                                                                                                     null,
+                                                                                                     MimeTypeUtils.APPLICATION_OCTET_STREAM_VALUE,
+                                                                                                     null),
+                                                                        new FileLocationDto(STORAGE,
+                                                                                            "file:///storage/"
+                                                                                            + fileName),
+                                                                        Sets.newHashSet(aipEntity.getAipId())),
+                                                   null));
+        }
+        return aipEntity;
+    }
+
+    private static String checksum(int aipIndex, int fileIndex) {
+        return String.format("%032d", aipIndex * NB_FILES_BY_AIP + fileIndex);
+    }
+}
@@ -42,6 +42,7 @@ import java.nio.file.Paths;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -105,8 +106,10 @@ public class SubmissionCreateService {
     public List<SubmissionResponseDto> handleSubmissionRequestsCreation(List<? extends SubmissionRequestDto> submissionRequestDtos) {
         List<SubmissionRequest> submissionRequestsToSave = new ArrayList<>();
         List<SubmissionResponseDto> responses = new ArrayList<>();
-        // Get lta setting configuration from database
+        // Get lta setting configuration from database once for all requests
         Set<DynamicTenantSetting> settings = settingService.retrieve();
+        Map<String, DatatypeParameter> datatypes = settingService.getDatypesConfig(settings);
+        Integer requestExpiresInHour = settingService.getRequestExpiresInHoursConfig(settings);
 
         // 1) Prepare requests : create submission requests from requests dtos
         OffsetDateTime currentDateTime = OffsetDateTime.now();
@@ -119,10 +122,8 @@ public class SubmissionCreateService {
             // Create a submission request only from a valid submission request dto
             try {
                 DatatypeParameter datatypeConfig = createDatatypeService.createValidConfiguration(submissionRequestDto,
-                                                                                                  settingService.getDatypesConfig(
-                                                                                                      settings),
+                                                                                                  datatypes,
                                                                                                   currentDateTime);
-                Integer requestExpiresInHour = settingService.getRequestExpiresInHoursConfig(settingService.retrieve());
 
                 submissionRequestsToSave.add(SubmissionRequest.buildSubmissionRequest(submissionRequestDto,
                                                                                       datatypeConfig,
@@ -141,7 +142,7 @@ public class SubmissionCreateService {
         }
         // 2) Handle submission requests in success
         if (!submissionRequestsToSave.isEmpty()) {
-            handleSuccess(submissionRequestsToSave, responses, settings);
+            handleSuccess(submissionRequestsToSave, responses, settings, datatypes);
         }
         // 3) Return responses from requests in success or in error
         return responses;
@@ -153,14 +154,15 @@ public class SubmissionCreateService {
 
     private void handleSuccess(List<SubmissionRequest> submissionRequestsToSave,
                                List<SubmissionResponseDto> responses,
-                               Set<DynamicTenantSetting> settings) {
+                               Set<DynamicTenantSetting> settings,
+                               Map<String, DatatypeParameter> datatypes) {
         // Save submission requests in success in database
         List<SubmissionRequest> savedSubmissionRequests = requestRepository.saveAll(submissionRequestsToSave);
         // Handle responses and LTA Worker Request events
         List<LtaWorkerRequestDtoEvent> ltaWorkerRequestEvts = new ArrayList<>();
         for (SubmissionRequest savedSubmissionRequest : savedSubmissionRequests) {
             responses.add(SubmissionResponseDtoUtils.buildSuccessResponseDto(savedSubmissionRequest));
-            ltaWorkerRequestEvts.add(buildWorkerRequest(savedSubmissionRequest, settings));
+            ltaWorkerRequestEvts.add(buildWorkerRequest(savedSubmissionRequest, settings, datatypes));
         }
         for (LtaWorkerRequestDtoEvent ltaWorkerRequestEvt : ltaWorkerRequestEvts) {
             LOGGER.debug("Publish event in this regards.broadcast."
@@ -174,16 +176,15 @@ public class SubmissionCreateService {
     }
 
     private LtaWorkerRequestDtoEvent buildWorkerRequest(SubmissionRequest requestSaved,
-                                                        Set<DynamicTenantSetting> settings) {
+                                                        Set<DynamicTenantSetting> settings,
+                                                        Map<String, DatatypeParameter> datatypes) {
         Path datatypeStorePath = requestSaved.getStorePath();
         // note: datatypeStorePath is set with raw config storePath if the submissionRequestDto already contains a
         // storePath. No placeholders replacement is done.
         if (datatypeStorePath.toString().equals(requestSaved.getProduct().getStorePath())) {
             try {
                 // note : path has already been verified, no reason to throw an exception
-                datatypeStorePath = Paths.get(settingService.getDatypesConfig(settings)
-                                                            .get(requestSaved.getProduct().getDatatype())
-                                                            .getStorePath());
+                datatypeStorePath = Paths.get(datatypes.get(requestSaved.getProduct().getDatatype()).getStorePath());
             } catch (IllegalArgumentException e) {
                 LOGGER.error("Store path could not be retrieved from configuration.", e);
             }
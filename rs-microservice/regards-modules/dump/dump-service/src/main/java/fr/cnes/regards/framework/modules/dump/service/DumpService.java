@@ -25,12 +25,14 @@ import com.google.common.collect.Multimaps;
 import com.google.common.io.ByteStreams;
 import com.google.gson.Gson;
 import fr.cnes.regards.framework.gson.adapters.OffsetDateTimeAdapter;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.OffsetDateTime;
@@ -38,7 +40,8 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -54,12 +57,23 @@ public class DumpService {
 
     public static final String FOLDER_PATH_PATTERN = "yyyy/MM/dd";
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     @Autowired
     private Gson gson;
 
+    @Autowired
+    private IRuntimeTenantResolver runtimeTenantResolver;
+
     @Value("${spring.application.name}")
     private String microservice;
 
+    /**
+     * Number of json zips generated in parallel by a {@link JsonZipWriter}
+     */
+    @Value("${regards.json.dump.zip.writer.threads:4}")
+    private int zipWriterThreads;
+
     /**
      * Check if jsonNames are unique in dumpCollection
      *
@@ -84,7 +98,18 @@ public class DumpService {
     }
 
     /**
-     * Generate a zip from list of object dumps
+     * Open a writer generating json zips in parallel in given temporary location.
+     * The writer must be closed to wait for all zips to be written.
+     *
+     * @param tmpZipLocation temporary location to write zips
+     * @return writer of json zips
+     */
+    public JsonZipWriter openJsonZipWriter(Path tmpZipLocation) {
+        return new JsonZipWriter(this, runtimeTenantResolver, tmpZipLocation, zipWriterThreads);
+    }
+
+    /**
+     * Generate a zip from list of object dumps. Json files are streamed one by one directly in the zip on disk.
      *
      * @param zipCollection  list of objects to dump
      * @param tmpZipLocation temporary location to write zip
@@ -95,58 +120,58 @@ public class DumpService {
         Collections.sort(zipCollection);
 
         // Check if dump location exists
-        List<String> listZipNames = new ArrayList<>();
         Files.createDirectories(tmpZipLocation);
-        // create list of zip names
-        try (Stream<Path> folderContent = Files.list(tmpZipLocation)) {
-            folderContent.forEach(zip -> listZipNames.add(zip.getFileName().toString()));
-        }
-
-        // Create zip
-        // local vars
-        DateTimeFormatter folderPathFormatter = DateTimeFormatter.ofPattern(FOLDER_PATH_PATTERN);
-        String filename, filePath, fileContent, zipName;
-        ZipEntry fileEntry;
-        int indexName;
 
         // generate zip name
         String firstDate = OffsetDateTimeAdapter.format(zipCollection.get(0).getCreationDate());
         String lastDate = OffsetDateTimeAdapter.format(zipCollection.get(zipCollection.size() - 1).getCreationDate());
-        zipName = firstDate + "_" + lastDate + ".zip";
-        // handle not unique names
-        if (listZipNames.contains(zipName)) {
-            indexName = 0;
-            do {
-                zipName = firstDate + "_" + lastDate + "_" + indexName + ".zip";
-                indexName++;
-            } while (listZipNames.contains(zipName));
-        }
+        Path zipPath = reserveZipPath(tmpZipLocation, firstDate + "_" + lastDate);
 
         // add json files to zip
-        try (ByteArrayOutputStream tmpZipByte = new ByteArrayOutputStream();
-            ZipOutputStream tmpZip = new ZipOutputStream(new BufferedOutputStream(tmpZipByte),
-                                                         StandardCharsets.UTF_8)) {
-            // add all json files to zip in memory
+        DateTimeFormatter folderPathFormatter = DateTimeFormatter.ofPattern(FOLDER_PATH_PATTERN);
+        try (ZipOutputStream tmpZip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(zipPath),
+                                                                                   BUFFER_SIZE),
+                                                          StandardCharsets.UTF_8)) {
+            // Writer is never closed as it would close the zip
+            Writer jsonWriter = new BufferedWriter(new OutputStreamWriter(tmpZip, StandardCharsets.UTF_8));
             for (ObjectDump objectDump : zipCollection) {
-                filename = objectDump.getJsonName() + ".json";
-                filePath = folderPathFormatter.format(objectDump.getCreationDate()) + "/" + filename;
-                fileContent = this.gson.toJson(objectDump.getJsonContent());
+                String filePath = folderPathFormatter.format(objectDump.getCreationDate())
+                                  + "/"
+                                  + objectDump.getJsonName()
+                                  + ".json";
                 // Add File to Sub Zip
-                fileEntry = new ZipEntry(filePath);
-                tmpZip.putNextEntry(fileEntry);
-                tmpZip.write(fileContent.getBytes());
+                tmpZip.putNextEntry(new ZipEntry(filePath));
+                this.gson.toJson(objectDump.getJsonContent(), jsonWriter);
+                jsonWriter.flush();
                 tmpZip.closeEntry();
             }
-            // close the zip here so zipEntry can be properly accessed
-            tmpZip.close();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(zipPath);
+            throw e;
+        }
+    }
 
-            // write zip
-            Files.write(tmpZipLocation.resolve(zipName), tmpZipByte.toByteArray());
+    /**
+     * Create an empty zip file with a name not used yet in given location. Creation is atomic so zips can be
+     * generated concurrently in the same location.
+     */
+    private static Path reserveZipPath(Path tmpZipLocation, String baseName) throws IOException {
+        Path zipPath = tmpZipLocation.resolve(baseName + ".zip");
+        int indexName = 0;
+        while (true) {
+            try {
+                return Files.createFile(zipPath);
+            } catch (FileAlreadyExistsException e) {
+                // handle not unique names
+                zipPath = tmpZipLocation.resolve(baseName + "_" + indexName + ".zip");
+                indexName++;
+            }
         }
     }
 
     /**
-     * Generate a dump (a zip of zips)
+     * Generate a dump (a zip of zips).
+     * Zips are already compressed so they are stored in the dump without being compressed again.
      *
      * @param dumpLocation   final location of the dump
      * @param tmpZipLocation location of the temporary zips to dump
@@ -160,8 +185,6 @@ public class DumpService {
 
         // If tmpDumpFolder is not empty, zip all content
         if (zipArray != null && zipArray.length != 0) {
-            ZipEntry zipEntry;
-
             // Create dump
             String dumpName = "dump_json_"
                               + this.microservice
@@ -170,16 +193,14 @@ public class DumpService {
                               + ".zip";
             Files.createDirectories(dumpLocation);
 
-            try (ZipOutputStream dumpZip = new ZipOutputStream(new FileOutputStream(dumpLocation.resolve(dumpName)
-                                                                                                .toFile()))) {
+            try (ZipOutputStream dumpZip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(
+                dumpLocation.resolve(dumpName)), BUFFER_SIZE))) {
                 // Zip content from tmpDumpFolder
                 for (File file : zipArray) {
                     if (!file.isDirectory()) {
-                        // Get zip file
-                        zipEntry = new ZipEntry(file.getName());
-                        dumpZip.putNextEntry(zipEntry);
-                        // Read the input file by chucks of 8192 bytes and write the read bytes to the zip stream
-                        try (FileInputStream fileInputStream = new FileInputStream(file)) {
+                        dumpZip.putNextEntry(createStoredEntry(file));
+                        // Read the input file by chucks and write the read bytes to the zip stream
+                        try (InputStream fileInputStream = Files.newInputStream(file.toPath())) {
                             ByteStreams.copy(fileInputStream, dumpZip);
                         }
                         dumpZip.closeEntry();
@@ -190,4 +211,21 @@ public class DumpService {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Create an uncompressed zip entry for given file. Stored entries must declare their size and crc before being
+     * written so the file is read once to compute its crc.
+     */
+    private static ZipEntry createStoredEntry(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (CheckedInputStream checkedInputStream = new CheckedInputStream(Files.newInputStream(file.toPath()), crc)) {
+            ByteStreams.exhaust(checkedInputStream);
+        }
+        ZipEntry zipEntry = new ZipEntry(file.getName());
+        zipEntry.setMethod(ZipEntry.STORED);
+        zipEntry.setSize(file.length());
+        zipEntry.setCompressedSize(file.length());
+        zipEntry.setCrc(crc.getValue());
+        return zipEntry;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.dump.service;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Generate json zips of a dump in parallel with {@link DumpService#generateJsonZip(List, Path)}.<br/>
+ * At most twice the number of threads lists of objects are waiting or being written at the same time. Submission
+ * blocks until a zip is written so memory stays bounded whatever the number of objects dumped.<br/>
+ * Zips are written with the tenant of the thread submitting them as json serialization may depend on it.<br/>
+ * Closing the writer waits for all submitted zips and throws the first error met if any.
+ */
+public class JsonZipWriter implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JsonZipWriter.class);
+
+    private final DumpService dumpService;
+
+    private final IRuntimeTenantResolver runtimeTenantResolver;
+
+    private final Path tmpZipLocation;
+
+    private final ExecutorService executor;
+
+    private final Semaphore pendingZips;
+
+    private final AtomicReference<IOException> error = new AtomicReference<>();
+
+    JsonZipWriter(DumpService dumpService,
+                  IRuntimeTenantResolver runtimeTenantResolver,
+                  Path tmpZipLocation,
+                  int nbThreads) {
+        this.dumpService = dumpService;
+        this.runtimeTenantResolver = runtimeTenantResolver;
+        this.tmpZipLocation = tmpZipLocation;
+        this.executor = Executors.newFixedThreadPool(nbThreads,
+                                                     new ThreadFactoryBuilder().setNameFormat("dump-zip-writer-%d")
+                                                                               .setDaemon(true)
+                                                                               .build());
+        this.pendingZips = new Semaphore(2 * nbThreads);
+    }
+
+    /**
+     * Submit a zip to generate from given objects. Blocks while too many zips are pending.
+     *
+     * @param zipCollection objects to dump in the zip
+     * @throws IOException a previous zip could not be written
+     */
+    public void write(List<ObjectDump> zipCollection) throws IOException {
+        throwIfFailed();
+        String tenant = runtimeTenantResolver.getTenant();
+        try {
+            pendingZips.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to write a json zip");
+        }
+        try {
+            executor.execute(() -> {
+                runtimeTenantResolver.forceTenant(tenant);
+                try {
+                    if (error.get() == null) {
+                        dumpService.generateJsonZip(zipCollection, tmpZipLocation);
+                    }
+                } catch (IOException e) {
+                    error.compareAndSet(null, e);
+                } catch (RuntimeException e) {
+                    error.compareAndSet(null, new IOException(e));
+                } finally {
+                    runtimeTenantResolver.clearTenant();
+                    pendingZips.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pendingZips.release();
+            throw new IOException("Json zip writer is closed", e);
+        }
+    }
+
+    private void throwIfFailed() throws IOException {
+        IOException e = error.get();
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    /**
+     * Wait for all submitted zips to be written
+     *
+     * @throws IOException a zip could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOGGER.info("Waiting for json zips to be written in {}", tmpZipLocation);
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for json zips to be written");
+        }
+        throwIfFailed();
+    }
+}
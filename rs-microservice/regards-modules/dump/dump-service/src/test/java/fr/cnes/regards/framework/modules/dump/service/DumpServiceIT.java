@@ -172,6 +172,30 @@ public class DumpServiceIT extends AbstractRegardsServiceTransactionalIT {
         Assert.assertTrue("The zip was not created properly. Reason: " + errorMsg, errorMsg.isEmpty());
     }
 
+    @Test
+    @Purpose("Test the creation of zips in parallel")
+    public void writeJsonZipsTest() throws IOException {
+        // ------------------------------ PREPARE AND LAUNCH TESTS ------------------------------
+        int nbZips = 20;
+        List<ArrayList<ObjectDump>> zipCollections = new ArrayList<>();
+        for (int i = 0; i < nbZips; i++) {
+            zipCollections.add(TestData.buildJsonCollection(this.maxFilesPerSubZip));
+        }
+        try (JsonZipWriter zipWriter = dumpService.openJsonZipWriter(this.tmpZipLocationPath)) {
+            for (ArrayList<ObjectDump> zipCollection : zipCollections) {
+                zipWriter.write(zipCollection);
+            }
+        }
+
+        // ----------------------------------- CHECK RESULTS -----------------------------------
+        // check all zips were created with unique names
+        File[] listZip = this.tmpZipLocationPath.toFile().listFiles();
+        Assert.assertEquals(nbZips, listZip.length);
+        for (File zip : listZip) {
+            Assert.assertEquals(this.maxFilesPerSubZip, TestUtils.readZipEntryNames(zip).size());
+        }
+    }
+
     @Test
     @Purpose("Verify object dumps in error if json names are not unique")
     public void testDuplicatedDumps() {
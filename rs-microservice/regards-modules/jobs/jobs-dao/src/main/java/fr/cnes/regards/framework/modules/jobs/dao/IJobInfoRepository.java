@@ -148,9 +148,9 @@ public interface IJobInfoRepository extends CrudRepository<JobInfo, UUID> {
                            @Param("statuses") List<String> statuses);
 
     /**
-     * Search jobs with given status at given date (only unlocked)
+     * Search jobs with given status at given date (only unlocked).
+     * Parameters are not fetched, they are only loaded if accessed.
      */
-    @EntityGraph(attributePaths = { "parameters" }, type = EntityGraph.EntityGraphType.LOAD)
     List<JobInfo> findByStatusStopDateLessThanAndLockedAndStatusStatusIn(OffsetDateTime stopDate,
                                                                          Boolean locked,
                                                                          JobStatus... statuses);
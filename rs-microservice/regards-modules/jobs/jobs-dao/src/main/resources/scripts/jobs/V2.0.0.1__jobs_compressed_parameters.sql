@@ -0,0 +1,4 @@
+-- Large job parameter values are stored gzipped. As they are already compressed, keep them out of the row without
+-- trying to compress them again.
+ALTER TABLE t_job_parameters ADD COLUMN compressed_value bytea;
+ALTER TABLE t_job_parameters ALTER COLUMN compressed_value SET STORAGE EXTERNAL;
@@ -21,7 +21,6 @@ package fr.cnes.regards.framework.modules.jobs.domain;
 import com.google.common.collect.Sets;
 import fr.cnes.regards.framework.jpa.converters.OffsetDateTimeAttributeConverter;
 import fr.cnes.regards.framework.jpa.json.GsonUtil;
-import fr.cnes.regards.framework.utils.RsRuntimeException;
 import jakarta.persistence.*;
 import org.hibernate.annotations.GenericGenerator;
 
@@ -212,11 +211,9 @@ public class JobInfo {
     }
 
     public <T> T getResult() {
-        try {
-            return this.resultClassName == null ? null : GsonUtil.fromString(result, Class.forName(resultClassName));
-        } catch (ClassNotFoundException e) {
-            throw new RsRuntimeException(e);
-        }
+        return this.resultClassName == null ?
+            null :
+            GsonUtil.fromString(result, JobParameter.resolveClass(resultClassName));
     }
 
     public void setResult(Object result) {
@@ -5,21 +5,48 @@ import fr.cnes.regards.framework.utils.RsRuntimeException;
 import jakarta.persistence.Column;
 import jakarta.persistence.Embeddable;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
 /**
  * Job parameter ie a name/value pair.
  * Value must not be a parametered type !!
+ * Small values are stored as json in the parameter row. Values greater than {@link #INLINE_VALUE_MAX_LENGTH} are
+ * stored compressed in a separate column kept out of the row by the database and only decompressed when read.
  *
  * @author oroussel
  */
 @Embeddable
 public class JobParameter {
 
+    /**
+     * Max length of a gsonified value stored as is in the parameter row
+     */
+    public static final int INLINE_VALUE_MAX_LENGTH = 8 * 1024;
+
+    /**
+     * Value classes already resolved by name
+     */
+    private static final Map<String, Class<?>> RESOLVED_CLASSES = new ConcurrentHashMap<>();
+
     @Column(length = 100, nullable = false)
     private String name;
 
     @Column(columnDefinition = "text")
     private String value;
 
+    /**
+     * Gzipped gsonified value, only set for values too large to be stored in {@link #value}
+     */
+    @Column(name = "compressed_value")
+    private byte[] compressedValue;
+
     @Column(name = "class_name", length = 255)
     private String className;
 
@@ -40,15 +67,21 @@ public class JobParameter {
     }
 
     public <T> T getValue() {
-        try {
-            return getValue(Class.forName(className));
-        } catch (ClassNotFoundException e) {
-            throw new RsRuntimeException(e);
-        }
+        return getValue(resolveClass(className));
     }
 
     public <T> T getValue(java.lang.reflect.Type type) {
-        return type == null ? null : GsonUtil.fromString(value, type);
+        if (type == null) {
+            return null;
+        }
+        return GsonUtil.fromString(compressedValue == null ? value : decompress(compressedValue), type);
+    }
+
+    /**
+     * @return true if the value is stored compressed out of the parameter row
+     */
+    public boolean isCompressed() {
+        return compressedValue != null;
     }
 
     /**
@@ -59,7 +92,48 @@ public class JobParameter {
         if (value != null) {
             this.className = value.getClass().getName();
         }
-        this.value = GsonUtil.toString(value);
+        String json = GsonUtil.toString(value);
+        if ((json != null) && (json.length() > INLINE_VALUE_MAX_LENGTH)) {
+            this.value = null;
+            this.compressedValue = compress(json);
+        } else {
+            this.value = json;
+            this.compressedValue = null;
+        }
+    }
+
+    /**
+     * Resolve class from its name. Resolved classes are kept to avoid a class loader lookup each time a value is read.
+     */
+    public static Class<?> resolveClass(String className) {
+        if (className == null) {
+            return null;
+        }
+        return RESOLVED_CLASSES.computeIfAbsent(className, name -> {
+            try {
+                return Class.forName(name);
+            } catch (ClassNotFoundException e) {
+                throw new RsRuntimeException(e);
+            }
+        });
+    }
+
+    private static byte[] compress(String json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RsRuntimeException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static String decompress(byte[] compressed) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RsRuntimeException(e);
+        }
     }
 
     @Override
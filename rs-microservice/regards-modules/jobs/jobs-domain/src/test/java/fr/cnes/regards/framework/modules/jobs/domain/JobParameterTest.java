@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.jobs.domain;
+
+import com.google.common.base.Strings;
+import com.google.gson.Gson;
+import fr.cnes.regards.framework.jpa.json.GsonUtil;
+import org.assertj.core.api.Assertions;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Test storage of small and large job parameter values
+ */
+public class JobParameterTest {
+
+    @BeforeClass
+    public static void init() {
+        GsonUtil.setGson(new Gson());
+    }
+
+    @Test
+    public void small_value_is_stored_inline() {
+        // When
+        JobParameter parameter = new JobParameter("param", "value");
+
+        // Then
+        Assertions.assertThat(parameter.isCompressed()).isFalse();
+        Assertions.assertThat((String) parameter.getValue()).isEqualTo("value");
+    }
+
+    @Test
+    public void large_value_is_stored_compressed() {
+        // Given
+        String largeValue = Strings.repeat("large value ", JobParameter.INLINE_VALUE_MAX_LENGTH);
+
+        // When
+        JobParameter parameter = new JobParameter("param", largeValue);
+
+        // Then
+        Assertions.assertThat(parameter.isCompressed()).isTrue();
+        Assertions.assertThat((String) parameter.getValue()).isEqualTo(largeValue);
+
+        // When
+        parameter.setValue("value");
+
+        // Then
+        Assertions.assertThat(parameter.isCompressed()).isFalse();
+        Assertions.assertThat((String) parameter.getValue()).isEqualTo("value");
+    }
+}
@@ -26,11 +26,16 @@ import fr.cnes.regards.framework.modules.plugins.domain.PluginConfiguration;
 import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
 import fr.cnes.regards.framework.utils.RsRuntimeException;
 import fr.cnes.regards.framework.utils.plugins.PluginUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -42,6 +47,10 @@ public class PluginCache {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PluginCache.class);
 
+    private static final String CACHE_GETS_METRIC = "cache.gets";
+
+    private static final String CACHE_NAME = "plugins";
+
     private final PluginInstantiationService pluginInstanceService;
 
     private final PluginConfigurationService pluginDaoService;
@@ -61,18 +70,66 @@ public class PluginCache {
                                                                                                  .maximumSize(10000)
                                                                                                  .build();
 
-    public PluginCache(PluginInstantiationService pluginInstanceService, PluginConfigurationService pluginDaoService,
+    /**
+     * Lookups of instantiated plugins by business id, only available if a meter registry is defined
+     */
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
 
+    public PluginCache(PluginInstantiationService pluginInstanceService,
+                       PluginConfigurationService pluginDaoService,
                        IRuntimeTenantResolver runtimeTenantResolver) {
+        this(pluginInstanceService, pluginDaoService, runtimeTenantResolver, null);
+    }
+
+    @Autowired
+    public PluginCache(PluginInstantiationService pluginInstanceService,
+                       PluginConfigurationService pluginDaoService,
+                       IRuntimeTenantResolver runtimeTenantResolver,
+                       @Nullable MeterRegistry meterRegistry) {
         this.pluginInstanceService = pluginInstanceService;
         this.pluginDaoService = pluginDaoService;
         this.runtimeTenantResolver = runtimeTenantResolver;
+        if (meterRegistry != null) {
+            hitCounter = Counter.builder(CACHE_GETS_METRIC)
+                                .description("Plugin instances retrieved from cache without loading configuration")
+                                .tags("cache", CACHE_NAME, "result", "hit")
+                                .register(meterRegistry);
+            missCounter = Counter.builder(CACHE_GETS_METRIC)
+                                 .description("Plugin instances requiring configuration loading")
+                                 .tags("cache", CACHE_NAME, "result", "miss")
+                                 .register(meterRegistry);
+        } else {
+            hitCounter = null;
+            missCounter = null;
+        }
     }
 
     public ConcurrentHashMap<String, Object> getTenantCache(String tenant) {
         return pluginCacheByTenant.get(tenant, t -> new ConcurrentHashMap<>());
     }
 
+    /**
+     * Retrieve an already instantiated plugin for a given tenant, without loading its configuration.
+     * Instances are removed from the cache on configuration change (see {@link #cleanPluginRecursively(String, String)}
+     * and {@link #cleanTenant(String)}).
+     *
+     * @param tenant     current project
+     * @param businessId plugin configuration business identifier
+     * @return the plugin instance if already in cache
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> getCachedPlugin(String tenant, String businessId) {
+        ConcurrentHashMap<String, Object> pluginTenantCache = pluginCacheByTenant.getIfPresent(tenant);
+        Object plugin = pluginTenantCache == null ? null : pluginTenantCache.get(businessId);
+        Counter counter = plugin == null ? missCounter : hitCounter;
+        if (counter != null) {
+            counter.increment();
+        }
+        return Optional.ofNullable((T) plugin);
+    }
+
     /**
      * Retrieve a plugin for a given tenant. If not present, add the new instantiated plugin in tenant cache map.
      *
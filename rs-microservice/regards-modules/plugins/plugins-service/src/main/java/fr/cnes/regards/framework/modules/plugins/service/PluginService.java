@@ -47,6 +47,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Scope;
+import org.springframework.context.annotation.ScopedProxyMode;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
@@ -62,6 +64,7 @@ import java.util.concurrent.ConcurrentHashMap;
  * <p>
  */
 @Service
+@Scope(proxyMode = ScopedProxyMode.TARGET_CLASS)
 public class PluginService implements IPluginService, InitializingBean {
 
     public static final String ERROR_WHILE_GETTING_THE_PLUGIN_CONFIGURATION = "Error while getting the plugin configuration {}.";
@@ -96,6 +99,11 @@ public class PluginService implements IPluginService, InitializingBean {
      */
     private final Gson gson;
 
+    /**
+     * Proxied instance of this service, used to load and instantiate plugins missing from cache in a transaction
+     */
+    private final PluginService self;
+
     @Value("${regards.plugins.packages-to-scan:#{null}}")
     private String[] packagesToScan;
 
@@ -105,7 +113,8 @@ public class PluginService implements IPluginService, InitializingBean {
                          PluginCache pluginCache,
                          PluginInstantiationService pluginInstanceService,
                          IEncryptionService encryptionService,
-                         Gson gson) {
+                         Gson gson,
+                         PluginService pluginService) {
         this.pluginDaoService = pluginDaoService;
         this.publisher = publisher;
         this.runtimeTenantResolver = runtimeTenantResolver;
@@ -113,6 +122,7 @@ public class PluginService implements IPluginService, InitializingBean {
         this.pluginInstanceService = pluginInstanceService;
         this.encryptionService = encryptionService;
         this.gson = gson;
+        this.self = pluginService;
     }
 
     @Override
@@ -519,9 +529,28 @@ public class PluginService implements IPluginService, InitializingBean {
         }
     }
 
+    /**
+     * Plugins without dynamic parameters are retrieved from the tenant cache without opening any transaction.
+     * Otherwise, configuration is loaded and plugin instantiated in a transaction.
+     */
     @Override
-    @MultitenantTransactional(noRollbackFor = { ModuleException.class })
     public <T> T getPlugin(String businessId, IPluginParam... dynamicParameters) throws ModuleException {
+        String tenant = runtimeTenantResolver.getTenant();
+        if ((dynamicParameters.length == 0) && (tenant != null)) {
+            Optional<T> cachedPlugin = pluginCache.getCachedPlugin(tenant, businessId);
+            if (cachedPlugin.isPresent()) {
+                return cachedPlugin.get();
+            }
+        }
+        return self.loadPlugin(businessId, dynamicParameters);
+    }
+
+    /**
+     * Load the configuration of given business id and get its plugin, lazy parameters and inner plugins of the
+     * configuration being read in the same transaction.
+     */
+    @MultitenantTransactional(noRollbackFor = { ModuleException.class })
+    public <T> T loadPlugin(String businessId, IPluginParam... dynamicParameters) throws ModuleException {
         PluginConfiguration plgConf = loadPluginConfiguration(businessId);
         if (plgConf == null) {
             LOGGER.error(
@@ -461,6 +461,33 @@ public class PluginServiceTest extends PluginServiceUtility {
         Assert.assertTrue(aSamplePlugin.echo(HELLO).contains(HELLO));
     }
 
+    @Test
+    @Purpose("Cached plugin instances are retrieved without loading their configuration until cache is cleaned.")
+    public void getCachedPluginInstance() throws ModuleException, NotAvailablePluginConfigurationException {
+        PluginMetaData metaData = PluginUtils.getPluginMetadata(A_SAMPLE_PLUGIN_PLUGIN_ID);
+        final PluginConfiguration aPluginConfiguration = getPluginConfigurationWithParameters();
+        aPluginConfiguration.setId(AN_ID);
+        aPluginConfiguration.setMetaDataAndPluginId(metaData);
+        aPluginConfiguration.setVersion(metaData.getVersion());
+        Mockito.when(pluginDaoServiceMocked.findCompleteByBusinessId(aPluginConfiguration.getBusinessId()))
+               .thenReturn(aPluginConfiguration);
+
+        final SamplePlugin firstPlugin = pluginServiceMocked.getPlugin(aPluginConfiguration.getBusinessId());
+        Mockito.clearInvocations(pluginDaoServiceMocked);
+        final SamplePlugin secondPlugin = pluginServiceMocked.getPlugin(aPluginConfiguration.getBusinessId());
+
+        Assert.assertSame(firstPlugin, secondPlugin);
+        Mockito.verify(pluginDaoServiceMocked, Mockito.never()).findCompleteByBusinessId(any());
+
+        // Configuration is loaded again once the plugin is removed from cache
+        pluginServiceMocked.cleanLocalPluginCache(aPluginConfiguration.getBusinessId());
+        final SamplePlugin thirdPlugin = pluginServiceMocked.getPlugin(aPluginConfiguration.getBusinessId());
+
+        Assert.assertNotSame(firstPlugin, thirdPlugin);
+        Mockito.verify(pluginDaoServiceMocked, Mockito.atLeastOnce())
+               .findCompleteByBusinessId(aPluginConfiguration.getBusinessId());
+    }
+
     /**
      * Get twice a specific Plugin with the same PluginConfiguration
      *
@@ -29,6 +29,7 @@ import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
 import fr.cnes.regards.framework.utils.plugins.PluginUtils;
 import org.junit.Before;
 import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
 import java.security.InvalidAlgorithmParameterException;
@@ -234,7 +235,9 @@ public class PluginServiceUtility {
                                                 new PluginCache(pluginInstanceService, pluginDaoServiceMocked, runtimeTenantResolver),
                                                 pluginInstanceService,
                                                 blowfishEncryptionService,
+                                                null,
                                                 null);
+        ReflectionTestUtils.setField(pluginServiceMocked, "self", pluginServiceMocked);
         PluginUtils.setup(Arrays.asList("fr.cnes.regards.plugins",
                                         "fr.cnes.regards.framework.plugins",
                                         "fr.cnes.regards.framework.modules.plugins"));
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.session.agent.client;
+
+import fr.cnes.regards.framework.amqp.IPublisher;
+import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyEventTypeEnum;
+import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyUpdateRequestEvent;
+import fr.cnes.regards.framework.modules.session.agent.domain.step.StepProperty;
+import fr.cnes.regards.framework.modules.session.agent.domain.step.StepPropertyInfo;
+import fr.cnes.regards.framework.modules.session.agent.domain.step.StepPropertyStateEnum;
+import fr.cnes.regards.framework.modules.session.commons.domain.StepTypeEnum;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Implementation of {@link ISessionAgentClient} that coalesces increment and decrement requests before publishing
+ * them.<br/>
+ * Deltas are accumulated in striped in-memory counters keyed by tenant and by every attribute the session agent
+ * uses to classify a {@link StepPropertyUpdateRequestEvent} (see StepPropertyUpdateRequest#getClassifier). One merged
+ * event per key is then published :
+ * <ul>
+ * <li>periodically (see regards.session.agent.client.aggregation.flush.delay.ms),</li>
+ * <li>before any {@link StepPropertyEventTypeEnum#VALUE} event so that the agent keeps receiving requests in the
+ * same order,</li>
+ * <li>at shutdown.</li>
+ * </ul>
+ * When called inside a transaction, deltas are kept in a transaction-scoped buffer and only merged into the shared
+ * counters after commit, so a rollback discards them exactly as it would discard a transactional publication.<br/>
+ * Only increments and decrements with an integer value are aggregated, any other value is published as is.
+ */
+@Service
+@ConditionalOnProperty(name = "regards.session.agent.client.aggregation.enabled", havingValue = "true")
+public class AggregatingSessionAgentClient implements ISessionAgentClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AggregatingSessionAgentClient.class);
+
+    /**
+     * Number of stripes used to spread concurrent updates. Must be a power of 2.
+     */
+    private static final int STRIPES = 16;
+
+    private final IPublisher publisher;
+
+    private final IRuntimeTenantResolver runtimeTenantResolver;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    @SuppressWarnings("unchecked")
+    private final Map<StepCounterKey, long[]>[] counters = new Map[STRIPES];
+
+    public AggregatingSessionAgentClient(IPublisher publisher, IRuntimeTenantResolver runtimeTenantResolver) {
+        this.publisher = publisher;
+        this.runtimeTenantResolver = runtimeTenantResolver;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+            counters[i] = new HashMap<>();
+        }
+    }
+
+    // INCREMENT EVENTS
+
+    @Override
+    public void increment(StepProperty stepProperty) {
+        aggregate(stepProperty, StepPropertyEventTypeEnum.INC);
+    }
+
+    // DECREMENT EVENTS
+
+    @Override
+    public void decrement(StepProperty stepProperty) {
+        aggregate(stepProperty, StepPropertyEventTypeEnum.DEC);
+    }
+
+    // VALUE EVENTS
+
+    @Override
+    public void stepValue(List<StepProperty> stepPropertyList) {
+        List<StepPropertyUpdateRequestEvent> stepList = new ArrayList<>();
+        stepPropertyList.forEach(stepProperty -> stepList.add(new StepPropertyUpdateRequestEvent(stepProperty,
+                                                                                                 StepPropertyEventTypeEnum.VALUE)));
+        // Pending deltas must reach the agent before the new values
+        flushCurrentTenant();
+        publisher.publish(stepList);
+    }
+
+    @Override
+    public void stepValue(StepProperty stepProperty) {
+        // Pending deltas must reach the agent before the new value
+        flushCurrentTenant();
+        publisher.publish(new StepPropertyUpdateRequestEvent(stepProperty, StepPropertyEventTypeEnum.VALUE));
+    }
+
+    // AGGREGATION
+
+    private void aggregate(StepProperty stepProperty, StepPropertyEventTypeEnum type) {
+        Long delta = parseDelta(stepProperty.getStepPropertyInfo().getValue());
+        if (delta == null) {
+            // Not a counter, the agent will handle the raw value
+            publisher.publish(new StepPropertyUpdateRequestEvent(stepProperty, type));
+            return;
+        }
+        StepCounterKey key = StepCounterKey.of(runtimeTenantResolver.getTenant(), stepProperty, type);
+        Map<StepCounterKey, long[]> buffer = bufferForCurrentTransaction();
+        if (buffer != null) {
+            buffer.computeIfAbsent(key, k -> new long[1])[0] += delta;
+        } else {
+            add(key, delta);
+        }
+    }
+
+    private void add(StepCounterKey key, long delta) {
+        int stripe = key.hashCode() & (STRIPES - 1);
+        locks[stripe].lock();
+        try {
+            counters[stripe].computeIfAbsent(key, k -> new long[1])[0] += delta;
+        } finally {
+            locks[stripe].unlock();
+        }
+    }
+
+    /**
+     * @return the buffer bound to the current transaction, or null if there is no active transaction synchronization.
+     * Synchronizations of suspended transactions are not visible so each transaction gets its own buffer.
+     */
+    private Map<StepCounterKey, long[]> bufferForCurrentTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof TransactionBuffer transactionBuffer && transactionBuffer.owner() == this) {
+                return transactionBuffer.deltas;
+            }
+        }
+        TransactionBuffer transactionBuffer = new TransactionBuffer();
+        TransactionSynchronizationManager.registerSynchronization(transactionBuffer);
+        return transactionBuffer.deltas;
+    }
+
+    private static Long parseDelta(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // FLUSH
+
+    /**
+     * Publish one merged {@link StepPropertyUpdateRequestEvent} per aggregated key, for all tenants.
+     */
+    @Scheduled(fixedDelayString = "${regards.session.agent.client.aggregation.flush.delay.ms:1000}")
+    public void flush() {
+        flush(null);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        LOGGER.info("Flushing pending session step counters before shutdown");
+        flush(null);
+    }
+
+    private void flushCurrentTenant() {
+        flush(runtimeTenantResolver.getTenant());
+        // Deltas of the current transaction are published within the transaction, as the value events
+        Map<StepCounterKey, long[]> buffer = bufferForCurrentTransaction();
+        if (buffer != null && !buffer.isEmpty()) {
+            publisher.publish(buffer.entrySet()
+                                    .stream()
+                                    .map(entry -> entry.getKey().toEvent(entry.getValue()[0]))
+                                    .toList());
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Publish pending counters of the given tenant, or of all tenants if null.
+     */
+    private void flush(String tenant) {
+        Map<String, List<StepPropertyUpdateRequestEvent>> eventsByTenant = new HashMap<>();
+        for (int i = 0; i < STRIPES; i++) {
+            Map<StepCounterKey, long[]> drained;
+            locks[i].lock();
+            try {
+                if (counters[i].isEmpty()) {
+                    continue;
+                }
+                if (tenant == null) {
+                    drained = counters[i];
+                    counters[i] = new HashMap<>();
+                } else {
+                    drained = new HashMap<>();
+                    counters[i].entrySet().removeIf(entry -> {
+                        if (tenant.equals(entry.getKey().tenant())) {
+                            drained.put(entry.getKey(), entry.getValue());
+                            return true;
+                        }
+                        return false;
+                    });
+                }
+            } finally {
+                locks[i].unlock();
+            }
+            drained.forEach((key, delta) -> eventsByTenant.computeIfAbsent(key.tenant(), t -> new ArrayList<>())
+                                                          .add(key.toEvent(delta[0])));
+        }
+        eventsByTenant.forEach(this::publish);
+    }
+
+    private void publish(String tenant, List<StepPropertyUpdateRequestEvent> events) {
+        String currentTenant = runtimeTenantResolver.getTenant();
+        try {
+            runtimeTenantResolver.forceTenant(tenant);
+            publisher.publish(events);
+            LOGGER.debug("[{}] {} aggregated session step events published", tenant, events.size());
+        } finally {
+            if (currentTenant != null) {
+                runtimeTenantResolver.forceTenant(currentTenant);
+            } else {
+                runtimeTenantResolver.clearTenant();
+            }
+        }
+    }
+
+    /**
+     * Deltas registered during a transaction, merged into the shared counters after commit.
+     */
+    private class TransactionBuffer implements TransactionSynchronization {
+
+        private final Map<StepCounterKey, long[]> deltas = new HashMap<>();
+
+        private AggregatingSessionAgentClient owner() {
+            return AggregatingSessionAgentClient.this;
+        }
+
+        @Override
+        public void afterCommit() {
+            deltas.forEach((key, delta) -> add(key, delta[0]));
+        }
+    }
+
+    /**
+     * Aggregation key. Contains every attribute the session agent uses to classify step property requests.
+     */
+    private record StepCounterKey(String tenant,
+                                  String stepId,
+                                  String source,
+                                  String session,
+                                  StepPropertyEventTypeEnum type,
+                                  StepTypeEnum stepType,
+                                  StepPropertyStateEnum state,
+                                  String property,
+                                  boolean inputRelated,
+                                  boolean outputRelated) {
+
+        static StepCounterKey of(String tenant, StepProperty stepProperty, StepPropertyEventTypeEnum type) {
+            StepPropertyInfo info = stepProperty.getStepPropertyInfo();
+            return new StepCounterKey(tenant,
+                                      stepProperty.getStepId(),
+                                      stepProperty.getSource(),
+                                      stepProperty.getSession(),
+                                      type,
+                                      info.getStepType(),
+                                      info.getState(),
+                                      info.getProperty(),
+                                      info.isInputRelated(),
+                                      info.isOutputRelated());
+        }
+
+        StepPropertyUpdateRequestEvent toEvent(long value) {
+            return new StepPropertyUpdateRequestEvent(new StepProperty(stepId,
+                                                                       source,
+                                                                       session,
+                                                                       new StepPropertyInfo(stepType,
+                                                                                            state,
+                                                                                            property,
+                                                                                            String.valueOf(value),
+                                                                                            inputRelated,
+                                                                                            outputRelated)),
+                                                      type);
+        }
+    }
+}
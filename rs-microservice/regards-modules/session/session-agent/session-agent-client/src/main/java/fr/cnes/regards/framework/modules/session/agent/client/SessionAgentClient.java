@@ -23,17 +23,22 @@ import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropert
 import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyUpdateRequestEvent;
 import fr.cnes.regards.framework.modules.session.agent.domain.step.StepProperty;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Implementation of {@link ISessionAgentClient}
+ * Implementation of {@link ISessionAgentClient} publishing one event per call.
+ * See {@link AggregatingSessionAgentClient} for the aggregating implementation.
  *
  * @author Iliana Ghazali
  */
 @Service
+@ConditionalOnProperty(name = "regards.session.agent.client.aggregation.enabled",
+                       havingValue = "false",
+                       matchIfMissing = true)
 public class SessionAgentClient implements ISessionAgentClient {
 
     /**
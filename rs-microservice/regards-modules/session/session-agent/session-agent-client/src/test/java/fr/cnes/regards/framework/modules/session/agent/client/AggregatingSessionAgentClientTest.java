@@ -0,0 +1,284 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.session.agent.client;
+
+import fr.cnes.regards.framework.amqp.IPublisher;
+import fr.cnes.regards.framework.amqp.event.ISubscribable;
+import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyEventTypeEnum;
+import fr.cnes.regards.framework.modules.session.agent.domain.events.StepPropertyUpdateRequestEvent;
+import fr.cnes.regards.framework.modules.session.agent.domain.step.StepProperty;
+import fr.cnes.regards.framework.modules.session.agent.domain.step.StepPropertyInfo;
+import fr.cnes.regards.framework.modules.session.agent.domain.step.StepPropertyStateEnum;
+import fr.cnes.regards.framework.modules.session.commons.domain.StepTypeEnum;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test for {@link AggregatingSessionAgentClient}. Includes a load test comparing the number of published messages with
+ * {@link SessionAgentClient}.
+ */
+public class AggregatingSessionAgentClientTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AggregatingSessionAgentClientTest.class);
+
+    private static final String TENANT = "PROJECT";
+
+    private static final int NB_THREADS = 8;
+
+    private static final int NB_CALLS_PER_THREAD = 25_000;
+
+    private static final int NB_SESSIONS = 20;
+
+    /**
+     * Number of events published (one list counts for each of its events)
+     */
+    private final AtomicLong nbEvents = new AtomicLong();
+
+    /**
+     * Sum of values published by classifier
+     */
+    private final Map<String, AtomicLong> valuesByClassifier = new ConcurrentHashMap<>();
+
+    /**
+     * All events published, in order
+     */
+    private final List<StepPropertyUpdateRequestEvent> events = Collections.synchronizedList(new ArrayList<>());
+
+    private IPublisher publisher;
+
+    private IRuntimeTenantResolver runtimeTenantResolver;
+
+    @Before
+    public void init() {
+        publisher = Mockito.mock(IPublisher.class, Mockito.withSettings().stubOnly());
+        Mockito.doAnswer(invocation -> {
+            record(invocation.getArgument(0));
+            return null;
+        }).when(publisher).publish(ArgumentMatchers.any(ISubscribable.class));
+        Mockito.doAnswer(invocation -> {
+            List<ISubscribable> published = invocation.getArgument(0);
+            published.forEach(this::record);
+            return null;
+        }).when(publisher).publish(ArgumentMatchers.anyList());
+        runtimeTenantResolver = new IRuntimeTenantResolver() {
+
+            @Override
+            public String getTenant() {
+                return TENANT;
+            }
+
+            @Override
+            public boolean isInstance() {
+                return false;
+            }
+
+            @Override
+            public void forceTenant(String tenant) {
+                // Single tenant
+            }
+
+            @Override
+            public void clearTenant() {
+                // Single tenant
+            }
+        };
+    }
+
+    @After
+    public void clear() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void test_message_volume_with_aggregation() throws InterruptedException {
+        // Given
+        SessionAgentClient simpleClient = new SessionAgentClient();
+        ReflectionTestUtils.setField(simpleClient, "publisher", publisher);
+        AggregatingSessionAgentClient aggregatingClient = new AggregatingSessionAgentClient(publisher,
+                                                                                            runtimeTenantResolver);
+
+        // When
+        long start = System.currentTimeMillis();
+        runLoad(simpleClient);
+        long simpleDuration = System.currentTimeMillis() - start;
+        long simpleNbEvents = nbEvents.getAndSet(0);
+        Map<String, Long> simpleValues = snapshotValues();
+        valuesByClassifier.clear();
+
+        start = System.currentTimeMillis();
+        runLoad(aggregatingClient);
+        aggregatingClient.flush();
+        long aggregatingDuration = System.currentTimeMillis() - start;
+        long aggregatingNbEvents = nbEvents.get();
+        Map<String, Long> aggregatingValues = snapshotValues();
+
+        // Then
+        LOGGER.info("Simple client : {} events published in {}ms", simpleNbEvents, simpleDuration);
+        LOGGER.info("Aggregating client : {} events published in {}ms", aggregatingNbEvents, aggregatingDuration);
+        Assert.assertEquals(NB_THREADS * NB_CALLS_PER_THREAD, simpleNbEvents);
+        // one increment and one decrement event per session at most
+        Assert.assertTrue(aggregatingNbEvents <= 2L * NB_SESSIONS);
+        Assert.assertEquals("Counters must stay exactly the same", simpleValues, aggregatingValues);
+    }
+
+    @Test
+    public void test_flush_before_value_event() {
+        // Given
+        AggregatingSessionAgentClient client = new AggregatingSessionAgentClient(publisher, runtimeTenantResolver);
+        client.increment(createStepProperty("session1", "1"));
+        client.increment(createStepProperty("session1", "1"));
+
+        // When
+        client.stepValue(createStepProperty("session1", "0"));
+
+        // Then
+        Assert.assertEquals(2, events.size());
+        Assert.assertEquals(StepPropertyEventTypeEnum.INC, events.get(0).getType());
+        Assert.assertEquals("2", events.get(0).getStepProperty().getStepPropertyInfo().getValue());
+        Assert.assertEquals(StepPropertyEventTypeEnum.VALUE, events.get(1).getType());
+    }
+
+    @Test
+    public void test_non_numeric_values_are_not_aggregated() {
+        // Given
+        AggregatingSessionAgentClient client = new AggregatingSessionAgentClient(publisher, runtimeTenantResolver);
+
+        // When
+        client.increment(createStepProperty("session1", "notANumber"));
+
+        // Then
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals("notANumber", events.get(0).getStepProperty().getStepPropertyInfo().getValue());
+    }
+
+    @Test
+    public void test_transaction_rollback_discards_deltas() {
+        // Given
+        AggregatingSessionAgentClient client = new AggregatingSessionAgentClient(publisher, runtimeTenantResolver);
+        TransactionSynchronizationManager.initSynchronization();
+        client.increment(createStepProperty("session1", "3"));
+
+        // When
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+        client.flush();
+
+        // Then
+        Assert.assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void test_transaction_commit_publishes_deltas() {
+        // Given
+        AggregatingSessionAgentClient client = new AggregatingSessionAgentClient(publisher, runtimeTenantResolver);
+        TransactionSynchronizationManager.initSynchronization();
+        client.increment(createStepProperty("session1", "3"));
+        client.increment(createStepProperty("session1", "4"));
+        client.flush();
+        Assert.assertTrue("Deltas must not be published before commit", events.isEmpty());
+
+        // When
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        client.flush();
+
+        // Then
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals("7", events.get(0).getStepProperty().getStepPropertyInfo().getValue());
+    }
+
+    // ---------------------
+    // -- UTILITY METHODS --
+    // ---------------------
+
+    private void runLoad(ISessionAgentClient client) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(NB_THREADS);
+        for (int t = 0; t < NB_THREADS; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < NB_CALLS_PER_THREAD; i++) {
+                    StepProperty stepProperty = createStepProperty("session" + (i % NB_SESSIONS), "1");
+                    if (i % 4 == 0) {
+                        client.decrement(stepProperty);
+                    } else {
+                        client.increment(stepProperty);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+
+    private void record(ISubscribable event) {
+        StepPropertyUpdateRequestEvent stepEvent = (StepPropertyUpdateRequestEvent) event;
+        StepProperty step = stepEvent.getStepProperty();
+        nbEvents.incrementAndGet();
+        if (events.size() < 1000) {
+            events.add(stepEvent);
+        }
+        String value = step.getStepPropertyInfo().getValue();
+        if (NumberUtils.isDigits(value)) {
+            valuesByClassifier.computeIfAbsent(step.getSession() + "." + stepEvent.getType(), k -> new AtomicLong())
+                              .addAndGet(Long.parseLong(value));
+        }
+    }
+
+    private Map<String, Long> snapshotValues() {
+        Map<String, Long> values = new ConcurrentHashMap<>();
+        valuesByClassifier.forEach((key, value) -> values.put(key, value.get()));
+        return values;
+    }
+
+    private StepProperty createStepProperty(String session, String value) {
+        return new StepProperty("storage",
+                                "source1",
+                                session,
+                                new StepPropertyInfo(StepTypeEnum.STORAGE,
+                                                     StepPropertyStateEnum.SUCCESS,
+                                                     "storeRequests",
+                                                     value,
+                                                     true,
+                                                     false));
+    }
+}
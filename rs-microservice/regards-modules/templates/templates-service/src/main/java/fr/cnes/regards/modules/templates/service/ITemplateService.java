@@ -68,6 +68,16 @@ public interface ITemplateService {
      */
     String render(String templateName, Map<String, ?> dataModel) throws TemplateException;
 
+    /**
+     * Render the template found by name once for each given data model, the template being compiled only once
+     *
+     * @param templateName template name
+     * @param dataModels   data models used as dynamic values for rendering
+     * @return rendered templates, in the order of the data models
+     * @throws TemplateException in case a data model is not coherent with the template
+     */
+    List<String> renderAll(String templateName, List<? extends Map<String, ?>> dataModels) throws TemplateException;
+
     /**
      * Method into interface to get transaction into implementations. Should not be used anywhere else.
      */
@@ -18,6 +18,8 @@
  */
 package fr.cnes.regards.modules.templates.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import fr.cnes.regards.framework.jpa.multitenant.event.spring.TenantConnectionReady;
 import fr.cnes.regards.framework.jpa.utils.RegardsTransactional;
 import fr.cnes.regards.framework.module.rest.exception.EntityInconsistentIdentifierException;
@@ -28,7 +30,6 @@ import fr.cnes.regards.framework.multitenant.ITenantResolver;
 import fr.cnes.regards.framework.utils.RsRuntimeException;
 import fr.cnes.regards.modules.templates.dao.ITemplateRepository;
 import fr.cnes.regards.modules.templates.domain.Template;
-import freemarker.cache.StringTemplateLoader;
 import freemarker.core.ParseException;
 import freemarker.template.Configuration;
 import freemarker.template.TemplateException;
@@ -45,10 +46,14 @@ import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -89,6 +94,12 @@ public class TemplateService implements ITemplateService {
      */
     private final Configuration configuration;
 
+    /**
+     * Compiled templates by tenant and name. Entries are evicted on template update, and expire to take into account
+     * updates made by other instances of the microservice.
+     */
+    private final Cache<TemplateKey, freemarker.template.Template> compiledTemplates;
+
     /**
      * Tenant resolver to access all configured tenant
      */
@@ -107,15 +118,17 @@ public class TemplateService implements ITemplateService {
     @Value("${regards.microservice.type:multitenant}")
     private String microserviceType;
 
-    public TemplateService(ITemplateService templateService) {
+    public TemplateService(ITemplateService templateService,
+                           @Value("${regards.templates.cache.expire.minutes:10}") long cacheExpireMinutes) {
         this.self = templateService;
         // Configure Freemarker
         configuration = new Configuration(Configuration.VERSION_2_3_25);
 
-        configuration.setTemplateLoader(new StringTemplateLoader());
         configuration.setDefaultEncoding("UTF-8");
         configuration.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
         configuration.setLogTemplateExceptions(false);
+
+        compiledTemplates = Caffeine.newBuilder().expireAfterWrite(Duration.ofMinutes(cacheExpireMinutes)).build();
     }
 
     /**
@@ -179,32 +192,74 @@ public class TemplateService implements ITemplateService {
         if (!id.equals(template.getId())) {
             throw new EntityInconsistentIdentifierException(id, template.getId(), Template.class);
         }
-        if (!templateRepository.existsById(id)) {
-            throw new EntityNotFoundException(id, Template.class);
-        }
+        String previousName = templateRepository.findById(id)
+                                                .map(Template::getName)
+                                                .orElseThrow(() -> new EntityNotFoundException(id, Template.class));
         try {
             //try to parse the template to be sure that user didn't give us some bad things
-            getTemplateLoader().putTemplate(template.getName(), template.getContent());
-            configuration.getTemplate(template.getName());
+            compile(template.getName(), template.getContent());
         } catch (ParseException e) {
             throw new EntityInvalidException("Given template content could not be parsed by Freemarker.", e);
         } catch (IOException e) {
             LOG.error("Template could not be retrieve from Freemarker configuration", e);
             throw new RsRuntimeException(e);
         }
-        return templateRepository.save(template);
+        Template savedTemplate = templateRepository.save(template);
+        evict(template.getName());
+        // The template may have been renamed, the compiled template of its previous name must not be used anymore
+        if (!template.getName().equals(previousName)) {
+            evict(previousName);
+        }
+        return savedTemplate;
     }
 
     @Override
     public String render(String templateName, Map<String, ?> dataModel) throws TemplateException {
-        // Retrieve the template of given code
-        Template template = templateRepository.findByName(templateName).get();
+        return process(getCompiledTemplate(templateName), dataModel);
+    }
+
+    @Override
+    public List<String> renderAll(String templateName, List<? extends Map<String, ?>> dataModels)
+        throws TemplateException {
+        freemarker.template.Template template = getCompiledTemplate(templateName);
+        List<String> renderedTemplates = new ArrayList<>(dataModels.size());
+        for (Map<String, ?> dataModel : dataModels) {
+            renderedTemplates.add(process(template, dataModel));
+        }
+        return renderedTemplates;
+    }
+
+    /**
+     * Retrieve the compiled template of given name for the current tenant, the template is read from database and
+     * compiled only if it is not already cached.
+     */
+    private freemarker.template.Template getCompiledTemplate(String templateName) {
+        TemplateKey key = new TemplateKey(getTenant(), templateName);
+        freemarker.template.Template compiledTemplate = compiledTemplates.getIfPresent(key);
+        if (compiledTemplate == null) {
+            // Retrieve the template of given code
+            Template template = templateRepository.findByName(templateName).get();
+            try {
+                compiledTemplate = compile(template.getName(), template.getContent());
+            } catch (IOException e) {
+                LOG.error("Unable to compile the template of code " + template.getName() + ".", e);
+                throw new RsRuntimeException(e);
+            }
+            compiledTemplates.put(key, compiledTemplate);
+        }
+        return compiledTemplate;
+    }
 
-        getTemplateLoader().putTemplate(templateName, template.getContent());
+    private freemarker.template.Template compile(String templateName, String content) throws IOException {
+        return new freemarker.template.Template(templateName, content, configuration);
+    }
+
+    private String process(freemarker.template.Template template, Map<String, ?> dataModel)
+        throws TemplateException {
         try {
             final Writer out = new StringWriter();
-            // Retrieve the template (freemarker Template) and process it with the data model
-            configuration.getTemplate(template.getName()).process(dataModel, out);
+            // Process the template (freemarker Template) with the data model
+            template.process(dataModel, out);
             return out.toString();
         } catch (IOException e) {
             LOG.error("Unable to process the data into the template of code "
@@ -214,8 +269,30 @@ public class TemplateService implements ITemplateService {
         }
     }
 
-    private StringTemplateLoader getTemplateLoader() {
-        return (StringTemplateLoader) configuration.getTemplateLoader();
+    /**
+     * Evict the compiled template of given name for the current tenant. If a transaction is active, the template is
+     * evicted when it is completed, so that no content read before the commit is kept.
+     */
+    private void evict(String templateName) {
+        TemplateKey key = new TemplateKey(getTenant(), templateName);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(int status) {
+                    compiledTemplates.invalidate(key);
+                }
+            });
+        } else {
+            compiledTemplates.invalidate(key);
+        }
+    }
+
+    private String getTenant() {
+        return runtimeTenantResolver == null ? null : runtimeTenantResolver.getTenant();
     }
 
+    private record TemplateKey(String tenant, String name) {
+
+    }
 }
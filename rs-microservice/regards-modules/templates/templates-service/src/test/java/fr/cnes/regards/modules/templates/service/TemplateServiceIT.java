@@ -335,4 +335,77 @@ public class TemplateServiceIT {
         Assert.assertEquals(expectedText, message);
     }
 
+    @Test
+    @Purpose("Check that a template is read and compiled once for several renderings.")
+    public final void testRenderCompiledOnce() throws TemplateException {
+        // Mock
+        Mockito.when(templateRepository.findByName("compiledOnce"))
+               .thenReturn(Optional.of(new Template("compiledOnce", CONTENT)));
+
+        // Render several times
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals("Hello Defaultname. You are 26 years old and 1.79 m tall.",
+                                templateService.render("compiledOnce", DATA));
+        }
+
+        // Check
+        Mockito.verify(templateRepository, Mockito.times(1)).findByName("compiledOnce");
+    }
+
+    @Test
+    @Purpose("Check that the system renders a template for each given data model.")
+    public final void testRenderAll() throws TemplateException {
+        // Mock
+        Mockito.when(templateRepository.findByName("renderAll"))
+               .thenReturn(Optional.of(new Template("renderAll", "Hello ${name}.")));
+
+        // Render
+        List<String> messages = templateService.renderAll("renderAll",
+                                                          List.of(Map.of("name", "first"), Map.of("name", "second")));
+
+        // Check
+        Assert.assertEquals(List.of("Hello first.", "Hello second."), messages);
+        Mockito.verify(templateRepository, Mockito.times(1)).findByName("renderAll");
+    }
+
+    @Test
+    @Purpose("Check that an updated template is rendered with its new content.")
+    public final void testRenderAfterUpdate() throws EntityException, TemplateException {
+        // Mock
+        Template updatedTemplate = new Template("updated", "Hello ${name}.");
+        updatedTemplate.setId(ID);
+        Mockito.when(templateRepository.findByName("updated")).thenReturn(Optional.of(updatedTemplate));
+        Mockito.when(templateRepository.findById(ID)).thenReturn(Optional.of(updatedTemplate));
+        Assert.assertEquals("Hello Defaultname.", templateService.render("updated", DATA));
+
+        // Update template content
+        Template newTemplate = new Template("updated", "Goodbye ${name}.");
+        newTemplate.setId(ID);
+        Mockito.when(templateRepository.findByName("updated")).thenReturn(Optional.of(newTemplate));
+        templateService.update(ID, newTemplate);
+
+        // Check
+        Assert.assertEquals("Goodbye Defaultname.", templateService.render("updated", DATA));
+    }
+
+    @Test
+    @Purpose("Check that the previous name of a renamed template is not rendered with its old content.")
+    public final void testRenderAfterRename() throws EntityException, TemplateException {
+        // Mock
+        Template renamedTemplate = new Template("beforeRename", "Hello ${name}.");
+        renamedTemplate.setId(ID);
+        Mockito.when(templateRepository.findByName("beforeRename")).thenReturn(Optional.of(renamedTemplate));
+        Mockito.when(templateRepository.findById(ID)).thenReturn(Optional.of(renamedTemplate));
+        Assert.assertEquals("Hello Defaultname.", templateService.render("beforeRename", DATA));
+
+        // Rename template, then another template takes its previous name
+        Template newTemplate = new Template("afterRename", "Hello ${name}.");
+        newTemplate.setId(ID);
+        templateService.update(ID, newTemplate);
+        Mockito.when(templateRepository.findByName("beforeRename"))
+               .thenReturn(Optional.of(new Template("beforeRename", "Goodbye ${name}.")));
+
+        // Check
+        Assert.assertEquals("Goodbye Defaultname.", templateService.render("beforeRename", DATA));
+    }
 }
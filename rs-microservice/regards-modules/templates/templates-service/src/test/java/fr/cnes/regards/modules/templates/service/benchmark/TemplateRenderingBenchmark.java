@@ -0,0 +1,142 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.templates.service.benchmark;
+
+import fr.cnes.regards.modules.templates.dao.ITemplateRepository;
+import fr.cnes.regards.modules.templates.domain.Template;
+import fr.cnes.regards.modules.templates.service.TemplateService;
+import freemarker.cache.StringTemplateLoader;
+import freemarker.template.Configuration;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateExceptionHandler;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the rendering of a notification template for many data models by {@link TemplateService}, compared
+ * to a rendering that puts the template in the freemarker loader and parses it again for each data model.<br/>
+ * Database access is not measured, the template repository being mocked.<br/>
+ * Not run by the test phase, launch {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemplateRenderingBenchmark {
+
+    private static final String TEMPLATE_NAME = "ACTION_REMAINING_TEMPLATE";
+
+    private static final String CONTENT = """
+        <html><body>
+        <h1>Hello ${user}</h1>
+        <p>${nbRequests} requests are waiting for an action on ${storage} since ${date}.</p>
+        <ul>
+        <#list files as file>
+          <li>${file.name} (${file.size} bytes) : <#if file.error??>${file.error}<#else>waiting</#if></li>
+        </#list>
+        </ul>
+        </body></html>
+        """;
+
+    @Param({ "10000" })
+    private int nbRenders;
+
+    private TemplateService templateService;
+
+    private Configuration configuration;
+
+    private List<Map<String, Object>> dataModels;
+
+    @Setup
+    public void setUp() {
+        ITemplateRepository templateRepository = Mockito.mock(ITemplateRepository.class);
+        Mockito.when(templateRepository.findByName(TEMPLATE_NAME))
+               .thenReturn(Optional.of(new Template(TEMPLATE_NAME, CONTENT)));
+        templateService = new TemplateService(null, 10);
+        ReflectionTestUtils.setField(templateService, "templateRepository", templateRepository);
+
+        configuration = new Configuration(Configuration.VERSION_2_3_25);
+        configuration.setTemplateLoader(new StringTemplateLoader());
+        configuration.setDefaultEncoding("UTF-8");
+        configuration.setTemplateExceptionHandler(TemplateExceptionHandler.RETHROW_HANDLER);
+        configuration.setLogTemplateExceptions(false);
+
+        dataModels = new ArrayList<>(nbRenders);
+        for (int i = 0; i < nbRenders; i++) {
+            dataModels.add(Map.of("user",
+                                  "user" + i + "@regards.fr",
+                                  "nbRequests",
+                                  i,
+                                  "storage",
+                                  "storage" + (i % 5),
+                                  "date",
+                                  "2024-01-02T03:04:05Z",
+                                  "files",
+                                  List.of(Map.of("name", "file" + i + ".dat", "size", 1024 + i),
+                                          Map.of("name", "file" + i + ".md5", "size", 32, "error", "Unreachable"))));
+        }
+    }
+
+    @Benchmark
+    public List<String> render() throws TemplateException {
+        List<String> renderedTemplates = new ArrayList<>(nbRenders);
+        for (Map<String, Object> dataModel : dataModels) {
+            renderedTemplates.add(templateService.render(TEMPLATE_NAME, dataModel));
+        }
+        return renderedTemplates;
+    }
+
+    @Benchmark
+    public List<String> renderAll() throws TemplateException {
+        return templateService.renderAll(TEMPLATE_NAME, dataModels);
+    }
+
+    /**
+     * Rendering putting the template in the freemarker loader for each data model, which discards the parsed template
+     */
+    @Benchmark
+    public List<String> renderWithLoader() throws TemplateException, IOException {
+        List<String> renderedTemplates = new ArrayList<>(nbRenders);
+        for (Map<String, Object> dataModel : dataModels) {
+            ((StringTemplateLoader) configuration.getTemplateLoader()).putTemplate(TEMPLATE_NAME, CONTENT);
+            StringWriter out = new StringWriter();
+            configuration.getTemplate(TEMPLATE_NAME).process(dataModel, out);
+            renderedTemplates.add(out.toString());
+        }
+        return renderedTemplates;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TemplateRenderingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.tenant.settings.domain.event;
+
+import fr.cnes.regards.framework.amqp.event.Event;
+import fr.cnes.regards.framework.amqp.event.ISubscribable;
+import fr.cnes.regards.framework.amqp.event.Target;
+
+/**
+ * Event received by all instances of the publishing microservice type when a dynamic tenant setting is created,
+ * updated, reset or deleted, so that they refresh the setting values they hold in memory.
+ */
+@Event(target = Target.MICROSERVICE)
+public class DynamicTenantSettingUpdatedEvent implements ISubscribable {
+
+    /**
+     * Name of the setting modified
+     */
+    private String name;
+
+    public DynamicTenantSettingUpdatedEvent() {
+    }
+
+    public DynamicTenantSettingUpdatedEvent(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "DynamicTenantSettingUpdatedEvent{" + "name='" + name + '\'' + '}';
+    }
+}
@@ -6,9 +6,9 @@ import fr.cnes.regards.framework.module.rest.exception.EntityInvalidException;
 import fr.cnes.regards.framework.module.rest.exception.EntityNotFoundException;
 import fr.cnes.regards.framework.module.rest.exception.EntityOperationForbiddenException;
 import fr.cnes.regards.framework.modules.tenant.settings.domain.DynamicTenantSetting;
+import org.springframework.transaction.annotation.Propagation;
 
 import java.util.List;
-import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -46,13 +46,12 @@ public abstract class AbstractSettingService {
         init();
     }
 
+    /**
+     * Setting values are cached, so no transaction is required to read them
+     */
+    @RegardsTransactional(propagation = Propagation.SUPPORTS)
     public <T> T getValue(String name) {
-        T value = null;
-        Optional<DynamicTenantSetting> dynamicTenantSetting = dynamicTenantSettingService.read(name);
-        if (dynamicTenantSetting.isPresent()) {
-            value = dynamicTenantSetting.get().getValue();
-        }
-        return value;
+        return dynamicTenantSettingService.readValue(name);
     }
 
     private void createSetting(DynamicTenantSetting dynamicTenantSetting)
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.tenant.settings.service;
+
+import com.google.gson.JsonParseException;
+import fr.cnes.regards.framework.amqp.IPublisher;
+import fr.cnes.regards.framework.amqp.ISubscriber;
+import fr.cnes.regards.framework.amqp.domain.IHandler;
+import fr.cnes.regards.framework.modules.tenant.settings.domain.DynamicTenantSetting;
+import fr.cnes.regards.framework.modules.tenant.settings.domain.event.DynamicTenantSettingUpdatedEvent;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
+import fr.cnes.regards.framework.utils.RsRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the {@link DynamicTenantSetting} values by tenant.
+ * <p>
+ * All the settings of a tenant are read and deserialized once into an unmodifiable snapshot, so reading a setting
+ * value costs a map lookup instead of a transaction and a JSON parsing. A setting missing from the snapshot does not
+ * exist and is read as null without querying the database. The snapshot of a tenant is evicted once the transaction
+ * modifying one of its settings is completed, and on the other instances of the microservice with a
+ * {@link DynamicTenantSettingUpdatedEvent}.
+ * <p>
+ * Only the snapshot is unmodifiable : values are the deserialized objects themselves, shared by all the callers of the
+ * tenant. They are read-only, a caller needing to modify a value must work on a copy.
+ */
+public class DynamicTenantSettingCache implements IHandler<DynamicTenantSettingUpdatedEvent> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DynamicTenantSettingCache.class);
+
+    private final DynamicTenantSettingRepositoryService dynamicTenantSettingRepositoryService;
+
+    private final IRuntimeTenantResolver runtimeTenantResolver;
+
+    /**
+     * Publisher and subscriber are not available if amqp is disabled, the cache is then only evicted locally
+     */
+    private final ObjectProvider<IPublisher> publisher;
+
+    private final ObjectProvider<ISubscriber> subscriber;
+
+    /**
+     * Map<Tenant, Setting values>
+     */
+    private final Map<String, SettingValues> settingValuesByTenant = new ConcurrentHashMap<>();
+
+    public DynamicTenantSettingCache(DynamicTenantSettingRepositoryService dynamicTenantSettingRepositoryService,
+                                     IRuntimeTenantResolver runtimeTenantResolver,
+                                     ObjectProvider<IPublisher> publisher,
+                                     ObjectProvider<ISubscriber> subscriber) {
+        this.dynamicTenantSettingRepositoryService = dynamicTenantSettingRepositoryService;
+        this.runtimeTenantResolver = runtimeTenantResolver;
+        this.publisher = publisher;
+        this.subscriber = subscriber;
+    }
+
+    @EventListener
+    public void handleApplicationReadyEvent(ApplicationReadyEvent applicationReadyEvent) {
+        subscriber.ifAvailable(s -> s.subscribeTo(DynamicTenantSettingUpdatedEvent.class, this));
+    }
+
+    /**
+     * Retrieve the value of a setting of the current tenant.
+     *
+     * @param name setting name
+     * @return the setting value, shared and read-only, or null if the setting does not exist
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getValue(String name) {
+        String tenant = runtimeTenantResolver.getTenant();
+        if (tenant != null) {
+            SettingValues settingValues = settingValuesByTenant.computeIfAbsent(tenant, this::loadSettingValues);
+            if (settingValues.values().containsKey(name)) {
+                return (T) settingValues.values().get(name);
+            }
+            if (!settingValues.unreadableNames().contains(name)) {
+                // Setting does not exist until next eviction
+                return null;
+            }
+        }
+        // Setting value cannot be cached, read it from database
+        return dynamicTenantSettingRepositoryService.findByName(name, true)
+                                                    .map(DynamicTenantSetting::<T>getValue)
+                                                    .orElse(null);
+    }
+
+    /**
+     * Evict the setting values of the current tenant after the modification of the given setting. If a transaction
+     * is active, values are evicted locally when it is completed, so that no value read before the commit is kept.
+     *
+     * @param name name of the setting modified
+     */
+    public void evict(String name) {
+        String tenant = runtimeTenantResolver.getTenant();
+        if (tenant == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(int status) {
+                    settingValuesByTenant.remove(tenant);
+                }
+            });
+        } else {
+            settingValuesByTenant.remove(tenant);
+        }
+        publisher.ifAvailable(p -> p.publish(new DynamicTenantSettingUpdatedEvent(name)));
+    }
+
+    @Override
+    public void handle(String tenant, DynamicTenantSettingUpdatedEvent event) {
+        LOGGER.debug("Dynamic tenant setting {} updated for tenant {}, evicting setting values", event.getName(), tenant);
+        settingValuesByTenant.remove(tenant);
+    }
+
+    private SettingValues loadSettingValues(String tenant) {
+        Map<String, Object> settingValues = new HashMap<>();
+        Set<String> unreadableNames = new HashSet<>();
+        for (DynamicTenantSetting setting : dynamicTenantSettingRepositoryService.findAll(true)) {
+            try {
+                settingValues.put(setting.getName(), setting.getValue());
+            } catch (RsRuntimeException | JsonParseException e) {
+                // Value not cached, error is raised on each read
+                unreadableNames.add(setting.getName());
+                LOGGER.warn("Value of dynamic tenant setting {} cannot be read for tenant {}",
+                            setting.getName(),
+                            tenant,
+                            e);
+            }
+        }
+        return new SettingValues(Collections.unmodifiableMap(settingValues), Set.copyOf(unreadableNames));
+    }
+
+    /**
+     * Snapshot of the settings of a tenant
+     *
+     * @param values          value of each readable setting, values may be null
+     * @param unreadableNames names of the existing settings whose value cannot be read
+     */
+    private record SettingValues(Map<String, Object> values, Set<String> unreadableNames) {
+
+    }
+}
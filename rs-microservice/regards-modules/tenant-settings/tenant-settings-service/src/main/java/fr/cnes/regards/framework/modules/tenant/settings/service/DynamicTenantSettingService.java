@@ -26,6 +26,8 @@ import fr.cnes.regards.framework.module.validation.ErrorTranslator;
 import fr.cnes.regards.framework.modules.tenant.settings.domain.DynamicTenantSetting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.validation.Errors;
 
 import java.util.List;
@@ -45,10 +47,23 @@ public class DynamicTenantSettingService implements IDynamicTenantSettingService
 
     private final DynamicTenantSettingRepositoryService dynamicTenantSettingRepositoryService;
 
+    /**
+     * Cache of setting values, values are read from database if not defined
+     */
+    @Nullable
+    private final DynamicTenantSettingCache dynamicTenantSettingCache;
+
     public DynamicTenantSettingService(List<IDynamicTenantSettingCustomizer> dynamicTenantSettingCustomizerList,
                                        DynamicTenantSettingRepositoryService dynamicTenantSettingRepositoryService) {
+        this(dynamicTenantSettingCustomizerList, dynamicTenantSettingRepositoryService, null);
+    }
+
+    public DynamicTenantSettingService(List<IDynamicTenantSettingCustomizer> dynamicTenantSettingCustomizerList,
+                                       DynamicTenantSettingRepositoryService dynamicTenantSettingRepositoryService,
+                                       @Nullable DynamicTenantSettingCache dynamicTenantSettingCache) {
         this.dynamicTenantSettingCustomizerList = dynamicTenantSettingCustomizerList;
         this.dynamicTenantSettingRepositoryService = dynamicTenantSettingRepositoryService;
+        this.dynamicTenantSettingCache = dynamicTenantSettingCache;
     }
 
     @Override
@@ -59,6 +74,7 @@ public class DynamicTenantSettingService implements IDynamicTenantSettingService
         checkModelValidity(settingCustomizer, dynamicTenantSetting);
         DynamicTenantSetting savedDynamicTenantSetting = dynamicTenantSettingRepositoryService.save(dynamicTenantSetting,
                                                                                                     null);
+        evictCache(dynamicTenantSetting.getName());
         settingCustomizer.doRightNow(dynamicTenantSetting);
         return savedDynamicTenantSetting;
     }
@@ -68,6 +84,18 @@ public class DynamicTenantSettingService implements IDynamicTenantSettingService
         return dynamicTenantSettingRepositoryService.findByName(name, true);
     }
 
+    /**
+     * Values are read from the cache of setting values of the tenant, so no transaction is required
+     */
+    @Override
+    @RegardsTransactional(propagation = Propagation.SUPPORTS)
+    public <T> T readValue(String name) {
+        if (dynamicTenantSettingCache == null) {
+            return IDynamicTenantSettingService.super.readValue(name);
+        }
+        return dynamicTenantSettingCache.getValue(name);
+    }
+
     @Override
     public Set<DynamicTenantSetting> readAll(Set<String> nameList) {
         return dynamicTenantSettingRepositoryService.findAllByNameIn(nameList, true);
@@ -97,6 +125,7 @@ public class DynamicTenantSettingService implements IDynamicTenantSettingService
             checkModelValidity(settingCustomizer, updateDynamicTenantSetting);
             updateDynamicTenantSetting = dynamicTenantSettingRepositoryService.save(updateDynamicTenantSetting,
                                                                                     dynamicTenantSettingFound);
+            evictCache(name);
             settingCustomizer.doRightNow(updateDynamicTenantSetting);
         } else {
             updateDynamicTenantSetting = dynamicTenantSettingFound;
@@ -110,6 +139,7 @@ public class DynamicTenantSettingService implements IDynamicTenantSettingService
             name,
             false);
         dynamicTenantSettingRepositoryService.delete(dynamicTenantSetting);
+        evictCache(name);
         LOGGER.info("Deleted tenant setting '{}'.", name);
     }
 
@@ -125,6 +155,7 @@ public class DynamicTenantSettingService implements IDynamicTenantSettingService
             dynamicTenantSetting.setValue(dynamicTenantSetting.getDefaultValue());
             checkModelValidity(customizer, dynamicTenantSetting);
             dynamicTenantSetting = dynamicTenantSettingRepositoryService.save(dynamicTenantSetting, null);
+            evictCache(name);
             customizer.doRightNow(dynamicTenantSetting);
         }
         LOGGER.info("Reset tenant setting '{}'.", dynamicTenantSetting.getName());
@@ -156,6 +187,12 @@ public class DynamicTenantSettingService implements IDynamicTenantSettingService
         }
     }
 
+    private void evictCache(String name) {
+        if (dynamicTenantSettingCache != null) {
+            dynamicTenantSettingCache.evict(name);
+        }
+    }
+
     private IDynamicTenantSettingCustomizer getCustomizer(DynamicTenantSetting dynamicTenantSetting)
         throws EntityInvalidException, EntityOperationForbiddenException, EntityNotFoundException {
         return dynamicTenantSettingCustomizerList.stream()
@@ -33,6 +33,15 @@ public interface IDynamicTenantSettingService {
 
     Optional<DynamicTenantSetting> read(String name);
 
+    /**
+     * Read the value of a setting
+     *
+     * @return the setting value or null if the setting does not exist
+     */
+    default <T> T readValue(String name) {
+        return read(name).map(DynamicTenantSetting::<T>getValue).orElse(null);
+    }
+
     Set<DynamicTenantSetting> readAll(Set<String> nameList);
 
     Set<DynamicTenantSetting> readAll();
@@ -18,15 +18,20 @@
  */
 package fr.cnes.regards.framework.modules.tenant.settings.service.configuration;
 
+import fr.cnes.regards.framework.amqp.IPublisher;
+import fr.cnes.regards.framework.amqp.ISubscriber;
 import fr.cnes.regards.framework.encryption.IEncryptionService;
 import fr.cnes.regards.framework.encryption.sensitive.ISensitiveAnnotationEncryptionService;
 import fr.cnes.regards.framework.modules.tenant.settings.dao.IDynamicTenantSettingRepository;
+import fr.cnes.regards.framework.modules.tenant.settings.service.DynamicTenantSettingCache;
 import fr.cnes.regards.framework.modules.tenant.settings.service.DynamicTenantSettingRepositoryService;
 import fr.cnes.regards.framework.modules.tenant.settings.service.DynamicTenantSettingService;
 import fr.cnes.regards.framework.modules.tenant.settings.service.DynamicTenantSettingWithMaskService;
 import fr.cnes.regards.framework.modules.tenant.settings.service.IDynamicTenantSettingCustomizer;
 import fr.cnes.regards.framework.modules.tenant.settings.service.encryption.DynamicSettingsEncryptionService;
 import fr.cnes.regards.framework.modules.tenant.settings.service.encryption.SensitiveDynamicSettingConverter;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
@@ -44,9 +49,22 @@ public class DynamicSettingsAutoConfiguration {
     @Bean("dynamicTenantSettingService")
     @Primary
     public DynamicTenantSettingService dynamicTenantSettingService(List<IDynamicTenantSettingCustomizer> dynamicTenantSettingCustomizerList,
-                                                                   DynamicTenantSettingRepositoryService dynamicTenantSettingRepositoryService) {
+                                                                   DynamicTenantSettingRepositoryService dynamicTenantSettingRepositoryService,
+                                                                   DynamicTenantSettingCache dynamicTenantSettingCache) {
         return new DynamicTenantSettingService(dynamicTenantSettingCustomizerList,
-                                               dynamicTenantSettingRepositoryService);
+                                               dynamicTenantSettingRepositoryService,
+                                               dynamicTenantSettingCache);
+    }
+
+    @Bean
+    public DynamicTenantSettingCache dynamicTenantSettingCache(DynamicTenantSettingRepositoryService dynamicTenantSettingRepositoryService,
+                                                               IRuntimeTenantResolver runtimeTenantResolver,
+                                                               ObjectProvider<IPublisher> publisher,
+                                                               ObjectProvider<ISubscriber> subscriber) {
+        return new DynamicTenantSettingCache(dynamicTenantSettingRepositoryService,
+                                             runtimeTenantResolver,
+                                             publisher,
+                                             subscriber);
     }
 
     @Bean("dynamicTenantSettingServiceWithMask")
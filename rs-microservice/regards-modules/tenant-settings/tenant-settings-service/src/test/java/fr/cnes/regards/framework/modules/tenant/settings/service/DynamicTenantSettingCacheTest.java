@@ -0,0 +1,153 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.tenant.settings.service;
+
+import fr.cnes.regards.framework.amqp.IPublisher;
+import fr.cnes.regards.framework.amqp.ISubscriber;
+import fr.cnes.regards.framework.gson.GsonCustomizer;
+import fr.cnes.regards.framework.jpa.json.GsonUtil;
+import fr.cnes.regards.framework.modules.tenant.settings.domain.DynamicTenantSetting;
+import fr.cnes.regards.framework.modules.tenant.settings.domain.event.DynamicTenantSettingUpdatedEvent;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
+import org.assertj.core.api.Assertions;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * The purpose of this test is to verify that the values of the {@link DynamicTenantSetting}s are read once by tenant
+ * and refreshed when a setting is modified {@link DynamicTenantSettingCache}.
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class DynamicTenantSettingCacheTest {
+
+    private static final String TENANT = "PROJECT";
+
+    private static final String SETTING_NAME = "settingTest";
+
+    private DynamicTenantSettingCache dynamicTenantSettingCache; // service under test
+
+    @Mock
+    private DynamicTenantSettingRepositoryService dynamicTenantSettingRepositoryService;
+
+    @Mock
+    private IRuntimeTenantResolver runtimeTenantResolver;
+
+    @Mock
+    private IPublisher publisher;
+
+    @Before
+    public void init() {
+        // init gson
+        GsonUtil.setGson(GsonCustomizer.gsonBuilder(Optional.empty(), Optional.empty()).create());
+        Mockito.when(runtimeTenantResolver.getTenant()).thenReturn(TENANT);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("publisher", publisher));
+        dynamicTenantSettingCache = new DynamicTenantSettingCache(dynamicTenantSettingRepositoryService,
+                                                                  runtimeTenantResolver,
+                                                                  beanFactory.getBeanProvider(IPublisher.class),
+                                                                  beanFactory.getBeanProvider(ISubscriber.class));
+    }
+
+    @Test
+    public void givenSettings_whenReadSeveralTimes_thenLoadedOnce() {
+        // GIVEN
+        mockSettings(10L);
+
+        // WHEN
+        Long value = dynamicTenantSettingCache.getValue(SETTING_NAME);
+        Long valueReadAgain = dynamicTenantSettingCache.getValue(SETTING_NAME);
+
+        // THEN
+        Assertions.assertThat(value).isEqualTo(10L);
+        Assertions.assertThat(valueReadAgain).isEqualTo(10L);
+        Mockito.verify(dynamicTenantSettingRepositoryService, Mockito.times(1)).findAll(true);
+        Mockito.verify(dynamicTenantSettingRepositoryService, Mockito.never())
+               .findByName(ArgumentMatchers.any(), ArgumentMatchers.anyBoolean());
+    }
+
+    @Test
+    public void givenSettingUpdated_whenEvicted_thenNewValueRead() {
+        // GIVEN
+        mockSettings(10L);
+        Assertions.assertThat((Long) dynamicTenantSettingCache.getValue(SETTING_NAME)).isEqualTo(10L);
+
+        // WHEN
+        mockSettings(20L);
+        dynamicTenantSettingCache.evict(SETTING_NAME);
+
+        // THEN
+        Assertions.assertThat((Long) dynamicTenantSettingCache.getValue(SETTING_NAME)).isEqualTo(20L);
+        Mockito.verify(publisher)
+               .publish(ArgumentMatchers.<DynamicTenantSettingUpdatedEvent>argThat(event -> SETTING_NAME.equals(event.getName())));
+    }
+
+    @Test
+    public void givenSettingUpdatedOnOtherInstance_whenEventReceived_thenNewValueRead() {
+        // GIVEN
+        mockSettings(10L);
+        Assertions.assertThat((Long) dynamicTenantSettingCache.getValue(SETTING_NAME)).isEqualTo(10L);
+
+        // WHEN
+        mockSettings(20L);
+        dynamicTenantSettingCache.handle(TENANT, new DynamicTenantSettingUpdatedEvent(SETTING_NAME));
+
+        // THEN
+        Assertions.assertThat((Long) dynamicTenantSettingCache.getValue(SETTING_NAME)).isEqualTo(20L);
+    }
+
+    @Test
+    public void givenUnknownSetting_whenRead_thenNullUntilEvicted() {
+        // GIVEN
+        mockSettings(10L);
+
+        // WHEN
+        Object value = dynamicTenantSettingCache.getValue("unknown");
+        Object valueReadAgain = dynamicTenantSettingCache.getValue("unknown");
+
+        // THEN
+        Assertions.assertThat(value).isNull();
+        Assertions.assertThat(valueReadAgain).isNull();
+        Mockito.verify(dynamicTenantSettingRepositoryService, Mockito.times(1)).findAll(true);
+        Mockito.verify(dynamicTenantSettingRepositoryService, Mockito.never())
+               .findByName(ArgumentMatchers.any(), ArgumentMatchers.anyBoolean());
+
+        // WHEN
+        Mockito.when(dynamicTenantSettingRepositoryService.findAll(true))
+               .thenReturn(Set.of(new DynamicTenantSetting(1L, SETTING_NAME, "description", 0L, 10L, false),
+                                  new DynamicTenantSetting(2L, "unknown", "description", 0L, 30L, false)));
+        dynamicTenantSettingCache.evict("unknown");
+
+        // THEN
+        Assertions.assertThat((Long) dynamicTenantSettingCache.getValue("unknown")).isEqualTo(30L);
+    }
+
+    private void mockSettings(Long value) {
+        Mockito.when(dynamicTenantSettingRepositoryService.findAll(true))
+               .thenReturn(Set.of(new DynamicTenantSetting(1L, SETTING_NAME, "description", 0L, value, false)));
+    }
+}
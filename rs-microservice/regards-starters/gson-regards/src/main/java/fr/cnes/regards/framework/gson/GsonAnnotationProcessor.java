@@ -26,9 +26,7 @@ import fr.cnes.regards.framework.gson.annotation.GsonDiscriminator;
 import fr.cnes.regards.framework.gson.annotation.GsonTypeAdapter;
 import fr.cnes.regards.framework.gson.annotation.GsonTypeAdapterFactory;
 import fr.cnes.regards.framework.gson.annotation.Gsonable;
-import org.reflections.Configuration;
-import org.reflections.Reflections;
-import org.reflections.util.ConfigurationBuilder;
+import fr.cnes.regards.framework.utils.index.ClassScanner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,25 +49,21 @@ public final class GsonAnnotationProcessor {
     }
 
     /**
-     * Utility method for building reflection context
+     * Utility method for building class scanner. Classes of indexed modules are not scanned.
      */
-    private static Reflections getReflections(List<String> reflectionPackages) {
-
-        // Initialize reflection tool
-        Reflections reflections;
+    private static ClassScanner getScanner(List<String> reflectionPackages) {
+        List<String> packages;
         if ((reflectionPackages == null) || reflectionPackages.isEmpty()) {
-            String defaultPackage = "fr.cnes.regards";
-            LOGGER.info("System will look for GSON adapters and factories in default package: {}", defaultPackage);
-            reflections = new Reflections(defaultPackage);
+            packages = Collections.singletonList("fr.cnes.regards");
+            LOGGER.info("System will look for GSON adapters and factories in default package: {}", packages.get(0));
         } else {
+            packages = reflectionPackages;
             StringJoiner customPackages = new StringJoiner(",");
             reflectionPackages.forEach(customPackages::add);
             LOGGER.info("System will look for GSON adapters and factories in default package: {}",
                         customPackages.toString());
-            Configuration configuration = ConfigurationBuilder.build(reflectionPackages.toArray(new Object[0]));
-            reflections = new Reflections(configuration);
         }
-        return reflections;
+        return ClassScanner.of(packages);
     }
 
     /**
@@ -79,10 +73,10 @@ public final class GsonAnnotationProcessor {
      * @param reflectionPackages packages to scan
      */
     public static void process(GsonBuilder builder, List<String> reflectionPackages) {
-        Reflections reflections = getReflections(reflectionPackages);
-        processGsonable(builder, reflections);
-        processGsonAdapterFactory(builder, reflections);
-        processGsonAdapter(builder, reflections);
+        ClassScanner scanner = getScanner(reflectionPackages);
+        processGsonable(builder, scanner);
+        processGsonAdapterFactory(builder, scanner);
+        processGsonAdapter(builder, scanner);
     }
 
     public static void process(GsonBuilder builder, String reflectionPackage) {
@@ -93,15 +87,15 @@ public final class GsonAnnotationProcessor {
      * Process all object annotated with {@link Gsonable} to dynamically create {@link PolymorphicTypeAdapterFactory}.
      */
     public static void processGsonable(GsonBuilder builder, String reflectionPackage) {
-        processGsonable(builder, getReflections(Collections.singletonList(reflectionPackage)));
+        processGsonable(builder, getScanner(Collections.singletonList(reflectionPackage)));
     }
 
     /**
      * Process all object annotated with {@link Gsonable} to dynamically create {@link PolymorphicTypeAdapterFactory}.
      */
-    private static void processGsonable(GsonBuilder builder, Reflections reflections) {
+    private static void processGsonable(GsonBuilder builder, ClassScanner scanner) {
 
-        Set<Class<?>> gsonables = reflections.getTypesAnnotatedWith(Gsonable.class, true);
+        Set<Class<?>> gsonables = scanner.getTypesAnnotatedWith(Gsonable.class);
 
         if (gsonables != null) {
             for (Class<?> gsonable : gsonables) {
@@ -130,7 +124,7 @@ public final class GsonAnnotationProcessor {
                     typeAdapterFactory = PolymorphicTypeAdapterFactory.of(gsonable, a.value(), true);
                 }
 
-                if (registerSubtypes(reflections, typeAdapterFactory, gsonable)) {
+                if (registerSubtypes(scanner, typeAdapterFactory, gsonable)) {
                     // Only register type with sub types
                     builder.registerTypeAdapterFactory(typeAdapterFactory);
                     LOGGER.info("GSON polymorphic type adapter factory registered : {}", typeAdapterFactory.getClass());
@@ -142,16 +136,16 @@ public final class GsonAnnotationProcessor {
     /**
      * Register all sub types of the base type
      *
-     * @param reflections        scanner
+     * @param scanner            scanner
      * @param typeAdapterFactory current factory
      * @param baseType           base hierarchy type
      * @return true if sub types are registered else false
      */
-    private static boolean registerSubtypes(Reflections reflections,
+    private static boolean registerSubtypes(ClassScanner scanner,
                                             PolymorphicTypeAdapterFactory<?> typeAdapterFactory,
                                             Class<?> baseType) {
 
-        final Set<?> subTypes = reflections.getSubTypesOf(baseType);
+        final Set<?> subTypes = scanner.getSubTypesOf(baseType);
 
         if ((subTypes == null) || subTypes.isEmpty()) {
             // Skip registration
@@ -182,7 +176,7 @@ public final class GsonAnnotationProcessor {
      * {@link TypeAdapterFactory}.
      */
     public static void processGsonAdapterFactory(GsonBuilder builder, String reflectionPackage) {
-        processGsonAdapterFactory(builder, getReflections(Collections.singletonList(reflectionPackage)));
+        processGsonAdapterFactory(builder, getScanner(Collections.singletonList(reflectionPackage)));
     }
 
     /**
@@ -190,11 +184,11 @@ public final class GsonAnnotationProcessor {
      * {@link TypeAdapterFactory}.
      *
      * @param builder     {@link GsonBuilder}
-     * @param reflections {@link Reflections}
+     * @param scanner     {@link ClassScanner}
      */
-    private static void processGsonAdapterFactory(GsonBuilder builder, Reflections reflections) {
+    private static void processGsonAdapterFactory(GsonBuilder builder, ClassScanner scanner) {
 
-        Set<Class<?>> factoryTypes = reflections.getTypesAnnotatedWith(GsonTypeAdapterFactory.class, true);
+        Set<Class<?>> factoryTypes = scanner.getTypesAnnotatedWith(GsonTypeAdapterFactory.class);
 
         if (factoryTypes != null) {
             for (Class<?> factoryType : factoryTypes) {
@@ -229,16 +223,16 @@ public final class GsonAnnotationProcessor {
      * {@link TypeAdapterFactory}.
      */
     public static void processGsonAdapter(GsonBuilder builder, String reflectionPackage) {
-        processGsonAdapter(builder, getReflections(Collections.singletonList(reflectionPackage)));
+        processGsonAdapter(builder, getScanner(Collections.singletonList(reflectionPackage)));
     }
 
     /**
      * Process all object annotated with {@link GsonTypeAdapterFactory} to dynamically register
      * {@link TypeAdapterFactory}.
      */
-    private static void processGsonAdapter(GsonBuilder builder, Reflections reflections) {
+    private static void processGsonAdapter(GsonBuilder builder, ClassScanner scanner) {
 
-        Set<Class<?>> factoryTypes = reflections.getTypesAnnotatedWith(GsonTypeAdapter.class, true);
+        Set<Class<?>> factoryTypes = scanner.getTypesAnnotatedWith(GsonTypeAdapter.class);
 
         if (factoryTypes != null) {
             for (Class<?> factoryType : factoryTypes) {
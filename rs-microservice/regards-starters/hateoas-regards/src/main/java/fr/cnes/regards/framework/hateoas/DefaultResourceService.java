@@ -32,15 +32,23 @@ import org.springframework.security.authentication.InsufficientAuthenticationExc
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.util.SimpleMethodInvocation;
 import org.springframework.util.Assert;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Default resource service based on security starter
+ * Default resource service based on security starter.
+ * <p>
+ * Links of a controller method are built from a template resolved once : the controller method is retrieved once by
+ * introspection and its authorization is decided once per request (i.e. for the authenticated user role), so that
+ * adding the same links to each element of a page only costs the link expansion with the element values.
  *
  * @author msordi
  */
@@ -51,11 +59,21 @@ public class DefaultResourceService implements IResourceService {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultResourceService.class);
 
+    /**
+     * Request attribute holding the authorizations decided during the current request
+     */
+    private static final String AUTHORIZATIONS_ATTRIBUTE = DefaultResourceService.class.getName() + ".AUTHORIZATIONS";
+
     /**
      * Security access decision manager (same as security)
      */
     private final AccessDecisionManager accessDecisionManager;
 
+    /**
+     * Controller methods already retrieved by introspection
+     */
+    private final Map<MethodKey, Method> methods = new ConcurrentHashMap<>();
+
     /**
      * Constructor
      *
@@ -174,15 +192,10 @@ public class DefaultResourceService implements IResourceService {
 
         try {
             Method method = getMethod(controller, methodName, parameterTypes);
-            C proxyControllerInstance = WebMvcLinkBuilder.methodOn(controller);
-            Object invoke;
-            if (parameterValues != null) {
-                invoke = method.invoke(proxyControllerInstance, parameterValues.toArray());
-            } else {
-                invoke = method.invoke(proxyControllerInstance);
-            }
-            return WebMvcLinkBuilder.linkTo(invoke).withRel(rel);
-        } catch (MethodException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+            // Same invocation as the one recorded by a WebMvcLinkBuilder#methodOn proxy, without creating the proxy
+            Object[] values = parameterValues != null ? parameterValues.toArray() : new Object[0];
+            return WebMvcLinkBuilder.linkTo(controller, method, values).withRel(rel);
+        } catch (MethodException | IllegalArgumentException e) {
             // Do not insert link
             LOGGER.trace("HATEOAS link skipped silently due to introspection error or access denied", e);
         }
@@ -199,11 +212,23 @@ public class DefaultResourceService implements IResourceService {
      * @throws MethodException if method cannot be retrieved
      */
     private Method getMethod(final Class<?> pController, final String pMethodName, final Class<?>... pParameterTypes)
+        throws MethodException {
+        MethodKey key = new MethodKey(pController,
+                                      pMethodName,
+                                      pParameterTypes == null ? List.of() : Arrays.asList(pParameterTypes));
+        Method method = methods.get(key);
+        if (method == null) {
+            method = findMethod(pController, pMethodName, pParameterTypes);
+            methods.put(key, method);
+        }
+        checkAuthorization(method);
+        return method;
+    }
+
+    private Method findMethod(final Class<?> pController, final String pMethodName, final Class<?>... pParameterTypes)
         throws MethodException {
         try {
-            final Method method = pController.getMethod(pMethodName, pParameterTypes);
-            checkAuthorization(method);
-            return method;
+            return pController.getMethod(pMethodName, pParameterTypes);
         } catch (final NoSuchMethodException e) {
             final String message = MessageFormat.format("No such method {0} in controller {1}.",
                                                         pMethodName,
@@ -220,7 +245,7 @@ public class DefaultResourceService implements IResourceService {
     }
 
     /**
-     * Check if method is accessible regarding security authorities
+     * Check if method is accessible regarding security authorities. The decision is kept for the current request.
      *
      * @param pMethod method to check
      * @throws MethodException if method not authorized
@@ -228,13 +253,55 @@ public class DefaultResourceService implements IResourceService {
     private void checkAuthorization(final Method pMethod) throws MethodException {
         final JWTAuthentication auth = (JWTAuthentication) SecurityContextHolder.getContext().getAuthentication();
 
+        RequestAuthorizations authorizations = getRequestAuthorizations(auth);
+        Boolean granted = authorizations == null ? null : authorizations.granted().get(pMethod);
+        if (granted == null) {
+            granted = decide(auth, pMethod);
+            if (authorizations != null) {
+                authorizations.granted().put(pMethod, granted);
+            }
+        }
+        if (!granted) {
+            throw new MethodException(MessageFormat.format("Unauthorized method {0}", pMethod.getName()));
+        }
+    }
+
+    private boolean decide(JWTAuthentication auth, Method pMethod) {
         try {
             accessDecisionManager.decide(auth, new SimpleMethodInvocation(null, pMethod), null);
+            return true;
         } catch (AccessDeniedException | InsufficientAuthenticationException e) {
             final String message = MessageFormat.format("Unauthorized method {0}", pMethod.getName());
             LOGGER.debug(message);
             LOGGER.trace(message, e);
-            throw new MethodException(message);
+            return false;
+        }
+    }
+
+    /**
+     * @return authorizations already decided for given authentication during the current request, null if there is
+     * no current request.
+     */
+    private static RequestAuthorizations getRequestAuthorizations(JWTAuthentication auth) {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return null;
         }
+        Object attribute = requestAttributes.getAttribute(AUTHORIZATIONS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (attribute instanceof RequestAuthorizations authorizations && authorizations.authentication() == auth) {
+            return authorizations;
+        }
+        // First link of the request or authentication changed during the request
+        RequestAuthorizations authorizations = new RequestAuthorizations(auth, new ConcurrentHashMap<>());
+        requestAttributes.setAttribute(AUTHORIZATIONS_ATTRIBUTE, authorizations, RequestAttributes.SCOPE_REQUEST);
+        return authorizations;
+    }
+
+    private record MethodKey(Class<?> controller, String methodName, List<Class<?>> parameterTypes) {
+
+    }
+
+    private record RequestAuthorizations(JWTAuthentication authentication, Map<Method, Boolean> granted) {
+
     }
 }
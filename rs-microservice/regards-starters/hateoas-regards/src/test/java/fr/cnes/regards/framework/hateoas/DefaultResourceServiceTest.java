@@ -23,18 +23,26 @@ import fr.cnes.regards.framework.security.utils.jwt.JWTAuthentication;
 import fr.cnes.regards.framework.security.utils.jwt.UserDetails;
 import fr.cnes.regards.framework.test.report.annotation.Purpose;
 import fr.cnes.regards.framework.test.report.annotation.Requirement;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.access.AccessDecisionManager;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import jakarta.validation.Valid;
 
@@ -68,6 +76,11 @@ public class DefaultResourceServiceTest {
      */
     private static final String UPDATE_METHOD_NAME = "updatePojo";
 
+    /**
+     * Search method name
+     */
+    private static final String SEARCH_METHOD_NAME = "searchPojos";
+
     /**
      * Mocket authorization service
      */
@@ -99,6 +112,11 @@ public class DefaultResourceServiceTest {
         resourceServiceMock = new MockDefaultResourceService(accessDecisionManager);
     }
 
+    @After
+    public void clear() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
     /**
      * Test authorized link creation
      */
@@ -132,6 +150,64 @@ public class DefaultResourceServiceTest {
         Assert.assertTrue(pojos.get(0).getLinks().hasSize(0));
     }
 
+    /**
+     * Test links built from the cached controller methods are the ones built by Spring HATEOAS
+     */
+    @Test
+    @Purpose("Test links built from the cached controller methods are the ones built by Spring HATEOAS.")
+    public void testLinksSameAsWebMvcLinkBuilder() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest("GET",
+                                                                                                          "/pojos")));
+        final IResourceService resourceService = new DefaultResourceService(accessDecisionManager);
+
+        for (String value : List.of("simple", "with space", "spécial/?&=#%")) {
+            final Link link = resourceService.buildLink(PojoController.class,
+                                                        SEARCH_METHOD_NAME,
+                                                        LinkRels.LIST,
+                                                        MethodParamFactory.build(String.class, value),
+                                                        MethodParamFactory.build(String.class, value));
+            final Link linkWithParams = resourceService.buildLinkWithParams(PojoController.class,
+                                                                            SEARCH_METHOD_NAME,
+                                                                            LinkRels.LIST,
+                                                                            MethodParamFactory.build(String.class,
+                                                                                                     value),
+                                                                            MethodParamFactory.build(String.class,
+                                                                                                     value));
+            final Link expected = WebMvcLinkBuilder.linkTo(WebMvcLinkBuilder.methodOn(PojoController.class)
+                                                                            .searchPojos(value, value))
+                                                   .withRel(LinkRels.LIST);
+            Assert.assertEquals(expected, link);
+            Assert.assertEquals(expected, linkWithParams);
+        }
+    }
+
+    /**
+     * Test authorization of a controller method is decided once for all the links built during a request
+     */
+    @Test
+    @Purpose("Test authorization of a controller method is decided once for all the links built during a request.")
+    public void testAuthorizationDecidedOncePerRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest("GET",
+                                                                                                          "/pojos")));
+        final PojoController pojoController = new PojoController(resourceServiceMock);
+        pojoController.getPojos();
+        pojoController.getPojos();
+        // One decision for each of the two linked methods
+        Mockito.verify(accessDecisionManager, Mockito.times(2))
+               .decide(Mockito.eq(jwtAuth), Mockito.any(), Mockito.eq(null));
+
+        // Next request
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest("GET",
+                                                                                                          "/pojos")));
+        Mockito.doThrow(new AccessDeniedException("Mock"))
+               .when(accessDecisionManager)
+               .decide(Mockito.eq(jwtAuth), Mockito.any(), Mockito.eq(null));
+        final List<EntityModel<Pojo>> pojos = pojoController.getPojos();
+        Assert.assertTrue(pojos.get(0).getLinks().hasSize(0));
+        Mockito.verify(accessDecisionManager, Mockito.times(4))
+               .decide(Mockito.eq(jwtAuth), Mockito.any(), Mockito.eq(null));
+    }
+
     /**
      * Sample pojo
      *
@@ -212,6 +288,13 @@ public class DefaultResourceServiceTest {
             return toResource(pojo);
         }
 
+        @ResourceAccess(description = "Search pojos")
+        @RequestMapping(method = RequestMethod.GET, value = "/search/{type}")
+        public List<EntityModel<Pojo>> searchPojos(@PathVariable("type") String type,
+                                                   @RequestParam("content") String content) {
+            return new ArrayList<>();
+        }
+
         @Override
         public EntityModel<Pojo> toResource(Pojo element, Object... extras) {
             final EntityModel<Pojo> resource = resourceService.toResource(element);
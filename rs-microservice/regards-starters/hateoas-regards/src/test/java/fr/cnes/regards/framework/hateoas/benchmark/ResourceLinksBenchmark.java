@@ -0,0 +1,165 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.hateoas.benchmark;
+
+import fr.cnes.regards.framework.hateoas.DefaultResourceService;
+import fr.cnes.regards.framework.hateoas.IResourceService;
+import fr.cnes.regards.framework.hateoas.LinkRels;
+import fr.cnes.regards.framework.hateoas.MethodParamFactory;
+import fr.cnes.regards.framework.security.annotation.ResourceAccess;
+import fr.cnes.regards.framework.security.endpoint.MethodAuthorizationService;
+import fr.cnes.regards.framework.security.endpoint.voter.ResourceAccessVoter;
+import fr.cnes.regards.framework.security.role.DefaultRole;
+import fr.cnes.regards.framework.security.utils.jwt.JWTAuthentication;
+import fr.cnes.regards.framework.security.utils.jwt.UserDetails;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.access.vote.AffirmativeBased;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the HATEOAS links added to each element of a large page by {@link DefaultResourceService}, each
+ * invocation being a new request of an authenticated user.<br/>
+ * Not run by the test phase, launch {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResourceLinksBenchmark {
+
+    private static final String TENANT = "PROJECT";
+
+    private static final String ROLE = DefaultRole.REGISTERED_USER.toString();
+
+    @Param({ "1000" })
+    private int pageSize;
+
+    private IResourceService resourceService;
+
+    private List<String> ids;
+
+    @Setup
+    public void setUp() {
+        MethodAuthorizationService methodAuthorizationService = new MethodAuthorizationService();
+        methodAuthorizationService.setAuthorities(TENANT,
+                                                  "/entities/{id}",
+                                                  "EntityController",
+                                                  RequestMethod.GET,
+                                                  ROLE);
+        methodAuthorizationService.setAuthorities(TENANT,
+                                                  "/entities/{id}",
+                                                  "EntityController",
+                                                  RequestMethod.PUT,
+                                                  ROLE);
+        methodAuthorizationService.setAuthorities(TENANT,
+                                                  "/entities/{id}/files",
+                                                  "EntityController",
+                                                  RequestMethod.GET,
+                                                  ROLE);
+        resourceService = new DefaultResourceService(new AffirmativeBased(List.of(new ResourceAccessVoter(
+            methodAuthorizationService))));
+
+        JWTAuthentication authentication = new JWTAuthentication("token");
+        authentication.setUser(new UserDetails(TENANT, "user@regards.fr", "user@regards.fr", ROLE));
+        authentication.setRole(ROLE);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+
+        ids = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            ids.add("URN:AIP:DATA:" + TENANT + ":" + i + ":V1");
+        }
+    }
+
+    @Benchmark
+    public List<EntityModel<String>> page() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest("GET",
+                                                                                                          "/entities")));
+        try {
+            List<EntityModel<String>> page = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                EntityModel<String> resource = resourceService.toResource(id);
+                resourceService.addLink(resource,
+                                        EntityController.class,
+                                        "get",
+                                        LinkRels.SELF,
+                                        MethodParamFactory.build(String.class, id));
+                resourceService.addLink(resource,
+                                        EntityController.class,
+                                        "update",
+                                        LinkRels.UPDATE,
+                                        MethodParamFactory.build(String.class, id),
+                                        MethodParamFactory.build(String.class));
+                resourceService.addLinkWithParams(resource,
+                                                  EntityController.class,
+                                                  "files",
+                                                  LinkRels.LIST,
+                                                  MethodParamFactory.build(String.class, id),
+                                                  MethodParamFactory.build(String.class, "RAWDATA"));
+                page.add(resource);
+            }
+            return page;
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ResourceLinksBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @RequestMapping("/entities")
+    public static class EntityController {
+
+        @ResourceAccess(description = "Get entity", role = DefaultRole.REGISTERED_USER)
+        @RequestMapping(value = "/{id}", method = RequestMethod.GET)
+        public EntityModel<String> get(@PathVariable("id") String id) {
+            return null;
+        }
+
+        @ResourceAccess(description = "Update entity", role = DefaultRole.REGISTERED_USER)
+        @RequestMapping(value = "/{id}", method = RequestMethod.PUT)
+        public EntityModel<String> update(@PathVariable("id") String id, @RequestBody String entity) {
+            return null;
+        }
+
+        @ResourceAccess(description = "Get entity files", role = DefaultRole.REGISTERED_USER)
+        @RequestMapping(value = "/{id}/files", method = RequestMethod.GET)
+        public List<String> files(@PathVariable("id") String id, @RequestParam("type") String type) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.modules.jpa.multitenant.autoconfigure.transactional;
+
+import fr.cnes.regards.framework.jpa.multitenant.autoconfigure.DataSourcesAutoConfiguration;
+import fr.cnes.regards.framework.jpa.multitenant.lock.LockService;
+import fr.cnes.regards.framework.jpa.multitenant.lock.LockServiceResponse;
+import fr.cnes.regards.framework.jpa.multitenant.lock.LockServiceTask;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.jupiter.api.Assertions;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Contention benchmark of {@link LockService} backends. Many threads compete for the same few locks, the test checks
+ * mutual exclusion and logs throughput and hand-over latency of each backend.
+ **/
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = { LockServiceTestConfiguration.class })
+@ActiveProfiles("test")
+@TestPropertySource(properties = { "spring.jpa.properties.hibernate.default_schema=lock_service_contention_test",
+                                   "regards.lock.cache.capacity=10" })
+public class LockServiceContentionIT {
+
+    private static final Logger LOGGER = getLogger(LockServiceContentionIT.class);
+
+    private static final String TENANT = "test1";
+
+    private static final int NB_THREADS = 20;
+
+    private static final int NB_TASKS_PER_THREAD = 25;
+
+    private static final int NB_LOCKS = 2;
+
+    @Autowired
+    private LockService lockService;
+
+    @Autowired
+    private IRuntimeTenantResolver tenantResolver;
+
+    @Autowired
+    @Qualifier(DataSourcesAutoConfiguration.DATA_SOURCE_BEAN_NAME)
+    private Map<String, DataSource> dataSources;
+
+    private ExecutorService threadPool;
+
+    @Before
+    public void setUpThreadPool() {
+        threadPool = Executors.newFixedThreadPool(NB_THREADS);
+    }
+
+    @After
+    public void cleanUp() {
+        threadPool.shutdownNow();
+        useBackend(LockService.JDBC_BACKEND);
+    }
+
+    @Test
+    public void contention_jdbc_backend() throws Exception {
+        useBackend(LockService.JDBC_BACKEND);
+        runContention(LockService.JDBC_BACKEND);
+    }
+
+    @Test
+    public void contention_advisory_backend() throws Exception {
+        useBackend(LockService.ADVISORY_BACKEND);
+        runContention(LockService.ADVISORY_BACKEND);
+    }
+
+    private void useBackend(String backend) {
+        ReflectionTestUtils.setField(lockService, "lockBackend", backend);
+        lockService.registerLockRegistry(TENANT, dataSources.get(TENANT));
+    }
+
+    private void runContention(String backend) throws Exception {
+        AtomicInteger[] holders = new AtomicInteger[NB_LOCKS];
+        for (int i = 0; i < NB_LOCKS; i++) {
+            holders[i] = new AtomicInteger();
+        }
+        AtomicInteger overlaps = new AtomicInteger();
+        AtomicLong totalWaitNanos = new AtomicLong();
+
+        long start = System.nanoTime();
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < NB_THREADS; t++) {
+            int threadIndex = t;
+            futures.add(threadPool.submit(() -> {
+                tenantResolver.forceTenant(TENANT);
+                int executed = 0;
+                for (int i = 0; i < NB_TASKS_PER_THREAD; i++) {
+                    int lockIndex = (threadIndex + i) % NB_LOCKS;
+                    long requested = System.nanoTime();
+                    LockServiceResponse<Void> response = lockService.tryRunWithLock("contention" + lockIndex,
+                                                                                    (LockServiceTask<Void>) () -> {
+                        totalWaitNanos.addAndGet(System.nanoTime() - requested);
+                        if (holders[lockIndex].incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        simulateWork();
+                        holders[lockIndex].decrementAndGet();
+                        return null;
+                    }, 60, TimeUnit.SECONDS);
+                    if (response.isExecuted()) {
+                        executed++;
+                    }
+                }
+                return executed;
+            }));
+        }
+        int executed = 0;
+        for (Future<Integer> future : futures) {
+            executed += future.get(5, TimeUnit.MINUTES);
+        }
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        LOGGER.info("[{}] {} locked tasks on {} locks with {} threads in {}ms ({} tasks/s, mean wait {}ms)",
+                    backend,
+                    executed,
+                    NB_LOCKS,
+                    NB_THREADS,
+                    durationMs,
+                    (executed * 1000L) / Math.max(durationMs, 1),
+                    TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / Math.max(executed, 1)));
+        Assertions.assertEquals(NB_THREADS * NB_TASKS_PER_THREAD, executed, "Every task should have been executed");
+        Assertions.assertEquals(0, overlaps.get(), "Two tasks ran at the same time with the same lock");
+    }
+
+    private static void simulateWork() {
+        try {
+            Thread.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
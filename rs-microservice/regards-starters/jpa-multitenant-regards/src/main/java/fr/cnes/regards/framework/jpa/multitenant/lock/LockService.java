@@ -18,17 +18,20 @@
  */
 package fr.cnes.regards.framework.jpa.multitenant.lock;
 
+import com.zaxxer.hikari.HikariDataSource;
 import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
 import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.integration.jdbc.lock.DefaultLockRepository;
 import org.springframework.integration.jdbc.lock.JdbcLockRegistry;
+import org.springframework.integration.support.locks.RenewableLockRegistry;
 import org.springframework.stereotype.Service;
 
 import javax.sql.DataSource;
-import java.util.HashMap;
+import java.sql.SQLException;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 
@@ -40,6 +43,13 @@ import static org.slf4j.LoggerFactory.getLogger;
  * If the service attempt to run a task with a lock already in use, it will retry running the task until the lock is
  * free.
  * The lock has a maximum duration of {@link #lockTimeToLiveInSeconds} but the lock duration can be renewed using {@link #renewLock(String)}.
+ * <br/>
+ * Two lock backends are available (see regards.lock.backend) :
+ * <ul>
+ * <li>jdbc (default) : {@link JdbcLockRegistry} on the SHARED_ lock table of each tenant,</li>
+ * <li>advisory : {@link PostgresAdvisoryLockRegistry} using Postgres session advisory locks. Waiters block in the
+ * database instead of polling and locks are released when the holding session dies, so they never expire.</li>
+ * </ul>
  *
  * @author Thibaud Michaudel
  **/
@@ -50,6 +60,10 @@ public class LockService {
 
     public static final String LOCK_PREFIX = "SHARED_";
 
+    public static final String JDBC_BACKEND = "jdbc";
+
+    public static final String ADVISORY_BACKEND = "advisory";
+
     @Value("${regards.lock.time.to.live.in.seconds:60000}")
     private int lockTimeToLiveInSeconds;
 
@@ -59,22 +73,61 @@ public class LockService {
     @Value("${regards.lock.cache.capacity:100000}")
     private int cacheCapacity;
 
+    @Value("${regards.lock.backend:" + JDBC_BACKEND + "}")
+    private String lockBackend;
+
+    /**
+     * Maximum number of advisory locks held or awaited at the same time by a microservice instance for a tenant
+     */
+    @Value("${regards.lock.advisory.pool.size:10}")
+    private int advisoryPoolSize;
+
     /**
-     * Map of tenant with {@link JdbcLockRegistry} for execution task with lock.
+     * Map of tenant with {@link RenewableLockRegistry} for execution task with lock.
      */
-    private final Map<String, JdbcLockRegistry> lockRegistryMap;
+    private final Map<String, RenewableLockRegistry> lockRegistryMap;
 
     @Autowired
     private IRuntimeTenantResolver runtimeTenantResolver;
 
     public LockService() {
-        lockRegistryMap = new HashMap<>();
+        lockRegistryMap = new ConcurrentHashMap<>();
     }
 
     /**
-     * Register a JdbcLockRegistry for the given tenant and dataSource
+     * Register a lock registry for the given tenant and dataSource, according to the configured backend.
+     * Advisory locks fall back to the jdbc backend for non pooled data sources (embedded).
      */
     public void registerLockRegistry(String tenant, DataSource dataSource) {
+        RenewableLockRegistry oldRegistry;
+        if (ADVISORY_BACKEND.equals(lockBackend) && isHikariDataSource(dataSource)) {
+            oldRegistry = lockRegistryMap.put(tenant, createAdvisoryLockRegistry(tenant, dataSource));
+        } else {
+            oldRegistry = lockRegistryMap.put(tenant, createJdbcLockRegistry(dataSource));
+        }
+        closeRegistry(oldRegistry);
+    }
+
+    private static boolean isHikariDataSource(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(HikariDataSource.class);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private RenewableLockRegistry createAdvisoryLockRegistry(String tenant, DataSource dataSource) {
+        try {
+            return new PostgresAdvisoryLockRegistry(tenant,
+                                                    dataSource.unwrap(HikariDataSource.class),
+                                                    advisoryPoolSize,
+                                                    cacheCapacity);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Unable to create advisory lock registry for tenant " + tenant, e);
+        }
+    }
+
+    private JdbcLockRegistry createJdbcLockRegistry(DataSource dataSource) {
         DefaultLockRepository lockRepository = new DefaultLockRepository(dataSource);
         lockRepository.setPrefix(LOCK_PREFIX);
         // Keep the lock very long time
@@ -83,15 +136,20 @@ public class LockService {
 
         JdbcLockRegistry lockRegistry = new JdbcLockRegistry(lockRepository);
         lockRegistry.setCacheCapacity(cacheCapacity);
-
-        lockRegistryMap.put(tenant, lockRegistry);
+        return lockRegistry;
     }
 
     /**
-     * Remove an existing JdbcLockRegistry
+     * Remove an existing lock registry
      */
     public void removeLockRegistry(String tenant) {
-        lockRegistryMap.remove(tenant);
+        closeRegistry(lockRegistryMap.remove(tenant));
+    }
+
+    private static void closeRegistry(RenewableLockRegistry lockRegistry) {
+        if (lockRegistry instanceof PostgresAdvisoryLockRegistry advisoryLockRegistry) {
+            advisoryLockRegistry.close();
+        }
     }
 
     /**
@@ -117,7 +175,7 @@ public class LockService {
                                                      LockServiceTask<T> process,
                                                      int timeToWait,
                                                      TimeUnit timeUnit) throws InterruptedException {
-        JdbcLockRegistry lockRegistry = lockRegistryMap.get(runtimeTenantResolver.getTenant());
+        RenewableLockRegistry lockRegistry = lockRegistryMap.get(runtimeTenantResolver.getTenant());
         LOGGER.debug("Getting lock {} for task {}", lockName, process.getClass().getSimpleName());
 
         Lock lock = lockRegistry.obtain(lockName);
@@ -138,7 +196,7 @@ public class LockService {
      * @return true if the process was run, false otherwise
      */
     public <T> LockServiceResponse<T> tryRunWithLock(String lockName, LockServiceTask<T> process) {
-        JdbcLockRegistry lockRegistry = lockRegistryMap.get(runtimeTenantResolver.getTenant());
+        RenewableLockRegistry lockRegistry = lockRegistryMap.get(runtimeTenantResolver.getTenant());
         LOGGER.debug("Getting lock {} for task {}", lockName, process.getClass().getSimpleName());
 
         Lock lock = lockRegistry.obtain(lockName);
@@ -168,7 +226,7 @@ public class LockService {
      * Renew the given lock
      */
     public void renewLock(String lockName) {
-        JdbcLockRegistry lockRegistry = lockRegistryMap.get(runtimeTenantResolver.getTenant());
+        RenewableLockRegistry lockRegistry = lockRegistryMap.get(runtimeTenantResolver.getTenant());
         lockRegistry.renewLock(lockName);
     }
 
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.jpa.multitenant.lock;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.integration.support.locks.RenewableLockRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.slf4j.LoggerFactory.getLogger;
+
+/**
+ * Lock registry based on Postgres session advisory locks.<br/>
+ * Unlike the JdbcLockRegistry, no row is written to acquire a lock and waiters block in the database instead of
+ * polling the lock table. A held lock keeps one connection of a dedicated pool, so the lock is released by Postgres as
+ * soon as the session dies.<br/>
+ * Threads of the same microservice instance are first serialized on a local {@link ReentrantLock}, so the pool only
+ * needs as many connections as distinct locks held at the same time. Waiting for a free connection of the pool is
+ * bounded by the timeout of the lock attempt.
+ **/
+public class PostgresAdvisoryLockRegistry implements RenewableLockRegistry, AutoCloseable {
+
+    private static final Logger LOGGER = getLogger(PostgresAdvisoryLockRegistry.class);
+
+    /**
+     * Postgres error code raised when lock_timeout expires
+     */
+    private static final String LOCK_NOT_AVAILABLE = "55P03";
+
+    /**
+     * Maximum time to open a new connection. Waiting for a connection of a saturated pool is not bounded by this
+     * timeout but by the one of the lock attempt.
+     */
+    private static final long CONNECTION_TIMEOUT_MS = 5_000L;
+
+    private final String tenant;
+
+    private final HikariDataSource lockDataSource;
+
+    /**
+     * One permit per connection of the pool, so that a lock attempt never waits for a connection longer than its own
+     * timeout
+     */
+    private final Semaphore connectionPermits;
+
+    private final Map<String, AdvisoryLock> locks;
+
+    /**
+     * Create a registry with a dedicated pool built from the configuration of the given tenant pool
+     *
+     * @param tenant         tenant of the locks, part of the advisory lock key as tenants may share a database
+     * @param tenantPool     tenant data source used to copy connection configuration
+     * @param poolSize       maximum number of locks held or awaited at the same time by this instance
+     * @param cacheCapacity  maximum number of locks kept in memory
+     */
+    public PostgresAdvisoryLockRegistry(String tenant, HikariDataSource tenantPool, int poolSize, int cacheCapacity) {
+        this.tenant = tenant;
+        HikariConfig config = new HikariConfig();
+        tenantPool.copyStateTo(config);
+        config.setPoolName(String.format("Hikari-Lock-Pool-%s", tenant));
+        config.setMinimumIdle(1);
+        config.setMaximumPoolSize(poolSize);
+        // Tenant pool connection timeout is far too long for a lock attempt
+        config.setConnectionTimeout(CONNECTION_TIMEOUT_MS);
+        // Locks are taken outside any transaction
+        config.setAutoCommit(true);
+        this.lockDataSource = new HikariDataSource(config);
+        this.connectionPermits = new Semaphore(poolSize, true);
+        this.locks = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75F, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AdvisoryLock> eldest) {
+                return size() > cacheCapacity;
+            }
+        });
+    }
+
+    @Override
+    public Lock obtain(Object lockKey) {
+        String path = lockKey.toString();
+        return locks.computeIfAbsent(path, AdvisoryLock::new);
+    }
+
+    /**
+     * Advisory locks do not expire, nothing to renew.
+     */
+    @Override
+    public void renewLock(Object lockKey) {
+        LOGGER.trace("Advisory lock {} does not need to be renewed", lockKey);
+    }
+
+    @Override
+    public void close() {
+        lockDataSource.close();
+    }
+
+    /**
+     * Compute the 64 bits advisory lock key. Tenant is part of the key as several tenants may share the same database.
+     */
+    private long computeKey(String path) {
+        String fullPath = tenant + ":" + LockService.LOCK_PREFIX + path;
+        return UUID.nameUUIDFromBytes(fullPath.getBytes(StandardCharsets.UTF_8)).getMostSignificantBits();
+    }
+
+    private final class AdvisoryLock implements Lock {
+
+        private final String path;
+
+        private final long key;
+
+        private final ReentrantLock localLock = new ReentrantLock();
+
+        /**
+         * Connection holding the advisory lock, only accessed by the thread holding the local lock
+         */
+        private Connection connection;
+
+        private AdvisoryLock(String path) {
+            this.path = path;
+            this.key = computeKey(path);
+        }
+
+        @Override
+        public void lock() {
+            localLock.lock();
+            try {
+                acquire(-1, false);
+            } catch (InterruptedException e) {
+                // Cannot happen as permit is acquired uninterruptibly
+                localLock.unlock();
+                Thread.currentThread().interrupt();
+                throw new CannotAcquireLockException("Interrupted while locking mutex at " + path, e);
+            } catch (SQLException e) {
+                localLock.unlock();
+                throw new CannotAcquireLockException("Failed to lock mutex at " + path, e);
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            localLock.lockInterruptibly();
+            try {
+                acquire(-1, true);
+            } catch (SQLException e) {
+                localLock.unlock();
+                throw new CannotAcquireLockException("Failed to lock mutex at " + path, e);
+            } catch (InterruptedException e) {
+                localLock.unlock();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            if (!localLock.tryLock()) {
+                return false;
+            }
+            try {
+                return acquireOrRelease(0);
+            } catch (InterruptedException e) {
+                // Cannot happen as no permit is awaited
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(time);
+            if (!localLock.tryLock(time, unit)) {
+                return false;
+            }
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            return acquireOrRelease(Math.max(remainingMs, 0));
+        }
+
+        private boolean acquireOrRelease(long timeoutMs) throws InterruptedException {
+            try {
+                if (acquire(timeoutMs, true)) {
+                    return true;
+                }
+            } catch (SQLException e) {
+                localLock.unlock();
+                throw new CannotAcquireLockException("Failed to lock mutex at " + path, e);
+            } catch (InterruptedException e) {
+                localLock.unlock();
+                throw e;
+            }
+            localLock.unlock();
+            return false;
+        }
+
+        /**
+         * Acquire the advisory lock if the current thread does not already hold it.
+         *
+         * @param timeoutMs     0 to try once, a negative value to wait without limit
+         * @param interruptible false to wait for a connection without limit even if the thread is interrupted
+         * @return true if the lock is held by the current thread
+         */
+        private boolean acquire(long timeoutMs, boolean interruptible) throws SQLException, InterruptedException {
+            if (localLock.getHoldCount() > 1) {
+                // Reentrant call, advisory lock already held
+                return true;
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            if (!acquireConnectionPermit(timeoutMs, interruptible)) {
+                return false;
+            }
+            boolean acquired = false;
+            try {
+                Connection newConnection = lockDataSource.getConnection();
+                try {
+                    long remainingMs = timeoutMs < 0 ?
+                        timeoutMs :
+                        Math.max(TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()), 0);
+                    if (remainingMs == 0) {
+                        acquired = tryAdvisoryLock(newConnection);
+                    } else {
+                        acquired = waitAdvisoryLock(newConnection, remainingMs);
+                    }
+                } finally {
+                    if (acquired) {
+                        connection = newConnection;
+                    } else {
+                        newConnection.close();
+                    }
+                }
+            } finally {
+                if (!acquired) {
+                    connectionPermits.release();
+                }
+            }
+            return acquired;
+        }
+
+        private boolean acquireConnectionPermit(long timeoutMs, boolean interruptible) throws InterruptedException {
+            if (timeoutMs == 0) {
+                return connectionPermits.tryAcquire();
+            }
+            if (timeoutMs > 0) {
+                return connectionPermits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+            }
+            if (interruptible) {
+                connectionPermits.acquire();
+            } else {
+                connectionPermits.acquireUninterruptibly();
+            }
+            return true;
+        }
+
+        private boolean tryAdvisoryLock(Connection conn) throws SQLException {
+            try (PreparedStatement statement = conn.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+                statement.setLong(1, key);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    return resultSet.next() && resultSet.getBoolean(1);
+                }
+            }
+        }
+
+        /**
+         * Block in the database until the lock is granted or lock_timeout expires.
+         */
+        private boolean waitAdvisoryLock(Connection conn, long timeoutMs) throws SQLException {
+            try (Statement setTimeout = conn.createStatement()) {
+                setTimeout.execute("SET lock_timeout = " + Math.max(timeoutMs, 0));
+            }
+            try (PreparedStatement statement = conn.prepareStatement("SELECT pg_advisory_lock(?)")) {
+                statement.setLong(1, key);
+                statement.execute();
+                return true;
+            } catch (SQLException e) {
+                if (LOCK_NOT_AVAILABLE.equals(e.getSQLState())) {
+                    return false;
+                }
+                throw e;
+            } finally {
+                try (Statement resetTimeout = conn.createStatement()) {
+                    resetTimeout.execute("RESET lock_timeout");
+                }
+            }
+        }
+
+        @Override
+        public void unlock() {
+            if (!localLock.isHeldByCurrentThread()) {
+                throw new IllegalMonitorStateException("You do not own mutex at " + path);
+            }
+            try {
+                if (localLock.getHoldCount() == 1) {
+                    releaseAdvisoryLock();
+                }
+            } finally {
+                localLock.unlock();
+            }
+        }
+
+        private void releaseAdvisoryLock() {
+            Connection conn = connection;
+            connection = null;
+            boolean released = false;
+            try (PreparedStatement statement = conn.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+                statement.setLong(1, key);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    released = resultSet.next() && resultSet.getBoolean(1);
+                }
+            } catch (SQLException e) {
+                LOGGER.warn("Unable to release advisory lock {}, its connection will be evicted", path, e);
+            } finally {
+                if (!released) {
+                    // Never give back to the pool a session that may still hold the lock
+                    lockDataSource.evictConnection(conn);
+                }
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    LOGGER.warn("Unable to close connection of advisory lock {}", path, e);
+                } finally {
+                    connectionPermits.release();
+                }
+            }
+        }
+
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("Conditions are not supported");
+        }
+
+        @Override
+        public String toString() {
+            return "AdvisoryLock [" + tenant + ":" + path + "]";
+        }
+    }
+}
@@ -40,4 +40,12 @@ public class InstanceMethodAuthorizationService extends MethodAuthorizationServi
     public Optional<List<GrantedAuthority>> getAuthorities(String pTenant, ResourceMapping pResourceMapping) {
         return super.getAuthorities(INSTANCE_TENANT, pResourceMapping);
     }
+
+    /**
+     * Override {@link MethodAuthorizationService#getAuthorizationTenant(String)} to specify instance tenant
+     */
+    @Override
+    protected String getAuthorizationTenant(String tenant) {
+        return INSTANCE_TENANT;
+    }
 }
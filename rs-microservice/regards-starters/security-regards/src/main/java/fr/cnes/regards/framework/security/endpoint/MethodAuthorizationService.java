@@ -23,25 +23,25 @@ import fr.cnes.regards.framework.security.annotation.ResourceAccess;
 import fr.cnes.regards.framework.security.domain.ResourceMapping;
 import fr.cnes.regards.framework.security.domain.ResourceMappingException;
 import fr.cnes.regards.framework.security.domain.SecurityException;
+import fr.cnes.regards.framework.security.utils.endpoint.AuthorizedAddressMatcher;
 import fr.cnes.regards.framework.security.utils.endpoint.RoleAuthority;
 import fr.cnes.regards.framework.security.utils.jwt.JWTAuthentication;
+import fr.cnes.regards.framework.utils.index.ClassScanner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.ApplicationListener;
-import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
 import org.springframework.core.annotation.AnnotationUtils;
-import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.util.Assert;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -69,6 +69,26 @@ public class MethodAuthorizationService implements ApplicationContextAware, Appl
      */
     private final Map<String, List<RoleAuthority>> rolesByTenant = new ConcurrentHashMap<>();
 
+    /**
+     * Authorized addresses matcher of each role, compiled when roles are collected.<br/>
+     * Map<Tenant, Map<Role authority, Matcher>>
+     */
+    private final Map<String, Map<String, AuthorizedAddressMatcher>> addressMatchersByTenant =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Immutable authorization decision table per tenant used to check accesses. Each table is replaced as soon as the
+     * tenant authorities change so that request threads never read an authorities cache being rebuilt.<br/>
+     * Map<Tenant, Map<Resource, Set<Authority>>>
+     */
+    private final Map<String, Map<String, Set<String>>> decisionTableByTenant = new ConcurrentHashMap<>();
+
+    /**
+     * Resource identifier of each secured method, introspected only once. Methods without valid resource mapping are
+     * not kept so that they are introspected again.
+     */
+    private final Map<Method, String> resourceIdByMethod = new ConcurrentHashMap<>();
+
     /**
      * Plugin resource manager. To handle plugins endpoints specific resources.
      */
@@ -131,28 +151,30 @@ public class MethodAuthorizationService implements ApplicationContextAware, Appl
     public List<ResourceMapping> getResources() {
 
         final List<ResourceMapping> resources = new ArrayList<>();
-        final ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(
-            false);
 
-        // Check for all RestController classes
-        scanner.addIncludeFilter(new AnnotationTypeFilter(RestController.class));
+        // Check for all RestController classes, classes of indexed modules are not scanned
         // FIXME externalize base package / enable multiple base packages
-        for (final BeanDefinition def : scanner.findCandidateComponents("fr.cnes.regards")) {
-            try {
-                final Class<?> controller = Class.forName(def.getBeanClassName());
+        ClassScanner scanner = ClassScanner.of(Collections.singletonList("fr.cnes.regards"));
+        for (final Class<?> controller : scanner.getTypesAnnotatedWith(RestController.class)) {
+            // Same candidates as component scanning : concrete top level or static nested classes
+            if (isCandidateController(controller)) {
                 // For each method get the method annotated with both @ResourceAccess and @RequestMapping
                 for (final Method method : controller.getMethods()) {
                     resources.addAll(manageMethodResource(method));
                 }
-            } catch (final ClassNotFoundException e) {
-                LOGGER.error(String.format("Error getting resources from RestController classe : %s",
-                                           def.getBeanClassName()), e);
             }
         }
         return resources;
 
     }
 
+    private static boolean isCandidateController(Class<?> controller) {
+        int modifiers = controller.getModifiers();
+        return !controller.isInterface()
+               && !Modifier.isAbstract(modifiers)
+               && ((controller.getEnclosingClass() == null) || Modifier.isStatic(modifiers));
+    }
+
     /**
      * Create the resources associated to a Rest controller endpoint
      *
@@ -199,6 +221,10 @@ public class MethodAuthorizationService implements ApplicationContextAware, Appl
         // Register authorized roles by tenant (so you can manage IP filtering)
         List<RoleAuthority> roles = getAuthoritiesProvider().getRoleAuthorities(microserviceName, tenant);
         rolesByTenant.put(tenant, roles);
+        Map<String, AuthorizedAddressMatcher> addressMatchers = new HashMap<>();
+        roles.forEach(role -> addressMatchers.putIfAbsent(role.getAuthority(),
+                                                          AuthorizedAddressMatcher.of(role.getAuthorizedIpAdresses())));
+        addressMatchersByTenant.put(tenant, Map.copyOf(addressMatchers));
 
         // Manage tenant authorities
         buildAuthorities(tenant, roles);
@@ -223,6 +249,7 @@ public class MethodAuthorizationService implements ApplicationContextAware, Appl
                                                                                                     authority.getRoleName());
             configuredResources.forEach(resource -> setAuthorities(tenant, resource));
         }
+        refreshDecisionTable(tenant);
     }
 
     /**
@@ -286,6 +313,7 @@ public class MethodAuthorizationService implements ApplicationContextAware, Appl
         resource.setAutorizedRoles(newAuthorities);
 
         setAuthorities(pTenant, resource);
+        refreshDecisionTable(pTenant);
     }
 
     private void unsetAuthorities(String tenant, String roleName) {
@@ -306,6 +334,52 @@ public class MethodAuthorizationService implements ApplicationContextAware, Appl
                                                                                         tenant,
                                                                                         roleName);
         newMappings.forEach(mapping -> setAuthorities(tenant, mapping));
+        refreshDecisionTable(tenant);
+    }
+
+    /**
+     * Publish a new immutable decision table built from the current authorities of the given tenant
+     *
+     * @param tenant tenant name
+     */
+    private void refreshDecisionTable(String tenant) {
+        Map<String, ArrayList<GrantedAuthority>> grantedAuthoritiesByResource = grantedAuthoritiesByTenant.get(tenant);
+        Map<String, Set<String>> decisionTable = new HashMap<>();
+        if (grantedAuthoritiesByResource != null) {
+            grantedAuthoritiesByResource.forEach((resourceId, authorities) -> {
+                Set<String> authorityNames = new HashSet<>();
+                authorities.forEach(authority -> authorityNames.add(authority.getAuthority()));
+                decisionTable.put(resourceId, Set.copyOf(authorityNames));
+            });
+        }
+        decisionTableByTenant.put(tenant, Map.copyOf(decisionTable));
+    }
+
+    /**
+     * Retrieve the resource identifier of the given method, introspecting its annotations only on first successful
+     * call.
+     *
+     * @param method secured method
+     * @return resource identifier or empty if method has no valid resource mapping
+     */
+    private Optional<String> getResourceId(Method method) {
+        return Optional.ofNullable(resourceIdByMethod.computeIfAbsent(method, m -> {
+            try {
+                return MethodAuthorizationUtils.buildResourceMapping(m).getResourceMappingId();
+            } catch (ResourceMappingException e) {
+                LOGGER.debug(e.getMessage(), e);
+                // Not cached
+                return null;
+            }
+        }));
+    }
+
+    /**
+     * @param tenant tenant of the authenticated user
+     * @return the tenant whose authorities apply
+     */
+    protected String getAuthorizationTenant(String tenant) {
+        return tenant;
     }
 
     /**
@@ -338,30 +412,27 @@ public class MethodAuthorizationService implements ApplicationContextAware, Appl
 
         // If authentication do not contains authority, deny access
         if ((pJWTAuthentication.getAuthorities() != null) && !pJWTAuthentication.getAuthorities().isEmpty()) {
-
-            try {
-                // Retrieve resource mapping configuration
-                final ResourceMapping mapping = MethodAuthorizationUtils.buildResourceMapping(pMethod);
+            // Retrieve resource mapping configuration
+            Optional<String> resourceId = getResourceId(pMethod);
+            if (resourceId.isPresent()) {
                 // Retrieve granted authorities
-                final Optional<List<GrantedAuthority>> options = getAuthorities(pJWTAuthentication.getTenant(),
-                                                                                mapping);
-                if (options.isPresent()) {
-                    access = MethodAuthorizationUtils.hasAccess(options.get(), pJWTAuthentication.getAuthorities());
+                Map<String, Set<String>> decisionTable = decisionTableByTenant.get(getAuthorizationTenant(
+                    pJWTAuthentication.getTenant()));
+                Set<String> grantedAuthorities = decisionTable == null ? null : decisionTable.get(resourceId.get());
+                if (grantedAuthorities != null) {
+                    for (GrantedAuthority userAuthority : pJWTAuthentication.getAuthorities()) {
+                        if (grantedAuthorities.contains(userAuthority.getAuthority())) {
+                            access = Boolean.TRUE;
+                            break;
+                        }
+                    }
                 }
-
-                // CHECKSTYLE:OFF
-                final String decision = access ? "granted" : "denied";
-                // CHECKSTYLE:ON
-                final String logMessage = String.format("Access %s to resource %s for user %s.",
-                                                        decision,
-                                                        mapping.getResourceMappingId(),
-                                                        pJWTAuthentication.getName());
-                LOGGER.debug(logMessage);
-
-            } catch (final ResourceMappingException e) {
-                LOGGER.debug(e.getMessage(), e);
-                // Nothing to do : access will be denied
+                LOGGER.debug("Access {} to resource {} for user {}.",
+                             access ? "granted" : "denied",
+                             resourceId.get(),
+                             pJWTAuthentication.getName());
             }
+            // Nothing to do if no resource mapping : access will be denied
         }
         return access;
     }
@@ -395,6 +466,22 @@ public class MethodAuthorizationService implements ApplicationContextAware, Appl
         return Optional.empty();
     }
 
+    /**
+     * Return the matcher of the authorized addresses of the given role for the given tenant
+     *
+     * @param pRoleAuthorityName Role name
+     * @param pTenant            tenant
+     * @return matcher compiled when roles were collected
+     */
+    public Optional<AuthorizedAddressMatcher> getAuthorizedAddressMatcher(final String pRoleAuthorityName,
+                                                                          final String pTenant) {
+        Map<String, AuthorizedAddressMatcher> addressMatchers = addressMatchersByTenant.get(pTenant);
+        if (addressMatchers == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(addressMatchers.get(pRoleAuthorityName));
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -20,6 +20,7 @@ package fr.cnes.regards.framework.security.filter;
 
 import fr.cnes.regards.framework.security.domain.SecurityException;
 import fr.cnes.regards.framework.security.endpoint.MethodAuthorizationService;
+import fr.cnes.regards.framework.security.utils.endpoint.AuthorizedAddressMatcher;
 import fr.cnes.regards.framework.security.utils.endpoint.RoleAuthority;
 import fr.cnes.regards.framework.security.utils.jwt.JWTAuthentication;
 import org.slf4j.Logger;
@@ -36,7 +37,6 @@ import jakarta.servlet.http.HttpServletResponse;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.regex.Pattern;
 
 /**
  * Class IPFilter
@@ -78,8 +78,9 @@ public class IPFilter extends OncePerRequestFilter {
         Collection<RoleAuthority> roles = (Collection<RoleAuthority>) authentication.getAuthorities();
 
         if (!roles.isEmpty()) {
-            List<String> authorizedAddresses = retrieveRoleAuthorizedAddresses(roles, authentication.getTenant());
-            if (!checkAccessByAddress(authorizedAddresses, request.getRemoteAddr())) {
+            List<AuthorizedAddressMatcher> addressMatchers = retrieveRoleAddressMatchers(roles,
+                                                                                        authentication.getTenant());
+            if (!checkAccessByAddress(addressMatchers, request.getRemoteAddr())) {
                 String message = String.format("[REGARDS IP FILTER] - %s - Authorization denied",
                                                request.getRemoteAddr());
                 LOG.error(message);
@@ -101,44 +102,40 @@ public class IPFilter extends OncePerRequestFilter {
     }
 
     /**
-     * Retrieve authorized addresses for the given roles.
+     * Retrieve authorized addresses matchers for the given roles. Matchers are compiled when roles are loaded.
      *
      * @param roles roles
-     * @return authorized addresses
+     * @return authorized addresses matchers
      * @throws SecurityException Error retrieving role informations
      */
-    private List<String> retrieveRoleAuthorizedAddresses(Collection<RoleAuthority> roles, String tenant) {
-        List<String> authorizedAddresses = new ArrayList<>();
+    private List<AuthorizedAddressMatcher> retrieveRoleAddressMatchers(Collection<RoleAuthority> roles, String tenant) {
+        List<AuthorizedAddressMatcher> addressMatchers = new ArrayList<>();
         for (RoleAuthority role : roles) {
             // Role is a sys role then there is no ip limitation
             if (!RoleAuthority.isSysRole(role.getAuthority())
                 && !RoleAuthority.isInstanceAdminRole(role.getAuthority())) {
-                Optional<RoleAuthority> roleAuth = methodAuthService.getRoleAuthority(RoleAuthority.getRoleName(role.getAuthority()),
-                                                                                      tenant);
-                roleAuth.ifPresent(r -> authorizedAddresses.addAll(r.getAuthorizedIpAdresses()));
+                methodAuthService.getAuthorizedAddressMatcher(RoleAuthority.getRoleName(role.getAuthority()), tenant)
+                                 .filter(addressMatcher -> !addressMatcher.isEmpty())
+                                 .ifPresent(addressMatchers::add);
             }
         }
-        return authorizedAddresses;
+        return addressMatchers;
     }
 
     /**
      * Check if the user adress match ones of the role authorized addresses.
      *
-     * @param inAuthorizedAddress Role authorized addresses
-     * @param userAdress          user address
+     * @param addressMatchers Role authorized addresses matchers
+     * @param userAdress      user address
      * @return [true|false]
      */
-    private boolean checkAccessByAddress(List<String> inAuthorizedAddress, String userAdress) {
-        boolean accessAuthorized = false;
-        if ((inAuthorizedAddress != null) && !inAuthorizedAddress.isEmpty()) {
-            if ((userAdress != null) && !userAdress.isEmpty()) {
-                for (String authorizedAddress : inAuthorizedAddress) {
-                    Pattern pattern = Pattern.compile(authorizedAddress);
-                    accessAuthorized |= pattern.matcher(userAdress).matches();
-                }
+    private boolean checkAccessByAddress(List<AuthorizedAddressMatcher> addressMatchers, String userAdress) {
+        boolean accessAuthorized = addressMatchers.isEmpty();
+        for (AuthorizedAddressMatcher addressMatcher : addressMatchers) {
+            if (addressMatcher.matches(userAdress)) {
+                accessAuthorized = true;
+                break;
             }
-        } else {
-            accessAuthorized = true;
         }
         return accessAuthorized;
     }
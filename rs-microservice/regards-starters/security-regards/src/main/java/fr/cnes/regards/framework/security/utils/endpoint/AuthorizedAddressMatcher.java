@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.security.utils.endpoint;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Matcher of the authorized addresses of a role, compiled once when roles are loaded.
+ * <p>
+ * Each authorized address is a regular expression matched against the whole user address. An authorized address
+ * written as a CIDR block (i.e. 192.168.1.0/24) also matches every address of the block. Such a value used as a
+ * regular expression can never match a user address as it contains a '/', so the regular expression behaviour of
+ * existing configurations is unchanged.
+ */
+public final class AuthorizedAddressMatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuthorizedAddressMatcher.class);
+
+    private static final Pattern CIDR_PATTERN = Pattern.compile("[0-9a-fA-F:.]+/\\d{1,3}");
+
+    private final List<Predicate<String>> addressMatchers;
+
+    private AuthorizedAddressMatcher(List<Predicate<String>> addressMatchers) {
+        this.addressMatchers = addressMatchers;
+    }
+
+    /**
+     * @param authorizedAddresses authorized addresses of a role, may be null
+     * @return matcher of the given addresses
+     */
+    public static AuthorizedAddressMatcher of(Collection<String> authorizedAddresses) {
+        List<Predicate<String>> addressMatchers = new ArrayList<>();
+        if (authorizedAddresses != null) {
+            authorizedAddresses.forEach(authorizedAddress -> addressMatchers.add(compile(authorizedAddress)));
+        }
+        return new AuthorizedAddressMatcher(List.copyOf(addressMatchers));
+    }
+
+    /**
+     * @return true if no address is authorized, meaning that the role is not restricted by address
+     */
+    public boolean isEmpty() {
+        return addressMatchers.isEmpty();
+    }
+
+    /**
+     * @param userAddress address of the user
+     * @return true if the user address matches one of the authorized addresses
+     */
+    public boolean matches(String userAddress) {
+        if ((userAddress == null) || userAddress.isEmpty()) {
+            return false;
+        }
+        for (Predicate<String> addressMatcher : addressMatchers) {
+            if (addressMatcher.test(userAddress)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Predicate<String> compile(String authorizedAddress) {
+        Predicate<String> patternMatcher;
+        try {
+            Pattern pattern = Pattern.compile(authorizedAddress);
+            patternMatcher = userAddress -> pattern.matcher(userAddress).matches();
+        } catch (PatternSyntaxException e) {
+            LOGGER.error("Authorized address {} is not a valid regular expression", authorizedAddress, e);
+            patternMatcher = userAddress -> false;
+        }
+        if (CIDR_PATTERN.matcher(authorizedAddress).matches()) {
+            try {
+                return patternMatcher.or(cidrMatcher(new IpAddressMatcher(authorizedAddress)));
+            } catch (IllegalArgumentException e) {
+                LOGGER.debug("Authorized address {} is not a valid CIDR block", authorizedAddress);
+            }
+        }
+        return patternMatcher;
+    }
+
+    private static Predicate<String> cidrMatcher(IpAddressMatcher ipAddressMatcher) {
+        return userAddress -> {
+            try {
+                return ipAddressMatcher.matches(userAddress);
+            } catch (IllegalArgumentException e) {
+                // User address is not an IP address
+                return false;
+            }
+        };
+    }
+}
@@ -18,6 +18,9 @@
  */
 package fr.cnes.regards.framework.security.utils.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import fr.cnes.regards.framework.security.utils.jwt.exception.InvalidJwtException;
 import fr.cnes.regards.framework.security.utils.jwt.exception.JwtException;
 import fr.cnes.regards.framework.security.utils.jwt.exception.MissingClaimException;
@@ -33,8 +36,11 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Utility service based on JJWT library to generate or part a JWT based on a secret.
@@ -124,6 +130,24 @@ public class JWTService implements InitializingBean {
     @Value("${jwt.signing-key.RS512:}")
     private String keyForRS512;
 
+    /**
+     * Maximum number of verified tokens kept in cache. 0 disables the cache.
+     */
+    @Value("${jwt.verified-token-cache.max-size:10000}")
+    private long verifiedTokenCacheMaxSize = 10_000;
+
+    /**
+     * Maximum time in seconds a verified token is kept in cache, whatever its expiration date.
+     */
+    @Value("${jwt.verified-token-cache.max-ttl:300}")
+    private long verifiedTokenCacheMaxTtl = 300;
+
+    /**
+     * Claims of tokens whose signature has already been verified, by token hash.
+     * An entry never outlives the expiration date of its token.
+     */
+    private Cache<String, Claims> verifiedTokens;
+
     /**
      * Key resolver based on algorithm
      */
@@ -166,6 +190,12 @@ public class JWTService implements InitializingBean {
         if (StringUtils.hasText(keyForRS512)) {
             signingKeys.put(SignatureAlgorithm.RS512, keyForRS512);
         }
+        if (verifiedTokenCacheMaxSize > 0) {
+            verifiedTokens = Caffeine.newBuilder()
+                                     .maximumSize(verifiedTokenCacheMaxSize)
+                                     .expireAfter(new TokenExpiry(TimeUnit.SECONDS.toNanos(verifiedTokenCacheMaxTtl)))
+                                     .build();
+        }
     }
 
     /**
@@ -225,40 +255,27 @@ public class JWTService implements InitializingBean {
      */
     public JWTAuthentication parseToken(final JWTAuthentication authentication) throws JwtException {
 
-        Jws<Claims> claims;
-        try {
-            claims = Jwts.parserBuilder()
-                         .setSigningKeyResolver(getSigningKeyResolver())
-                         .build()
-                         .parseClaimsJws(authentication.getJwt());
-            // OK, trusted JWT parsed and validated
-        } catch (MalformedJwtException | IllegalArgumentException | SignatureException m) {
-            LOG.error("Failed to parse claims");
-            throw new InvalidJwtException(m);
-        } catch (ExpiredJwtException e) {
-            LOG.error("Expired token");
-            throw new JwtException(e);
-        }
+        Claims body = verifyToken(authentication.getJwt());
 
-        String tenant = claims.getBody().get(CLAIM_TENANT, String.class);
+        String tenant = body.get(CLAIM_TENANT, String.class);
         if (tenant == null) {
             LOG.error("The tenant cannot be null");
             throw new MissingClaimException(CLAIM_TENANT);
         }
 
-        String login = claims.getBody().getSubject();
+        String login = body.getSubject();
         if (login == null) {
             LOG.error("The subject cannot be null");
             throw new MissingClaimException(CLAIM_SUBJECT);
         }
 
-        String role = claims.getBody().get(CLAIM_ROLE, String.class);
+        String role = body.get(CLAIM_ROLE, String.class);
         if (role == null) {
             LOG.error("The role cannot be null");
             throw new MissingClaimException(CLAIM_ROLE);
         }
 
-        String email = claims.getBody().get(CLAIM_EMAIL, String.class);
+        String email = body.get(CLAIM_EMAIL, String.class);
         if (email == null) {
             LOG.error("The email cannot be null");
             throw new MissingClaimException(CLAIM_EMAIL);
@@ -267,17 +284,68 @@ public class JWTService implements InitializingBean {
         UserDetails userDetails = new UserDetails(tenant, email, login, role);
 
         // Try to retrieve access groups
-        List<String> accessGroups = claims.getBody().get(CLAIM_ACCESS_GROUPS, List.class);
+        List<String> accessGroups = body.get(CLAIM_ACCESS_GROUPS, List.class);
         if (accessGroups != null) {
             userDetails.withAccessGroups(new HashSet<>(accessGroups));
         }
 
         authentication.setUser(userDetails);
         authentication.setAuthenticated(Boolean.TRUE);
-        authentication.setAdditionalParams(claims.getBody());
+        // Cached claims are shared, give each authentication its own copy
+        authentication.setAdditionalParams(Jwts.claims(body));
         return authentication;
     }
 
+    /**
+     * Verify token signature and expiration then return its claims. Signature of a token already verified is not
+     * checked again until the token expires.
+     *
+     * @param jwt token
+     * @return trusted claims
+     * @throws JwtException Invalid JWT signature or expired token
+     */
+    private Claims verifyToken(String jwt) throws JwtException {
+        String tokenHash = verifiedTokens == null || jwt == null ? null : hash(jwt);
+        if (tokenHash != null) {
+            Claims claims = verifiedTokens.getIfPresent(tokenHash);
+            if (claims != null) {
+                return claims;
+            }
+        }
+        Claims claims;
+        try {
+            claims = Jwts.parserBuilder()
+                         .setSigningKeyResolver(getSigningKeyResolver())
+                         .build()
+                         .parseClaimsJws(jwt)
+                         .getBody();
+            // OK, trusted JWT parsed and validated
+        } catch (MalformedJwtException | IllegalArgumentException | SignatureException m) {
+            LOG.error("Failed to parse claims");
+            throw new InvalidJwtException(m);
+        } catch (ExpiredJwtException e) {
+            LOG.error("Expired token");
+            throw new JwtException(e);
+        }
+        if (tokenHash != null) {
+            verifiedTokens.put(tokenHash, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * Tokens are cached by hash so that no usable credential is kept in memory
+     */
+    private static String hash(String jwt) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(jwt.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is available in every JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * FIXME : JWT generate must manage RSA keys
      * <p>
@@ -467,6 +535,7 @@ public class JWTService implements InitializingBean {
      */
     protected void setSigningKeyFor(SignatureAlgorithm algorithm, String key) {
         signingKeys.put(algorithm, key);
+        invalidateVerifiedTokens();
     }
 
     /**
@@ -475,5 +544,47 @@ public class JWTService implements InitializingBean {
     public void setSecret(String secret) {
         signingKeys.put(SHORT_ALGO, secret);
         signingKeys.put(ALGO, secret);
+        invalidateVerifiedTokens();
+    }
+
+    /**
+     * Tokens verified with previous signing keys must be verified again
+     */
+    private void invalidateVerifiedTokens() {
+        if (verifiedTokens != null) {
+            verifiedTokens.invalidateAll();
+        }
+    }
+
+    /**
+     * Expire cached claims at token expiration date, or after max TTL if sooner
+     */
+    private static final class TokenExpiry implements Expiry<String, Claims> {
+
+        private final long maxTtlNanos;
+
+        private TokenExpiry(long maxTtlNanos) {
+            this.maxTtlNanos = maxTtlNanos;
+        }
+
+        @Override
+        public long expireAfterCreate(String tokenHash, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return maxTtlNanos;
+            }
+            long untilExpiration = TimeUnit.MILLISECONDS.toNanos(expiration.getTime() - System.currentTimeMillis());
+            return Math.max(0, Math.min(untilExpiration, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String tokenHash, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
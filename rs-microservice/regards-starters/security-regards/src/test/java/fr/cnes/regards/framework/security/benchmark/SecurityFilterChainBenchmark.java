@@ -0,0 +1,166 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.security.benchmark;
+
+import fr.cnes.regards.framework.security.annotation.ResourceAccess;
+import fr.cnes.regards.framework.security.endpoint.MethodAuthorizationService;
+import fr.cnes.regards.framework.security.filter.IPFilter;
+import fr.cnes.regards.framework.security.role.DefaultRole;
+import fr.cnes.regards.framework.security.utils.endpoint.AuthorizedAddressMatcher;
+import fr.cnes.regards.framework.security.utils.jwt.JWTAuthentication;
+import fr.cnes.regards.framework.security.utils.jwt.JWTService;
+import fr.cnes.regards.framework.security.utils.jwt.exception.JwtException;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the work done by the security filter chain on each secured request : token verification, endpoint
+ * authorization and IP filtering.<br/>
+ * Not run by the test phase, launch {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityFilterChainBenchmark {
+
+    private static final String TENANT = "PROJECT";
+
+    private static final String ROLE = DefaultRole.REGISTERED_USER.toString();
+
+    private static final String SECRET = "!!!!!==========abcdefghijklmnopqrstuvwxyz0123456789==========!!!!!";
+
+    private JWTService cachingJwtService;
+
+    private JWTService jwtService;
+
+    private String token;
+
+    private MethodAuthorizationService methodAuthorizationService;
+
+    private Method securedMethod;
+
+    private IPFilter ipFilter;
+
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        cachingJwtService = createJwtService(10_000);
+        jwtService = createJwtService(0);
+        token = jwtService.generateToken(TENANT, "user@regards.fr", ROLE);
+
+        AuthorizedAddressMatcher addressMatcher = AuthorizedAddressMatcher.of(List.of("10.0.0.0/8",
+                                                                                     "192.168.1.*",
+                                                                                     "127.0.0.1"));
+        methodAuthorizationService = new MethodAuthorizationService() {
+
+            @Override
+            public Optional<AuthorizedAddressMatcher> getAuthorizedAddressMatcher(String roleAuthorityName,
+                                                                                  String tenant) {
+                return Optional.of(addressMatcher);
+            }
+        };
+        methodAuthorizationService.setAuthorities(TENANT,
+                                                  "/search/entities",
+                                                  "SearchController",
+                                                  RequestMethod.GET,
+                                                  ROLE,
+                                                  DefaultRole.ADMIN.toString());
+        securedMethod = SearchController.class.getMethod("search");
+
+        ipFilter = new IPFilter(methodAuthorizationService, Collections.emptySet());
+        request = new MockHttpServletRequest("GET", "/search/entities");
+        request.setRemoteAddr("127.0.0.1");
+        SecurityContextHolder.getContext().setAuthentication(cachingJwtService.parseToken(new JWTAuthentication(token)));
+    }
+
+    private static JWTService createJwtService(long cacheMaxSize) throws Exception {
+        JWTService service = new JWTService();
+        ReflectionTestUtils.setField(service, "verifiedTokenCacheMaxSize", cacheMaxSize);
+        service.afterPropertiesSet();
+        service.setSecret(SECRET);
+        return service;
+    }
+
+    @Benchmark
+    public JWTAuthentication parseToken() throws JwtException {
+        return jwtService.parseToken(new JWTAuthentication(token));
+    }
+
+    @Benchmark
+    public JWTAuthentication parseVerifiedToken() throws JwtException {
+        return cachingJwtService.parseToken(new JWTAuthentication(token));
+    }
+
+    @Benchmark
+    public Boolean hasAccess() throws JwtException {
+        return methodAuthorizationService.hasAccess((JWTAuthentication) SecurityContextHolder.getContext()
+                                                                                             .getAuthentication(),
+                                                    securedMethod);
+    }
+
+    @Benchmark
+    public int ipFilter() throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ipFilter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    @Benchmark
+    public Boolean filterChain() throws JwtException, ServletException, IOException {
+        JWTAuthentication authentication = cachingJwtService.parseToken(new JWTAuthentication(token));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        ipFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return methodAuthorizationService.hasAccess(authentication, securedMethod);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SecurityFilterChainBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @RequestMapping("/search")
+    public static class SearchController {
+
+        @ResourceAccess(description = "Search entities", role = DefaultRole.REGISTERED_USER)
+        @RequestMapping(value = "/entities", method = RequestMethod.GET)
+        public Object search() {
+            return null;
+        }
+    }
+}
@@ -19,7 +19,7 @@
 package fr.cnes.regards.framework.security.filter;
 
 import fr.cnes.regards.framework.security.endpoint.MethodAuthorizationService;
-import fr.cnes.regards.framework.security.utils.endpoint.RoleAuthority;
+import fr.cnes.regards.framework.security.utils.endpoint.AuthorizedAddressMatcher;
 import fr.cnes.regards.framework.security.utils.jwt.JWTAuthentication;
 import fr.cnes.regards.framework.security.utils.jwt.UserDetails;
 import fr.cnes.regards.framework.test.report.annotation.Purpose;
@@ -99,11 +99,9 @@ public class IPFilterTest {
         final List<String> results = new ArrayList<>();
         results.add(AUTHORIZED_ADRESS);
 
-        final RoleAuthority roleAuth = new RoleAuthority(ROLE_NAME);
-        roleAuth.setAuthorizedIpAdresses(results);
-
         final MethodAuthorizationService service = Mockito.mock(MethodAuthorizationService.class);
-        Mockito.when(service.getRoleAuthority(ROLE_NAME, TENANT_NAME)).thenReturn(Optional.of(roleAuth));
+        Mockito.when(service.getAuthorizedAddressMatcher(ROLE_NAME, TENANT_NAME))
+               .thenReturn(Optional.of(AuthorizedAddressMatcher.of(results)));
 
         final IPFilter filter = new IPFilter(service, Collections.emptySet());
 
@@ -153,11 +151,9 @@ public class IPFilterTest {
         final List<String> results = new ArrayList<>();
         results.add(AUTHORIZED_ADRESS_PATTERN);
 
-        final RoleAuthority roleAuth = new RoleAuthority(ROLE_NAME);
-        roleAuth.setAuthorizedIpAdresses(results);
-
         final MethodAuthorizationService service = Mockito.mock(MethodAuthorizationService.class);
-        Mockito.when(service.getRoleAuthority(ROLE_NAME, TENANT_NAME)).thenReturn(Optional.of(roleAuth));
+        Mockito.when(service.getAuthorizedAddressMatcher(ROLE_NAME, TENANT_NAME))
+               .thenReturn(Optional.of(AuthorizedAddressMatcher.of(results)));
         final IPFilter filter = new IPFilter(service, Collections.emptySet());
 
         Mockito.when(mockedRequest.getRemoteAddr()).thenReturn(AUTHORIZED_ADRESS);
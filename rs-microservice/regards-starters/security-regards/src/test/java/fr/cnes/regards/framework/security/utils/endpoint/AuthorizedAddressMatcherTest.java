@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.security.utils.endpoint;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Test {@link AuthorizedAddressMatcher} with regular expressions and CIDR blocks
+ */
+public class AuthorizedAddressMatcherTest {
+
+    @Test
+    public void regularExpressionsMatchWholeAddress() {
+        AuthorizedAddressMatcher matcher = AuthorizedAddressMatcher.of(List.of("127.0.0.1", "192\\.168\\.1\\..*"));
+
+        Assert.assertFalse(matcher.isEmpty());
+        Assert.assertTrue(matcher.matches("127.0.0.1"));
+        Assert.assertTrue(matcher.matches("192.168.1.25"));
+        Assert.assertFalse(matcher.matches("127.0.0.10"));
+        Assert.assertFalse(matcher.matches("192.168.10.1"));
+        Assert.assertFalse(matcher.matches(""));
+        Assert.assertFalse(matcher.matches(null));
+    }
+
+    @Test
+    public void cidrBlocksMatchEveryAddressOfTheBlock() {
+        AuthorizedAddressMatcher matcher = AuthorizedAddressMatcher.of(List.of("10.0.0.0/8", "fe80::/64"));
+
+        Assert.assertTrue(matcher.matches("10.1.2.3"));
+        Assert.assertTrue(matcher.matches("fe80::1"));
+        Assert.assertFalse(matcher.matches("11.0.0.1"));
+        Assert.assertFalse(matcher.matches("localhost"));
+    }
+
+    @Test
+    public void invalidValuesNeverMatch() {
+        // Not a valid mask, still used as a regular expression
+        AuthorizedAddressMatcher matcher = AuthorizedAddressMatcher.of(List.of("10.0.0.0/40", "10.0.0.[", "10\\..*"));
+
+        Assert.assertTrue(matcher.matches("10.0.0.1"));
+        Assert.assertFalse(matcher.matches("11.0.0.1"));
+    }
+
+    @Test
+    public void noAuthorizedAddress() {
+        Assert.assertTrue(AuthorizedAddressMatcher.of(null).isEmpty());
+        Assert.assertTrue(AuthorizedAddressMatcher.of(List.of()).isEmpty());
+        Assert.assertFalse(AuthorizedAddressMatcher.of(List.of()).matches("127.0.0.1"));
+    }
+}
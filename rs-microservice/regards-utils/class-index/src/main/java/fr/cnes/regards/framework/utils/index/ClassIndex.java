@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.utils.index;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Index of annotated classes generated at compile time by {@link ClassIndexProcessor}.<br/>
+ * Each classpath root (jar or classes directory) built with the processor contains a {@link #LOCATION} resource
+ * listing :
+ * <ul>
+ *     <li>the types annotated with one of the indexed annotations : <code>@annotation=type</code>,</li>
+ *     <li>the sub types of indexed hierarchies : <code>baseType=subType</code>.</li>
+ * </ul>
+ * Classpath roots without index must still be scanned, see {@link ClassScanner}.
+ */
+public final class ClassIndex {
+
+    /**
+     * Location of the index in each classpath root
+     */
+    public static final String LOCATION = "META-INF/regards/class-index";
+
+    /**
+     * System property to ignore all indexes and scan the whole classpath
+     */
+    public static final String IGNORE_PROPERTY = "regards.class-index.ignore";
+
+    static final String ANNOTATED_PREFIX = "@";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClassIndex.class);
+
+    /**
+     * Indexed class names by annotation (prefixed by {@link #ANNOTATED_PREFIX}) or base type name
+     */
+    private final Map<String, Set<String>> entries;
+
+    /**
+     * Normalized locations of the classpath roots providing an index
+     */
+    private final Set<String> indexedRoots;
+
+    private ClassIndex(Map<String, Set<String>> entries, Set<String> indexedRoots) {
+        this.entries = entries;
+        this.indexedRoots = indexedRoots;
+    }
+
+    /**
+     * Merge all the indexes available from the given class loader
+     */
+    public static ClassIndex load(ClassLoader classLoader) {
+        Map<String, Set<String>> entries = new TreeMap<>();
+        Set<String> indexedRoots = new HashSet<>();
+        if (Boolean.getBoolean(IGNORE_PROPERTY)) {
+            LOGGER.info("Class indexes ignored, classpath will be scanned");
+            return new ClassIndex(entries, indexedRoots);
+        }
+        try {
+            Enumeration<URL> resources = classLoader.getResources(LOCATION);
+            while (resources.hasMoreElements()) {
+                URL resource = resources.nextElement();
+                try (Reader reader = new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8)) {
+                    ClassIndexFormat.read(reader).forEach((key, names) -> entries.computeIfAbsent(key, k -> new TreeSet<>())
+                                                                .addAll(names));
+                }
+                String location = resource.toExternalForm();
+                indexedRoots.add(normalize(location.substring(0, location.length() - LOCATION.length())));
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Class indexes cannot be read, classpath will be scanned", e);
+            return new ClassIndex(new TreeMap<>(), new HashSet<>());
+        }
+        return new ClassIndex(entries, indexedRoots);
+    }
+
+    /**
+     * @return names of the types annotated with the given annotation in indexed classpath roots
+     */
+    public Set<String> getAnnotatedTypes(String annotationName) {
+        return entries.getOrDefault(ANNOTATED_PREFIX + annotationName, Collections.emptySet());
+    }
+
+    /**
+     * @return names of the sub types of the given base type in indexed classpath roots. Only the hierarchies
+     * configured in {@link ClassIndexProcessor} are indexed.
+     */
+    public Set<String> getSubTypes(String baseTypeName) {
+        return entries.getOrDefault(baseTypeName, Collections.emptySet());
+    }
+
+    /**
+     * @param root classpath root, i.e. jar or classes directory
+     * @return true if the classpath root provides an index
+     */
+    public boolean isIndexed(URL root) {
+        return indexedRoots.contains(normalize(root.toExternalForm()));
+    }
+
+    public boolean isEmpty() {
+        return indexedRoots.isEmpty();
+    }
+
+    /**
+     * Make jar and directory locations comparable whatever the way they were computed
+     */
+    private static String normalize(String location) {
+        String normalized = location.startsWith("jar:") ? location.substring("jar:".length()) : location;
+        while (normalized.endsWith("/") || normalized.endsWith("!")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.utils.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Read and write {@link ClassIndex} files. Kept apart from {@link ClassIndex} so that the processor does not
+ * initialize logging in the compiler.
+ */
+final class ClassIndexFormat {
+
+    private static final String SEPARATOR = "=";
+
+    private static final String COMMENT = "#";
+
+    private ClassIndexFormat() {
+    }
+
+    static Map<String, Set<String>> read(Reader reader) throws IOException {
+        Map<String, Set<String>> entries = new TreeMap<>();
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            line = line.trim();
+            int separator = line.indexOf(SEPARATOR);
+            if (!line.isEmpty() && !line.startsWith(COMMENT) && (separator > 0)) {
+                entries.computeIfAbsent(line.substring(0, separator), k -> new TreeSet<>())
+                       .add(line.substring(separator + 1));
+            }
+        }
+        return entries;
+    }
+
+    static void write(Map<String, Set<String>> entries, Writer writer) throws IOException {
+        writer.write(COMMENT + " Generated by " + ClassIndexProcessor.class.getName() + ", do not edit\n");
+        for (Map.Entry<String, Set<String>> entry : entries.entrySet()) {
+            for (String name : entry.getValue()) {
+                writer.write(entry.getKey() + SEPARATOR + name + "\n");
+            }
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.utils.index;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Annotation processor writing the {@link ClassIndex} of the compiled module so that microservices do not have to scan
+ * the classpath on startup.<br/>
+ * Indexed annotations and hierarchies can be overridden with the <code>regards.index.annotations</code> and
+ * <code>regards.index.hierarchies</code> processor options (comma separated annotation names). Like runtime scanning,
+ * {@link java.lang.annotation.Inherited} annotations are taken into account but meta annotations are not.<br/>
+ * This processor only reads the compiled types and never claims their annotations.
+ */
+public class ClassIndexProcessor extends AbstractProcessor {
+
+    public static final String ANNOTATIONS_OPTION = "regards.index.annotations";
+
+    public static final String HIERARCHIES_OPTION = "regards.index.hierarchies";
+
+    /**
+     * Annotations looked for by runtime scanning : plugins, GSON adapters and REST controllers
+     */
+    public static final String DEFAULT_ANNOTATIONS = "fr.cnes.regards.framework.modules.plugins.annotations.Plugin,"
+                                                     + "fr.cnes.regards.framework.modules.plugins.annotations.PluginInterface,"
+                                                     + "fr.cnes.regards.framework.gson.annotation.Gsonable,"
+                                                     + "fr.cnes.regards.framework.gson.annotation.GsonTypeAdapter,"
+                                                     + "fr.cnes.regards.framework.gson.annotation.GsonTypeAdapterFactory,"
+                                                     + "org.springframework.web.bind.annotation.RestController";
+
+    /**
+     * Base types whose sub types are looked for by runtime scanning : GSON polymorphic hierarchies
+     */
+    public static final String DEFAULT_HIERARCHIES = "fr.cnes.regards.framework.gson.annotation.Gsonable";
+
+    private final Map<String, Set<String>> entries = new TreeMap<>();
+
+    /**
+     * Binary names of the types compiled by this processing
+     */
+    private final Set<String> processedTypes = new HashSet<>();
+
+    private Set<String> annotations;
+
+    private Set<String> hierarchies;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton("*");
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Set.of(ANNOTATIONS_OPTION, HIERARCHIES_OPTION);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotationTypes, RoundEnvironment roundEnv) {
+        if (annotations == null) {
+            annotations = parseOption(ANNOTATIONS_OPTION, DEFAULT_ANNOTATIONS);
+            hierarchies = parseOption(HIERARCHIES_OPTION, DEFAULT_HIERARCHIES);
+        }
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            index(type);
+        }
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private Set<String> parseOption(String option, String defaultValue) {
+        String value = processingEnv.getOptions().getOrDefault(option, defaultValue);
+        return Arrays.stream(value.split(",")).map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.toSet());
+    }
+
+    private void index(TypeElement type) {
+        String name = processingEnv.getElementUtils().getBinaryName(type).toString();
+        processedTypes.add(name);
+        // Inherited annotations are returned as well
+        for (AnnotationMirror annotation : processingEnv.getElementUtils().getAllAnnotationMirrors(type)) {
+            String annotationName = ((TypeElement) annotation.getAnnotationType()
+                                                             .asElement()).getQualifiedName().toString();
+            if (annotations.contains(annotationName)) {
+                add(ClassIndex.ANNOTATED_PREFIX + annotationName, name);
+            }
+        }
+        indexSubType(name, type, new HashSet<>());
+        // Nested types are not root elements
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            index(nested);
+        }
+    }
+
+    /**
+     * Register the type as sub type of each of its super types rooting an indexed hierarchy
+     */
+    private void indexSubType(String name, TypeElement type, Set<String> visited) {
+        for (TypeMirror superType : processingEnv.getTypeUtils().directSupertypes(type.asType())) {
+            if (superType instanceof DeclaredType declaredType) {
+                TypeElement superElement = (TypeElement) declaredType.asElement();
+                String superName = processingEnv.getElementUtils().getBinaryName(superElement).toString();
+                if (visited.add(superName)) {
+                    for (AnnotationMirror annotation : superElement.getAnnotationMirrors()) {
+                        String annotationName = ((TypeElement) annotation.getAnnotationType()
+                                                                         .asElement()).getQualifiedName().toString();
+                        if (hierarchies.contains(annotationName)) {
+                            add(superName, name);
+                        }
+                    }
+                    indexSubType(name, superElement, visited);
+                }
+            }
+        }
+    }
+
+    private void add(String key, String name) {
+        entries.computeIfAbsent(key, k -> new TreeSet<>()).add(name);
+    }
+
+    private void writeIndex() {
+        Map<String, Set<String>> index = readPreviousIndex();
+        entries.forEach((key, names) -> index.computeIfAbsent(key, k -> new TreeSet<>()).addAll(names));
+        // Index is written even if empty so that the module is known as indexed and never scanned
+        try {
+            FileObject resource = processingEnv.getFiler()
+                                               .createResource(StandardLocation.CLASS_OUTPUT, "", ClassIndex.LOCATION);
+            try (Writer writer = resource.openWriter()) {
+                ClassIndexFormat.write(index, writer);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager()
+                         .printMessage(Diagnostic.Kind.ERROR, "Unable to write class index : " + e.getMessage());
+        }
+    }
+
+    /**
+     * On incremental compilation only part of the module is processed : keep the previous entries of the types that
+     * were not recompiled and still exist.
+     */
+    private Map<String, Set<String>> readPreviousIndex() {
+        Map<String, Set<String>> previous;
+        try {
+            FileObject resource = processingEnv.getFiler()
+                                               .getResource(StandardLocation.CLASS_OUTPUT, "", ClassIndex.LOCATION);
+            try (Reader reader = resource.openReader(true)) {
+                previous = ClassIndexFormat.read(reader);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // No previous index
+            return new TreeMap<>();
+        }
+        previous.values()
+                .forEach(names -> names.removeIf(name -> processedTypes.contains(name) || (
+                    processingEnv.getElementUtils().getTypeElement(name.replace('$', '.')) == null)));
+        previous.values().removeIf(Set::isEmpty);
+        return previous;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.utils.index;
+
+import org.reflections.Reflections;
+import org.reflections.util.ConfigurationBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Look for annotated classes and sub types in the given packages.<br/>
+ * Classes of classpath roots providing a {@link ClassIndex} are read from the index, the other classpath roots are
+ * scanned with {@link Reflections}. So a classpath fully built with {@link ClassIndexProcessor} is never scanned.
+ */
+public final class ClassScanner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClassScanner.class);
+
+    private final List<String> packages;
+
+    private final ClassLoader classLoader;
+
+    private final ClassIndex index;
+
+    /**
+     * Scanner of classpath roots without index, null if all roots are indexed
+     */
+    private final Reflections reflections;
+
+    private ClassScanner(List<String> packages, ClassLoader classLoader) {
+        this.packages = packages;
+        this.classLoader = classLoader;
+        this.index = ClassIndex.load(classLoader);
+
+        ConfigurationBuilder configuration = ConfigurationBuilder.build(packages.toArray(new Object[0]));
+        Set<URL> unindexedRoots = configuration.getUrls()
+                                               .stream()
+                                               .filter(root -> !index.isIndexed(root))
+                                               .collect(Collectors.toSet());
+        if (unindexedRoots.isEmpty()) {
+            LOGGER.info("Classes of package(s) {} loaded from class index", packages);
+            this.reflections = null;
+        } else {
+            LOGGER.info("Scanning {} classpath root(s) without class index for package(s) {}",
+                        unindexedRoots.size(),
+                        packages);
+            LOGGER.debug("Classpath roots without class index : {}", unindexedRoots);
+            configuration.setUrls(unindexedRoots);
+            this.reflections = new Reflections(configuration);
+        }
+    }
+
+    /**
+     * @param packages packages to look into
+     */
+    public static ClassScanner of(List<String> packages) {
+        return new ClassScanner(packages, Thread.currentThread().getContextClassLoader());
+    }
+
+    /**
+     * Equivalent to {@link Reflections#getTypesAnnotatedWith(Class, boolean)} honoring inherited annotations
+     */
+    public Set<Class<?>> getTypesAnnotatedWith(Class<? extends Annotation> annotation) {
+        Set<Class<?>> types = loadClasses(index.getAnnotatedTypes(annotation.getName()));
+        if (reflections != null) {
+            types.addAll(reflections.getTypesAnnotatedWith(annotation, true));
+        }
+        return types;
+    }
+
+    /**
+     * Equivalent to {@link Reflections#getSubTypesOf(Class)}. Only sub types of hierarchies indexed by
+     * {@link ClassIndexProcessor} are found in the index.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Set<Class<? extends T>> getSubTypesOf(Class<T> type) {
+        Set<Class<? extends T>> subTypes = new HashSet<>();
+        for (Class<?> subType : loadClasses(index.getSubTypes(type.getName()))) {
+            subTypes.add((Class<? extends T>) subType);
+        }
+        if (reflections != null) {
+            subTypes.addAll(reflections.getSubTypesOf(type));
+        }
+        return subTypes;
+    }
+
+    private Set<Class<?>> loadClasses(Collection<String> names) {
+        Set<Class<?>> classes = new HashSet<>();
+        for (String name : names) {
+            if (packages.stream().anyMatch(p -> name.startsWith(p + "."))) {
+                try {
+                    classes.add(Class.forName(name, false, classLoader));
+                } catch (ClassNotFoundException | LinkageError e) {
+                    LOGGER.warn("Indexed class {} cannot be loaded, it is ignored : {}", name, e.getMessage());
+                }
+            }
+        }
+        return classes;
+    }
+}
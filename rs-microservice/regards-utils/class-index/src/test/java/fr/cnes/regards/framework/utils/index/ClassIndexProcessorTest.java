@@ -0,0 +1,162 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.framework.utils.index;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Test {@link ClassIndexProcessor} output and {@link ClassScanner} lookups with and without index. Lookups must match
+ * {@link org.reflections.Reflections} ones.
+ */
+public class ClassIndexProcessorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path sources;
+
+    private Path classes;
+
+    @Before
+    public void init() throws IOException {
+        sources = folder.newFolder("sources").toPath();
+        classes = folder.newFolder("classes").toPath();
+        source("Indexed", "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME) "
+                          + "@java.lang.annotation.Inherited public @interface Indexed {}");
+        source("Hierarchy", "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME) "
+                            + "public @interface Hierarchy {}");
+        source("Meta", "@java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME) "
+                       + "@Indexed public @interface Meta {}");
+        source("Base", "@Hierarchy public interface Base {}");
+        source("Plugin", "@Indexed public class Plugin implements Base { public static class Inner extends Plugin {} }");
+        source("MetaPlugin", "@Meta public class MetaPlugin {}");
+        source("Other", "public class Other {}");
+    }
+
+    @Test
+    public void index_annotated_types_and_hierarchies() throws Exception {
+        // When
+        compile("Indexed", "Hierarchy", "Meta", "Base", "Plugin", "MetaPlugin", "Other");
+
+        // Then
+        List<String> index = Files.readAllLines(classes.resolve(ClassIndex.LOCATION));
+        Assert.assertTrue(index.contains("@sample.Indexed=sample.Plugin"));
+        Assert.assertTrue("Inherited annotation must be indexed", index.contains("@sample.Indexed=sample.Plugin$Inner"));
+        Assert.assertTrue(index.contains("@sample.Indexed=sample.Meta"));
+        Assert.assertFalse("Meta annotations are not followed", index.contains("@sample.Indexed=sample.MetaPlugin"));
+        Assert.assertTrue(index.contains("sample.Base=sample.Plugin"));
+        Assert.assertTrue("Sub types are transitive", index.contains("sample.Base=sample.Plugin$Inner"));
+        Assert.assertFalse(index.stream().anyMatch(line -> line.endsWith("=sample.Other")));
+
+        assertScannedTypes();
+    }
+
+    @Test
+    public void keep_entries_on_incremental_compilation() throws Exception {
+        // Given
+        compile("Indexed", "Hierarchy", "Meta", "Base", "Plugin", "MetaPlugin", "Other");
+
+        // When
+        compile("Other");
+
+        // Then
+        List<String> index = Files.readAllLines(classes.resolve(ClassIndex.LOCATION));
+        Assert.assertTrue(index.contains("@sample.Indexed=sample.Plugin"));
+        Assert.assertTrue(index.contains("sample.Base=sample.Plugin$Inner"));
+    }
+
+    @Test
+    public void scan_classpath_without_index() throws Exception {
+        // Given
+        compile("Indexed", "Hierarchy", "Meta", "Base", "Plugin", "MetaPlugin", "Other");
+
+        // When
+        Files.delete(classes.resolve(ClassIndex.LOCATION));
+
+        // Then
+        assertScannedTypes();
+    }
+
+    private void assertScannedTypes() throws Exception {
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] { classes.toUri().toURL() },
+                                                             contextClassLoader)) {
+            Thread.currentThread().setContextClassLoader(classLoader);
+            ClassScanner scanner = ClassScanner.of(List.of("sample"));
+            @SuppressWarnings("unchecked")
+            Class<? extends Annotation> indexed = (Class<? extends Annotation>) classLoader.loadClass("sample.Indexed");
+            Assert.assertEquals(Set.of("sample.Plugin", "sample.Plugin$Inner", "sample.Meta"),
+                                names(scanner.getTypesAnnotatedWith(indexed)));
+            Assert.assertEquals(Set.of("sample.Plugin", "sample.Plugin$Inner"),
+                                names(scanner.getSubTypesOf(classLoader.loadClass("sample.Base"))));
+        } finally {
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    private static Set<String> names(Set<? extends Class<?>> types) {
+        return types.stream().map(Class::getName).collect(Collectors.toSet());
+    }
+
+    private void source(String name, String content) throws IOException {
+        Path file = sources.resolve(name + ".java");
+        Files.writeString(file, "package sample; " + content, StandardCharsets.UTF_8);
+    }
+
+    private void compile(String... names) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            List<File> files = new ArrayList<>();
+            for (String name : names) {
+                files.add(sources.resolve(name + ".java").toFile());
+            }
+            Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromFiles(files);
+            List<String> options = List.of("-d",
+                                           classes.toString(),
+                                           "-classpath",
+                                           classes.toString(),
+                                           "-A" + ClassIndexProcessor.ANNOTATIONS_OPTION + "=sample.Indexed",
+                                           "-A" + ClassIndexProcessor.HIERARCHIES_OPTION + "=sample.Hierarchy");
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, units);
+            task.setProcessors(List.of(new ClassIndexProcessor()));
+            Assert.assertTrue("Compilation failed", task.call());
+        }
+    }
+}
@@ -32,11 +32,9 @@ import fr.cnes.regards.framework.modules.plugins.dto.PluginConfigurationDto;
 import fr.cnes.regards.framework.modules.plugins.dto.PluginMetaData;
 import fr.cnes.regards.framework.modules.plugins.dto.PluginParamDescriptor;
 import fr.cnes.regards.framework.modules.plugins.dto.parameter.parameter.IPluginParam;
+import fr.cnes.regards.framework.utils.index.ClassScanner;
 import fr.cnes.regards.framework.utils.plugins.bean.PluginUtilsBean;
 import fr.cnes.regards.framework.utils.plugins.exception.NotAvailablePluginConfigurationException;
-import org.reflections.Configuration;
-import org.reflections.Reflections;
-import org.reflections.util.ConfigurationBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -120,27 +118,31 @@ public final class PluginUtils {
         PluginParameterTransformer.setup(gson);
 
         LOGGER.info("{} Loading plugins...", HR);
-        // Initialize reflection tool
-        Reflections reflections;
+        // Initialize class scanner : indexed classes are not scanned
+        List<String> packages;
         if ((reflectionPackages == null) || reflectionPackages.isEmpty()) {
-            String defaultPackage = "fr.cnes.regards";
-            LOGGER.info("System will look for plugins in default package: {}", defaultPackage);
-            reflections = new Reflections(defaultPackage);
+            packages = Collections.singletonList("fr.cnes.regards");
+            LOGGER.info("System will look for plugins in default package: {}", packages.get(0));
         } else {
+            packages = reflectionPackages;
             StringJoiner customPackages = new StringJoiner(",");
             reflectionPackages.forEach(customPackages::add);
             LOGGER.info("System will look for plugins in custom package(s): {}", customPackages);
-            Configuration configuration = ConfigurationBuilder.build(reflectionPackages.toArray(new Object[0]));
-            reflections = new Reflections(configuration);
         }
+        long start = System.currentTimeMillis();
+        ClassScanner scanner = ClassScanner.of(packages);
 
         // Initialize plugin interfaces
         pluginInterfaceCache = new HashSet<>();
-        Set<Class<?>> annotatedPlugins = reflections.getTypesAnnotatedWith(PluginInterface.class, true);
+        Set<Class<?>> annotatedPlugins = scanner.getTypesAnnotatedWith(PluginInterface.class);
         annotatedPlugins.forEach(i -> pluginInterfaceCache.add(i.getCanonicalName()));
 
         // Initialize plugins
-        pluginCache = reflections.getTypesAnnotatedWith(Plugin.class, true);
+        pluginCache = scanner.getTypesAnnotatedWith(Plugin.class);
+        LOGGER.info("{} plugin interfaces and {} plugins found in {}ms",
+                    pluginInterfaceCache.size(),
+                    pluginCache.size(),
+                    System.currentTimeMillis() - start);
 
         // Initialize plugin metadata map
         pluginMetadataCache = new ConcurrentHashMap<>();
@@ -276,7 +276,8 @@ public abstract class AbstractOrderControllerIT extends AbstractRegardsIT {
 
         Mockito.when(searchClient.searchDataObjects(Mockito.any())).thenAnswer(invocationOnMock -> {
             ComplexSearchRequest cSR = invocationOnMock.getArgument(0, ComplexSearchRequest.class);
-            int page = cSR == null ? 0 : cSR.getPage();
+            // Searches are done with search after, all features are in the first page
+            int page = (cSR == null) || (cSR.getSearchAfter() == null) ? 0 : 1;
             return new ResponseEntity<>(new FacettedPagedModel<>(new HashSet<>(),
                                                                  page == 0 ?
                                                                      Lists.newArrayList(EntityModel.of(feat1),
@@ -40,6 +40,7 @@ import fr.cnes.regards.modules.order.domain.basket.BasketDatasetSelection;
 import fr.cnes.regards.modules.order.domain.basket.DataTypeSelection;
 import fr.cnes.regards.modules.order.dto.dto.FileSelectionDescriptionDto;
 import fr.cnes.regards.modules.order.dto.dto.OrderStatus;
+import fr.cnes.regards.modules.order.exception.CatalogSearchRuntimeException;
 import fr.cnes.regards.modules.order.service.processing.IOrderProcessingService;
 import fr.cnes.regards.modules.order.service.utils.BasketSelectionPageSearch;
 import fr.cnes.regards.modules.order.service.utils.FileSelectionDescriptionValidator;
@@ -59,11 +60,11 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.HttpServerErrorException;
 
 import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 import static fr.cnes.regards.modules.order.service.utils.LogUtils.ORDER_ID_LOG_KEY;
 
@@ -349,50 +350,61 @@ public class OrderCreationService implements IOrderCreationService {
                                                                   storageBucketFiles,
                                                                   externalBucketFiles);
 
-        // Execute opensearch request
+        // Execute opensearch request. Pages are fetched with a search after cursor so that deep pages cost as much as
+        // the first one, and the next page is fetched while features of the current one are dispatched into buckets.
         List<EntityFeature> features;
-        int page = 0;
-        do {
-            try {
-                FeignSecurityManager.asUser(owner, role);
-                features = basketSelectionPageSearch.searchDataObjects(dsSel, page);
-            } catch (HttpClientErrorException | HttpServerErrorException e) {
-                LOGGER.error("Cannot retrieve features ", e);
-                throw new ModuleException(e.getMessage());
-            } finally {
-                FeignSecurityManager.reset();
-            }
-            // For each DataObject
-            for (EntityFeature feature : features) {
-                dispatchFeatureFilesInBuckets(order, feature, storageBucketFiles, externalBucketFiles, dsSel);
-
-                // If sum of files size > storageBucketSize, add a new bucket
-                if ((storageBucketFiles.size() >= MAX_BUCKET_FILE_COUNT) || suborderSizeCounter.storageBucketTooBig(
-                    storageBucketFiles)) {
-                    orderCounts.addToInternalFilesCount(storageBucketFiles.size());
-                    orderCounts.addTotalFileSizeOf(storageBucketFiles);
-                    orderCounts.addJobInfoId(orderHelperService.createStorageSubOrderAndStoreDataFiles(dsTask,
-                                                                                                       storageBucketFiles,
-                                                                                                       order,
-                                                                                                       subOrderDuration,
-                                                                                                       role,
-                                                                                                       priority));
-                    orderCounts.incrInternalSubOrderCount();
-                    storageBucketFiles.clear();
+        CompletableFuture<List<EntityFeature>> nextPage = basketSelectionPageSearch.prefetchDataObjectsAfter(dsSel,
+                                                                                                             null,
+                                                                                                             owner,
+                                                                                                             role);
+        try {
+            do {
+                features = waitForPage(nextPage);
+                // Pages may be smaller than asked before the last one (catalog page size limit, data objects without
+                // content), so search goes on until an empty page
+                if (!features.isEmpty()) {
+                    nextPage = basketSelectionPageSearch.prefetchDataObjectsAfter(dsSel,
+                                                                                  features.get(features.size() - 1)
+                                                                                          .getId()
+                                                                                          .toString(),
+                                                                                  owner,
+                                                                                  role);
                 }
-                // If external bucket files count > MAX_EXTERNAL_BUCKET_FILE_COUNT, add a new bucket
-                if ((externalBucketFiles.size() >= MAX_BUCKET_FILE_COUNT) || suborderSizeCounter.externalBucketTooBig(
-                    externalBucketFiles)) {
-                    orderCounts.addToExternalFilesCount(externalBucketFiles.size());
-                    orderCounts.addTotalFileSizeOf(externalBucketFiles);
-                    orderHelperService.createExternalSubOrder(dsTask, externalBucketFiles, order);
-                    orderCounts.incrExternalSubOrderCount();
-                    externalBucketFiles.clear();
+                // For each DataObject
+                for (EntityFeature feature : features) {
+                    dispatchFeatureFilesInBuckets(order, feature, storageBucketFiles, externalBucketFiles, dsSel);
+
+                    // If sum of files size > storageBucketSize, add a new bucket
+                    if ((storageBucketFiles.size() >= MAX_BUCKET_FILE_COUNT)
+                        || suborderSizeCounter.storageBucketTooBig(storageBucketFiles)) {
+                        orderCounts.addToInternalFilesCount(storageBucketFiles.size());
+                        orderCounts.addTotalFileSizeOf(storageBucketFiles);
+                        orderCounts.addJobInfoId(orderHelperService.createStorageSubOrderAndStoreDataFiles(dsTask,
+                                                                                                           storageBucketFiles,
+                                                                                                           order,
+                                                                                                           subOrderDuration,
+                                                                                                           role,
+                                                                                                           priority));
+                        orderCounts.incrInternalSubOrderCount();
+                        storageBucketFiles.clear();
+                    }
+                    // If external bucket files count > MAX_EXTERNAL_BUCKET_FILE_COUNT, add a new bucket
+                    if ((externalBucketFiles.size() >= MAX_BUCKET_FILE_COUNT)
+                        || suborderSizeCounter.externalBucketTooBig(externalBucketFiles)) {
+                        orderCounts.addToExternalFilesCount(externalBucketFiles.size());
+                        orderCounts.addTotalFileSizeOf(externalBucketFiles);
+                        orderHelperService.createExternalSubOrder(dsTask, externalBucketFiles, order);
+                        orderCounts.incrExternalSubOrderCount();
+                        externalBucketFiles.clear();
+                    }
                 }
-            }
-            orderCounts.addFeaturesCount(features.size());
-            page++;
-        } while (!features.isEmpty());
+                orderCounts.addFeaturesCount(features.size());
+            } while (!features.isEmpty());
+        } finally {
+            // If dispatch failed, a search not started yet is skipped. A running one is not interrupted, its result is
+            // just dropped.
+            nextPage.cancel(false);
+        }
         // Manage remaining files on each type of buckets
         if (!storageBucketFiles.isEmpty()) {
             orderCounts.addToInternalFilesCount(storageBucketFiles.size());
@@ -423,6 +435,25 @@ public class OrderCreationService implements IOrderCreationService {
         return OrderCounts.add(orderCountsGlobal, orderCounts);
     }
 
+    /**
+     * Wait for a page of features searched by {@link BasketSelectionPageSearch#prefetchDataObjectsAfter}
+     */
+    private List<EntityFeature> waitForPage(CompletableFuture<List<EntityFeature>> page) throws ModuleException {
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ModuleException("Interrupted while retrieving features", e);
+        } catch (ExecutionException e) {
+            LOGGER.error("Cannot retrieve features ", e.getCause());
+            if (e.getCause() instanceof CatalogSearchRuntimeException && e.getCause()
+                                                                          .getCause() instanceof ModuleException moduleException) {
+                throw moduleException;
+            }
+            throw new ModuleException(e.getCause().getMessage());
+        }
+    }
+
     /**
      * Dispatch {@link DataFile}s of given {@link EntityFeature} into internal or external buckets.
      */
@@ -18,7 +18,10 @@
  */
 package fr.cnes.regards.modules.order.service.utils;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import fr.cnes.regards.framework.feign.security.FeignSecurityManager;
 import fr.cnes.regards.framework.module.rest.exception.ModuleException;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
 import fr.cnes.regards.modules.dam.domain.entities.feature.EntityFeature;
 import fr.cnes.regards.modules.order.domain.basket.BasketDatasetSelection;
 import fr.cnes.regards.modules.order.exception.CatalogSearchException;
@@ -26,6 +29,11 @@ import fr.cnes.regards.modules.order.exception.CatalogSearchRuntimeException;
 import fr.cnes.regards.modules.order.service.BasketService;
 import fr.cnes.regards.modules.search.client.IComplexSearchClient;
 import fr.cnes.regards.modules.search.domain.plugin.legacy.FacettedPagedModel;
+import fr.cnes.regards.modules.search.dto.ComplexSearchRequest;
+import jakarta.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.http.ResponseEntity;
@@ -36,6 +44,10 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * This class is a helper to query ES in OrderService and OrderProcessingService.
@@ -45,22 +57,89 @@ import java.util.NoSuchElementException;
  * @author Guillaume Andrieu
  */
 @Component
-public class BasketSelectionPageSearch {
+public class BasketSelectionPageSearch implements DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BasketSelectionPageSearch.class);
 
     private final Integer dataObjectsPageSize;
 
     private final IComplexSearchClient searchClient;
 
+    private final IRuntimeTenantResolver runtimeTenantResolver;
+
+    /**
+     * Executor used to fetch the next page of data objects while the current one is handled. Each order creation
+     * prefetches at most one page at a time, so its size bounds the number of orders prefetching in parallel.
+     */
+    private final ExecutorService prefetchExecutor;
+
     public BasketSelectionPageSearch(@Value("${regards.order.batch.size:10000}") Integer dataObjectsPageSize,
-                                     IComplexSearchClient searchClient) {
+                                     @Value("${regards.order.search.prefetch.threads:4}") int prefetchThreads,
+                                     IComplexSearchClient searchClient,
+                                     IRuntimeTenantResolver runtimeTenantResolver) {
         this.dataObjectsPageSize = dataObjectsPageSize;
         this.searchClient = searchClient;
+        this.runtimeTenantResolver = runtimeTenantResolver;
+        ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("order-search-prefetch-%d")
+                                                                .setDaemon(true)
+                                                                .build();
+        this.prefetchExecutor = Executors.newFixedThreadPool(prefetchThreads, threadFactory);
     }
 
-    public List<EntityFeature> searchDataObjects(BasketDatasetSelection dsSel, int page) throws CatalogSearchException {
+    @Override
+    public void destroy() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    /**
+     * Search the page of data objects following the given one. Pages are not searched by number so the cost of each
+     * search does not depend on how deep the page is in the selection.
+     *
+     * @param lastEntityId URN of the last data object of the previous page, null for the first page
+     */
+    public List<EntityFeature> searchDataObjectsAfter(BasketDatasetSelection dsSel, @Nullable String lastEntityId)
+        throws CatalogSearchException {
+        ComplexSearchRequest request = BasketService.buildSearchRequest(dsSel, 0, dataObjectsPageSize);
+        request.setSearchAfter(lastEntityId);
+        return searchDataObjects(request);
+    }
+
+    /**
+     * Asynchronously search the page of data objects following the given one, as the given user, so that it can be
+     * retrieved while the previous one is handled.
+     *
+     * @param lastEntityId URN of the last data object of the previous page, null for the first page
+     * @see #searchDataObjectsAfter(BasketDatasetSelection, String)
+     */
+    public CompletableFuture<List<EntityFeature>> prefetchDataObjectsAfter(BasketDatasetSelection dsSel,
+                                                                           @Nullable String lastEntityId,
+                                                                           String user,
+                                                                           String role) {
+        String tenant = runtimeTenantResolver.getTenant();
+        return CompletableFuture.supplyAsync(() -> {
+            runtimeTenantResolver.forceTenant(tenant);
+            FeignSecurityManager.asUser(user, role);
+            try {
+                long start = System.currentTimeMillis();
+                List<EntityFeature> features = searchDataObjectsAfter(dsSel, lastEntityId);
+                LOGGER.debug("{} data objects of dataset {} retrieved in {}ms",
+                             features.size(),
+                             dsSel.getDatasetIpid(),
+                             System.currentTimeMillis() - start);
+                return features;
+            } catch (CatalogSearchException e) {
+                throw new CatalogSearchRuntimeException(e);
+            } finally {
+                FeignSecurityManager.reset();
+                runtimeTenantResolver.clearTenant();
+            }
+        }, prefetchExecutor);
+    }
+
+    private List<EntityFeature> searchDataObjects(ComplexSearchRequest searchRequest) throws CatalogSearchException {
         try {
             ResponseEntity<FacettedPagedModel<EntityModel<EntityFeature>>> pagedResourcesResponseEntity = searchClient.searchDataObjects(
-                BasketService.buildSearchRequest(dsSel, page, dataObjectsPageSize));
+                searchRequest);
             // It is mandatory to check NOW, at creation instant of order from basket, if data object files are still downloadable
             FacettedPagedModel<EntityModel<EntityFeature>> response = pagedResourcesResponseEntity.getBody();
             if (response != null) {
@@ -82,24 +161,32 @@ public class BasketSelectionPageSearch {
     public Iterable<List<EntityFeature>> pagedSearchDataObjects(BasketDatasetSelection dsSel) {
         return () -> new Iterator<>() {
 
-            int page = -1;
+            /**
+             * URN of the last data object returned, null before first search
+             */
+            String lastEntityId = null;
+
+            boolean firstSearch = true;
 
             boolean lastSearchYieldedEmpty = false;
 
             @Override
             public boolean hasNext() {
-                return (page < 0) || !lastSearchYieldedEmpty;
+                return firstSearch || !lastSearchYieldedEmpty;
             }
 
             @Override
             public List<EntityFeature> next() {
-                ++page;
-                if (lastSearchYieldedEmpty) {
+                if (!hasNext()) {
                     throw new NoSuchElementException();
                 }
+                firstSearch = false;
                 try {
-                    List<EntityFeature> entityFeatures = searchDataObjects(dsSel, page);
+                    List<EntityFeature> entityFeatures = searchDataObjectsAfter(dsSel, lastEntityId);
                     lastSearchYieldedEmpty = entityFeatures.isEmpty();
+                    if (!lastSearchYieldedEmpty) {
+                        lastEntityId = entityFeatures.get(entityFeatures.size() - 1).getId().toString();
+                    }
                     return entityFeatures;
                 } catch (ModuleException e) {
                     throw new CatalogSearchRuntimeException(e);
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.order.service.utils;
+
+import com.google.common.collect.Sets;
+import fr.cnes.regards.framework.multitenant.IRuntimeTenantResolver;
+import fr.cnes.regards.framework.oais.dto.urn.OAISIdentifier;
+import fr.cnes.regards.framework.urn.EntityType;
+import fr.cnes.regards.framework.urn.UniformResourceName;
+import fr.cnes.regards.modules.dam.domain.entities.feature.DataObjectFeature;
+import fr.cnes.regards.modules.dam.domain.entities.feature.EntityFeature;
+import fr.cnes.regards.modules.order.domain.basket.BasketDatasetSelection;
+import fr.cnes.regards.modules.search.client.IComplexSearchClient;
+import fr.cnes.regards.modules.search.domain.plugin.legacy.FacettedPagedModel;
+import fr.cnes.regards.modules.search.dto.ComplexSearchRequest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Test {@link BasketSelectionPageSearch} walks a dataset selection page after page with the search after criterion
+ */
+public class BasketSelectionPageSearchTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    private static final int NB_FEATURES = 25;
+
+    private final IComplexSearchClient searchClient = Mockito.mock(IComplexSearchClient.class);
+
+    private final IRuntimeTenantResolver runtimeTenantResolver = Mockito.mock(IRuntimeTenantResolver.class);
+
+    /**
+     * Features of the selection, sorted as the catalog sorts them (by URN)
+     */
+    private final List<EntityFeature> features = new ArrayList<>();
+
+    /**
+     * Search after criterion of each search, in search order
+     */
+    private final List<String> searchAfters = Collections.synchronizedList(new ArrayList<>());
+
+    private BasketSelectionPageSearch pageSearch;
+
+    private BasketDatasetSelection dsSel;
+
+    @Before
+    public void init() {
+        for (int i = 0; i < NB_FEATURES; i++) {
+            UniformResourceName urn = UniformResourceName.build(OAISIdentifier.AIP,
+                                                                EntityType.DATA,
+                                                                "ORDER",
+                                                                UUID.randomUUID(),
+                                                                1);
+            features.add(new DataObjectFeature(urn, "provider_" + i, "label_" + i));
+        }
+        features.sort(Comparator.comparing(feature -> feature.getId().toString()));
+
+        Mockito.when(searchClient.searchDataObjects(Mockito.any())).thenAnswer(invocation -> {
+            ComplexSearchRequest request = invocation.getArgument(0);
+            searchAfters.add(request.getSearchAfter());
+            List<EntityModel<EntityFeature>> page = features.stream()
+                                                            .filter(feature -> request.getSearchAfter() == null
+                                                                               || feature.getId()
+                                                                                         .toString()
+                                                                                         .compareTo(request.getSearchAfter())
+                                                                                  > 0)
+                                                            .limit(request.getSize())
+                                                            .map(EntityModel::of)
+                                                            .toList();
+            return ResponseEntity.ok(new FacettedPagedModel<>(Sets.newHashSet(),
+                                                              page,
+                                                              new PagedModel.PageMetadata(request.getSize(),
+                                                                                          0,
+                                                                                          NB_FEATURES)));
+        });
+
+        pageSearch = new BasketSelectionPageSearch(PAGE_SIZE, 2, searchClient, runtimeTenantResolver);
+        dsSel = new BasketDatasetSelection();
+        dsSel.setDatasetIpid("URN:AIP:DATASET:ORDER:" + UUID.randomUUID() + ":V1");
+    }
+
+    @After
+    public void cleanUp() {
+        pageSearch.destroy();
+    }
+
+    @Test
+    public void test_paged_search_crosses_page_boundaries() {
+        // WHEN
+        List<Integer> pageSizes = new ArrayList<>();
+        List<EntityFeature> searchedFeatures = new ArrayList<>();
+        for (List<EntityFeature> page : pageSearch.pagedSearchDataObjects(dsSel)) {
+            pageSizes.add(page.size());
+            searchedFeatures.addAll(page);
+        }
+
+        // THEN
+        // Each search starts after the last feature of the previous page, no feature is missed or returned twice
+        Assert.assertEquals(Arrays.asList(10, 10, 5, 0), pageSizes);
+        Assert.assertEquals(features, searchedFeatures);
+        Assert.assertEquals(Arrays.asList(null,
+                                          features.get(9).getId().toString(),
+                                          features.get(19).getId().toString(),
+                                          features.get(24).getId().toString()), searchAfters);
+    }
+
+    @Test
+    public void test_prefetch_crosses_page_boundaries() throws Exception {
+        Mockito.when(runtimeTenantResolver.getTenant()).thenReturn("tenant");
+
+        // WHEN
+        List<EntityFeature> searchedFeatures = new ArrayList<>();
+        String lastEntityId = null;
+        List<EntityFeature> page;
+        do {
+            page = pageSearch.prefetchDataObjectsAfter(dsSel, lastEntityId, "user", "role").get();
+            searchedFeatures.addAll(page);
+            if (!page.isEmpty()) {
+                lastEntityId = page.get(page.size() - 1).getId().toString();
+            }
+        } while (page.size() == PAGE_SIZE);
+
+        // THEN
+        Assert.assertEquals(features, searchedFeatures);
+        Assert.assertEquals(Arrays.asList(null,
+                                          features.get(9).getId().toString(),
+                                          features.get(19).getId().toString()), searchAfters);
+        // Searches are run with the tenant of the caller
+        Mockito.verify(runtimeTenantResolver, Mockito.times(3)).forceTenant("tenant");
+        Mockito.verify(runtimeTenantResolver, Mockito.times(3)).clearTenant();
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void test_no_prefetch_once_destroyed() {
+        pageSearch.destroy();
+        pageSearch.prefetchDataObjectsAfter(dsSel, null, "user", "role");
+    }
+}
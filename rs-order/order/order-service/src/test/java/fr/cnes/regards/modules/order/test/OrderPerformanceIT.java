@@ -71,7 +71,9 @@ import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static fr.cnes.regards.modules.order.service.OrderService.DEFAULT_CORRELATION_ID_FORMAT;
 
@@ -109,6 +111,11 @@ public class OrderPerformanceIT extends AbstractMultitenantServiceIT {
 
     private final static int MAX_PAGE = 5;
 
+    /**
+     * Page following each page, by id of its last entity (searches are done with search after)
+     */
+    private final Map<String, Integer> nextPageByLastEntityId = new ConcurrentHashMap<>();
+
     @Before
     public void init() {
         basketRepos.deleteAll();
@@ -124,7 +131,7 @@ public class OrderPerformanceIT extends AbstractMultitenantServiceIT {
 
         Mockito.when(searchClient.searchDataObjects(Mockito.any())).thenAnswer(invocation -> {
             ComplexSearchRequest r = invocation.getArgument(0);
-            int page = r.getPage();
+            int page = r.getSearchAfter() == null ? 0 : nextPageByLastEntityId.get(r.getSearchAfter());
             if (page < MAX_PAGE) {
                 try {
                     LOGGER.info("Getting page " + page + "....");
@@ -154,6 +161,7 @@ public class OrderPerformanceIT extends AbstractMultitenantServiceIT {
                         list.add(EntityModel.of(feature));
                         nbDataPerPage++;
                     } while (nbDataPerPage < r.getSize());
+                    nextPageByLastEntityId.put(list.get(list.size() - 1).getContent().getId().toString(), page + 1);
                     LOGGER.info("Getting page " + page + " done !");
                     return ResponseEntity.ok(new FacettedPagedModel<>(Sets.newHashSet(),
                                                                       list,
@@ -653,7 +653,7 @@ public class SearchClientMock implements IComplexSearchClient {
 
     @Override
     public ResponseEntity<FacettedPagedModel<EntityModel<EntityFeature>>> searchDataObjects(ComplexSearchRequest complexSearchRequest) {
-        if (complexSearchRequest.getPage() == 0) {
+        if (complexSearchRequest.getSearchAfter() == null) {
             try {
                 List<EntityModel<EntityFeature>> list = new ArrayList<>();
                 registerFilesIn("src/test/resources/files", list);
@@ -28,6 +28,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -74,9 +75,22 @@ public interface IFileCacheRequestRepository extends JpaRepository<FileCacheRequ
                              @Param("jobId") String jobId,
                              @Param("id") Long id);
 
-    @Query("select coalesce(sum(fcr.fileSize),0) from FileCacheRequest fcr where fcr.status = 'PENDING'")
+    /**
+     * Total size of files being restored in cache (requests in PENDING status), read from the storage location
+     * counters kept up to date by the database rather than computed from all requests.
+     */
+    @Query(value = "SELECT CAST(coalesce(sum(pending_cache_size), 0) AS int8) FROM {h-schema}t_storage_location_counter",
+           nativeQuery = true)
     Long getPendingFileSize();
 
+    Set<FileCacheRequest> findByChecksumIn(Collection<String> checksums);
+
+    @Modifying
+    @Query("update FileCacheRequest fcr set fcr.status = :status, fcr.jobId = :jobId where fcr.id in :ids")
+    int updateStatusAndJobId(@Param("status") FileRequestStatus status,
+                             @Param("jobId") String jobId,
+                             @Param("ids") Collection<Long> ids);
+
     @Modifying
     @Query(value = "DELETE FROM t_file_cache_request cac WHERE cac.status NOT IN :runningStatuses AND cac.id IN (SELECT grp.file_cache_request_id FROM ta_file_cache_request_group_id grp WHERE grp.group_id = :groupId )",
            nativeQuery = true)
@@ -19,8 +19,6 @@
 package fr.cnes.regards.modules.storage.dao;
 
 import fr.cnes.regards.modules.storage.domain.database.FileReference;
-import fr.cnes.regards.modules.storage.domain.database.StorageMonitoringAggregation;
-import fr.cnes.regards.modules.storage.domain.database.StoragePendingFilesAggregation;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -57,20 +55,6 @@ public interface IFileReferenceRepository
 
     Set<FileReference> findByMetaInfoChecksumIn(Collection<String> checksums);
 
-    @Query(
-        "SELECT fr.location.storage AS storage, sum(fr.metaInfo.fileSize) AS usedSize, count(1) AS numberOfFileReference, max(fr.id) AS lastFileReferenceId"
-        + " FROM FileReference fr GROUP BY fr.location.storage")
-    Collection<StorageMonitoringAggregation> getTotalFileSizeAggregation();
-
-    @Query(
-        "SELECT fr.location.storage AS storage, sum(fr.metaInfo.fileSize) AS usedSize, count(1) AS numberOfFileReference, max(fr.id) AS lastFileReferenceId"
-        + " FROM FileReference fr WHERE fr.id > :id GROUP BY fr.location.storage")
-    Collection<StorageMonitoringAggregation> getTotalFileSizeAggregation(@Param("id") Long FROMFileReferenceId);
-
-    @Query("SELECT fr.location.storage AS storage, count(1) AS numberOfPendingReferences"
-           + " FROM FileReference fr WHERE fr.location.pendingActionRemaining = true GROUP BY fr.location.storage")
-    Collection<StoragePendingFilesAggregation> getPendingFilesAggregation();
-
     @Query(value = "INSERT INTO ta_file_reference_owner(file_ref_id,owner) VALUES(:id, :owner)", nativeQuery = true)
     @Modifying
     void addOwner(@Param("id") Long id, @Param("owner") String owner);
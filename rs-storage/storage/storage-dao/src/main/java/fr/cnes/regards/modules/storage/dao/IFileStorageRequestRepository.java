@@ -92,6 +92,30 @@ public interface IFileStorageRequestRepository extends JpaRepository<FileStorage
 
     void deleteByStorage(String storageLocationId);
 
+    /**
+     * Delete the given requests with their owners and group ids in three statements. Large sets of ids must be
+     * partitioned by the caller as they are all bound in IN clauses.
+     */
+    default void deleteAllWithCollectionsByIdIn(Collection<Long> ids) {
+        deleteGroupIdsByRequestIdIn(ids);
+        deleteOwnersByRequestIdIn(ids);
+        deleteByIdIn(ids);
+    }
+
+    @Query(value = "DELETE FROM ta_storage_request_group_ids WHERE file_storage_request_id IN :ids",
+           nativeQuery = true)
+    @Modifying
+    void deleteGroupIdsByRequestIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "DELETE FROM ta_file_storage_request_owners WHERE file_storage_request_id IN :ids",
+           nativeQuery = true)
+    @Modifying
+    void deleteOwnersByRequestIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("DELETE FROM FileStorageRequestAggregation fsr WHERE fsr.id IN :ids")
+    @Modifying
+    void deleteByIdIn(@Param("ids") Collection<Long> ids);
+
     void deleteByStorageAndStatus(String storageLocationId, FileRequestStatus FileReferenceStatus);
 
     boolean existsByGroupIdsAndStatusNot(String groupId, FileRequestStatus error);
@@ -19,10 +19,14 @@
 package fr.cnes.regards.modules.storage.dao;
 
 import fr.cnes.regards.modules.storage.domain.database.StorageLocation;
+import fr.cnes.regards.modules.storage.domain.database.StorageLocationCounters;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -34,6 +38,14 @@ import java.util.Set;
 public interface IStorageLocationRepository
     extends JpaRepository<StorageLocation, Long>, JpaSpecificationExecutor<StorageLocation> {
 
+    String COUNTERS_SELECT = "SELECT storage, CAST(sum(nb_ref_files) AS int8) AS \"numberOfReferencedFiles\","
+                             + " CAST(sum(total_size) AS int8) AS \"totalSizeOfReferencedFiles\","
+                             + " CAST(sum(nb_pending_files) AS int8) AS \"numberOfPendingFiles\","
+                             + " CAST(sum(nb_storage_errors) AS int8) AS \"numberOfStorageErrors\","
+                             + " CAST(sum(nb_deletion_errors) AS int8) AS \"numberOfDeletionErrors\","
+                             + " CAST(sum(pending_cache_size) AS int8) AS \"pendingCacheSize\""
+                             + " FROM {h-schema}t_storage_location_counter";
+
     Optional<StorageLocation> findByName(String name);
 
     Set<StorageLocation> findByNumberOfPendingFilesGreaterThan(Long minimumNumberOfPendingFiles);
@@ -47,25 +59,43 @@ public interface IStorageLocationRepository
 
     void deleteByName(String name);
 
-    void deleteByPendingActionRemainingFalse();
+    /**
+     * Sum of the counter slots of each storage location. See {@link StorageLocationCounters}.
+     */
+    @Query(value = COUNTERS_SELECT + " GROUP BY storage", nativeQuery = true)
+    List<StorageLocationCounters> findAllCounters();
+
+    @Query(value = COUNTERS_SELECT + " WHERE storage = :storage GROUP BY storage", nativeQuery = true)
+    Optional<StorageLocationCounters> findCountersByStorage(@Param("storage") String storage);
 
     /**
-     * Reinitialize all storage location by :<ul>
-     * <li>Delete all location without pending remaining action</li>
-     * <li>Reset to 0 location with pending remaining action</li>
-     * </ul>
+     * Compute, for each storage location, the difference between the exact values read from file references and
+     * requests and the counters. Only storage locations with at least one wrong counter are returned.<br/>
+     * This query reads all file references, it should only be run by the periodic reconciliation.
      */
-    default void resetAll(OffsetDateTime resetDate) {
-        // First delete all location without any remaining information
-        deleteByPendingActionRemainingFalse();
-        // Then reset all other ones to initial state and keeping information about global remaining pending action.
-        // The remaining pending action does not rely on file reference associated so if if value is true, a pending
-        // action needs to be run and we cannot lose this information.
-        findAll().forEach(loc -> {
-            loc.setLastUpdateDate(resetDate);
-            loc.setNumberOfPendingFiles(0L);
-            loc.setNumberOfReferencedFiles(0L);
-            loc.setTotalSizeOfReferencedFilesInKo(0L);
-        });
-    }
+    @Query(value = "SELECT storage, nb_ref_files AS \"numberOfReferencedFiles\", total_size AS \"totalSizeOfReferencedFiles\","
+                   + " nb_pending_files AS \"numberOfPendingFiles\", nb_storage_errors AS \"numberOfStorageErrors\","
+                   + " nb_deletion_errors AS \"numberOfDeletionErrors\", pending_cache_size AS \"pendingCacheSize\""
+                   + " FROM {h-schema}storage_location_counter_drifts()",
+           nativeQuery = true)
+    List<StorageLocationCounters> findCounterDrifts();
+
+    /**
+     * Add the differences computed by {@link #findCounterDrifts()} to the counters so that they are exact again.
+     *
+     * @return number of corrected storage locations
+     */
+    @Modifying
+    @Query(value = "INSERT INTO {h-schema}t_storage_location_counter AS c"
+                   + " (storage, slot, nb_ref_files, total_size, nb_pending_files, nb_storage_errors, nb_deletion_errors,"
+                   + " pending_cache_size) SELECT storage, 0, nb_ref_files, total_size, nb_pending_files,"
+                   + " nb_storage_errors, nb_deletion_errors, pending_cache_size"
+                   + " FROM {h-schema}storage_location_counter_drifts() ORDER BY storage"
+                   + " ON CONFLICT (storage, slot) DO UPDATE SET nb_ref_files = c.nb_ref_files + excluded.nb_ref_files,"
+                   + " total_size = c.total_size + excluded.total_size,"
+                   + " nb_pending_files = c.nb_pending_files + excluded.nb_pending_files,"
+                   + " nb_storage_errors = c.nb_storage_errors + excluded.nb_storage_errors,"
+                   + " nb_deletion_errors = c.nb_deletion_errors + excluded.nb_deletion_errors,"
+                   + " pending_cache_size = c.pending_cache_size + excluded.pending_cache_size", nativeQuery = true)
+    int reconcileCounters();
 }
@@ -0,0 +1,237 @@
+-- Counters of each storage location, kept up to date by triggers in the transaction that modifies file references or
+-- requests. Each storage location has up to 16 counter slots and a transaction always updates the slot of its own
+-- transaction id, so that concurrent transactions on the same storage location do not wait for each other.
+-- Counters of a storage location are the sum of its slots.
+create table t_storage_location_counter
+(
+    storage            varchar(128) not null,
+    slot               int4         not null,
+    nb_ref_files       int8         not null default 0,
+    total_size         int8         not null default 0,
+    nb_pending_files   int8         not null default 0,
+    nb_storage_errors  int8         not null default 0,
+    nb_deletion_errors int8         not null default 0,
+    primary key (storage, slot)
+);
+
+create or replace function storage_location_counter_slot() returns int4
+    language sql
+    volatile
+as
+$$
+select cast(txid_current() % 16 as int4)
+$$;
+
+-- File references : number of files, total size and number of files with a pending action remaining
+create or replace function t_file_reference_counters() returns trigger
+    language plpgsql
+    set search_path from current
+as
+$$
+begin
+    if (TG_OP = 'INSERT') then
+        insert into t_storage_location_counter as c (storage, slot, nb_ref_files, total_size, nb_pending_files)
+        select storage, storage_location_counter_slot(), count(*), sum(coalesce(filesize, 0)),
+               count(*) filter (where pending)
+        from new_rows
+        where storage is not null
+        group by storage
+        order by storage
+        on conflict (storage, slot) do update set nb_ref_files     = c.nb_ref_files + excluded.nb_ref_files,
+                                                  total_size       = c.total_size + excluded.total_size,
+                                                  nb_pending_files = c.nb_pending_files + excluded.nb_pending_files;
+    elsif (TG_OP = 'DELETE') then
+        insert into t_storage_location_counter as c (storage, slot, nb_ref_files, total_size, nb_pending_files)
+        select storage, storage_location_counter_slot(), -count(*), -sum(coalesce(filesize, 0)),
+               -count(*) filter (where pending)
+        from old_rows
+        where storage is not null
+        group by storage
+        order by storage
+        on conflict (storage, slot) do update set nb_ref_files     = c.nb_ref_files + excluded.nb_ref_files,
+                                                  total_size       = c.total_size + excluded.total_size,
+                                                  nb_pending_files = c.nb_pending_files + excluded.nb_pending_files;
+    else
+        insert into t_storage_location_counter as c (storage, slot, nb_ref_files, total_size, nb_pending_files)
+        select storage, storage_location_counter_slot(), sum(nb_files), sum(file_size), sum(nb_pending)
+        from (select storage, 1 as nb_files, coalesce(filesize, 0) as file_size,
+                     case when pending then 1 else 0 end as nb_pending
+              from new_rows
+              union all
+              select storage, -1, -coalesce(filesize, 0), case when pending then -1 else 0 end
+              from old_rows) as deltas
+        where storage is not null
+        group by storage
+        having sum(nb_files) <> 0 or sum(file_size) <> 0 or sum(nb_pending) <> 0
+        order by storage
+        on conflict (storage, slot) do update set nb_ref_files     = c.nb_ref_files + excluded.nb_ref_files,
+                                                  total_size       = c.total_size + excluded.total_size,
+                                                  nb_pending_files = c.nb_pending_files + excluded.nb_pending_files;
+    end if;
+    return null;
+end;
+$$;
+
+create trigger t_file_reference_counters_insert
+    after insert on t_file_reference referencing new table as new_rows
+    for each statement execute function t_file_reference_counters();
+create trigger t_file_reference_counters_update
+    after update on t_file_reference referencing old table as old_rows new table as new_rows
+    for each statement execute function t_file_reference_counters();
+create trigger t_file_reference_counters_delete
+    after delete on t_file_reference referencing old table as old_rows
+    for each statement execute function t_file_reference_counters();
+
+-- Storage requests : number of requests in error
+create or replace function t_file_storage_request_counters() returns trigger
+    language plpgsql
+    set search_path from current
+as
+$$
+begin
+    if (TG_OP = 'INSERT') then
+        insert into t_storage_location_counter as c (storage, slot, nb_storage_errors)
+        select storage, storage_location_counter_slot(), count(*)
+        from new_rows
+        where storage is not null and status = 'ERROR'
+        group by storage
+        order by storage
+        on conflict (storage, slot) do update set nb_storage_errors = c.nb_storage_errors + excluded.nb_storage_errors;
+    elsif (TG_OP = 'DELETE') then
+        insert into t_storage_location_counter as c (storage, slot, nb_storage_errors)
+        select storage, storage_location_counter_slot(), -count(*)
+        from old_rows
+        where storage is not null and status = 'ERROR'
+        group by storage
+        order by storage
+        on conflict (storage, slot) do update set nb_storage_errors = c.nb_storage_errors + excluded.nb_storage_errors;
+    else
+        insert into t_storage_location_counter as c (storage, slot, nb_storage_errors)
+        select storage, storage_location_counter_slot(), sum(nb_errors)
+        from (select storage, 1 as nb_errors from new_rows where status = 'ERROR'
+              union all
+              select storage, -1 from old_rows where status = 'ERROR') as deltas
+        where storage is not null
+        group by storage
+        having sum(nb_errors) <> 0
+        order by storage
+        on conflict (storage, slot) do update set nb_storage_errors = c.nb_storage_errors + excluded.nb_storage_errors;
+    end if;
+    return null;
+end;
+$$;
+
+create trigger t_file_storage_request_counters_insert
+    after insert on t_file_storage_request referencing new table as new_rows
+    for each statement execute function t_file_storage_request_counters();
+create trigger t_file_storage_request_counters_update
+    after update on t_file_storage_request referencing old table as old_rows new table as new_rows
+    for each statement execute function t_file_storage_request_counters();
+create trigger t_file_storage_request_counters_delete
+    after delete on t_file_storage_request referencing old table as old_rows
+    for each statement execute function t_file_storage_request_counters();
+
+-- Deletion requests : number of requests in error
+create or replace function t_file_deletion_request_counters() returns trigger
+    language plpgsql
+    set search_path from current
+as
+$$
+begin
+    if (TG_OP = 'INSERT') then
+        insert into t_storage_location_counter as c (storage, slot, nb_deletion_errors)
+        select storage, storage_location_counter_slot(), count(*)
+        from new_rows
+        where status = 'ERROR'
+        group by storage
+        order by storage
+        on conflict (storage, slot) do update set nb_deletion_errors = c.nb_deletion_errors + excluded.nb_deletion_errors;
+    elsif (TG_OP = 'DELETE') then
+        insert into t_storage_location_counter as c (storage, slot, nb_deletion_errors)
+        select storage, storage_location_counter_slot(), -count(*)
+        from old_rows
+        where status = 'ERROR'
+        group by storage
+        order by storage
+        on conflict (storage, slot) do update set nb_deletion_errors = c.nb_deletion_errors + excluded.nb_deletion_errors;
+    else
+        insert into t_storage_location_counter as c (storage, slot, nb_deletion_errors)
+        select storage, storage_location_counter_slot(), sum(nb_errors)
+        from (select storage, 1 as nb_errors from new_rows where status = 'ERROR'
+              union all
+              select storage, -1 from old_rows where status = 'ERROR') as deltas
+        group by storage
+        having sum(nb_errors) <> 0
+        order by storage
+        on conflict (storage, slot) do update set nb_deletion_errors = c.nb_deletion_errors + excluded.nb_deletion_errors;
+    end if;
+    return null;
+end;
+$$;
+
+create trigger t_file_deletion_request_counters_insert
+    after insert on t_file_deletion_request referencing new table as new_rows
+    for each statement execute function t_file_deletion_request_counters();
+create trigger t_file_deletion_request_counters_update
+    after update on t_file_deletion_request referencing old table as old_rows new table as new_rows
+    for each statement execute function t_file_deletion_request_counters();
+create trigger t_file_deletion_request_counters_delete
+    after delete on t_file_deletion_request referencing old table as old_rows
+    for each statement execute function t_file_deletion_request_counters();
+
+-- Difference between the exact values computed from file references and requests and the counters, for each storage
+-- location with at least one wrong counter. Everything is read from the same snapshot.
+create or replace function storage_location_counter_drifts()
+    returns table
+            (
+                storage            varchar,
+                nb_ref_files       int8,
+                total_size         int8,
+                nb_pending_files   int8,
+                nb_storage_errors  int8,
+                nb_deletion_errors int8
+            )
+    language sql
+    stable
+    set search_path from current
+as
+$$
+select counts.storage,
+       cast(sum(counts.nb_ref_files) as int8),
+       cast(sum(counts.total_size) as int8),
+       cast(sum(counts.nb_pending_files) as int8),
+       cast(sum(counts.nb_storage_errors) as int8),
+       cast(sum(counts.nb_deletion_errors) as int8)
+from (select fr.storage, count(*) as nb_ref_files, sum(coalesce(fr.filesize, 0)) as total_size,
+             count(*) filter (where fr.pending) as nb_pending_files, 0 as nb_storage_errors, 0 as nb_deletion_errors
+      from t_file_reference fr
+      where fr.storage is not null
+      group by fr.storage
+      union all
+      select sr.storage, 0, 0, 0, count(*), 0
+      from t_file_storage_request sr
+      where sr.storage is not null and sr.status = 'ERROR'
+      group by sr.storage
+      union all
+      select dr.storage, 0, 0, 0, 0, count(*)
+      from t_file_deletion_request dr
+      where dr.status = 'ERROR'
+      group by dr.storage
+      union all
+      select c.storage, -c.nb_ref_files, -c.total_size, -c.nb_pending_files, -c.nb_storage_errors,
+             -c.nb_deletion_errors
+      from t_storage_location_counter c) as counts
+group by counts.storage
+having sum(counts.nb_ref_files) <> 0
+    or sum(counts.total_size) <> 0
+    or sum(counts.nb_pending_files) <> 0
+    or sum(counts.nb_storage_errors) <> 0
+    or sum(counts.nb_deletion_errors) <> 0
+$$;
+
+-- Initialize counters with existing file references and requests
+insert into t_storage_location_counter (storage, slot, nb_ref_files, total_size, nb_pending_files,
+                                        nb_storage_errors, nb_deletion_errors)
+select storage, 0, nb_ref_files, total_size, nb_pending_files, nb_storage_errors, nb_deletion_errors
+from storage_location_counter_drifts();
+
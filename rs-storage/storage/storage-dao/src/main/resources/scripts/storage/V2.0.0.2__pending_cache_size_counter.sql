@@ -0,0 +1,119 @@
+-- Size of the files being restored in cache (cache requests in PENDING status) for each storage location, kept up to
+-- date like the other storage location counters.
+alter table t_storage_location_counter
+    add column pending_cache_size int8 not null default 0;
+
+create or replace function t_file_cache_request_counters() returns trigger
+    language plpgsql
+    set search_path from current
+as
+$$
+begin
+    if (TG_OP = 'INSERT') then
+        insert into t_storage_location_counter as c (storage, slot, pending_cache_size)
+        select storage, storage_location_counter_slot(), sum(file_size)
+        from new_rows
+        where status = 'PENDING'
+        group by storage
+        order by storage
+        on conflict (storage, slot) do update set pending_cache_size = c.pending_cache_size + excluded.pending_cache_size;
+    elsif (TG_OP = 'DELETE') then
+        insert into t_storage_location_counter as c (storage, slot, pending_cache_size)
+        select storage, storage_location_counter_slot(), -sum(file_size)
+        from old_rows
+        where status = 'PENDING'
+        group by storage
+        order by storage
+        on conflict (storage, slot) do update set pending_cache_size = c.pending_cache_size + excluded.pending_cache_size;
+    else
+        insert into t_storage_location_counter as c (storage, slot, pending_cache_size)
+        select storage, storage_location_counter_slot(), sum(file_size)
+        from (select storage, file_size from new_rows where status = 'PENDING'
+              union all
+              select storage, -file_size from old_rows where status = 'PENDING') as deltas
+        group by storage
+        having sum(file_size) <> 0
+        order by storage
+        on conflict (storage, slot) do update set pending_cache_size = c.pending_cache_size + excluded.pending_cache_size;
+    end if;
+    return null;
+end;
+$$;
+
+create trigger t_file_cache_request_counters_insert
+    after insert on t_file_cache_request referencing new table as new_rows
+    for each statement execute function t_file_cache_request_counters();
+create trigger t_file_cache_request_counters_update
+    after update on t_file_cache_request referencing old table as old_rows new table as new_rows
+    for each statement execute function t_file_cache_request_counters();
+create trigger t_file_cache_request_counters_delete
+    after delete on t_file_cache_request referencing old table as old_rows
+    for each statement execute function t_file_cache_request_counters();
+
+-- Result type changes, the function must be dropped first
+drop function storage_location_counter_drifts();
+
+create function storage_location_counter_drifts()
+    returns table
+            (
+                storage            varchar,
+                nb_ref_files       int8,
+                total_size         int8,
+                nb_pending_files   int8,
+                nb_storage_errors  int8,
+                nb_deletion_errors int8,
+                pending_cache_size int8
+            )
+    language sql
+    stable
+    set search_path from current
+as
+$$
+select counts.storage,
+       cast(sum(counts.nb_ref_files) as int8),
+       cast(sum(counts.total_size) as int8),
+       cast(sum(counts.nb_pending_files) as int8),
+       cast(sum(counts.nb_storage_errors) as int8),
+       cast(sum(counts.nb_deletion_errors) as int8),
+       cast(sum(counts.pending_cache_size) as int8)
+from (select fr.storage, count(*) as nb_ref_files, sum(coalesce(fr.filesize, 0)) as total_size,
+             count(*) filter (where fr.pending) as nb_pending_files, 0 as nb_storage_errors, 0 as nb_deletion_errors,
+             0 as pending_cache_size
+      from t_file_reference fr
+      where fr.storage is not null
+      group by fr.storage
+      union all
+      select sr.storage, 0, 0, 0, count(*), 0, 0
+      from t_file_storage_request sr
+      where sr.storage is not null and sr.status = 'ERROR'
+      group by sr.storage
+      union all
+      select dr.storage, 0, 0, 0, 0, count(*), 0
+      from t_file_deletion_request dr
+      where dr.status = 'ERROR'
+      group by dr.storage
+      union all
+      select cr.storage, 0, 0, 0, 0, 0, sum(cr.file_size)
+      from t_file_cache_request cr
+      where cr.status = 'PENDING'
+      group by cr.storage
+      union all
+      select c.storage, -c.nb_ref_files, -c.total_size, -c.nb_pending_files, -c.nb_storage_errors,
+             -c.nb_deletion_errors, -c.pending_cache_size
+      from t_storage_location_counter c) as counts
+group by counts.storage
+having sum(counts.nb_ref_files) <> 0
+    or sum(counts.total_size) <> 0
+    or sum(counts.nb_pending_files) <> 0
+    or sum(counts.nb_storage_errors) <> 0
+    or sum(counts.nb_deletion_errors) <> 0
+    or sum(counts.pending_cache_size) <> 0
+$$;
+
+-- Initialize counters with existing cache requests
+insert into t_storage_location_counter as c (storage, slot, pending_cache_size)
+select storage, 0, sum(file_size)
+from t_file_cache_request
+where status = 'PENDING'
+group by storage
+on conflict (storage, slot) do update set pending_cache_size = c.pending_cache_size + excluded.pending_cache_size;
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.storage.domain.database;
+
+/**
+ * Counters of a storage location, kept up to date by the database in the same transaction as the {@link FileReference}s
+ * and the requests they count.
+ */
+public interface StorageLocationCounters {
+
+    /**
+     * Storage location name
+     */
+    String getStorage();
+
+    /**
+     * Number of {@link FileReference} in the storage location
+     */
+    Long getNumberOfReferencedFiles();
+
+    /**
+     * Total size in bytes of {@link FileReference} in the storage location
+     */
+    Long getTotalSizeOfReferencedFiles();
+
+    /**
+     * Number of {@link FileReference} with a pending action remaining in the storage location
+     */
+    Long getNumberOfPendingFiles();
+
+    /**
+     * Number of storage requests in error for the storage location
+     */
+    Long getNumberOfStorageErrors();
+
+    /**
+     * Number of deletion requests in error for the storage location
+     */
+    Long getNumberOfDeletionErrors();
+
+    /**
+     * Total size in bytes of files of the storage location being restored in cache
+     */
+    Long getPendingCacheSize();
+}
@@ -86,21 +86,6 @@ public class FileReferenceService {
         this.templateService = templateService;
     }
 
-    /**
-     * Calculate the total file size by adding fileSize of each {@link FileReference} with an id over the given id.
-     */
-    public Collection<StorageMonitoringAggregation> aggregateFilesSizePerStorage(Long lastReferencedFileId) {
-        if (lastReferencedFileId != null) {
-            return fileRefRepo.getTotalFileSizeAggregation(lastReferencedFileId);
-        } else {
-            return fileRefRepo.getTotalFileSizeAggregation();
-        }
-    }
-
-    public Collection<StoragePendingFilesAggregation> aggregateFilesPendingPerStorage() {
-        return fileRefRepo.getPendingFilesAggregation();
-    }
-
     /**
      * Creates a new {@link FileReference} with given parameters. this method does not handle physical files.
      * After success, an AMQP message {@link FileReferenceEvent} is sent with STORED state.
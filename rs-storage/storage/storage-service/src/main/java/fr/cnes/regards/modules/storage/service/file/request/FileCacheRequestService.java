@@ -20,6 +20,7 @@ package fr.cnes.regards.modules.storage.service.file.request;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.Sets;
 import fr.cnes.regards.framework.authentication.IAuthenticationResolver;
@@ -97,6 +98,11 @@ public class FileCacheRequestService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FileCacheRequestService.class);
 
+    /**
+     * Max number of identifiers in a single IN clause of bulk searches and updates
+     */
+    private static final int BULK_SEARCH_SIZE = 1000;
+
     /**
      * Static variable to avoid sending notification of cache full event after each request.
      */
@@ -191,75 +197,97 @@ public class FileCacheRequestService {
      * @return {@link FileCacheRequest} created.
      */
     public Optional<FileCacheRequest> create(FileReference fileRefToRestore, int availabilityHours, String groupId) {
-        String checksum = fileRefToRestore.getMetaInfo().getChecksum();
-        Set<FileCacheRequest> existingFileCacheRequests = fileCacheRequestRepository.findByChecksum(checksum);
-
-        FileCacheRequest fileCacheRequest;
-        if (existingFileCacheRequests.isEmpty()) {
-            fileCacheRequest = createAndSaveNewRequest(fileRefToRestore,
-                                                       availabilityHours,
-                                                       groupId,
-                                                       checksum,
-                                                       FileRequestStatus.TO_DO);
-        } else {
-            // If a cache request already exists for this file and it will be eventually processed (TO_DO & DELAYED),
-            // just add the groupId of the new requester so it will be notified when the original request complete.
-            // If the request is PENDING, we need to create a new one because we can't know how far the process
-            // reached (It might already have notified completion).
-            // If the request is in ERROR state, create a new one that will be processed normally.
-            Optional<FileCacheRequest> oExistingFileCacheRequestInToDo = existingFileCacheRequests.stream()
-                                                                                                  .filter(request ->
-                                                                                                              request.getStatus()
-                                                                                                              == FileRequestStatus.TO_DO
-                                                                                                              || request.getStatus()
-                                                                                                                 == FileRequestStatus.DELAYED)
-                                                                                                  .findFirst();
-            if (oExistingFileCacheRequestInToDo.isPresent()) {
-                FileCacheRequest existingFileCacheRequest = oExistingFileCacheRequestInToDo.get();
-                existingFileCacheRequest.getGroupIds().add(groupId);
-                existingFileCacheRequest.setAvailabilityHours(Math.max(availabilityHours,
-                                                                       existingFileCacheRequest.getAvailabilityHours()));
-                // Update in database
-                fileCacheRequest = fileCacheRequestRepository.save(existingFileCacheRequest);
-                LOGGER.trace("A cache request already exists for file {} (checksum {}).",
-                             fileRefToRestore.getMetaInfo().getFileName(),
-                             fileRefToRestore.getMetaInfo().getChecksum());
-            } else if (existingFileCacheRequests.stream()
-                                                .anyMatch(request -> request.getStatus()
-                                                                     == FileRequestStatus.PENDING)) {
-                fileCacheRequest = createAndSaveNewRequest(fileRefToRestore,
-                                                           availabilityHours,
-                                                           groupId,
-                                                           checksum,
-                                                           FileRequestStatus.DELAYED);
+        return create(List.of(fileRefToRestore), availabilityHours, groupId).stream().findFirst();
+    }
 
-            } else {
-                fileCacheRequest = createAndSaveNewRequest(fileRefToRestore,
-                                                           availabilityHours,
-                                                           groupId,
-                                                           checksum,
-                                                           FileRequestStatus.TO_DO);
+    /**
+     * Creates a new {@link FileCacheRequest} for each given file if does not exist already; otherwise update it.
+     * Existing requests of all files are retrieved at once and all requests are saved at once.
+     *
+     * @param filesToRestore    Files that we are asking to be put into the cache
+     * @param availabilityHours Duration at which the cache requests expire
+     * @param groupId           Business identifier of the availability request
+     * @return {@link FileCacheRequest}s created or updated.
+     */
+    public List<FileCacheRequest> create(Collection<FileReference> filesToRestore,
+                                         int availabilityHours,
+                                         String groupId) {
+        Map<String, List<FileCacheRequest>> existingFileCacheRequests = new HashMap<>();
+        for (List<String> checksums : Iterables.partition(filesToRestore.stream()
+                                                                        .map(f -> f.getMetaInfo().getChecksum())
+                                                                        .collect(Collectors.toSet()),
+                                                          BULK_SEARCH_SIZE)) {
+            fileCacheRequestRepository.findByChecksumIn(checksums)
+                                      .forEach(request -> existingFileCacheRequests.computeIfAbsent(request.getChecksum(),
+                                                                                                    cs -> new ArrayList<>())
+                                                                                   .add(request));
+        }
+        // Requests equality relies on their group ids which are updated here, so they are compared by identity
+        Set<FileCacheRequest> fileCacheRequests = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (FileReference fileRefToRestore : filesToRestore) {
+            String checksum = fileRefToRestore.getMetaInfo().getChecksum();
+            List<FileCacheRequest> requests = existingFileCacheRequests.computeIfAbsent(checksum,
+                                                                                        cs -> new ArrayList<>());
+            FileCacheRequest fileCacheRequest = createOrUpdate(fileRefToRestore,
+                                                               availabilityHours,
+                                                               groupId,
+                                                               requests);
+            if (requests.stream().noneMatch(request -> request == fileCacheRequest)) {
+                // Next files with the same checksum will be merged into this new request
+                requests.add(fileCacheRequest);
             }
+            fileCacheRequests.add(fileCacheRequest);
+        }
+        return fileCacheRequestRepository.saveAll(fileCacheRequests);
+    }
+
+    private FileCacheRequest createOrUpdate(FileReference fileRefToRestore,
+                                            int availabilityHours,
+                                            String groupId,
+                                            Collection<FileCacheRequest> existingFileCacheRequests) {
+        String checksum = fileRefToRestore.getMetaInfo().getChecksum();
+        // If a cache request already exists for this file and it will be eventually processed (TO_DO & DELAYED),
+        // just add the groupId of the new requester so it will be notified when the original request complete.
+        // If the request is PENDING, we need to create a new one because we can't know how far the process
+        // reached (It might already have notified completion).
+        // If the request is in ERROR state, create a new one that will be processed normally.
+        Optional<FileCacheRequest> oExistingFileCacheRequestInToDo = existingFileCacheRequests.stream()
+                                                                                              .filter(request ->
+                                                                                                          request.getStatus()
+                                                                                                          == FileRequestStatus.TO_DO
+                                                                                                          || request.getStatus()
+                                                                                                             == FileRequestStatus.DELAYED)
+                                                                                              .findFirst();
+        if (oExistingFileCacheRequestInToDo.isPresent()) {
+            FileCacheRequest existingFileCacheRequest = oExistingFileCacheRequestInToDo.get();
+            existingFileCacheRequest.getGroupIds().add(groupId);
+            existingFileCacheRequest.setAvailabilityHours(Math.max(availabilityHours,
+                                                                   existingFileCacheRequest.getAvailabilityHours()));
+            LOGGER.trace("A cache request already exists for file {} (checksum {}).",
+                         fileRefToRestore.getMetaInfo().getFileName(),
+                         checksum);
+            return existingFileCacheRequest;
+        } else if (existingFileCacheRequests.stream()
+                                            .anyMatch(request -> request.getStatus() == FileRequestStatus.PENDING)) {
+            return createNewRequest(fileRefToRestore, availabilityHours, groupId, checksum, FileRequestStatus.DELAYED);
+        } else {
+            return createNewRequest(fileRefToRestore, availabilityHours, groupId, checksum, FileRequestStatus.TO_DO);
         }
-        return Optional.of(fileCacheRequest);
     }
 
-    private FileCacheRequest createAndSaveNewRequest(FileReference fileRefToRestore,
-                                                     int availabilityHours,
-                                                     String groupId,
-                                                     String checksum,
-                                                     FileRequestStatus status) {
-        FileCacheRequest fileCacheRequest;
-        fileCacheRequest = new FileCacheRequest(fileRefToRestore,
-                                                cacheService.getCacheDirectoryPath(checksum),
-                                                availabilityHours,
-                                                groupId);
+    private FileCacheRequest createNewRequest(FileReference fileRefToRestore,
+                                              int availabilityHours,
+                                              String groupId,
+                                              String checksum,
+                                              FileRequestStatus status) {
+        FileCacheRequest fileCacheRequest = new FileCacheRequest(fileRefToRestore,
+                                                                 cacheService.getCacheDirectoryPath(checksum),
+                                                                 availabilityHours,
+                                                                 groupId);
         fileCacheRequest.setStatus(status);
-        // Save in database
-        fileCacheRequest = fileCacheRequestRepository.save(fileCacheRequest);
         LOGGER.trace("Cache request created for file {} (checksum {}).",
                      fileRefToRestore.getMetaInfo().getFileName(),
-                     fileRefToRestore.getMetaInfo().getChecksum());
+                     checksum);
         return fileCacheRequest;
     }
 
@@ -435,9 +463,19 @@ public class FileCacheRequestService {
                 try {
                     PluginConfiguration conf = pluginService.getPluginConfigurationByLabel(storage);
                     IStorageLocation storagePlugin = pluginService.getPlugin(conf.getBusinessId());
+                    boolean nearline = storagePlugin instanceof INearlineStorageLocation;
+                    if (nearline) {
+                        // Files on the same media are given together to the plugin
+                        requests = RestorationLocality.sortRequests(requests);
+                    }
                     PreparationResponse<FileRestorationWorkingSubset, FileCacheRequestDto> response = storagePlugin.prepareForRestoration(
                         requests.stream().map(FileCacheRequest::toDto).toList());
-                    for (FileRestorationWorkingSubset ws : response.getWorkingSubsets()) {
+                    Collection<FileRestorationWorkingSubset> workingSubsets = response.getWorkingSubsets();
+                    if (nearline) {
+                        // Jobs are queued media after media
+                        workingSubsets = RestorationLocality.sortWorkingSubsets(workingSubsets);
+                    }
+                    for (FileRestorationWorkingSubset ws : workingSubsets) {
                         jobInfoList.add(scheduleJob(ws, conf.getBusinessId()));
                     }
                     // Handle errors
@@ -660,10 +698,14 @@ public class FileCacheRequestService {
                                                                     parameters,
                                                                     authResolver.getUser(),
                                                                     FileCacheRequestJob.class.getName()));
-        workingSubset.getFileRestorationRequests()
-                     .forEach(r -> fileCacheRequestRepository.updateStatusAndJobId(FileRequestStatus.PENDING,
-                                                                                   jobInfo.getId().toString(),
-                                                                                   r.getId()));
+        for (List<Long> ids : Iterables.partition(workingSubset.getFileRestorationRequests()
+                                                               .stream()
+                                                               .map(FileCacheRequestDto::getId)
+                                                               .toList(), BULK_SEARCH_SIZE)) {
+            fileCacheRequestRepository.updateStatusAndJobId(FileRequestStatus.PENDING,
+                                                            jobInfo.getId().toString(),
+                                                            ids);
+        }
         em.flush();
         em.clear();
         return jobInfo;
@@ -686,9 +728,7 @@ public class FileCacheRequestService {
         // Notify available
         notifyAlreadyAvailablesInCache(availables, groupId);
         // Create a restoration request for all to restore
-        for (FileReference f : toRestore) {
-            create(f, availabilityHours, groupId);
-        }
+        create(toRestore, availabilityHours, groupId);
     }
 
     /**
@@ -300,6 +300,27 @@ public class FileReferenceRequestService {
         if (oFileRef.isPresent()) {
             oFileDelReq = fileDeletionRequestService.search(oFileRef.get());
         }
+        return reference(owner, metaInfo, location, groupIds, sessionOwner, session, oFileRef, oFileDelReq);
+    }
+
+    /**
+     * Reference a new file when the existing file reference and its deletion request, if any, have already been
+     * retrieved. Used in bulk handling to avoid requesting them for each file.
+     *
+     * @param existingFileRef         file reference with the same checksum on the same storage, if any
+     * @param existingDeletionRequest deletion request of the existing file reference, if any
+     * @see #reference(String, FileReferenceMetaInfo, FileLocation, Collection, String, String)
+     */
+    @Transactional(noRollbackFor = ModuleException.class)
+    public FileReferenceResult reference(String owner,
+                                         FileReferenceMetaInfo metaInfo,
+                                         FileLocation location,
+                                         Collection<String> groupIds,
+                                         String sessionOwner,
+                                         String session,
+                                         Optional<FileReference> existingFileRef,
+                                         Optional<FileDeletionRequest> existingDeletionRequest)
+        throws ModuleException {
         FileReferenceRequestDto fileRef = FileReferenceRequestDto.build(metaInfo.getFileName(),
                                                                         metaInfo.getChecksum(),
                                                                         metaInfo.getAlgorithm(),
@@ -313,7 +334,12 @@ public class FileReferenceRequestService {
         fileRef.withHeight(metaInfo.getHeight());
         fileRef.withWidth(metaInfo.getWidth());
         fileRef.withType(metaInfo.getType());
-        return reference(fileRef, oFileRef, oFileDelReq, groupIds, false, location.isPendingActionRemaining());
+        return reference(fileRef,
+                         existingFileRef,
+                         existingDeletionRequest,
+                         groupIds,
+                         false,
+                         location.isPendingActionRemaining());
     }
 
     /**
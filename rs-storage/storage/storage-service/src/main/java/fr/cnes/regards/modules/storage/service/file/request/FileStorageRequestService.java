@@ -18,6 +18,7 @@
  */
 package fr.cnes.regards.modules.storage.service.file.request;
 
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import fr.cnes.regards.framework.authentication.IAuthenticationResolver;
@@ -58,6 +59,7 @@ import fr.cnes.regards.modules.storage.domain.database.FileReferenceMetaInfo;
 import fr.cnes.regards.modules.storage.domain.database.request.FileCopyRequest;
 import fr.cnes.regards.modules.storage.domain.database.request.FileDeletionRequest;
 import fr.cnes.regards.modules.storage.domain.database.request.FileStorageRequestAggregation;
+import fr.cnes.regards.modules.storage.domain.database.request.RequestResultInfo;
 import fr.cnes.regards.modules.storage.service.StorageJobsPriority;
 import fr.cnes.regards.modules.storage.service.file.FileReferenceEventPublisher;
 import fr.cnes.regards.modules.storage.service.file.FileReferenceService;
@@ -70,6 +72,7 @@ import fr.cnes.regards.modules.templates.service.ITemplateService;
 import freemarker.template.TemplateException;
 import jakarta.annotation.Nullable;
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -108,6 +111,11 @@ public class FileStorageRequestService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FileStorageRequestService.class);
 
+    /**
+     * Max number of identifiers in a single IN clause of bulk searches and deletions
+     */
+    private static final int BULK_SEARCH_SIZE = 1000;
+
     private static final List<FileRequestStatus> STORED_REQUEST_STATUSES = List.of(FileRequestStatus.TO_DO,
                                                                                    FileRequestStatus.ERROR,
                                                                                    FileRequestStatus.PENDING);
@@ -908,14 +916,36 @@ public class FileStorageRequestService {
                      lErrorCause);
     }
 
+    /**
+     * Handle the successful results of a storage job in bulk :
+     * <ul>
+     * <li>existing file references and their deletion requests are retrieved once for all the results,</li>
+     * <li>results of the request groups are saved all at once,</li>
+     * <li>session counters are sent once per session,</li>
+     * <li>handled requests are deleted with a few set based statements.</li>
+     * </ul>
+     */
     public void handleSuccess(Collection<FileStorageRequestResultDto> results) {
         Set<String> files = new HashSet<>();
+        // As the request is rebuilt from the dto, the status information is not available and the request need
+        // to be recovered from the database if the status is needed
+        List<FileStorageRequestAggregation> requests = results.stream()
+                                                              .map(result -> FileStorageRequestAggregation.fromDto(
+                                                                  result.getRequest()))
+                                                              .toList();
+        Map<String, Map<String, FileReference>> existingFileRefs = searchExistingFileReferences(requests);
+        Map<Long, FileDeletionRequest> existingDeletionRequests = searchDeletionRequests(existingFileRefs);
+        List<RequestResultInfo> groupResults = new ArrayList<>();
+        Map<Pair<String, String>, int[]> sessionCounts = new HashMap<>();
+        Set<Long> handledRequestIds = new HashSet<>();
+
+        Iterator<FileStorageRequestAggregation> requestIt = requests.iterator();
         for (FileStorageRequestResultDto result : results) {
+            FileStorageRequestAggregation request = requestIt.next();
             boolean isHandleSuccess = true;
-            // As the request is rebuilt from the dto, the status information is not available and the request need
-            // to be recovered from the database if the status is needed
-            FileStorageRequestAggregation request = FileStorageRequestAggregation.fromDto(result.getRequest());
             FileReferenceMetaInfo reqMetaInfos = request.getMetaInfo();
+            Map<String, FileReference> storageFileRefs = existingFileRefs.computeIfAbsent(request.getStorage(),
+                                                                                          k -> new HashMap<>());
             Set<FileReference> fileRefs = Sets.newHashSet();
             // parameters for session notification
             String sessionOwner = request.getSessionOwner();
@@ -932,6 +962,9 @@ public class FileStorageRequestService {
                     fileMeta.setHeight(reqMetaInfos.getHeight());
                     fileMeta.setWidth(reqMetaInfos.getWidth());
                     fileMeta.setType(reqMetaInfos.getType());
+                    Optional<FileReference> existingFileRef = Optional.ofNullable(storageFileRefs.get(reqMetaInfos.getChecksum()));
+                    Optional<FileDeletionRequest> existingDeletionRequest = existingFileRef.map(fileRef -> existingDeletionRequests.get(
+                        fileRef.getId()));
                     FileReferenceResult fileReferenceResult = fileRefReqService.reference(owner,
                                                                                           fileMeta,
                                                                                           new FileLocation(request.getStorage(),
@@ -939,8 +972,15 @@ public class FileStorageRequestService {
                                                                                                            result.isPendingActionRemaining()),
                                                                                           request.getGroupIds(),
                                                                                           sessionOwner,
-                                                                                          session);
-                    fileRefs.add(fileReferenceResult.getFileReference());
+                                                                                          session,
+                                                                                          existingFileRef,
+                                                                                          existingDeletionRequest);
+                    FileReference fileRef = fileReferenceResult.getFileReference();
+                    fileRefs.add(fileRef);
+                    // Next owners of the same file reuse the new or updated file reference. A not pending deletion
+                    // request has been removed by the reference.
+                    storageFileRefs.put(reqMetaInfos.getChecksum(), fileRef);
+                    existingDeletionRequests.remove(fileRef.getId());
                     if (fileReferenceResult.getStatus() != FileReferenceResultStatusEnum.UNMODIFIED) {
                         // Only increment count of stored files if referenced file is new or updated.
                         // If reference file already exists for the given owner (unmodified), total of stored files already contains this one.
@@ -955,32 +995,41 @@ public class FileStorageRequestService {
 
             for (String groupId : request.getGroupIds()) {
                 for (FileReference fileRef : fileRefs) {
-                    reqGroupService.requestSuccess(groupId,
-                                                   FileRequestType.STORAGE,
-                                                   fileRef.getMetaInfo().getChecksum(),
-                                                   fileRef.getLocation().getStorage(),
-                                                   request.getStorageSubDirectory(),
-                                                   request.getOwners(),
-                                                   fileRef);
+                    RequestResultInfo groupResult = new RequestResultInfo(groupId,
+                                                                          FileRequestType.STORAGE,
+                                                                          fileRef.getMetaInfo().getChecksum(),
+                                                                          fileRef.getLocation().getStorage(),
+                                                                          request.getStorageSubDirectory(),
+                                                                          request.getOwners());
+                    groupResult.setResultFile(fileRef);
+                    groupResults.add(groupResult);
                 }
             }
 
-            // Session handling
-            // decrement the number of running requests
-            this.sessionNotifier.decrementRunningRequests(sessionOwner, session);
-            // notify the number of successful created files
-            this.sessionNotifier.incrementStoredFiles(sessionOwner, session, nbFilesStored);
+            // Session handling : number of running requests to decrement and number of successful created files
+            int[] counts = sessionCounts.computeIfAbsent(Pair.of(sessionOwner, session), k -> new int[2]);
+            counts[0]++;
+            counts[1] += nbFilesStored;
 
             if (result.isNotifyActionRemainingToAdmin()) {
                 files.add(result.getStoredUrl());
             }
 
             // Delete the FileRefRequest as it has been handled
-            if (isHandleSuccess) {
-                delete(request);
+            if (isHandleSuccess && (request.getId() != null)) {
+                handledRequestIds.add(request.getId());
             }
         }
 
+        reqGroupService.requestSuccess(groupResults);
+        sessionCounts.forEach((sessionKey, counts) -> {
+            this.sessionNotifier.decrementRunningRequests(sessionKey.getLeft(), sessionKey.getRight(), counts[0]);
+            this.sessionNotifier.incrementStoredFiles(sessionKey.getLeft(), sessionKey.getRight(), counts[1]);
+        });
+        for (List<Long> handledRequestIdsPage : Iterables.partition(handledRequestIds, BULK_SEARCH_SIZE)) {
+            fileStorageRequestRepo.deleteAllWithCollectionsByIdIn(handledRequestIdsPage);
+        }
+
         if (!files.isEmpty()) {
             notificationClient.notifyRoles(createStorageActionPendingNotification(files),
                                            "Storage not completed",
@@ -1004,6 +1053,45 @@ public class FileStorageRequestService {
         }
     }
 
+    /**
+     * Retrieve with one request by storage the file references matching the checksums of the given requests
+     *
+     * @return existing file references by storage and checksum
+     */
+    private Map<String, Map<String, FileReference>> searchExistingFileReferences(Collection<FileStorageRequestAggregation> requests) {
+        Map<String, Set<String>> checksumsByStorage = requests.stream()
+                                                              .collect(Collectors.groupingBy(FileStorageRequestAggregation::getStorage,
+                                                                                             Collectors.mapping(r -> r.getMetaInfo()
+                                                                                                                      .getChecksum(),
+                                                                                                                Collectors.toSet())));
+        Map<String, Map<String, FileReference>> fileRefs = new HashMap<>();
+        checksumsByStorage.forEach((storage, checksums) -> {
+            Map<String, FileReference> storageFileRefs = new HashMap<>();
+            for (List<String> checksumsPage : Iterables.partition(checksums, BULK_SEARCH_SIZE)) {
+                fileRefService.search(storage, checksumsPage)
+                              .forEach(fileRef -> storageFileRefs.put(fileRef.getMetaInfo().getChecksum(), fileRef));
+            }
+            fileRefs.put(storage, storageFileRefs);
+        });
+        return fileRefs;
+    }
+
+    /**
+     * @return deletion requests of the given file references by file reference id
+     */
+    private Map<Long, FileDeletionRequest> searchDeletionRequests(Map<String, Map<String, FileReference>> fileRefs) {
+        Map<Long, FileDeletionRequest> deletionRequests = new HashMap<>();
+        Set<FileReference> allFileRefs = fileRefs.values()
+                                                 .stream()
+                                                 .flatMap(storageFileRefs -> storageFileRefs.values().stream())
+                                                 .collect(Collectors.toSet());
+        for (List<FileReference> fileRefsPage : Iterables.partition(allFileRefs, BULK_SEARCH_SIZE)) {
+            fileDelReqService.search(new HashSet<>(fileRefsPage))
+                             .forEach(request -> deletionRequests.put(request.getFileReference().getId(), request));
+        }
+        return deletionRequests;
+    }
+
     public void handleError(Collection<FileStorageRequestResultDto> results) {
         for (FileStorageRequestResultDto result : results) {
             handleError(FileStorageRequestAggregation.fromDto(result.getRequest()), result.getErrorCause());
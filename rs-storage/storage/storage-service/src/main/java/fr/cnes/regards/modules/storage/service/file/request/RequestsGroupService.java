@@ -113,6 +113,16 @@ public class RequestsGroupService {
         requestDone(groupId, type, checksum, storage, storePath, owners, fileRef, false, null);
     }
 
+    /**
+     * Handle many request successes at once. Results are saved together and groups are checked as usual by
+     * {@link #checkRequestsGroupsDone()}, so each group still sends a single done event.
+     */
+    public void requestSuccess(Collection<RequestResultInfo> resultInfos) {
+        if (!resultInfos.isEmpty()) {
+            groupReqInfoRepository.saveAll(resultInfos);
+        }
+    }
+
     public void availibilityRequestSuccess(String groupId, String checksum, Collection<String> owners) {
         requestSuccess(groupId, FileRequestType.AVAILABILITY, checksum, null, null, owners, null);
     }
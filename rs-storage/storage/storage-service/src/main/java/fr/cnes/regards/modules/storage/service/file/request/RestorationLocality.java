@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.storage.service.file.request;
+
+import fr.cnes.regards.modules.fileaccess.plugin.domain.FileRestorationWorkingSubset;
+import fr.cnes.regards.modules.fileaccess.plugin.domain.INearlineStorageLocation;
+import fr.cnes.regards.modules.fileaccess.plugin.dto.FileCacheRequestDto;
+import fr.cnes.regards.modules.storage.domain.database.request.FileCacheRequest;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Order restorations from {@link INearlineStorageLocation}s by location of the files, so that files stored on the same
+ * media (same URL prefix : volume, tape, directory...) are restored one after another instead of mounting or seeking
+ * the media again for each file.
+ */
+public final class RestorationLocality {
+
+    private static final Comparator<String> URL_ORDER = Comparator.nullsLast(Comparator.naturalOrder());
+
+    private static final Comparator<FileCacheRequest> REQUEST_ORDER = Comparator.comparing(r -> r.getFileReference()
+                                                                                                  .getLocation()
+                                                                                                  .getUrl(), URL_ORDER);
+
+    private static final Comparator<FileCacheRequestDto> REQUEST_DTO_ORDER = Comparator.comparing(r -> r.getFileReference()
+                                                                                                        .getLocation()
+                                                                                                        .getUrl(),
+                                                                                                  URL_ORDER);
+
+    private RestorationLocality() {
+    }
+
+    /**
+     * @return given requests sorted by location of their file
+     */
+    public static List<FileCacheRequest> sortRequests(Collection<FileCacheRequest> requests) {
+        return requests.stream().sorted(REQUEST_ORDER).toList();
+    }
+
+    /**
+     * @return given working subsets sorted by location of the first file they restore
+     */
+    public static List<FileRestorationWorkingSubset> sortWorkingSubsets(Collection<FileRestorationWorkingSubset> workingSubsets) {
+        return workingSubsets.stream()
+                             .sorted(Comparator.comparing(RestorationLocality::firstRequest,
+                                                          Comparator.nullsLast(REQUEST_DTO_ORDER)))
+                             .toList();
+    }
+
+    private static FileCacheRequestDto firstRequest(FileRestorationWorkingSubset workingSubset) {
+        return workingSubset.getFileRestorationRequests().stream().min(REQUEST_DTO_ORDER).orElse(null);
+    }
+}
@@ -62,6 +62,7 @@ import org.springframework.util.MimeTypeUtils;
 
 import java.time.OffsetDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -135,6 +136,13 @@ public class StorageLocationService {
     @Value("${regards.storage.requests.retry.page:1000}")
     private int pageRetrySize;
 
+    /**
+     * Size of each storage location by tenant when its occupation ratio was last checked by this instance. As
+     * maintenance mode is not persisted, the occupation ratio is checked at the first monitoring after startup, at each
+     * full monitoring and each time the size changes.
+     */
+    private final Map<String, Map<String, Long>> checkedSizesInKo = new ConcurrentHashMap<>();
+
     public Optional<StorageLocation> search(String storage) {
         return storageLocationRepo.findByName(storage);
     }
@@ -142,45 +150,40 @@ public class StorageLocationService {
     public StorageLocationDto getByName(String storageName) throws ModuleException {
         Optional<StorageLocation> oLoc = storageLocationRepo.findByName(storageName);
         Optional<StorageLocationConfiguration> oConf = pLocationConfService.search(storageName);
-        long nbStorageError = storageService.count(storageName, FileRequestStatus.ERROR);
-        long nbDeletionError = deletionReqService.count(storageName, FileRequestStatus.ERROR);
+        StorageLocationCounters counters = storageLocationRepo.findCountersByStorage(storageName).orElse(null);
         boolean deletionRunning = deletionReqService.isDeletionRunning(storageName);
         boolean copyRunning = copyService.isCopyRunning(storageName);
         boolean storageRunning = storageService.isStorageRunning(storageName);
         boolean pendingActionRunning = storageService.isPendingActionRunning(storageName);
         boolean pendingActionRemaining = false;
-        long nbReferencedFiles = 0L;
-        long totalSizeOfReferencedFiles = 0L;
-        long nbPendingFiles = 0L;
+        boolean withFilesInformation = false;
         StorageLocationConfiguration conf = null;
         if (oConf.isPresent() && oLoc.isPresent()) {
             conf = oConf.get();
-            StorageLocation loc = oLoc.get();
-            pendingActionRemaining = loc.getPendingActionRemaining();
-            if (conf.getPluginConfiguration() != null) {
-                nbReferencedFiles = loc.getNumberOfReferencedFiles();
-                totalSizeOfReferencedFiles = loc.getTotalSizeOfReferencedFilesInKo();
-                nbPendingFiles = loc.getNumberOfPendingFiles();
-            }
+            pendingActionRemaining = oLoc.get().getPendingActionRemaining();
+            withFilesInformation = conf.getPluginConfiguration() != null;
         } else if (oConf.isPresent()) {
             conf = oConf.get();
         } else if (oLoc.isPresent()) {
-            StorageLocation loc = oLoc.get();
-            pendingActionRemaining = loc.getPendingActionRemaining();
-            nbReferencedFiles = loc.getNumberOfReferencedFiles();
-            totalSizeOfReferencedFiles = loc.getTotalSizeOfReferencedFilesInKo();
+            pendingActionRemaining = oLoc.get().getPendingActionRemaining();
+            withFilesInformation = true;
         } else {
             throw new EntityNotFoundException(storageName, StorageLocation.class);
         }
-        return StorageLocationDto.build(storageName, conf != null ? conf.toDto() : null)
-                                 .withFilesInformation(nbReferencedFiles, nbPendingFiles, totalSizeOfReferencedFiles)
-                                 .withPendingActionRemaining(pendingActionRemaining)
-                                 .withErrorInformation(nbStorageError, nbDeletionError)
-                                 .withRunningProcessesInformation(storageRunning,
-                                                                  deletionRunning,
-                                                                  copyRunning,
-                                                                  pendingActionRunning)
-                                 .withAllowPhysicalDeletion(pLocationConfService.allowPhysicalDeletion(conf));
+        StorageLocationDto location = StorageLocationDto.build(storageName, conf != null ? conf.toDto() : null);
+        if (withFilesInformation && (counters != null)) {
+            location.withFilesInformation(counters.getNumberOfReferencedFiles(),
+                                          counters.getNumberOfPendingFiles(),
+                                          counters.getTotalSizeOfReferencedFiles() / 1024);
+        }
+        return location.withPendingActionRemaining(pendingActionRemaining)
+                       .withErrorInformation(counters != null ? counters.getNumberOfStorageErrors() : 0L,
+                                             counters != null ? counters.getNumberOfDeletionErrors() : 0L)
+                       .withRunningProcessesInformation(storageRunning,
+                                                        deletionRunning,
+                                                        copyRunning,
+                                                        pendingActionRunning)
+                       .withAllowPhysicalDeletion(pLocationConfService.allowPhysicalDeletion(conf));
     }
 
     /**
@@ -195,58 +198,63 @@ public class StorageLocationService {
                                                                              .stream()
                                                                              .collect(Collectors.toMap(StorageLocation::getName,
                                                                                                        l -> l));
+        // Get counters of all locations at once
+        Map<String, StorageLocationCounters> counters = storageLocationRepo.findAllCounters()
+                                                                           .stream()
+                                                                           .collect(Collectors.toMap(
+                                                                               StorageLocationCounters::getStorage,
+                                                                               c -> c));
         // Get all non monitored locations
         List<StorageLocationConfiguration> confs = pLocationConfService.searchAll();
         // Handle all online storage configured
         for (StorageLocationConfiguration conf : confs) {
-            Long nbStorageError = storageService.count(conf.getName(), FileRequestStatus.ERROR);
-            Long nbDeletionError = deletionReqService.count(conf.getName(), FileRequestStatus.ERROR);
+            StorageLocationCounters counter = counters.get(conf.getName());
+            Long nbStorageError = counter != null ? counter.getNumberOfStorageErrors() : 0L;
+            Long nbDeletionError = counter != null ? counter.getNumberOfDeletionErrors() : 0L;
             boolean deletionRunning = deletionReqService.isDeletionRunning(conf.getName());
             boolean copyRunning = copyService.isCopyRunning(conf.getName());
             boolean storageRunning = storageService.isStorageRunning(conf.getName());
             boolean pendingActionRunning = storageService.isPendingActionRunning(conf.getName());
             StorageLocation monitored = monitoredLocations.get(conf.getName());
+            StorageLocationDto location = StorageLocationDto.build(conf.getName(), conf.toDto());
             if (monitored != null) {
-                locationsDto.add(StorageLocationDto.build(conf.getName(), conf.toDto())
-                                                   .withFilesInformation(monitored.getNumberOfReferencedFiles(),
-                                                                         monitored.getNumberOfPendingFiles(),
-                                                                         monitored.getTotalSizeOfReferencedFilesInKo())
-                                                   .withPendingActionRemaining(monitored.getPendingActionRemaining())
-                                                   .withErrorInformation(nbStorageError, nbDeletionError)
-                                                   .withRunningProcessesInformation(storageRunning,
-                                                                                    deletionRunning,
-                                                                                    copyRunning,
-                                                                                    pendingActionRunning)
-                                                   .withAllowPhysicalDeletion(pLocationConfService.allowPhysicalDeletion(
-                                                       conf)));
+                if (counter != null) {
+                    location.withFilesInformation(counter.getNumberOfReferencedFiles(),
+                                                  counter.getNumberOfPendingFiles(),
+                                                  counter.getTotalSizeOfReferencedFiles() / 1024);
+                }
+                location.withPendingActionRemaining(monitored.getPendingActionRemaining());
                 monitoredLocations.remove(monitored.getName());
-            } else {
-                locationsDto.add(StorageLocationDto.build(conf.getName(), conf.toDto())
-                                                   .withErrorInformation(nbStorageError, nbDeletionError)
-                                                   .withRunningProcessesInformation(storageRunning,
-                                                                                    deletionRunning,
-                                                                                    copyRunning,
-                                                                                    pendingActionRunning)
-                                                   .withAllowPhysicalDeletion(pLocationConfService.allowPhysicalDeletion(
-                                                       conf)));
             }
+            locationsDto.add(location.withErrorInformation(nbStorageError, nbDeletionError)
+                                     .withRunningProcessesInformation(storageRunning,
+                                                                      deletionRunning,
+                                                                      copyRunning,
+                                                                      pendingActionRunning)
+                                     .withAllowPhysicalDeletion(pLocationConfService.allowPhysicalDeletion(conf)));
         }
         // Handle not configured storage as OFFLINE ones
         for (StorageLocation monitored : monitoredLocations.values()) {
             long nbStorageError = 0L;
             long nbDeletionError = 0L;
             StorageLocationConfiguration conf = new StorageLocationConfiguration(monitored.getName(), null, null);
-            locationsDto.add(StorageLocationDto.build(monitored.getName(), conf.toDto())
-                                               .withFilesInformation(monitored.getNumberOfReferencedFiles(),
-                                                                     monitored.getNumberOfPendingFiles(),
-                                                                     monitored.getTotalSizeOfReferencedFilesInKo())
-                                               .withErrorInformation(nbStorageError, nbDeletionError));
+            StorageLocationDto location = StorageLocationDto.build(monitored.getName(), conf.toDto());
+            StorageLocationCounters counter = counters.get(monitored.getName());
+            if (counter != null) {
+                location.withFilesInformation(counter.getNumberOfReferencedFiles(),
+                                              counter.getNumberOfPendingFiles(),
+                                              counter.getTotalSizeOfReferencedFiles() / 1024);
+            }
+            locationsDto.add(location.withErrorInformation(nbStorageError, nbDeletionError));
         }
         return locationsDto;
     }
 
     /**
-     * Monitor all storage locations to calculate information about stored files.
+     * Monitor all storage locations to update their information about stored files from their counters and to check
+     * their occupation ratio.
+     *
+     * @param reset if true, counters are first checked against file references and requests and corrected if needed.
      */
     public void monitorStorageLocations(Boolean reset) {
         LOGGER.trace("Starting locations monitor process (reset={})", reset.toString());
@@ -257,77 +265,48 @@ public class StorageLocationService {
                                                                                                  null,
                                                                                                  null,
                                                                                                  null));
-        if (reset && (storageMonitoring.getId() != null)) {
-            storageMonitoringRepo.delete(storageMonitoring);
-            storageLocationRepo.resetAll(monitoringDate);
-            storageMonitoring = new StorageMonitoring(true, null, null, null);
-        }
         storageMonitoring.setRunning(true);
         storageMonitoringRepo.save(storageMonitoring);
 
-        // lets ask the data base to calculate the used space per data storage
         long start = System.currentTimeMillis();
-        Collection<StorageMonitoringAggregation> aggregations = fileReferenceService.aggregateFilesSizePerStorage(
-            storageMonitoring.getLastFileReferenceIdMonitored());
-        LOGGER.trace("Aggregation calcul done (reset={})", reset);
-        List<String> storages = aggregations.stream()
-                                            .map(StorageMonitoringAggregation::getStorage)
-                                            .collect(Collectors.toList());
-        for (StorageMonitoringAggregation agg : aggregations) {
-            // Retrieve associated storage info if exists
-            Optional<StorageLocation> oStorage = storageLocationRepo.findByName(agg.getStorage());
-            StorageLocation storage = oStorage.orElse(new StorageLocation(agg.getStorage()));
-            storage.setLastUpdateDate(monitoringDate);
-            storage.setTotalSizeOfReferencedFilesInKo(storage.getTotalSizeOfReferencedFilesInKo() + (agg.getUsedSize()
-                                                                                                     / 1024));
-            storage.setNumberOfReferencedFiles(storage.getNumberOfReferencedFiles() + agg.getNumberOfFileReference());
-
-            if ((storageMonitoring.getLastFileReferenceIdMonitored() == null)
-                || (storageMonitoring.getLastFileReferenceIdMonitored() < agg.getLastFileReferenceId())) {
-                storageMonitoring.setLastFileReferenceIdMonitored(agg.getLastFileReferenceId());
+        if (reset) {
+            reconcileCounters();
+        }
+        Map<String, Long> checkedSizes = checkedSizesInKo.computeIfAbsent(runtimeTenantResolver.getTenant(),
+                                                                          tenant -> new ConcurrentHashMap<>());
+        Map<String, StorageLocation> locations = storageLocationRepo.findAll()
+                                                                    .stream()
+                                                                    .collect(Collectors.toMap(StorageLocation::getName,
+                                                                                              l -> l));
+        for (StorageLocationCounters counters : storageLocationRepo.findAllCounters()) {
+            StorageLocation storage = locations.remove(counters.getStorage());
+            if ((storage == null) && (counters.getNumberOfReferencedFiles() == 0L)) {
+                // Do not create a location for a storage without any file
+                continue;
             }
+            if (storage == null) {
+                storage = new StorageLocation(counters.getStorage());
+            }
+            storage.setLastUpdateDate(monitoringDate);
+            storage.setTotalSizeOfReferencedFilesInKo(counters.getTotalSizeOfReferencedFiles() / 1024);
+            storage.setNumberOfReferencedFiles(counters.getNumberOfReferencedFiles());
+            storage.setNumberOfPendingFiles(counters.getNumberOfPendingFiles());
             storageLocationRepo.save(storage);
-
-            // Check for occupation ratio limit reached
-            Optional<StorageLocationConfiguration> conf = pLocationConfService.search(agg.getStorage());
-            if (conf.isPresent() && (conf.get().getAllocatedSizeInKo() != null) && (conf.get().getAllocatedSizeInKo()
-                                                                                    > 0L)) {
-                Double ratio = (Double.valueOf(storage.getTotalSizeOfReferencedFilesInKo()) / (conf.get()
-                                                                                                   .getAllocatedSizeInKo()))
-                               * 100;
-                if (ratio >= criticalThreshold) {
-                    String message = String.format(
-                        "Storage location %s has reach its disk usage critical threshold. %nActual occupation: %.2f%%, critical threshold: %s%%",
-                        storage.getName(),
-                        ratio,
-                        criticalThreshold);
-                    LOGGER.error(message);
-                    notifyAdmins(String.format("Data storage %s is full", storage.getName()),
-                                 message,
-                                 NotificationLevel.ERROR,
-                                 MimeTypeUtils.TEXT_PLAIN);
-                    MaintenanceManager.setMaintenance(runtimeTenantResolver.getTenant());
-                } else if (ratio >= threshold) {
-                    String message = String.format("Storage location %s has reach its "
-                                                   + "disk usage threshold. %nActual occupation: %.2f%%, threshold: %s%%",
-                                                   storage.getName(),
-                                                   ratio,
-                                                   criticalThreshold);
-                    LOGGER.warn(message);
-                    notifyAdmins(String.format("Data storage %s is almost full", storage.getName()),
-                                 message,
-                                 NotificationLevel.WARNING,
-                                 MimeTypeUtils.TEXT_PLAIN);
-                } else {
-                    LOGGER.trace("Storage location {} monitoring done with no warnings.", storage.getName());
-                }
-            } else {
-                LOGGER.warn(
-                    "[STORAGE LOCATION] Ratio calculation for {} storage disabled cause storage allowed size is not configured.",
-                    storage.getName());
+            // Do not notify again at each monitoring while the occupation does not change
+            Long checkedSizeInKo = checkedSizes.put(storage.getName(), storage.getTotalSizeOfReferencedFilesInKo());
+            if (reset || !Objects.equals(storage.getTotalSizeOfReferencedFilesInKo(), checkedSizeInKo)) {
+                checkOccupationRatio(storage);
             }
         }
-        monitorPendingFiles();
+        // Locations without counters do not reference any file anymore
+        for (StorageLocation storage : locations.values()) {
+            checkedSizes.remove(storage.getName());
+            storage.setLastUpdateDate(monitoringDate);
+            storage.setTotalSizeOfReferencedFilesInKo(0L);
+            storage.setNumberOfReferencedFiles(0L);
+            storage.setNumberOfPendingFiles(0L);
+            storageLocationRepo.save(storage);
+        }
         long finish = System.currentTimeMillis();
         storageMonitoring.setLastMonitoringDuration(finish - start);
         storageMonitoring.setLastMonitoringDate(monitoringDate);
@@ -335,20 +314,84 @@ public class StorageLocationService {
         storageMonitoringRepo.save(storageMonitoring);
     }
 
-    private void monitorPendingFiles() {
+    /**
+     * Check that storage location counters are exact by comparing them to file references and requests. Counters with
+     * differences are corrected and administrators are notified as it should never happen.
+     */
+    private void reconcileCounters() {
         long start = System.currentTimeMillis();
-        LOGGER.debug("Start monitoring storage pending files ...");
-        Collection<StoragePendingFilesAggregation> pendingAggregations = fileReferenceService.aggregateFilesPendingPerStorage();
-        storageLocationRepo.findAll().forEach(loc -> {
-            Long numberOfPending = pendingAggregations.stream()
-                                                      .filter(pa -> pa.getStorage().equals(loc.getName()))
-                                                      .map(StoragePendingFilesAggregation::getNumberOfPendingReferences)
-                                                      .findFirst()
-                                                      .orElse(0L);
-            loc.setNumberOfPendingFiles(numberOfPending);
-            storageLocationRepo.save(loc);
-        });
-        LOGGER.debug("Monitoring of storage pending files done in {}ms", System.currentTimeMillis() - start);
+        List<StorageLocationCounters> drifts = storageLocationRepo.findCounterDrifts();
+        if (drifts.isEmpty()) {
+            LOGGER.info("[STORAGE LOCATION] Counters of all storage locations are exact (checked in {}ms)",
+                        System.currentTimeMillis() - start);
+        } else {
+            String message = drifts.stream()
+                                   .map(drift -> String.format(
+                                       "%s: files %+d, size %+d bytes, pending files %+d, storage errors %+d, deletion errors %+d, "
+                                       + "size in restoration %+d bytes",
+                                       drift.getStorage(),
+                                       drift.getNumberOfReferencedFiles(),
+                                       drift.getTotalSizeOfReferencedFiles(),
+                                       drift.getNumberOfPendingFiles(),
+                                       drift.getNumberOfStorageErrors(),
+                                       drift.getNumberOfDeletionErrors(),
+                                       drift.getPendingCacheSize()))
+                                   .collect(Collectors.joining("\n",
+                                                               "Counters of storage locations have been corrected:\n",
+                                                               ""));
+            int corrected = storageLocationRepo.reconcileCounters();
+            LOGGER.warn("[STORAGE LOCATION] {} (corrected {} storage locations in {}ms)",
+                        message,
+                        corrected,
+                        System.currentTimeMillis() - start);
+            notifyAdmins("Storage location counters corrected",
+                         message,
+                         NotificationLevel.WARNING,
+                         MimeTypeUtils.TEXT_PLAIN);
+        }
+    }
+
+    /**
+     * Check for occupation ratio limit reached
+     */
+    private void checkOccupationRatio(StorageLocation storage) {
+        Optional<StorageLocationConfiguration> conf = pLocationConfService.search(storage.getName());
+        if (conf.isPresent() && (conf.get().getAllocatedSizeInKo() != null) && (conf.get().getAllocatedSizeInKo()
+                                                                                > 0L)) {
+            Double ratio = (Double.valueOf(storage.getTotalSizeOfReferencedFilesInKo()) / (conf.get()
+                                                                                               .getAllocatedSizeInKo()))
+                           * 100;
+            if (ratio >= criticalThreshold) {
+                String message = String.format(
+                    "Storage location %s has reach its disk usage critical threshold. %nActual occupation: %.2f%%, critical threshold: %s%%",
+                    storage.getName(),
+                    ratio,
+                    criticalThreshold);
+                LOGGER.error(message);
+                notifyAdmins(String.format("Data storage %s is full", storage.getName()),
+                             message,
+                             NotificationLevel.ERROR,
+                             MimeTypeUtils.TEXT_PLAIN);
+                MaintenanceManager.setMaintenance(runtimeTenantResolver.getTenant());
+            } else if (ratio >= threshold) {
+                String message = String.format("Storage location %s has reach its "
+                                               + "disk usage threshold. %nActual occupation: %.2f%%, threshold: %s%%",
+                                               storage.getName(),
+                                               ratio,
+                                               criticalThreshold);
+                LOGGER.warn(message);
+                notifyAdmins(String.format("Data storage %s is almost full", storage.getName()),
+                             message,
+                             NotificationLevel.WARNING,
+                             MimeTypeUtils.TEXT_PLAIN);
+            } else {
+                LOGGER.trace("Storage location {} monitoring done with no warnings.", storage.getName());
+            }
+        } else {
+            LOGGER.warn(
+                "[STORAGE LOCATION] Ratio calculation for {} storage disabled cause storage allowed size is not configured.",
+                storage.getName());
+        }
     }
 
     private void notifyAdmins(String title, String message, NotificationLevel type, MimeType mimeType) {
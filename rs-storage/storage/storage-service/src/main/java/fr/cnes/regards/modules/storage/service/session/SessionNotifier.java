@@ -99,6 +99,10 @@ public class SessionNotifier {
         decrementCount(sessionOwner, session, SessionNotifierPropertyEnum.REQUESTS_RUNNING, 1);
     }
 
+    public void decrementRunningRequests(String sessionOwner, String session, int nbProducts) {
+        decrementCount(sessionOwner, session, SessionNotifierPropertyEnum.REQUESTS_RUNNING, nbProducts);
+    }
+
     // refused requests
     public void incrementDeniedRequests(String sessionOwner, String session) {
         incrementCount(sessionOwner, session, SessionNotifierPropertyEnum.REQUESTS_REFUSED, 1);
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.storage.service.file.handler.performance;
+
+import com.google.common.collect.Lists;
+import fr.cnes.regards.framework.module.rest.exception.ModuleException;
+import fr.cnes.regards.framework.test.integration.RandomChecksumUtils;
+import fr.cnes.regards.modules.fileaccess.dto.FileRequestStatus;
+import fr.cnes.regards.modules.fileaccess.dto.request.FileStorageRequestResultDto;
+import fr.cnes.regards.modules.storage.domain.database.FileReferenceMetaInfo;
+import fr.cnes.regards.modules.storage.domain.database.request.FileStorageRequestAggregation;
+import fr.cnes.regards.modules.storage.service.AbstractStorageIT;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Performances tests for the handling of successful storage results of a storage job.
+ */
+@ActiveProfiles({ "noscheduler" })
+@TestPropertySource(properties = { "spring.jpa.show-sql=false",
+                                   "spring.jpa.properties.hibernate.default_schema=storage_result_perf_tests" },
+                    locations = { "classpath:application-test.properties" })
+@Ignore("Performances tests")
+public class FileStorageResultPerformanceIT extends AbstractStorageIT {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileStorageResultPerformanceIT.class);
+
+    private static final int NB_RESULTS = 10_000;
+
+    private static final String SESSION_OWNER = "SOURCE 1";
+
+    private static final String SESSION = "SESSION 1";
+
+    @Before
+    public void initialize() throws ModuleException {
+        Mockito.clearInvocations(publisher);
+        fileStorageRequestRepo.deleteAll();
+        groupRequestInfoRepository.deleteAll();
+        fileDeletionRequestRepo.deleteAll();
+        fileRefRepo.deleteAll();
+        if (!storageLocationConfService.search(ONLINE_CONF_LABEL).isPresent()) {
+            initDataStoragePluginConfiguration(ONLINE_CONF_LABEL, true);
+        }
+        storagePlgConfHandler.refresh();
+        runtimeTenantResolver.forceTenant(getDefaultTenant());
+    }
+
+    @Test
+    public void handle_storage_results() {
+        // Given
+        List<FileStorageRequestResultDto> oneByOneResults = createResults();
+        List<FileStorageRequestResultDto> bulkResults = createResults();
+
+        // When
+        long start = System.currentTimeMillis();
+        for (FileStorageRequestResultDto result : oneByOneResults) {
+            stoReqService.handleSuccess(Lists.newArrayList(result));
+        }
+        long oneByOneDuration = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        stoReqService.handleSuccess(bulkResults);
+        long bulkDuration = System.currentTimeMillis() - start;
+
+        // Then
+        LOGGER.info("{} storage results handled one by one in {}ms", NB_RESULTS, oneByOneDuration);
+        LOGGER.info("{} storage results handled at once in {}ms", NB_RESULTS, bulkDuration);
+        Assert.assertEquals("All handled requests should be deleted", 0, fileStorageRequestRepo.count());
+        Assert.assertEquals("Each result should create a file reference", 2L * NB_RESULTS, fileRefRepo.count());
+        Assert.assertEquals("Each result should be saved for its group",
+                            2L * NB_RESULTS,
+                            groupRequestInfoRepository.count());
+    }
+
+    private List<FileStorageRequestResultDto> createResults() {
+        List<FileStorageRequestResultDto> results = new ArrayList<>(NB_RESULTS);
+        String groupId = UUID.randomUUID().toString();
+        for (int i = 0; i < NB_RESULTS; i++) {
+            String checksum = RandomChecksumUtils.generateRandomChecksum();
+            FileReferenceMetaInfo metaInfo = new FileReferenceMetaInfo(checksum,
+                                                                       "MD5",
+                                                                       "file_" + i + ".test",
+                                                                       10L,
+                                                                       MediaType.APPLICATION_OCTET_STREAM);
+            FileStorageRequestAggregation request = stoReqService.createNewFileStorageRequest(Lists.newArrayList(
+                                                                                                  "owner-" + i),
+                                                                                              metaInfo,
+                                                                                              originUrl,
+                                                                                              ONLINE_CONF_LABEL,
+                                                                                              Optional.empty(),
+                                                                                              groupId,
+                                                                                              Optional.empty(),
+                                                                                              Optional.of(
+                                                                                                  FileRequestStatus.PENDING),
+                                                                                              SESSION_OWNER,
+                                                                                              SESSION);
+            results.add(FileStorageRequestResultDto.build(request.toDto(),
+                                                          "file://target/" + checksum,
+                                                          10L,
+                                                          false,
+                                                          false));
+        }
+        return results;
+    }
+}
@@ -550,6 +550,49 @@ public class FileCacheRequestServiceIT extends AbstractStorageIT {
         verifyAfterStoringFileInternalExternalCache();
     }
 
+    @Test
+    public void createCacheRequestsByBatch() throws InterruptedException, ExecutionException {
+        // Given
+        FileReference fileRef1 = this.generateRandomStoredNearlineFileReference("file-nl-1.test", Optional.empty());
+        FileReference fileRef2 = this.generateRandomStoredNearlineFileReference("file-nl-2.test", Optional.empty());
+        FileReference fileRef3 = this.generateRandomStoredNearlineFileReference("file-nl-3.test", Optional.empty());
+        fileCacheRequestService.create(fileRef1, 24, "originalGroupId");
+        FileCacheRequest pendingRequest = fileCacheRequestService.create(fileRef2, 24, "originalGroupId").get();
+        pendingRequest.setStatus(FileRequestStatus.PENDING);
+        fileCacheRequestRepository.save(pendingRequest);
+
+        // When
+        List<FileCacheRequest> requests = fileCacheRequestService.create(List.of(fileRef1, fileRef2, fileRef3),
+                                                                         48,
+                                                                         "newGroupId");
+
+        // Then
+        Assert.assertEquals("There should be one request for each file", 3, requests.size());
+        Assert.assertEquals("There should be 4 cache requests", 4, fileCacheRequestRepository.count());
+        FileCacheRequest request1 = fileCacheRequestService.search(fileRef1.getMetaInfo().getChecksum())
+                                                           .stream()
+                                                           .findFirst()
+                                                           .orElseThrow();
+        Assert.assertEquals("Existing request should be updated",
+                            Set.of("originalGroupId", "newGroupId"),
+                            request1.getGroupIds());
+        Assert.assertEquals("Longest availability should be kept", 48, request1.getAvailabilityHours());
+        Assert.assertTrue("A delayed request should be created for the file being restored",
+                          fileCacheRequestService.search(fileRef2.getMetaInfo().getChecksum())
+                                                 .stream()
+                                                 .anyMatch(r -> r.getStatus() == FileRequestStatus.DELAYED));
+        Assert.assertEquals("A new request should be created for the new file",
+                            FileRequestStatus.TO_DO,
+                            fileCacheRequestService.search(fileRef3.getMetaInfo().getChecksum())
+                                                   .stream()
+                                                   .findFirst()
+                                                   .orElseThrow()
+                                                   .getStatus());
+        Assert.assertEquals("Pending size should be the size of the pending request",
+                            pendingRequest.getFileSize(),
+                            fileCacheRequestRepository.getPendingFileSize());
+    }
+
     @Test
     public void cacheRequestWithExistingToDo() throws InterruptedException, ExecutionException {
         // Given
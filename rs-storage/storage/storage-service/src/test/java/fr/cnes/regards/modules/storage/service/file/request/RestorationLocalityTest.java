@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.storage.service.file.request;
+
+import fr.cnes.regards.modules.fileaccess.plugin.domain.FileRestorationWorkingSubset;
+import fr.cnes.regards.modules.fileaccess.plugin.dto.FileCacheRequestDto;
+import fr.cnes.regards.modules.storage.domain.database.FileLocation;
+import fr.cnes.regards.modules.storage.domain.database.FileReference;
+import fr.cnes.regards.modules.storage.domain.database.FileReferenceMetaInfo;
+import fr.cnes.regards.modules.storage.domain.database.request.FileCacheRequest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+public class RestorationLocalityTest {
+
+    @Test
+    public void test_sortRequests_by_url_with_null_urls_last() {
+        // Given
+        FileCacheRequest volume2 = createFileCacheRequest("tape://VOL002/file1");
+        FileCacheRequest noUrl = createFileCacheRequest(null);
+        FileCacheRequest volume1File2 = createFileCacheRequest("tape://VOL001/file2");
+        FileCacheRequest volume1File1 = createFileCacheRequest("tape://VOL001/file1");
+
+        // When
+        List<FileCacheRequest> sortedRequests = RestorationLocality.sortRequests(List.of(volume2,
+                                                                                         noUrl,
+                                                                                         volume1File2,
+                                                                                         volume1File1));
+
+        // Then
+        Assert.assertEquals(List.of(volume1File1, volume1File2, volume2, noUrl), sortedRequests);
+    }
+
+    @Test
+    public void test_sortWorkingSubsets_by_first_url() {
+        // Given
+        FileCacheRequestDto volume1 = createFileCacheRequest("tape://VOL001/file1").toDto();
+        FileCacheRequestDto volume2File1 = createFileCacheRequest("tape://VOL002/file1").toDto();
+        FileCacheRequestDto volume2File2 = createFileCacheRequest("tape://VOL002/file2").toDto();
+        FileCacheRequestDto volume3 = createFileCacheRequest("tape://VOL003/file1").toDto();
+        FileCacheRequestDto noUrl = createFileCacheRequest(null).toDto();
+        FileCacheRequestDto otherNoUrl = createFileCacheRequest(null).toDto();
+
+        // Working subset order relies on the smallest url, whatever the order of its requests
+        FileRestorationWorkingSubset volume2Subset = new FileRestorationWorkingSubset(List.of(volume2File2,
+                                                                                              volume2File1));
+        FileRestorationWorkingSubset volume3Subset = new FileRestorationWorkingSubset(List.of(noUrl, volume3));
+        FileRestorationWorkingSubset volume1Subset = new FileRestorationWorkingSubset(List.of(volume1));
+        FileRestorationWorkingSubset noUrlSubset = new FileRestorationWorkingSubset(List.of(otherNoUrl));
+        FileRestorationWorkingSubset emptySubset = new FileRestorationWorkingSubset(List.of());
+
+        // When
+        List<FileRestorationWorkingSubset> sortedSubsets = RestorationLocality.sortWorkingSubsets(List.of(emptySubset,
+                                                                                                        noUrlSubset,
+                                                                                                        volume3Subset,
+                                                                                                        volume2Subset,
+                                                                                                        volume1Subset));
+
+        // Then
+        Assert.assertEquals(List.of(volume1Subset, volume2Subset, volume3Subset, noUrlSubset, emptySubset),
+                            sortedSubsets);
+        // Order of requests inside a working subset is kept
+        Assert.assertEquals(List.of(volume2File2, volume2File1),
+                            List.copyOf(volume2Subset.getFileRestorationRequests()));
+    }
+
+    private FileCacheRequest createFileCacheRequest(String url) {
+        String checksum = UUID.randomUUID().toString();
+        FileReferenceMetaInfo metaInfo = new FileReferenceMetaInfo(checksum,
+                                                                   "MD5",
+                                                                   "file",
+                                                                   1024L,
+                                                                   MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        FileReference fileRef = new FileReference("owner", metaInfo, new FileLocation("tape", url, false));
+        return new FileCacheRequest(fileRef, "/cache/" + checksum, 24, "group");
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2017-2024 CNES - CENTRE NATIONAL d'ETUDES SPATIALES
+ *
+ * This file is part of REGARDS.
+ *
+ * REGARDS is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * REGARDS is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with REGARDS. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fr.cnes.regards.modules.storage.service.file.request.benchmark;
+
+import fr.cnes.regards.modules.fileaccess.dto.request.FileStorageRequestAggregationDto;
+import fr.cnes.regards.modules.fileaccess.plugin.domain.*;
+import fr.cnes.regards.modules.fileaccess.plugin.dto.FileCacheRequestDto;
+import fr.cnes.regards.modules.fileaccess.plugin.dto.FileDeletionRequestDto;
+import fr.cnes.regards.modules.storage.domain.database.FileLocation;
+import fr.cnes.regards.modules.storage.domain.database.FileReference;
+import fr.cnes.regards.modules.storage.domain.database.FileReferenceMetaInfo;
+import fr.cnes.regards.modules.storage.domain.database.request.FileCacheRequest;
+import fr.cnes.regards.modules.storage.service.file.request.RestorationLocality;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.MimeTypeUtils;
+
+import java.net.URL;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * JMH benchmark of the restoration throughput (files per second) of a simulated tape storage location when cache
+ * requests are given to the plugin in request order or ordered by {@link RestorationLocality}.<br/>
+ * Requests are handled by pages of {@link #nbRequestsPerJob} like the cache requests scheduling does, and the simulated
+ * tape drive pays {@link #mountMicros} each time it changes volume.<br/>
+ * Not run by the test phase, launch {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(RestorationLocalityBenchmark.NB_FILES)
+public class RestorationLocalityBenchmark {
+
+    static final int NB_FILES = 1000;
+
+    @Param({ "10" })
+    private int nbVolumes;
+
+    @Param({ "100" })
+    private int nbRequestsPerJob;
+
+    @Param({ "1000" })
+    private int mountMicros;
+
+    @Param({ "20" })
+    private int readMicros;
+
+    /**
+     * Cache requests in creation order, files of all volumes are mixed
+     */
+    private List<FileCacheRequest> requests;
+
+    private SimulatedTapeStorage storage;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        requests = new ArrayList<>();
+        for (int i = 0; i < NB_FILES; i++) {
+            String checksum = String.format("%032d", i);
+            FileReferenceMetaInfo metaInfo = new FileReferenceMetaInfo(checksum,
+                                                                       "MD5",
+                                                                       "file" + i,
+                                                                       1024L,
+                                                                       MimeTypeUtils.APPLICATION_OCTET_STREAM);
+            String url = String.format("tape://VOL%03d/%s", random.nextInt(nbVolumes), checksum);
+            FileReference fileRef = new FileReference("owner", metaInfo, new FileLocation("tape", url, false));
+            requests.add(new FileCacheRequest(fileRef, "/cache/" + checksum, 24, "group"));
+        }
+        storage = new SimulatedTapeStorage(nbRequestsPerJob, mountMicros, readMicros);
+    }
+
+    @Benchmark
+    public int restoreInRequestOrder() {
+        return restore(false);
+    }
+
+    @Benchmark
+    public int restoreInLocalityOrder() {
+        return restore(true);
+    }
+
+    private int restore(boolean localityOrder) {
+        int restored = 0;
+        for (int start = 0; start < requests.size(); start += nbRequestsPerJob) {
+            List<FileCacheRequest> page = requests.subList(start, Math.min(start + nbRequestsPerJob, requests.size()));
+            if (localityOrder) {
+                page = RestorationLocality.sortRequests(page);
+            }
+            Collection<FileRestorationWorkingSubset> workingSubsets = storage.prepareForRestoration(page.stream()
+                                                                                                      .map(
+                                                                                                          FileCacheRequest::toDto)
+                                                                                                      .toList())
+                                                                             .getWorkingSubsets();
+            if (localityOrder) {
+                workingSubsets = RestorationLocality.sortWorkingSubsets(workingSubsets);
+            }
+            CountingProgressManager progressManager = new CountingProgressManager();
+            for (FileRestorationWorkingSubset workingSubset : workingSubsets) {
+                storage.retrieve(workingSubset, progressManager);
+            }
+            restored += progressManager.restored;
+        }
+        return restored;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RestorationLocalityBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * Nearline storage location simulating a single tape drive : changing of volume costs a mount, then each file is
+     * read sequentially.
+     */
+    private static class SimulatedTapeStorage implements INearlineStorageLocation {
+
+        private final int filesPerWorkingSubset;
+
+        private final long mountNanos;
+
+        private final long readNanos;
+
+        private String mountedVolume;
+
+        private SimulatedTapeStorage(int filesPerWorkingSubset, int mountMicros, int readMicros) {
+            this.filesPerWorkingSubset = filesPerWorkingSubset;
+            this.mountNanos = TimeUnit.MICROSECONDS.toNanos(mountMicros);
+            this.readNanos = TimeUnit.MICROSECONDS.toNanos(readMicros);
+        }
+
+        @Override
+        public PreparationResponse<FileRestorationWorkingSubset, FileCacheRequestDto> prepareForRestoration(
+            Collection<FileCacheRequestDto> requests) {
+            List<FileRestorationWorkingSubset> workingSubsets = new ArrayList<>();
+            List<FileCacheRequestDto> subset = new ArrayList<>();
+            for (FileCacheRequestDto request : requests) {
+                subset.add(request);
+                if (subset.size() == filesPerWorkingSubset) {
+                    workingSubsets.add(new FileRestorationWorkingSubset(subset));
+                    subset = new ArrayList<>();
+                }
+            }
+            if (!subset.isEmpty()) {
+                workingSubsets.add(new FileRestorationWorkingSubset(subset));
+            }
+            return PreparationResponse.build(workingSubsets, Collections.emptyMap());
+        }
+
+        @Override
+        public void retrieve(FileRestorationWorkingSubset workingSubset, IRestorationProgressManager progressManager) {
+            for (FileCacheRequestDto request : workingSubset.getFileRestorationRequests()) {
+                String url = request.getFileReference().getLocation().getUrl();
+                String volume = url.substring(0, url.lastIndexOf('/'));
+                if (!volume.equals(mountedVolume)) {
+                    LockSupport.parkNanos(mountNanos);
+                    mountedVolume = volume;
+                }
+                LockSupport.parkNanos(readNanos);
+                progressManager.restoreSucceededInternalCache(request,
+                                                              Path.of(request.getRestorationDirectory(),
+                                                                      request.getChecksum()));
+            }
+        }
+
+        @Override
+        public PreparationResponse<FileStorageWorkingSubset, FileStorageRequestAggregationDto> prepareForStorage(
+            Collection<FileStorageRequestAggregationDto> fileReferenceRequests) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public PreparationResponse<FileDeletionWorkingSubset, FileDeletionRequestDto> prepareForDeletion(
+            Collection<FileDeletionRequestDto> fileDeletionRequests) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void delete(FileDeletionWorkingSubset workingSet, IDeletionProgressManager progressManager) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void store(FileStorageWorkingSubset workingSet, IStorageProgressManager progressManager) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isValidUrl(String urlToValidate, Set<String> errors) {
+            return true;
+        }
+
+        @Override
+        public boolean allowPhysicalDeletion() {
+            return false;
+        }
+    }
+
+    private static class CountingProgressManager implements IRestorationProgressManager {
+
+        private int restored;
+
+        @Override
+        public void restoreSucceededInternalCache(FileCacheRequestDto fileCacheRequest, Path restoredFilePath) {
+            restored++;
+        }
+
+        @Override
+        public void restoreFailed(FileCacheRequestDto fileCacheRequest, String cause) {
+            // Simulated tape never fails
+        }
+
+        @Override
+        public void restoreSucceededExternalCache(FileCacheRequestDto fileCacheRequest,
+                                                  URL restoredFileUrl,
+                                                  Long fileSize,
+                                                  OffsetDateTime expirationDate) {
+            restored++;
+        }
+    }
+}
@@ -20,6 +20,7 @@ package fr.cnes.regards.modules.storage.service.location;
 
 import com.google.common.collect.Sets;
 import fr.cnes.regards.framework.amqp.event.ISubscribable;
+import fr.cnes.regards.framework.microservice.manager.MaintenanceManager;
 import fr.cnes.regards.framework.module.rest.exception.EntityNotFoundException;
 import fr.cnes.regards.framework.module.rest.exception.ModuleException;
 import fr.cnes.regards.framework.modules.jobs.domain.JobInfo;
@@ -326,6 +327,65 @@ public class StorageLocationServiceIT extends AbstractStorageIT {
         }
     }
 
+    @Test
+    @Purpose("Test that storage location counters follow file references and requests without full calculation")
+    public void countersFollowFileReferencesAndRequests() throws ModuleException {
+        String storage = "STAF";
+        FileReference fileRef = createFileReference(storage, 1024L);
+        createFileReference(storage, 1024L);
+        createFileReference(storage, 1024L, true);
+        storageLocationService.monitorStorageLocations(false);
+        StorageLocationDto loc = storageLocationService.getByName(storage);
+        Assert.assertEquals("There should be 3 files referenced", 3L, loc.getNbFilesStored());
+        Assert.assertEquals("The total size should be 3ko", 3L, loc.getTotalStoredFilesSizeKo());
+        Assert.assertEquals("There should be 1 pending file", 1L, loc.getNbFilesStoredWithPendingActionRemaining());
+
+        // Deleted files must be removed from counters without a full calculation
+        fileRefRepo.delete(fileRef);
+        createFileDeletionRequests(2, FileRequestStatus.ERROR, "SOURCE 1", "SESSION 1");
+        loc = storageLocationService.getByName(storage);
+        Assert.assertEquals("There should be 2 files referenced", 2L, loc.getNbFilesStored());
+        Assert.assertEquals("The total size should be 2ko", 2L, loc.getTotalStoredFilesSizeKo());
+        storageLocationService.monitorStorageLocations(false);
+        Assert.assertEquals("Total number of files on STAF storage invalid",
+                            2L,
+                            storageLocationService.search(storage).get().getNumberOfReferencedFiles().longValue());
+        loc = storageLocationService.getByName("LOCAL");
+        Assert.assertEquals("There should be 2 files referenced", 2L, loc.getNbFilesStored());
+        Assert.assertEquals("There should be 2 deletion errors", 2L, loc.getNbDeletionError());
+        Assert.assertEquals("There should be no storage error", 0L, loc.getNbStorageError());
+
+        // Reconciliation must find exact counters
+        Assert.assertTrue("Counters should be exact", storageLocationRepo.findCounterDrifts().isEmpty());
+        storageLocationService.monitorStorageLocations(true);
+        Assert.assertEquals("There should be 2 files referenced",
+                            2L,
+                            storageLocationService.getByName(storage).getNbFilesStored());
+    }
+
+    @Test
+    @Purpose("Test that a location over its critical threshold puts the tenant in maintenance again on full monitoring")
+    public void criticalThresholdCheckedOnFullMonitoring() {
+        String tenant = runtimeTenantResolver.getTenant();
+        try {
+            // Location allocated size is 1 000 000 ko, critical threshold 90%
+            createFileReference(ONLINE_CONF_LABEL, 950_000 * 1024L);
+            storageLocationService.monitorStorageLocations(false);
+            Assert.assertTrue("Tenant should be in maintenance", MaintenanceManager.getMaintenance(tenant));
+
+            // Administrator leaves maintenance, occupation is unchanged so light monitoring does not notify again
+            MaintenanceManager.unSetMaintenance(tenant);
+            storageLocationService.monitorStorageLocations(false);
+            Assert.assertFalse("Tenant should not be in maintenance", MaintenanceManager.getMaintenance(tenant));
+
+            // Full monitoring always checks thresholds
+            storageLocationService.monitorStorageLocations(true);
+            Assert.assertTrue("Tenant should be in maintenance again", MaintenanceManager.getMaintenance(tenant));
+        } finally {
+            MaintenanceManager.unSetMaintenance(tenant);
+        }
+    }
+
     @Test
     @Transactional
     @Purpose("Test if ERROR requests are to be processed after a retry. Check associated events sent.")